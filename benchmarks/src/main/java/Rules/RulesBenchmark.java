@@ -0,0 +1,64 @@
+/**
+ * Measures steps per second for every Rules implementation on every grid type, on the boards in data/ and on boards
+ * tiled from them. Each measurement iteration starts again from the freshly loaded file, so that simulations that die
+ * out or grids that grow do not skew later iterations. Run with -prof gc to also get allocated bytes per step
+ * (gc.alloc.rate.norm).
+ */
+
+package Rules;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Controller.SimulationEngine;
+import XML.BenchmarkScenarios;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class RulesBenchmark {
+	@Param({ "GameOfLifeSt80", "FireSt80", "SegregationSt80", "PredatorPreySt80", "ForagingAntsSt7",
+			"SSMigrationSt10", "SSReproductionSt5" })
+	public String scenario;
+
+	@Param({ "Standard", "Toroidal", "Infinite" })
+	public String gridType;
+
+	@Param({ "1", "8" })
+	public int scale;
+
+	private File myFile;
+	private SimulationEngine myEngine;
+
+	@Setup(Level.Trial)
+	public void createScenario() throws Exception {
+		myFile = BenchmarkScenarios.create(scenario, gridType, scale);
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		myEngine = new SimulationEngine();
+		myEngine.load(BenchmarkScenarios.parse(myFile));
+	}
+
+	@Benchmark
+	public int step() {
+		return myEngine.step();
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Measures how long each board builder takes to paint a frame with displayGridToBoard. The view is set up the way
+ * the Load XML button does it, without showing a window, and the same frame is painted over and over. That frame is the
+ * full one published on loading, so this measures a board drawn from every cell, not from one step's changes.
+ */
+
+package View;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Controller.GridFrame;
+import Controller.Simulation;
+import XML.BenchmarkScenarios;
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.Group;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BoardBuilderBenchmark {
+	@Param({ "GameOfLifeSt80", "ForagingAntsSt7", "SSMigrationSt10" })
+	public String scenario;
+
+	@Param({ "1", "8" })
+	public int scale;
+
+	private BoardBuilder myBuilder;
+	private GridFrame myFrame;
+
+	@Setup(Level.Trial)
+	public void load() throws Exception {
+		File file = BenchmarkScenarios.create(scenario, "Standard", scale);
+		new JFXPanel();
+		CountDownLatch loaded = new CountDownLatch(1);
+		Platform.runLater(() -> {
+			Simulation simulation = new Simulation();
+			CSView view = new CSView(simulation);
+			view.getScene(null);
+			view.loadFile(file);
+			myFrame = simulation.getLatestFrame();
+			myBuilder = view.selectBoardBuilder();
+			myBuilder.displayBoard(new Group(), myFrame);
+			loaded.countDown();
+		});
+		loaded.await();
+	}
+
+	@Benchmark
+	public void displayGridToBoard() {
+		myBuilder.displayGridToBoard(myFrame);
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Scenarios shared by the benchmarks. A scenario is one of the files in data/, optionally moved onto another grid
+ * type and tiled into a larger board: scaling by k repeats the original cells k times across and k times down, so the
+ * larger board has the same density and mix of states as the file it came from.
+ */
+
+package XML;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+public class BenchmarkScenarios {
+	private static final String STANDARD_SUFFIX = "St80";
+	private static final String TOROIDAL_SUFFIX = "Tor80";
+	private static final String TOROIDAL = "Toroidal";
+	private static final String EXTENSION = ".xml";
+
+	private BenchmarkScenarios() {
+	}
+
+	/**
+	 * Gets the file for a scenario, writing a temporary file if the scenario is not one of the files in data/ as is.
+	 * A Toroidal scenario based on a *St80 file uses the matching *Tor80 file when there is one.
+	 * @param name: name of a file in data/, without the extension.
+	 * @param gridType: grid type to run on.
+	 * @param scale: number of copies of the original board across and down.
+	 * @return the scenario file.
+	 */
+	public static File create(String name, String gridType, int scale)
+			throws IOException, ParserConfigurationException, SAXException, TransformerException {
+		File file = new File(getDataDirectory(), name + EXTENSION);
+		if (gridType.equals(TOROIDAL) && name.endsWith(STANDARD_SUFFIX)) {
+			String toroidalName = name.substring(0, name.length() - STANDARD_SUFFIX.length()) + TOROIDAL_SUFFIX;
+			File toroidal = new File(getDataDirectory(), toroidalName + EXTENSION);
+			if (toroidal.exists()) {
+				file = toroidal;
+			}
+		}
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+		Element config = firstElement(document.getDocumentElement(), "Config");
+		Element rows = nthChildElement(config, 0);
+		Element cols = nthChildElement(config, 1);
+		Element type = nthChildElement(config, 2);
+		if (scale == 1 && type.getTextContent().equals(gridType)) {
+			return file;
+		}
+		int numRows = Integer.parseInt(rows.getTextContent());
+		int numCols = Integer.parseInt(cols.getTextContent());
+		rows.setTextContent(Integer.toString(numRows * scale));
+		cols.setTextContent(Integer.toString(numCols * scale));
+		type.setTextContent(gridType);
+		tileCells(firstElement(document.getDocumentElement(), "Cells"), numRows, numCols, scale);
+		File scenario = File.createTempFile(name + gridType + scale + "-", EXTENSION);
+		scenario.deleteOnExit();
+		TransformerFactory.newInstance().newTransformer().transform(new DOMSource(document), new StreamResult(scenario));
+		return scenario;
+	}
+
+	/**
+	 * Parses a scenario file, failing loudly instead of showing an alert.
+	 * @param file: scenario file.
+	 * @return a parser holding the scenario.
+	 */
+	public static XMLParser parse(File file) {
+		StringBuilder errors = new StringBuilder();
+		XMLParser parser = new XMLParser(message -> errors.append(message).append(' '));
+		if (!parser.parse(file)) {
+			throw new IllegalStateException(errors + "in " + file);
+		}
+		return parser;
+	}
+
+	/**
+	 * Copies every Cell of a board into each of scale x scale tiles.
+	 * @param cells: element holding the Cells of the board.
+	 * @param numRows: number of rows of the original board.
+	 * @param numCols: number of columns of the original board.
+	 * @param scale: number of tiles across and down.
+	 */
+	private static void tileCells(Element cells, int numRows, int numCols, int scale) {
+		NodeList original = cells.getElementsByTagName("Cell");
+		Node[] originalCells = new Node[original.getLength()];
+		for (int i = 0; i < originalCells.length; i++) {
+			originalCells[i] = original.item(i);
+		}
+		for (int tileRow = 0; tileRow < scale; tileRow++) {
+			for (int tileCol = 0; tileCol < scale; tileCol++) {
+				if (tileRow == 0 && tileCol == 0) {
+					continue;
+				}
+				for (Node cell : originalCells) {
+					Element copy = (Element) cell.cloneNode(true);
+					Element x = nthChildElement(copy, 0);
+					Element y = nthChildElement(copy, 1);
+					x.setTextContent(Integer.toString(Integer.parseInt(x.getTextContent()) + tileRow * numRows));
+					y.setTextContent(Integer.toString(Integer.parseInt(y.getTextContent()) + tileCol * numCols));
+					cells.appendChild(copy);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the first child element of a parent with a given name.
+	 * @param parent: parent element.
+	 * @param name: name of the child.
+	 * @return the child.
+	 */
+	private static Element firstElement(Element parent, String name) {
+		return (Element) parent.getElementsByTagName(name).item(0);
+	}
+
+	/**
+	 * Gets a child element by position, the way XMLParser reads Config and Cell entries.
+	 * @param parent: parent element.
+	 * @param n: position among the parent's child elements.
+	 * @return the child.
+	 */
+	private static Element nthChildElement(Element parent, int n) {
+		NodeList children = parent.getChildNodes();
+		int seen = 0;
+		for (int i = 0; i < children.getLength(); i++) {
+			if (children.item(i) instanceof Element && seen++ == n) {
+				return (Element) children.item(i);
+			}
+		}
+		throw new IllegalStateException("Missing entry " + n + " in " + parent.getNodeName());
+	}
+
+	/**
+	 * Finds data/, whether the benchmarks run from the repository root or from benchmarks/.
+	 * @return the data directory.
+	 */
+	private static File getDataDirectory() {
+		File data = new File("data");
+		return data.isDirectory() ? data : new File("../data");
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ * Measures how long it takes to read a simulation file with XMLParser.parse and to write one with XMLGenerator.save,
+ * on the boards in data/ and on boards tiled from them.
+ */
+
+package XML;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Controller.SimulationEngine;
+import Model.Cell;
+import Model.Grid;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class XMLBenchmark {
+	@Param({ "GameOfLifeSt80", "FireSt80", "SegregationSt80", "PredatorPreySt80", "ForagingAntsSt7",
+			"SSMigrationSt10", "SSReproductionSt5" })
+	public String scenario;
+
+	@Param({ "1", "8" })
+	public int scale;
+
+	private File myFile;
+	private File myOutput;
+	private String myRulesName;
+	private int myRows;
+	private int myCols;
+	private Cell[][] myCells;
+	private List<String> myParameters;
+	private String myGridType;
+	private XMLGenerator myGenerator;
+
+	@Setup(Level.Trial)
+	public void load() throws Exception {
+		myFile = BenchmarkScenarios.create(scenario, "Standard", scale);
+		SimulationEngine engine = new SimulationEngine();
+		engine.load(BenchmarkScenarios.parse(myFile));
+		Grid grid = engine.getGrid();
+		myRulesName = engine.getRules().getRulesName();
+		myRows = grid.getNumRows();
+		myCols = grid.getNumCols();
+		myCells = grid.getGrid();
+		myParameters = engine.getRules().getParameters();
+		myGridType = engine.getGridType();
+		myGenerator = new XMLGenerator();
+		myOutput = File.createTempFile("save-", ".xml");
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteOutput() {
+		myOutput.delete();
+	}
+
+	@Benchmark
+	public XMLParser parse() {
+		return BenchmarkScenarios.parse(myFile);
+	}
+
+	@Benchmark
+	public long save() {
+		myGenerator.save(myRulesName, myRows, myCols, myCells, myParameters, myOutput, myGridType);
+		return myOutput.length();
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * Checks that a Predator Prey run on either engine, saved to a snapshot part way and loaded again, goes on exactly as
+ * the original run does, and that a snapshot whose agents are cut short is rejected.
+ */
+
+package Rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import Controller.SimulationEngine;
+import Model.Grid;
+import Model.PredatorPreyCell;
+import XML.SnapshotReader;
+import XML.SnapshotWriter;
+import XML.XMLParser;
+
+public class PredatorPreySnapshotTest {
+	private static final int STEPS_BEFORE_SAVE = 25;
+	private static final int STEPS_AFTER_SAVE = 30;
+	private static final long SEED = 42;
+	private static final String CELL_ENGINE = null;
+	private static final String AGENT_LIST_ENGINE = "AgentList";
+
+	@Test
+	public void resumesStandardCellRun() throws IOException {
+		checkResumes("PredatorPreySt80", CELL_ENGINE);
+	}
+
+	@Test
+	public void resumesToroidalCellRun() throws IOException {
+		checkResumes("PredatorPreyTor80", CELL_ENGINE);
+	}
+
+	@Test
+	public void resumesStandardAgentListRun() throws IOException {
+		checkResumes("PredatorPreySt80", AGENT_LIST_ENGINE);
+	}
+
+	@Test
+	public void resumesToroidalAgentListRun() throws IOException {
+		checkResumes("PredatorPreyTor80", AGENT_LIST_ENGINE);
+	}
+
+	@Test
+	public void rejectsTruncatedAgentSection() throws IOException {
+		SimulationEngine original = new SimulationEngine();
+		original.load(parse(seededFile("PredatorPreySt80", AGENT_LIST_ENGINE)));
+		File snapshot = File.createTempFile("PredatorPreySt80-", ".snap");
+		snapshot.deleteOnExit();
+		new SnapshotWriter(message -> { throw new AssertionError(message); }).save(original.getRules().getRulesName(),
+				original.getRules(), original.getGrid(), original.getGridType(), original.getStepCount(), snapshot);
+
+		// the cell data section ends the file, after its length; keep half of it and shorten the length to match
+		ByteArrayOutputStream cellData = new ByteArrayOutputStream();
+		original.getRules().writeCellData(original.getGrid(), new DataOutputStream(cellData));
+		byte[] bytes = Files.readAllBytes(snapshot.toPath());
+		int lengthAt = bytes.length - cellData.size() - Integer.BYTES;
+		int kept = cellData.size() / 2;
+		ByteBuffer.wrap(bytes).putInt(lengthAt, kept);
+		Files.write(snapshot.toPath(), Arrays.copyOf(bytes, lengthAt + Integer.BYTES + kept));
+
+		List<String> alerts = new ArrayList<String>();
+		SnapshotReader reader = new SnapshotReader(alerts::add);
+		assertTrue(reader.parse(snapshot));
+		SimulationEngine resumed = new SimulationEngine();
+		assertFalse(resumed.load(reader));
+		assertFalse(resumed.isLoaded());
+		assertEquals(Collections.singletonList("SnapshotFormat"), alerts);
+	}
+
+	/**
+	 * Steps a seeded run, saves it, and steps the original and the reloaded run side by side.
+	 * @param scenario: name of a Predator Prey file in data/, without the extension.
+	 * @param engine: engine to name in the file, or CELL_ENGINE to leave the default.
+	 */
+	private void checkResumes(String scenario, String engine) throws IOException {
+		SimulationEngine original = new SimulationEngine();
+		original.load(parse(seededFile(scenario, engine)));
+		for (int step = 0; step < STEPS_BEFORE_SAVE; step++) {
+			original.step();
+		}
+
+		File snapshot = File.createTempFile(scenario + "-", ".snap");
+		snapshot.deleteOnExit();
+		new SnapshotWriter(message -> { throw new AssertionError(message); }).save(original.getRules().getRulesName(),
+				original.getRules(), original.getGrid(), original.getGridType(), original.getStepCount(), snapshot);
+		SnapshotReader reader = new SnapshotReader(message -> { throw new AssertionError(message); });
+		reader.parse(snapshot);
+		SimulationEngine resumed = new SimulationEngine();
+		resumed.load(reader);
+
+		for (int step = 0; step < STEPS_AFTER_SAVE; step++) {
+			original.step();
+			resumed.step();
+			assertSameOcean(original.getGrid(), resumed.getGrid(), step);
+		}
+		assertEquals(original.getRules().getMyStatesCount(), resumed.getRules().getMyStatesCount());
+	}
+
+	/**
+	 * Checks that two grids hold the same fish and sharks, with the same energies.
+	 */
+	private void assertSameOcean(Grid expected, Grid actual, int step) {
+		for (int row = 0; row < expected.getNumRows(); row++) {
+			for (int col = 0; col < expected.getNumCols(); col++) {
+				PredatorPreyCell expectedCell = (PredatorPreyCell) expected.getCell(row, col);
+				PredatorPreyCell actualCell = (PredatorPreyCell) actual.getCell(row, col);
+				String where = "step " + step + " at (" + row + ", " + col + ")";
+				assertEquals(where, expectedCell.getCurState(), actualCell.getCurState());
+				assertEquals(where, expectedCell.getSharkEnergy(), actualCell.getSharkEnergy());
+			}
+		}
+	}
+
+	/**
+	 * Writes a copy of a data file with a fixed seed, using the given engine.
+	 */
+	private File seededFile(String scenario, String engine) throws IOException {
+		File data = new File("data");
+		if (!data.isDirectory()) {
+			data = new File("../data");
+		}
+		String xml = new String(Files.readAllBytes(new File(data, scenario + ".xml").toPath()), StandardCharsets.UTF_8);
+		xml = xml.replace("</GridType>", "</GridType><Seed>" + SEED + "</Seed>");
+		if (engine != CELL_ENGINE) {
+			xml = xml.replace("<Parameters>", "<Parameters><Engine>" + engine + "</Engine>");
+		}
+		File file = File.createTempFile(scenario + "-", ".xml");
+		file.deleteOnExit();
+		Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private XMLParser parse(File file) {
+		XMLParser parser = new XMLParser(message -> { throw new AssertionError(message); });
+		parser.parse(file);
+		return parser;
+	}
+}
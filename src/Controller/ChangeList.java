@@ -0,0 +1,86 @@
+/**
+ * The cells whose state changed, in the order they changed, each with the code of its new state. A cell may appear
+ * more than once; its last entry holds its current state. Kept in primitive arrays that only grow, so noting a change
+ * does not allocate once the list has reached its usual size.
+ */
+
+package Controller;
+
+class ChangeList {
+	private static final int INITIAL_CAPACITY = 64;
+	private int[] myRows;
+	private int[] myCols;
+	private byte[] myCodes;
+	private int mySize;
+
+	ChangeList() {
+		myRows = new int[INITIAL_CAPACITY];
+		myCols = new int[INITIAL_CAPACITY];
+		myCodes = new byte[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Notes that a cell changed state.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @param code: code of the cell's new state.
+	 */
+	void add(int row, int col, int code) {
+		ensureCapacity(mySize + 1);
+		myRows[mySize] = row;
+		myCols[mySize] = col;
+		myCodes[mySize] = (byte) code;
+		mySize++;
+	}
+
+	/**
+	 * Appends every change of another list, keeping their order.
+	 * @param other: list to copy from.
+	 */
+	void addAll(ChangeList other) {
+		ensureCapacity(mySize + other.mySize);
+		System.arraycopy(other.myRows, 0, myRows, mySize, other.mySize);
+		System.arraycopy(other.myCols, 0, myCols, mySize, other.mySize);
+		System.arraycopy(other.myCodes, 0, myCodes, mySize, other.mySize);
+		mySize += other.mySize;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= myRows.length) {
+			return;
+		}
+		int length = Math.max(capacity, 2 * myRows.length);
+		int[] rows = new int[length];
+		int[] cols = new int[length];
+		byte[] codes = new byte[length];
+		System.arraycopy(myRows, 0, rows, 0, mySize);
+		System.arraycopy(myCols, 0, cols, 0, mySize);
+		System.arraycopy(myCodes, 0, codes, 0, mySize);
+		myRows = rows;
+		myCols = cols;
+		myCodes = codes;
+	}
+
+	/**
+	 * Empties the list, keeping its arrays.
+	 */
+	void clear() {
+		mySize = 0;
+	}
+
+	int size() {
+		return mySize;
+	}
+
+	int getRow(int index) {
+		return myRows[index];
+	}
+
+	int getCol(int index) {
+		return myCols[index];
+	}
+
+	int getCode(int index) {
+		return myCodes[index];
+	}
+}
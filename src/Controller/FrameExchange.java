@@ -0,0 +1,99 @@
+/**
+ * Hands frames from the simulation thread to the UI thread without either one waiting for the other. Three frames
+ * take turns: the simulation fills the back frame, the UI draws the front frame, and publishing swaps the back frame
+ * with the one in the middle. The UI takes the middle frame whenever a newer one has been published, so it always
+ * draws the latest step, and frames it never got to are simply overwritten.
+ * Frames hold the cells that changed rather than the whole grid, so a frame the UI skips passes its changes on to the
+ * next one. The UI also tells the exchange which window of cells it needs the states of.
+ */
+
+package Controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FrameExchange {
+	private static final int INDEX_MASK = 3;
+	private static final int FRESH = 4;
+	/** Window asking for the state of every cell. */
+	public static final int[] WHOLE_GRID = { 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE };
+	/** Window asking for the state of no cell. */
+	public static final int[] NO_CELLS = { 0, 0, 0, 0 };
+	private GridFrame[] myFrames;
+	private AtomicInteger myMiddle;
+	private int myBack;
+	private int myFront;
+	private volatile int[] myWindow;
+
+	public FrameExchange() {
+		myFrames = new GridFrame[] { new GridFrame(), new GridFrame(), new GridFrame() };
+		myBack = 0;
+		myMiddle = new AtomicInteger(1);
+		myFront = 2;
+		myWindow = NO_CELLS;
+	}
+
+	/**
+	 * Gets the frame the simulation thread may fill. Only the simulation thread calls this.
+	 * @return the back frame.
+	 */
+	public GridFrame getBackFrame() {
+		return myFrames[myBack];
+	}
+
+	/**
+	 * Makes the back frame the latest one and takes a free frame as the new back frame. Only the simulation thread
+	 * calls this.
+	 */
+	public void publish() {
+		myBack = myMiddle.getAndSet(myBack | FRESH) & INDEX_MASK;
+	}
+
+	/**
+	 * Gets the published frame the UI has not taken yet, if any. Its changes must be carried into the back frame, or
+	 * the UI would never see them. The UI may take it meanwhile, in which case carrying them only repeats changes it
+	 * has already applied. Only the simulation thread calls this.
+	 * @return the middle frame if it was published after the UI last took one; null otherwise.
+	 */
+	public GridFrame getUnseenFrame() {
+		int middle = myMiddle.get();
+		if ((middle & FRESH) == 0) {
+			return null;
+		}
+		return myFrames[middle & INDEX_MASK];
+	}
+
+	/**
+	 * Checks whether a frame has been published since the UI last took one.
+	 * @return true if getLatestFrame would return a different frame; false otherwise.
+	 */
+	public boolean hasNewFrame() {
+		return (myMiddle.get() & FRESH) != 0;
+	}
+
+	/**
+	 * Gets the latest published frame. The frame returned before this call must not be used afterwards. Only the UI
+	 * thread calls this.
+	 * @return the front frame.
+	 */
+	public GridFrame getLatestFrame() {
+		if (hasNewFrame()) {
+			myFront = myMiddle.getAndSet(myFront) & INDEX_MASK;
+		}
+		return myFrames[myFront];
+	}
+
+	/**
+	 * Sets the window of cells whose states and values frames hold from now on.
+	 * @param window: top row, left column, number of rows and number of columns; larger than the grid is fine.
+	 */
+	public void setWindow(int[] window) {
+		myWindow = window.clone();
+	}
+
+	/**
+	 * @return returns the window of cells whose states and values frames hold
+	 */
+	public int[] getWindow() {
+		return myWindow;
+	}
+}
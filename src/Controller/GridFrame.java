@@ -0,0 +1,277 @@
+/**
+ * A picture of the grid taken after a step. Rather than the state of every cell, a frame holds the cells that changed
+ * since the frame the UI drew before it, plus the states of a window of cells the UI asked for, the number the view
+ * shows for each of those cells if the simulation has one, and the number of cells in each state. Only a full frame,
+ * published when there is nothing to change from (after loading, after the grid changed size, or when replaying),
+ * holds the state of every cell. Frames are filled on the simulation thread and read on the UI thread, and a
+ * FrameExchange makes sure that only one of the two holds a frame at any time, so a frame never changes while it is
+ * being drawn.
+ */
+
+package Controller;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import Model.Grid;
+import Model.StateTable;
+import Rules.Rules;
+import XML.RecordingReader;
+
+public class GridFrame {
+	private static final byte[] NO_CODES = new byte[0];
+	private int myStep;
+	private int myTime;
+	private int myRows;
+	private int myCols;
+	private StateTable myStateTable;
+	private boolean myFull;
+	private byte[] myCodes;
+	private ChangeList myChanges;
+	private int myTop;
+	private int myLeft;
+	private int myWindowRows;
+	private int myWindowCols;
+	private String[] myStates;
+	private int[] myValues;
+	private boolean myHasValues;
+	private Map<String, Integer> myStatesCount;
+
+	public GridFrame() {
+		myStep = -1;
+		myCodes = NO_CODES;
+		myChanges = new ChangeList();
+		myStates = new String[0];
+		myValues = new int[0];
+		myStatesCount = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Copies the changes of an engine since the last frame into this frame, along with the states in a window and
+	 * the state counts. The frame is full if asked to be, or if the frame the UI has not taken yet cannot be passed
+	 * on as changes.
+	 * @param engine: engine holding the loaded simulation.
+	 * @param time: milliseconds of simulated time at this frame, used as the x axis of the chart.
+	 * @param window: top row, left column, number of rows and number of columns of the cells to copy states of.
+	 * @param full: true to copy the state of every cell, as when there is no earlier frame to change from.
+	 * @param unseen: published frame the UI has not taken yet, whose changes this frame must also hold; may be null.
+	 */
+	void capture(SimulationEngine engine, int time, int[] window, boolean full, GridFrame unseen) {
+		Grid grid = engine.getGrid();
+		Rules rules = engine.getRules();
+		ChangeList changes = engine.getChanges();
+		myStep = engine.getStepCount();
+		myTime = time;
+		myRows = grid.getNumRows();
+		myCols = grid.getNumCols();
+		myStateTable = rules.getStateTable();
+		if (!full && unseen != null) {
+			// too many changes to be worth keeping are drawn as cheaply from a full frame
+			full = unseen.myFull || (long) unseen.myChanges.size() + changes.size() > (long) myRows * myCols;
+		}
+		myChanges.clear();
+		if (full) {
+			captureCodes(grid);
+		} else {
+			myFull = false;
+			myCodes = NO_CODES;
+			if (unseen != null) {
+				myChanges.addAll(unseen.myChanges);
+			}
+			myChanges.addAll(changes);
+		}
+		setWindow(window, rules.hasCellValues());
+		for (int r = myTop; r < myTop + myWindowRows; r++) {
+			for (int c = myLeft; c < myLeft + myWindowCols; c++) {
+				int index = (r - myTop) * myWindowCols + c - myLeft;
+				myStates[index] = grid.getStateAt(r, c);
+				if (myHasValues) {
+					myValues[index] = rules.getCellValue(grid.getCell(r, c));
+				}
+			}
+		}
+		myStatesCount.clear();
+		myStatesCount.putAll(rules.getMyStatesCount());
+	}
+
+	/**
+	 * Copies the step a recording is showing into this frame. Steps can be shown in any order, so the frame is always
+	 * full. A recording holds only states, so the frame has no cell values.
+	 * @param reader: recording that has been moved to the step to show.
+	 * @param time: milliseconds of simulated time at this frame, used as the x axis of the chart.
+	 * @param window: top row, left column, number of rows and number of columns of the cells to copy states of.
+	 */
+	void capture(RecordingReader reader, int time, int[] window) {
+		myStep = reader.getStep();
+		myTime = time;
+		myRows = reader.getNumRows();
+		myCols = reader.getNumCols();
+		myStateTable = reader.getRules().getStateTable();
+		myFull = true;
+		myChanges.clear();
+		if (myCodes.length < myRows * myCols) {
+			myCodes = new byte[myRows * myCols];
+		}
+		for (int r = 0; r < myRows; r++) {
+			for (int c = 0; c < myCols; c++) {
+				myCodes[r * myCols + c] = (byte) myStateTable.getCode(reader.getState(r, c));
+			}
+		}
+		setWindow(window, false);
+		for (int r = myTop; r < myTop + myWindowRows; r++) {
+			for (int c = myLeft; c < myLeft + myWindowCols; c++) {
+				myStates[(r - myTop) * myWindowCols + c - myLeft] = reader.getState(r, c);
+			}
+		}
+		myStatesCount.clear();
+		myStatesCount.putAll(reader.getMyStatesCount());
+	}
+
+	/**
+	 * Copies the state code of every cell of a grid, reusing the array if it is large enough.
+	 */
+	private void captureCodes(Grid grid) {
+		myFull = true;
+		if (myCodes.length < myRows * myCols) {
+			myCodes = new byte[myRows * myCols];
+		}
+		String state = null;
+		int code = StateTable.NO_STATE;
+		for (int r = 0; r < myRows; r++) {
+			for (int c = 0; c < myCols; c++) {
+				String next = grid.getStateAt(r, c);
+				if (next != state) {
+					state = next;
+					code = myStateTable.getCode(state);
+				}
+				myCodes[r * myCols + c] = (byte) code;
+			}
+		}
+	}
+
+	/**
+	 * Clips a window to the grid and makes sure the arrays of states and values can hold it.
+	 */
+	private void setWindow(int[] window, boolean hasValues) {
+		myTop = Math.min(window[0], myRows);
+		myLeft = Math.min(window[1], myCols);
+		myWindowRows = (int) Math.min((long) window[2], myRows - myTop);
+		myWindowCols = (int) Math.min((long) window[3], myCols - myLeft);
+		myHasValues = hasValues;
+		int size = myWindowRows * myWindowCols;
+		if (myStates.length < size) {
+			myStates = new String[size];
+		}
+		if (myHasValues && myValues.length < size) {
+			myValues = new int[size];
+		}
+	}
+
+	/**
+	 * @return returns the number of steps taken before this frame, or -1 if nothing has been captured yet
+	 */
+	public int getStep() {
+		return myStep;
+	}
+
+	/**
+	 * @return returns the milliseconds of simulated time at this frame
+	 */
+	public int getTime() {
+		return myTime;
+	}
+
+	/**
+	 * @return returns the number of rows in the grid
+	 */
+	public int getNumRows() {
+		return myRows;
+	}
+
+	/**
+	 * @return returns the number of columns in the grid
+	 */
+	public int getNumCols() {
+		return myCols;
+	}
+
+	/**
+	 * @return returns true if this frame holds the state of every cell; false if it holds only changes
+	 */
+	public boolean isFull() {
+		return myFull;
+	}
+
+	/**
+	 * Gets the state code of a cell in a full frame.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return code of the cell's state in the rules' StateTable.
+	 */
+	public int getCode(int row, int col) {
+		return myCodes[row * myCols + col];
+	}
+
+	/**
+	 * Gets the number of changes this frame holds. Applied in order on top of the frame the UI drew before, they
+	 * give the states of this frame; cells may appear more than once, or repeat changes already drawn.
+	 * @return number of changes; 0 in a full frame.
+	 */
+	public int getNumChanges() {
+		return myChanges.size();
+	}
+
+	public int getChangedRow(int index) {
+		return myChanges.getRow(index);
+	}
+
+	public int getChangedCol(int index) {
+		return myChanges.getCol(index);
+	}
+
+	/**
+	 * @return returns the code of the new state of a changed cell, in the rules' StateTable
+	 */
+	public int getChangedCode(int index) {
+		return myChanges.getCode(index);
+	}
+
+	/**
+	 * Gets the state of a cell.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return state of the cell at [row, col], or null if the cell is neither in the window nor in a full frame.
+	 */
+	public String getState(int row, int col) {
+		if (inWindow(row, col)) {
+			return myStates[(row - myTop) * myWindowCols + col - myLeft];
+		}
+		if (myFull) {
+			return myStateTable.getState(getCode(row, col));
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the number the view shows for a cell besides its state.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return value of the cell at [row, col]; 0 if the simulation has no cell values or the cell is not in the
+	 *         window.
+	 */
+	public int getValue(int row, int col) {
+		return (myHasValues && inWindow(row, col)) ? myValues[(row - myTop) * myWindowCols + col - myLeft] : 0;
+	}
+
+	private boolean inWindow(int row, int col) {
+		return row >= myTop && row < myTop + myWindowRows && col >= myLeft && col < myLeft + myWindowCols;
+	}
+
+	/**
+	 * @return returns the number of cells in each state
+	 */
+	public Map<String, Integer> getMyStatesCount() {
+		return Collections.unmodifiableMap(myStatesCount);
+	}
+}
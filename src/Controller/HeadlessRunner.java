@@ -0,0 +1,232 @@
+/**
+ * Runs a simulation from an XML file or snapshot without a UI, as fast as it will go, and writes the number of cells in each
+ * state after every step, along with how long the step took, as comma-separated values. Nothing here loads the JavaFX
+ * toolkit, so it can run on machines without a display.
+ *
+ * Usage: HeadlessRunner file.xml|file.snap [--steps N] [--until stable | --until STATE=COUNT] [--out file.csv]
+ *        [--record file.rec]
+ * The run stops after N steps, or earlier once the stop condition holds; "stable" holds once a step changes no cells.
+ * Without --out the values are written to standard output. With --record the run is also recorded, so that it can be
+ * replayed in the UI.
+ */
+
+package Controller;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import Model.StateTable;
+import XML.ErrorReporter;
+import XML.RecordingWriter;
+import XML.SimulationSource;
+
+public class HeadlessRunner implements ErrorReporter {
+	private static final String STABLE = "stable";
+	private static final String USAGE = "HeadlessUsage";
+	private static final String OUTPUT_FILE = "OutputFile";
+	private ResourceBundle myControllerResources = ResourceBundle.getBundle(SimulationEngine.DEFAULT_CONTROLLER_RESOURCE);
+	private ResourceBundle myErrorResources = ResourceBundle.getBundle(SimulationEngine.ERROR_RESOURCE);
+	private File myFile;
+	private int mySteps = Integer.parseInt(myControllerResources.getString("HeadlessSteps"));
+	private boolean myUntilStable;
+	private String myUntilState;
+	private int myUntilCount;
+	private File myOut;
+	private File myRecording;
+	private SimulationEngine myEngine = new SimulationEngine();
+
+	public static void main(String[] args) {
+		HeadlessRunner runner = new HeadlessRunner();
+		if (!runner.readArguments(args) || !runner.run()) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Reads the command line.
+	 * @param args: command line arguments.
+	 * @return true if the arguments were understood; false otherwise.
+	 */
+	public boolean readArguments(String[] args) {
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--steps":
+					mySteps = Integer.parseInt(args[++i]);
+					break;
+				case "--until":
+					readUntil(args[++i]);
+					break;
+				case "--out":
+					myOut = new File(args[++i]);
+					break;
+				case "--record":
+					myRecording = new File(args[++i]);
+					break;
+				default:
+					if (myFile != null) {
+						throw new IllegalArgumentException(args[i]);
+					}
+					myFile = new File(args[i]);
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			displayAlert(USAGE);
+			return false;
+		}
+		if (myFile == null || mySteps < 0) {
+			displayAlert(USAGE);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the stop condition given with --until. The state of a STATE=COUNT condition is checked once the rules are
+	 * known.
+	 * @param condition: "stable", or a state and a number of cells separated by "=".
+	 * @throws IllegalArgumentException if the condition is neither, or the number is not a whole number of cells.
+	 */
+	private void readUntil(String condition) {
+		myUntilStable = condition.equals(STABLE);
+		myUntilState = null;
+		if (myUntilStable) {
+			return;
+		}
+		String[] parts = condition.split("=", -1);
+		if (parts.length != 2 || parts[0].trim().isEmpty()) {
+			throw new IllegalArgumentException(condition);
+		}
+		myUntilState = parts[0].trim();
+		myUntilCount = Integer.parseInt(parts[1].trim());
+		if (myUntilCount < 0) {
+			throw new IllegalArgumentException(condition);
+		}
+	}
+
+	/**
+	 * Loads the file and runs it, writing a line for the initial grid and one for every step.
+	 * @return true if the run finished; false if the file could not be loaded or the output could not be written.
+	 */
+	public boolean run() {
+		SimulationSource parser = SimulationSource.forFile(myFile, this);
+		if (!parser.parse(myFile)) {
+			return false;
+		}
+		if (!myEngine.load(parser)) {
+			return false;
+		}
+		StateTable states = myEngine.getRules().getStateTable();
+		if (myUntilState != null) {
+			if (!states.contains(myUntilState)) {
+				displayAlert(USAGE);
+				return false;
+			}
+			myUntilState = states.getState(states.getCode(myUntilState));
+		}
+		if (myRecording != null && !startRecording()) {
+			return false;
+		}
+		try (PrintWriter out = (myOut == null) ? new PrintWriter(new OutputStreamWriter(System.out))
+				: new PrintWriter(new FileWriter(myOut))) {
+			writeHeader(out, states);
+			writeRow(out, states, 0);
+			for (int step = 0; step < mySteps; step++) {
+				long start = System.nanoTime();
+				int changed = myEngine.step();
+				writeRow(out, states, System.nanoTime() - start);
+				if (untilReached(changed)) {
+					break;
+				}
+			}
+			if (!myEngine.stopRecording() || out.checkError()) {
+				displayAlert(OUTPUT_FILE);
+				return false;
+			}
+		} catch (IOException e) {
+			myEngine.stopRecording();
+			displayAlert(OUTPUT_FILE);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Starts recording the run to the file given with --record.
+	 * @return true if the recording was started; false if the file could not be created.
+	 */
+	private boolean startRecording() {
+		try {
+			myEngine.startRecording(new RecordingWriter(myRecording, myEngine.getRules().getRulesName(),
+					myEngine.getRules(), myEngine.getGridType(),
+					Integer.parseInt(myControllerResources.getString("KeyframeInterval"))));
+		} catch (IOException e) {
+			displayAlert(OUTPUT_FILE);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks the stop condition given on the command line.
+	 * @param changed: number of cells that changed in the last step.
+	 * @return true if the run should stop; false otherwise.
+	 */
+	private boolean untilReached(int changed) {
+		if (myUntilStable) {
+			return changed == 0;
+		}
+		if (myUntilState == null) {
+			return false;
+		}
+		Integer count = myEngine.getRules().getMyStatesCount().get(myUntilState);
+		return (count == null ? 0 : count) == myUntilCount;
+	}
+
+	/**
+	 * Writes the names of the columns.
+	 * @param out: where to write.
+	 * @param states: states of the simulation, in the order their counts are written.
+	 */
+	private void writeHeader(PrintWriter out, StateTable states) {
+		StringBuilder line = new StringBuilder("step,millis");
+		for (int code = 0; code < states.size(); code++) {
+			line.append(',').append(states.getState(code));
+		}
+		out.println(line);
+	}
+
+	/**
+	 * Writes the counts of each state after the latest step.
+	 * @param out: where to write.
+	 * @param states: states of the simulation, in the order their counts are written.
+	 * @param nanos: time the step took, in nanoseconds.
+	 */
+	private void writeRow(PrintWriter out, StateTable states, long nanos) {
+		Map<String, Integer> counts = myEngine.getRules().getMyStatesCount();
+		StringBuilder line = new StringBuilder();
+		line.append(myEngine.getStepCount()).append(',');
+		line.append(String.format(Locale.ROOT, "%.3f", nanos / 1e6));
+		for (int code = 0; code < states.size(); code++) {
+			Integer count = counts.get(states.getState(code));
+			line.append(',').append(count == null ? 0 : count);
+		}
+		out.println(line);
+	}
+
+	/**
+	 * Writes an error to standard error.
+	 * @param message: key of the error in Controller/ErrorMessages.
+	 */
+	@Override
+	public void displayAlert(String message) {
+		String[] errorData = myErrorResources.getString(message).split(",");
+		System.err.println(errorData[0] + ": " + errorData[1]);
+	}
+}
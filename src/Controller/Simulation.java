@@ -6,18 +6,22 @@
 package Controller;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ResourceBundle;
 import Model.Cell;
 import Model.Grid;
-import Model.InfiniteGrid;
-import Model.StandardGrid;
-import Model.ToroidalGrid;
 import Rules.Rules;
 import View.CSView;
+import XML.ErrorReporter;
+import XML.RecordingReader;
+import XML.RecordingWriter;
+import XML.SimulationSource;
+import XML.SnapshotReader;
+import XML.SnapshotWriter;
 import XML.XMLGenerator;
-import XML.XMLParser;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.util.Duration;
@@ -40,39 +44,36 @@ import javafx.util.Duration;
  * is the simulation running
  */
 
-public class Simulation {
-	private boolean running;
+public class Simulation implements ErrorReporter {
 	private boolean loaded;
 	private int msDelay;
-	private int time;
 	private int mySpeed;
-	private XMLParser parser;
+	private SimulationSource parser;
+	private boolean recording;
+	private RecordingReader myReplay;
 
 	// xml determined variables
 	private File xmlFile;
-	private Grid myGrid;
-	private Rules myRules;
-	private int rows;
-	private int cols;
-	private String[][] inputgrid;
-	private String gridType;
+	private SimulationWorker myWorker;
 
 	private CSView myView;
 
-	public static final String DEFAULT_CONTROLLER_RESOURCE = "Controller/Controller";
-	public static final String ERROR_RESOURCE = "Controller/ErrorMessages";
 	private ResourceBundle myControllerResources;
 	private ResourceBundle myErrorResources;
+	private ErrorReporter myThreadReporter;
 
 	public Simulation() {
-		myControllerResources = ResourceBundle.getBundle(DEFAULT_CONTROLLER_RESOURCE);
+		myControllerResources = ResourceBundle.getBundle(SimulationEngine.DEFAULT_CONTROLLER_RESOURCE);
 		mySpeed = Integer.parseInt(myControllerResources.getString("InitialSpeed"));
 		msDelay = Integer.parseInt(myControllerResources.getString("MsDelay"));
-		myErrorResources = ResourceBundle.getBundle(ERROR_RESOURCE);
-		time = 0;
+		myErrorResources = ResourceBundle.getBundle(SimulationEngine.ERROR_RESOURCE);
+		// steps and commands run on the simulation thread, so their errors are shown on this one
+		myThreadReporter = message -> Platform.runLater(() -> displayAlert(message));
+		myWorker = new SimulationWorker(getStepDelay(), myThreadReporter);
+		myWorker.start();
 
-		// sets the simulation's loop
-		KeyFrame frame = new KeyFrame(Duration.millis(msDelay), e -> step(false));
+		// redraws whenever the simulation thread has published a new frame
+		KeyFrame frame = new KeyFrame(Duration.millis(msDelay), e -> render());
 		Timeline animation = new Timeline();
 		animation.setCycleCount(Timeline.INDEFINITE);
 		animation.getKeyFrames().add(frame);
@@ -88,59 +89,142 @@ public class Simulation {
 
 	/**
 	 * 
-	 * @param myFile input file to be parsed
+	 * @param myFile input file to be parsed, either XML or a snapshot
 	 * @return boolean of returns whether or not xml file has been parsed and data loaded
 	 * 
 	 */
 	public boolean useParser(File file) {
-		parser = new XMLParser(this);
+		parser = SimulationSource.forFile(file, this);
 		if (!parser.parse(file))
 			return false;
 		xmlFile = file;
-		loadFromXML();
-		return true;
+		return loadFromXML();
 	}
 
 	/**
 	 * Method that loads information from current parser
+	 * 
+	 * @return returns whether or not the simulation could be set up
+	 */
+	public boolean loadFromXML() {
+		stopReplay();
+		if (recording)
+			toggleRecording();
+		loaded = myWorker.load(parser);
+		return loaded;
+	}
+
+	/**
+	 * Opens a recording and shows its first step. The loaded simulation, if
+	 * any, stays loaded, and Reset goes back to it
+	 * 
+	 * @param file
+	 *            recording to replay
+	 * @return returns whether or not the recording could be read
+	 */
+	public boolean useRecording(File file) {
+		// seeking happens on the simulation thread, so its errors are shown on this one
+		RecordingReader myReader = new RecordingReader(myThreadReporter);
+		if (!myReader.parse(file))
+			return false;
+		setRunning(false);
+		if (recording)
+			toggleRecording();
+		stopReplay();
+		myReplay = myReader;
+		myWorker.replay(myReplay);
+		return true;
+	}
+
+	/**
+	 * Shows a step of the recording being replayed. Steps asked for while
+	 * another is being read are skipped, except for the last one
+	 * 
+	 * @param step
+	 *            step to show, between the first and last recorded steps
+	 */
+	public void showRecordedStep(int step) {
+		if (myReplay != null)
+			myWorker.showRecordedStep(myReplay, step);
+	}
+
+	/**
+	 * Closes the recording being replayed, if any, once the simulation thread
+	 * is done reading it
+	 */
+	private void stopReplay() {
+		if (myReplay != null) {
+			RecordingReader myReader = myReplay;
+			myWorker.submit(myReader::close);
+			myReplay = null;
+		}
+	}
+
+	/**
+	 * @return returns the recording being replayed, or null if frames come
+	 *         from the loaded simulation
+	 */
+	public RecordingReader getReplay() {
+		return myReplay;
+	}
+
+	/**
+	 * @return returns a reporter that shows its alerts once the UI is done
+	 *         with the event or animation frame it is handling, for errors
+	 *         found off the UI thread or while drawing
 	 */
-	public void loadFromXML() {
-		inputgrid = parser.getGrid();
-		rows = inputgrid[1].length;
-		cols = rows;
-		myRules = parser.getRules(); 
-		getGridObject();
-		myRules.populateStatesInfo();
-		myRules.initGrid(myGrid, inputgrid);
-		loaded = true;
+	public ErrorReporter getThreadReporter() {
+		return myThreadReporter;
 	}
-	
+
 	/**
-	 * Sets the grid instance variable to be the correct instance of the Grid
-	 * abstract class
+	 * Starts recording every step to a file the user picks, or stops the
+	 * recording in progress
+	 * 
+	 * @return returns whether or not steps are being recorded afterwards
 	 */
-	public void getGridObject() {
-		gridType = parser.getGridType();
-		switch (gridType) {
-		case "Standard":
-			myGrid = new StandardGrid(rows, cols, inputgrid);
-			break;
-		case "Toroidal":
-			myGrid = new ToroidalGrid(rows, cols, inputgrid);
-			break;
-		case "Infinite":
-			myGrid = new InfiniteGrid(rows, cols, inputgrid, myRules);
-			break;
-		default:
-			System.out.println("THAT IS NOT AN OPTION!");
+	public boolean toggleRecording() {
+		if (recording) {
+			recording = false;
+			if (!myWorker.call(() -> myWorker.getEngine().stopRecording()))
+				displayAlert("OutputFile");
+			return false;
 		}
+		if (!loaded || myReplay != null)
+			return false;
+		File myFile = myView.promptForRecordingName();
+		if (myFile == null)
+			return false;
+		String myRulesName = getRules().getRulesName();
+		int myInterval = Integer.parseInt(myControllerResources.getString("KeyframeInterval"));
+		recording = myWorker.call(() -> {
+			SimulationEngine engine = myWorker.getEngine();
+			try {
+				engine.startRecording(new RecordingWriter(myFile, myRulesName, engine.getRules(), engine.getGridType(), myInterval));
+			} catch (IOException e) {
+				return false;
+			}
+			return true;
+		});
+		if (!recording)
+			displayAlert("OutputFile");
+		return recording;
+	}
+
+	/**
+	 * @return returns whether or not steps are being recorded
+	 */
+	public boolean isRecording() {
+		return recording;
 	}
 
 	/**
-	 * Saves a XML file
+	 * Saves a XML file, or a binary snapshot if the chosen file name ends in
+	 * .snap. The file is written on the simulation thread without waiting for
+	 * it, and a failure is shown once it is known
 	 */
 	public void saveXML() {
-		running = false;
+		setRunning(false);
 		if (!loaded) {
 			Alert myAlert = new Alert(AlertType.INFORMATION);
 			myAlert.setTitle("Saving Error");
@@ -149,77 +233,52 @@ public class Simulation {
 			myAlert.showAndWait();
 			return;
 		}
-		XMLGenerator myGenerator = new XMLGenerator();
-		String myRulesName = myRules.toString().replaceAll(" ", "");
+		String myRulesName = getRules().getRulesName();
 		File myFile = myView.promptForFileName();
 		if (myFile == null)
 			return;
-		myGenerator.save(myRulesName, myGrid.getNumRows(), myGrid.getNumCols(), myGrid.getGrid(), myRules.getParameters(), myFile, gridType);
+		SimulationEngine engine = myWorker.getEngine();
+		if (SnapshotReader.isSnapshot(myFile)) {
+			// written on the simulation thread, so the error is shown once back on this one
+			SnapshotWriter myWriter = new SnapshotWriter(myThreadReporter);
+			myWorker.submit(() -> myWriter.save(myRulesName, engine.getRules(), engine.getGrid(), engine.getGridType(), engine.getStepCount(), myFile));
+			return;
+		}
+		XMLGenerator myGenerator = new XMLGenerator();
+		myWorker.submit(() -> {
+			Rules rules = engine.getRules();
+			Grid grid = engine.getGrid();
+			if (!myGenerator.save(myRulesName, grid.getNumRows(), grid.getNumCols(), grid.getGrid(), rules.getParameters(), myFile, engine.getGridType()))
+				myThreadReporter.displayAlert("OutputFile");
+		});
 	}
 
 	/**
-	 * Applies rules to cells, updates their states, displays new states Fastest
-	 * is every 100 ms, slowest is every 2 seconds. Changing the speed will not
-	 * change the time on the graph- i.e. 2 seconds on graph will always be 2
-	 * seconds on graph, However, changes in cell # will be spread of great
-	 * delta time
+	 * Applies rules to cells and updates their states once, on the simulation
+	 * thread. The new states are displayed when their frame is rendered.
 	 */
-	public void step(boolean stepping) {
-		if (running || stepping) {
-			if (time % ((21 - mySpeed) * 100) != 0 && !stepping) {
-				time += msDelay;
-				return;
-			}
-			time += msDelay;
-			applyRulesToGrid();
-			updateEachState();
-			myView.updateUI();
-		}
+	public void step() {
+		myWorker.step();
 	}
 
 	/**
-	 * Helper method that applies the specified rules to each cell in the grid (accommodates for resizing in the case
-	 * of an infinite grid).
+	 * Redraws the view if the simulation thread has published a frame since
+	 * the last redraw. Runs on the UI thread, so it never waits for a step.
 	 */
-	public void applyRulesToGrid(){
-		int rows = myGrid.getNumRows();
-		int cols = myGrid.getNumCols();
-		int r0 = 0;
-		int c0 = 0;
-				
-		for(int r = 0; r < rows; r++){
-			if (r == 0) {
-				r = r0;
-			}
-			for(int c = 0; c < cols; c++){
-				if (c == 0) {
-					c = c0;
-				}
-				myRules.applyRulesToCell(myGrid.getCell(r,c), myGrid);
-				if (myGrid.hasBeenResizedImmediatelyBefore()) {
-					r++;
-					c++;
-					r0++;
-					c0++;
-					rows++;
-					cols++;
-					myGrid.setResizedImmediatelyBefore(false);
-				}
-			}
+	private void render() {
+		if (myView != null && myWorker.getFrames().hasNewFrame()) {
+			myView.updateUI();
 		}
-		myGrid.setResizedThisStep(false);
 	}
 
 	/**
-	 * Helper method that updates each state that needs to be updated
-	 * Then clears the update list.
+	 * Milliseconds between steps at the current speed. Fastest is every 100
+	 * ms, slowest is every 2 seconds. Changing the speed will not change the
+	 * time on the graph- i.e. 2 seconds on graph will always be 2 seconds on
+	 * graph, However, changes in cell # will be spread of great delta time
 	 */
-	private void updateEachState() {
-		for (Cell c : myRules.getToBeUpdatedList()) {
-			myRules.updateStateCount(c);
-			c.updateState();
-		}
-		myRules.clearToBeUpdatedList();
+	private int getStepDelay() {
+		return (21 - mySpeed) * 100;
 	}
 
 	/**
@@ -237,6 +296,7 @@ public class Simulation {
 	 */
 	public int changeSpeed(int del) {
 		mySpeed += del;
+		myWorker.setStepDelay(getStepDelay());
 		return mySpeed;
 	}
 
@@ -244,7 +304,7 @@ public class Simulation {
 	 * @return returns the current simulation
 	 */
 	public String getName() {
-		return myRules.toString();
+		return getRules().toString();
 	}
 
 	/**
@@ -254,22 +314,60 @@ public class Simulation {
 	 *            a boolean indicating running or not
 	 */
 	public void setRunning(boolean b) {
-		running = b;
+		myWorker.setRunning(b);
+	}
+
+	/**
+	 * @return returns the latest frame published by the simulation thread;
+	 *         the frame returned before must not be used afterwards
+	 */
+	public GridFrame getLatestFrame() {
+		return myWorker.getFrames().getLatestFrame();
+	}
+
+	/**
+	 * Sets the window of cells whose states and values later frames hold. The
+	 * current step is published again if the window changed
+	 * 
+	 * @param window
+	 *            top row, left column, number of rows and number of columns
+	 */
+	public void setFrameWindow(int[] window) {
+		myWorker.setWindow(window);
 	}
 
 	/**
-	 * @return returns the grid that this simulation is using
+	 * Sets the state of a cell, on the simulation thread, without waiting. The
+	 * change is drawn with the next frame.
+	 * 
+	 * @param r
+	 *            row of the cell
+	 * @param c
+	 *            column of the cell
+	 * @param state
+	 *            new state of the cell
 	 */
-	public Grid getGrid() {
-		return myGrid;
+	public void editCell(int r, int c, String state) {
+		myWorker.edit(engine -> {
+			Cell cell = engine.getGrid().getCell(r, c);
+			engine.getRules().decreaseStateCount(cell.getCurState());
+			cell.setCurState(state);
+			engine.getRules().increaseStateCount(state);
+			engine.getRules().cellEdited(cell);
+			engine.recordEdit(cell);
+		});
 	}
 
 	/**
-	 * @return returns the rules that this simulation is using Applies rules to
-	 *         cells, updates their states, displays new states
+	 * @return returns the rules that this simulation is using, or those of
+	 *         the recording being replayed. They are set up on load; anything
+	 *         that changes as the simulation steps must be read from a frame
+	 *         instead
 	 */
 	public Rules getRules() {
-		return myRules;
+		if (myReplay != null)
+			return myReplay.getRules();
+		return myWorker.getEngine().getRules();
 	}
 
 	/**
@@ -287,14 +385,7 @@ public class Simulation {
 		myView = v;
 	}
 
-	/**
-	 * 
-	 * @return returns the number of milliseconds since current execution start
-	 */
-	public int getTime() {
-		return time;
-	}
-
+	@Override
 	public void displayAlert(String message) {
 		String[] errorData = myErrorResources.getString(message).split(",");
 		Alert myAlert = new Alert(AlertType.INFORMATION);
@@ -0,0 +1,212 @@
+/**
+ * Holds the grid and rules of a loaded simulation and advances them one step at a time. Nothing here touches the UI,
+ * so the same stepping code runs both behind the JavaFX view and in the headless runner.
+ */
+
+package Controller;
+
+import Model.Cell;
+import Model.CounterRandomService;
+import Model.Grid;
+import Model.InfiniteGrid;
+import Model.StandardGrid;
+import Model.ToroidalGrid;
+import Rules.Rules;
+import XML.RecordingWriter;
+import XML.SimulationSource;
+
+public class SimulationEngine {
+	public static final String DEFAULT_CONTROLLER_RESOURCE = "Controller/Controller";
+	public static final String ERROR_RESOURCE = "Controller/ErrorMessages";
+	private Grid myGrid;
+	private Rules myRules;
+	private String myGridType;
+	private int myStepCount;
+	private RecordingWriter myRecorder;
+	private ChangeList myChanges = new ChangeList();
+
+	/**
+	 * Sets up the grid and rules described by an XML file or snapshot that has already been read.
+	 * @param parser: source holding the simulation to load.
+	 * @return true if the simulation was loaded; false if the source's cell data could not be read, in which case
+	 *         no simulation is loaded.
+	 */
+	public boolean load(SimulationSource parser) {
+		stopRecording();
+		myChanges.clear();
+		String[][] inputgrid = parser.getGrid();
+		int rows = inputgrid[1].length;
+		int cols = rows;
+		myRules = parser.getRules();
+		if (parser.getSeed() != null) {
+			myRules.setRandomService(new CounterRandomService(parser.getSeed()));
+		}
+		myGridType = parser.getGridType();
+		myGrid = createGrid(myGridType, rows, cols, inputgrid);
+		myRules.populateStatesInfo();
+		myRules.initGrid(myGrid, inputgrid);
+		if (!parser.restoreCellData(myGrid)) {
+			myRules = null;
+			myGrid = null;
+			return false;
+		}
+		myStepCount = parser.getStepCount();
+		for (int step = 0; step < myStepCount; step++) {
+			myRules.getRandomService().nextStep();
+		}
+		return true;
+	}
+
+	/**
+	 * Creates the correct instance of the Grid abstract class.
+	 * @param gridType: type of the grid, as named in the XML file.
+	 * @param rows: number of rows.
+	 * @param cols: number of columns.
+	 * @param inputgrid: initial states of each cell.
+	 * @return the grid.
+	 * @throws IllegalArgumentException if the type is not known; sources check the type before it gets here.
+	 */
+	private Grid createGrid(String gridType, int rows, int cols, String[][] inputgrid) {
+		switch (gridType) {
+		case "Standard":
+			return new StandardGrid(rows, cols, inputgrid);
+		case "Toroidal":
+			return new ToroidalGrid(rows, cols, inputgrid);
+		case "Infinite":
+			return new InfiniteGrid(rows, cols, inputgrid, myRules);
+		default:
+			throw new IllegalArgumentException("Unknown grid type: " + gridType);
+		}
+	}
+
+	/**
+	 * Applies the rules to the grid and updates the states of the cells that changed. The changes list is started
+	 * over, so afterwards it holds only this step's changes.
+	 * @return number of cells whose state was updated.
+	 */
+	public int step() {
+		myChanges.clear();
+		myRules.applyRulesToGrid(myGrid);
+		int changed = updateEachState();
+		myStepCount++;
+		if (myRecorder != null) {
+			myRecorder.endStep(myStepCount, myGrid);
+		}
+		return changed;
+	}
+
+	/**
+	 * Updates each state that needs to be updated, then clears the update list.
+	 * @return number of cells updated.
+	 */
+	private int updateEachState() {
+		int changed = 0;
+		for (Cell c : myRules.getToBeUpdatedList()) {
+			myRules.updateStateCount(c);
+			if (c.getNextState() != null) {
+				int code = myRules.getStateTable().getCode(c.getNextState());
+				myChanges.add(c.getCurRow(), c.getCurCol(), code);
+				if (myRecorder != null) {
+					myRecorder.cellChanged(c.getCurRow(), c.getCurCol(), code);
+				}
+			}
+			c.updateState();
+			changed++;
+		}
+		myGrid.commitStates();
+		myRules.clearToBeUpdatedList();
+		return changed;
+	}
+
+	/**
+	 * Starts recording every step taken from now on, beginning with the current states.
+	 * @param recorder: recording to write to.
+	 */
+	public void startRecording(RecordingWriter recorder) {
+		stopRecording();
+		myRecorder = recorder;
+		myRecorder.keyframe(myStepCount, myGrid);
+	}
+
+	/**
+	 * Stops recording and closes the recording, if there is one.
+	 * @return false if the recording could not be written; true otherwise.
+	 */
+	public boolean stopRecording() {
+		if (myRecorder == null) {
+			return true;
+		}
+		boolean written = myRecorder.close();
+		myRecorder = null;
+		return written;
+	}
+
+	/**
+	 * @return returns true while steps are being recorded
+	 */
+	public boolean isRecording() {
+		return myRecorder != null;
+	}
+
+	/**
+	 * Notes a Cell the user has edited among the changes, and records the current states, so that the edit shows up
+	 * when the recording is replayed.
+	 * @param cell: Cell whose state the user set.
+	 */
+	public void recordEdit(Cell cell) {
+		myChanges.add(cell.getCurRow(), cell.getCurCol(), myRules.getStateTable().getCode(cell.getCurState()));
+		if (myRecorder != null) {
+			myRecorder.keyframe(myStepCount, myGrid);
+		}
+	}
+
+	/**
+	 * @return returns the cells whose state changed in the last step, and those edited since
+	 */
+	ChangeList getChanges() {
+		return myChanges;
+	}
+
+	/**
+	 * Empties the changes list once its changes have been handed on.
+	 */
+	void clearChanges() {
+		myChanges.clear();
+	}
+
+	/**
+	 * @return returns true once a simulation has been loaded
+	 */
+	public boolean isLoaded() {
+		return myRules != null;
+	}
+
+	/**
+	 * @return returns the grid that this simulation is using
+	 */
+	public Grid getGrid() {
+		return myGrid;
+	}
+
+	/**
+	 * @return returns the rules that this simulation is using
+	 */
+	public Rules getRules() {
+		return myRules;
+	}
+
+	/**
+	 * @return returns the type of the grid, as named in the XML file
+	 */
+	public String getGridType() {
+		return myGridType;
+	}
+
+	/**
+	 * @return returns the number of steps taken since the simulation was
+	 *         started, counting those taken before a snapshot was written
+	 */
+	public int getStepCount() {
+		return myStepCount;
+	}
+}
@@ -0,0 +1,283 @@
+/**
+ * Runs a SimulationEngine on a thread of its own, so that a slow step does not freeze the UI and a slow redraw does
+ * not hold up the simulation. Only this thread touches the grid and rules. The UI asks for changes by sending
+ * commands, which run between steps, and sees the results through frames published to a FrameExchange.
+ */
+
+package Controller;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import XML.ErrorReporter;
+import XML.RecordingReader;
+import XML.SimulationSource;
+
+public class SimulationWorker implements Runnable {
+	private static final String THREAD_NAME = "Simulation";
+	private static final int NO_STEP = -1;
+	private static final String SIMULATION_FAILED = "SimulationFailed";
+	private SimulationEngine myEngine;
+	private FrameExchange myFrames;
+	private BlockingQueue<Runnable> myCommands;
+	private boolean myRunning;
+	private int myStepDelay;
+	private int myTime;
+	private AtomicInteger myPendingStep;
+	private ErrorReporter myReporter;
+	private RecordingReader myReplay;
+	private int myPublishedRows;
+	private int myPublishedCols;
+
+	/**
+	 * Constructs a worker; the thread starts with start.
+	 * @param stepDelay: milliseconds between steps while the simulation is running.
+	 * @param reporter: told when a step or command fails; called on the simulation thread.
+	 */
+	public SimulationWorker(int stepDelay, ErrorReporter reporter) {
+		myEngine = new SimulationEngine();
+		myFrames = new FrameExchange();
+		myCommands = new LinkedBlockingQueue<Runnable>();
+		myStepDelay = stepDelay;
+		myPendingStep = new AtomicInteger(NO_STEP);
+		myReporter = reporter;
+	}
+
+	/**
+	 * Starts the simulation thread. It does not keep the program alive once the UI has closed.
+	 */
+	public void start() {
+		Thread thread = new Thread(this, THREAD_NAME);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Runs commands as they arrive and, while the simulation is running, steps it every myStepDelay milliseconds.
+	 */
+	@Override
+	public void run() {
+		long nextStep = System.nanoTime();
+		try {
+			while (true) {
+				Runnable command;
+				if (myRunning && myEngine.isLoaded()) {
+					command = myCommands.poll(Math.max(0, nextStep - System.nanoTime()), TimeUnit.NANOSECONDS);
+					if (command == null) {
+						runSafely(this::stepAndPublish);
+						nextStep = Math.max(nextStep + TimeUnit.MILLISECONDS.toNanos(myStepDelay), System.nanoTime());
+						continue;
+					}
+				} else {
+					command = myCommands.take();
+					nextStep = System.nanoTime();
+				}
+				runSafely(command);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Runs a command, stopping the simulation instead of the thread if it fails and reporting the failure.
+	 * @param command: command to run.
+	 */
+	private void runSafely(Runnable command) {
+		try {
+			command.run();
+		} catch (RuntimeException e) {
+			myRunning = false;
+			myReporter.displayAlert(SIMULATION_FAILED);
+		}
+	}
+
+	/**
+	 * Takes one step and publishes the result.
+	 */
+	private void stepAndPublish() {
+		myEngine.step();
+		myTime += myStepDelay;
+		publishFrame(false);
+	}
+
+	/**
+	 * Copies the changes since the last frame into the back frame and publishes it. The frame holds every cell
+	 * instead if the grid has changed size since the last frame.
+	 * @param full: true to copy every cell, as when there is no earlier frame of this grid.
+	 */
+	private void publishFrame(boolean full) {
+		int rows = myEngine.getGrid().getNumRows();
+		int cols = myEngine.getGrid().getNumCols();
+		full = full || rows != myPublishedRows || cols != myPublishedCols;
+		myFrames.getBackFrame().capture(myEngine, myTime, myFrames.getWindow(), full, myFrames.getUnseenFrame());
+		myEngine.clearChanges();
+		myPublishedRows = rows;
+		myPublishedCols = cols;
+		myFrames.publish();
+	}
+
+	/**
+	 * Sends a command to the simulation thread without waiting for it.
+	 * @param command: command to run between steps.
+	 */
+	public void submit(Runnable command) {
+		myCommands.add(command);
+	}
+
+	/**
+	 * Sends a command to the simulation thread and waits for its result.
+	 * @param command: command to run between steps.
+	 * @return what the command returned.
+	 */
+	public <T> T call(Callable<T> command) {
+		FutureTask<T> task = new FutureTask<T>(command);
+		myCommands.add(task);
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Sets up the simulation a parser has read and publishes its first frame; waits until it is done.
+	 * @param parser: XML parser or snapshot reader that has read a file.
+	 * @return true if the simulation was loaded; false if its cell data could not be read.
+	 */
+	public boolean load(SimulationSource parser) {
+		return call(() -> {
+			myRunning = false;
+			myReplay = null;
+			if (!myEngine.load(parser)) {
+				return false;
+			}
+			myTime = 0;
+			publishFrame(true);
+			return true;
+		});
+	}
+
+	/**
+	 * Stops stepping and publishes the step a recording is showing; waits until it is done. The loaded simulation is
+	 * kept, but frames come from the recording until showRecordedStep is no longer called.
+	 * @param reader: recording that has been read.
+	 */
+	public void replay(RecordingReader reader) {
+		call(() -> {
+			myRunning = false;
+			myReplay = reader;
+			publishRecordedStep(reader);
+			return null;
+		});
+	}
+
+	/**
+	 * Publishes a recorded step without waiting. While a step is waiting to be shown, asking for another replaces
+	 * it, so dragging through a recording only shows the steps there is time for.
+	 * @param reader: recording being replayed.
+	 * @param step: step to show.
+	 */
+	public void showRecordedStep(RecordingReader reader, int step) {
+		if (myPendingStep.getAndSet(step) == NO_STEP) {
+			submit(() -> {
+				if (reader.seek(myPendingStep.getAndSet(NO_STEP))) {
+					publishRecordedStep(reader);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Copies the step a recording is showing into the back frame and publishes it.
+	 */
+	private void publishRecordedStep(RecordingReader reader) {
+		myFrames.getBackFrame().capture(reader, reader.getStep() * myStepDelay, myFrames.getWindow());
+		myPublishedRows = reader.getNumRows();
+		myPublishedCols = reader.getNumCols();
+		myFrames.publish();
+	}
+
+	/**
+	 * Takes one step, whether or not the simulation is running.
+	 */
+	public void step() {
+		submit(() -> {
+			if (myEngine.isLoaded()) {
+				stepAndPublish();
+			}
+		});
+	}
+
+	/**
+	 * Runs an action on the loaded simulation and publishes the result, without waiting. The result shows up with the
+	 * next frame.
+	 * @param action: action that changes the engine's grid or rules.
+	 */
+	public void edit(Consumer<SimulationEngine> action) {
+		submit(() -> {
+			action.accept(myEngine);
+			publishFrame(false);
+		});
+	}
+
+	/**
+	 * Starts or stops stepping.
+	 * @param running: true to step every myStepDelay milliseconds; false to stop.
+	 */
+	public void setRunning(boolean running) {
+		submit(() -> myRunning = running);
+	}
+
+	/**
+	 * Changes how often the simulation steps while running.
+	 * @param stepDelay: milliseconds between steps.
+	 */
+	public void setStepDelay(int stepDelay) {
+		submit(() -> myStepDelay = stepDelay);
+	}
+
+	/**
+	 * Changes the window of cells whose states and values frames hold, and publishes the current step again with it
+	 * if the window is new.
+	 * @param window: top row, left column, number of rows and number of columns.
+	 */
+	public void setWindow(int[] window) {
+		if (Arrays.equals(window, myFrames.getWindow())) {
+			return;
+		}
+		myFrames.setWindow(window);
+		submit(() -> {
+			if (myReplay != null) {
+				publishRecordedStep(myReplay);
+			} else if (myEngine.isLoaded()) {
+				publishFrame(false);
+			}
+		});
+	}
+
+	/**
+	 * Gets the engine. Only commands running on the simulation thread may use it.
+	 * @return the engine.
+	 */
+	public SimulationEngine getEngine() {
+		return myEngine;
+	}
+
+	/**
+	 * @return returns the exchange through which frames reach the UI
+	 */
+	public FrameExchange getFrames() {
+		return myFrames;
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * Converts a simulation file between XML and the binary snapshot format, in either direction, choosing the direction
+ * by the extension of the output file. The simulation is loaded the same way the UI loads it and then saved, so an XML
+ * file gives the snapshot of its first step. An XML file holds only states, so converting a snapshot to XML keeps
+ * the states and parameters but not the agents, energy or pheromones the snapshot holds for its cells.
+ *
+ * Usage: SnapshotConverter input.xml|input.snap output.snap|output.xml
+ */
+
+package Controller;
+
+import java.io.File;
+import java.util.ResourceBundle;
+
+import Model.Grid;
+import XML.ErrorReporter;
+import XML.SimulationSource;
+import XML.SnapshotReader;
+import XML.SnapshotWriter;
+import XML.XMLGenerator;
+
+public class SnapshotConverter implements ErrorReporter {
+	private static final String USAGE = "ConverterUsage";
+	private ResourceBundle myErrorResources = ResourceBundle.getBundle(SimulationEngine.ERROR_RESOURCE);
+
+	public static void main(String[] args) {
+		SnapshotConverter converter = new SnapshotConverter();
+		if (args.length != 2) {
+			converter.displayAlert(USAGE);
+			System.exit(1);
+		}
+		if (!converter.convert(new File(args[0]), new File(args[1]))) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Loads a simulation file and saves it in the format given by the output file's extension.
+	 * @param input: XML file or snapshot to read.
+	 * @param output: file to write; a snapshot if its name ends in .snap, XML otherwise.
+	 * @return true if the file was converted; false otherwise.
+	 */
+	public boolean convert(File input, File output) {
+		SimulationSource parser = SimulationSource.forFile(input, this);
+		if (!parser.parse(input)) {
+			return false;
+		}
+		SimulationEngine engine = new SimulationEngine();
+		if (!engine.load(parser)) {
+			return false;
+		}
+		String rulesName = engine.getRules().getRulesName();
+		Grid grid = engine.getGrid();
+		if (SnapshotReader.isSnapshot(output)) {
+			return new SnapshotWriter(this).save(rulesName, engine.getRules(), grid, engine.getGridType(),
+					engine.getStepCount(), output);
+		}
+		if (!new XMLGenerator().save(rulesName, grid.getNumRows(), grid.getNumCols(), grid.getGrid(),
+				engine.getRules().getParameters(), output, engine.getGridType())) {
+			displayAlert("OutputFile");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes an error to standard error.
+	 * @param message: key of the error in Controller/ErrorMessages.
+	 */
+	@Override
+	public void displayAlert(String message) {
+		String[] errorData = myErrorResources.getString(message).split(",");
+		System.err.println(errorData[0] + ": " + errorData[1]);
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Keeps track of which square tiles of a grid may change in the next step. A Cell whose own state and whose neighbors'
+ * states did not change since it was last evaluated cannot change under rules that only look at a Cell's neighborhood,
+ * so only the tiles around Cells that changed last step need to be evaluated.
+ */
+
+package Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+
+public class ActivityTracker {
+	private ResourceBundle myResource = ResourceBundle.getBundle(Grid.DEFAULT_RESOURCE);
+	private int myTileShift = ceilLog2(Integer.parseInt(myResource.getString("ActivityTileSize")));
+	private int myTileSize = 1 << myTileShift;
+	private List<Cell> myChangedCells;
+	private boolean myFullSweepRequested;
+	private boolean myBorderSweepRequested;
+	private boolean[] myActiveTiles;
+	private int myNumTileRows;
+	private int myNumTileCols;
+
+	public ActivityTracker() {
+		myChangedCells = new ArrayList<Cell>();
+		myFullSweepRequested = true;
+		myBorderSweepRequested = false;
+		myActiveTiles = new boolean[0];
+	}
+
+	/**
+	 * Gets the exponent of the smallest power of two that is at least a given size, so that a tile size that is not a
+	 * power of two is rounded up rather than cut down.
+	 * @param size: requested tile size, at least 1.
+	 * @return exponent of the tile size to use.
+	 */
+	private static int ceilLog2(int size) {
+		return Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+	}
+
+	/**
+	 * Records that a Cell's state changed, so that it and its neighbors are evaluated next step.
+	 * @param cell: Cell that changed.
+	 */
+	public void recordChange(Cell cell) {
+		if (!myFullSweepRequested) {
+			myChangedCells.add(cell);
+		}
+	}
+
+	/**
+	 * Makes the next step evaluate every Cell, e.g. because nothing is known about the grid yet.
+	 */
+	public void requestFullSweep() {
+		myFullSweepRequested = true;
+		myChangedCells.clear();
+	}
+
+	/**
+	 * Makes the next step evaluate the tiles along the edges of the grid, e.g. because the grid grew and the Cells it
+	 * gained have not been evaluated yet.
+	 */
+	public void requestBorderSweep() {
+		myBorderSweepRequested = true;
+	}
+
+	/**
+	 * Works out which tiles are active for the step about to be taken from the changes recorded since the last one.
+	 * Locations are read from the Cells now, so growth of the grid in between is accounted for.
+	 * @param grid: grid about to be stepped.
+	 */
+	public void beginStep(Grid grid) {
+		int rows = grid.getNumRows();
+		int cols = grid.getNumCols();
+		myNumTileRows = (rows + myTileSize - 1) >> myTileShift;
+		myNumTileCols = (cols + myTileSize - 1) >> myTileShift;
+		if (myActiveTiles.length != myNumTileRows * myNumTileCols) {
+			myActiveTiles = new boolean[myNumTileRows * myNumTileCols];
+		}
+		for (int i = 0; i < myActiveTiles.length; i++) {
+			myActiveTiles[i] = myFullSweepRequested;
+		}
+		int radius = grid.getNeighborGridSideLength() / 2;
+		for (Cell cell : myChangedCells) {
+			markNeighborhood(grid, cell.getCurRow(), cell.getCurCol(), radius);
+		}
+		if (myBorderSweepRequested) {
+			markBorder();
+		}
+		myChangedCells.clear();
+		myFullSweepRequested = false;
+		myBorderSweepRequested = false;
+	}
+
+	/**
+	 * Marks the tiles covering a Cell and its neighbors as active.
+	 * @param grid: grid being stepped.
+	 * @param row: row of the Cell.
+	 * @param col: column of the Cell.
+	 * @param radius: distance from the Cell to its farthest neighbors.
+	 */
+	private void markNeighborhood(Grid grid, int row, int col, int radius) {
+		int rows = grid.getNumRows();
+		int cols = grid.getNumCols();
+		for (int r = row - radius; r <= row + radius; r++) {
+			for (int c = col - radius; c <= col + radius; c++) {
+				if (grid.wrapsAround()) {
+					markTile(Math.floorMod(r, rows), Math.floorMod(c, cols));
+				} else if (grid.inBounds(r, c)) {
+					markTile(r, c);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the tile covering a location as active.
+	 * @param row: row of the location.
+	 * @param col: column of the location.
+	 */
+	private void markTile(int row, int col) {
+		myActiveTiles[(row >> myTileShift) * myNumTileCols + (col >> myTileShift)] = true;
+	}
+
+	/**
+	 * Marks the tiles along the edges of the grid as active.
+	 */
+	private void markBorder() {
+		for (int tileRow = 0; tileRow < myNumTileRows; tileRow++) {
+			myActiveTiles[tileRow * myNumTileCols] = true;
+			myActiveTiles[tileRow * myNumTileCols + myNumTileCols - 1] = true;
+		}
+		for (int tileCol = 0; tileCol < myNumTileCols; tileCol++) {
+			myActiveTiles[tileCol] = true;
+			myActiveTiles[(myNumTileRows - 1) * myNumTileCols + tileCol] = true;
+		}
+	}
+
+	/**
+	 * Checks whether a tile needs to be evaluated this step.
+	 * @param tileRow: row of the tile.
+	 * @param tileCol: column of the tile.
+	 * @return true if a Cell in or next to the tile changed; false otherwise.
+	 */
+	public boolean isTileActive(int tileRow, int tileCol) {
+		return myActiveTiles[tileRow * myNumTileCols + tileCol];
+	}
+
+	/**
+	 * Gets the number of rows and columns of Cells in each tile.
+	 * @return side length of a tile.
+	 */
+	public int getTileSize() {
+		return myTileSize;
+	}
+
+	/**
+	 * Gets the number of columns of tiles covering the grid as of the last call to beginStep.
+	 * @return number of tile columns.
+	 */
+	public int getNumTileCols() {
+		return myNumTileCols;
+	}
+}
@@ -5,26 +5,47 @@
 
 package Model;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 public class Ant {
-	private static final int NUM_FORWARD_NEIGHBORS = 3;
+	private static final int NUM_DIRECTIONS = 8;
+	private static final int NO_DIRECTION = -1;
+	private static final int[] ROW_OFFSETS = new int[]{-1, -1, 0, 1, 1, 1, 0, -1};
+	private static final int[] COL_OFFSETS = new int[]{0, 1, 1, 1, 0, -1, -1, -1};
+	private static final int[] ALL_DIRECTIONS = new int[]{0, 1, 2, 3, 4, 5, 6, 7};
+	private static final int[][] FORWARD_DIRECTIONS = buildDirectionTable(-1, 1);
+	private static final int[][] OTHER_DIRECTIONS = buildDirectionTable(2, 6);
 	private boolean hasFood;
 	private boolean arrivedAtFood;
-	private int myDirectionRow;
-	private int myDirectionCol;
+	private int myDirection;
 	private static final String FOOD = "FOOD";
 	private static final String HOME = "HOME";
-	private static final int NUM_NEIGHBORS_PER_SIDE = 3;
 	private boolean hasMovedThisTurn;
 	private ForagingAntsCell myCurCell;
+	private RandomService myRandom;
+	
+	/**
+	 * Builds, for each direction, the directions a range of turns away from it. Directions are numbered clockwise
+	 * from north, so turning by one is adding or subtracting one.
+	 * @param firstTurn: first turn in the range (negative turns are counterclockwise).
+	 * @param lastTurn: last turn in the range.
+	 * @return table indexed by direction.
+	 */
+	private static int[][] buildDirectionTable(int firstTurn, int lastTurn) {
+		int[][] table = new int[NUM_DIRECTIONS][lastTurn - firstTurn + 1];
+		for (int direction = 0; direction < NUM_DIRECTIONS; direction++) {
+			for (int turn = firstTurn; turn <= lastTurn; turn++) {
+				table[direction][turn - firstTurn] = (direction + turn + NUM_DIRECTIONS) % NUM_DIRECTIONS;
+			}
+		}
+		return table;
+	}
 	
 	/**
 	 * Constructs an ant, initializing it as not yet moved, having no food, and orienting it in a random direction.
+	 * @param curCell: cell the ant starts in.
+	 * @param random: source of the ant's random choices.
 	 */
-	public Ant(ForagingAntsCell curCell) {
+	public Ant(ForagingAntsCell curCell, RandomService random) {
+		myRandom = random;
 		hasFood = false;
 		arrivedAtFood = false;
 		hasMovedThisTurn = false;
@@ -32,6 +53,23 @@ public class Ant {
 		myCurCell = curCell;
 	}
 	
+	/**
+	 * Constructs an ant that is restored from a snapshot, with the orientation and food it had then.
+	 * @param curCell: cell the ant is in.
+	 * @param random: source of the ant's random choices.
+	 * @param direction: direction the ant is facing, numbered clockwise from 0 (north) to 7 (northwest).
+	 * @param carryingFood: true if the ant has food; false otherwise.
+	 * @param atFood: true if the ant has just arrived at a food source; false otherwise.
+	 */
+	public Ant(ForagingAntsCell curCell, RandomService random, int direction, boolean carryingFood, boolean atFood) {
+		myRandom = random;
+		hasFood = carryingFood;
+		arrivedAtFood = atFood;
+		hasMovedThisTurn = false;
+		setDirection(direction);
+		myCurCell = curCell;
+	}
+	
 	/**
 	 * Sets the hasMovedThisTurn flag.
 	 * @param bool true if the ant has moved this turn, false otherwise.
@@ -89,30 +127,59 @@ public class Ant {
 	
 	/**
 	 * Gets the current orientation of the ant.
-	 * @return integer array with index 0 holding the row and index 1 holding the column towards which the ant is
-	 * 		facing in a 3x3 grid of it and its neighbors.
+	 * @return direction the ant is facing, numbered clockwise from 0 (north) to 7 (northwest).
 	 */
-	public Integer[] getDirection() {
-		return new Integer[]{myDirectionRow, myDirectionCol};
+	public int getDirection() {
+		return myDirection;
 	}
 	
 	/**
 	 * Sets the current orientation of the ant.
-	 * @param direction: integer array with index 0 holding the row and index 1 holding the column towards which the ant is
-	 * 		facing in a 3x3 grid of it and its neighbors.
+	 * @param direction: direction the ant is facing, numbered clockwise from 0 (north) to 7 (northwest).
+	 */
+	public void setDirection(int direction) {
+		myDirection = direction;
+	}
+
+	/**
+	 * Gets the row a direction points to in a 3x3 grid of the ant's cell and its neighbors.
+	 * @param direction: direction of interest.
+	 * @return row within the 3x3 grid.
 	 */
-	public void setDirection(int[] direction) {
-		myDirectionRow = direction[0];
-		myDirectionCol = direction[1];
+	public static int getRowInNeighborhood(int direction) {
+		return ROW_OFFSETS[direction] + 1;
+	}
+
+	/**
+	 * Gets the column a direction points to in a 3x3 grid of the ant's cell and its neighbors.
+	 * @param direction: direction of interest.
+	 * @return column within the 3x3 grid.
+	 */
+	public static int getColInNeighborhood(int direction) {
+		return COL_OFFSETS[direction] + 1;
+	}
+
+	/**
+	 * Gets the direction that points to a position in a 3x3 grid of the ant's cell and its neighbors.
+	 * @param row: row within the 3x3 grid.
+	 * @param col: column within the 3x3 grid.
+	 * @return direction pointing there, or 0 (north) if the position is the ant's own cell or outside the grid.
+	 */
+	public static int getDirectionInNeighborhood(int row, int col) {
+		for (int direction = 0; direction < NUM_DIRECTIONS; direction++) {
+			if (getRowInNeighborhood(direction) == row && getColInNeighborhood(direction) == col) {
+				return direction;
+			}
+		}
+		return 0;
 	}
 
 	/**
 	 * Follows the food pheromone gradient towards the food source.
 	 * @param neighborhood: cell of interest and its surrounding 8 neighbors.
-	 * @param directions: directions to check for food pheromones in the order that they should be checked.
 	 */
-	public void followFoodPheromones(ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		ForagingAntsCell nextLocation = followPheromones(FOOD, neighborhood, directions);
+	public void followFoodPheromones(NeighborhoodView neighborhood) {
+		ForagingAntsCell nextLocation = followPheromones(FOOD, neighborhood);
 		if (nextLocation.isFood()) {
 			hasFood = true;
 			arrivedAtFood = true;
@@ -120,24 +187,23 @@ public class Ant {
 	}
 	
 	/**
-	 * Follows the pheromone gradient of a specific type.
+	 * Follows the pheromone gradient of a specific type. An ant with no neighbor to step onto stays where it is.
 	 * @param type: type of pheromone to check for (HOME or FOOD).
 	 * @param neighborhood: cell of interest and its surrounding 8 neighbors.
-	 * @param directions: directions to check for pheromones in the order that they should be checked.
+	 * @return cell the ant is on afterwards.
 	 */
-	private ForagingAntsCell followPheromones(String type, ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		List<Integer[]> forwardDirections = directions.subList(0, NUM_FORWARD_NEIGHBORS - 1);
-		List<Integer[]> otherDirections = directions.subList(NUM_FORWARD_NEIGHBORS, directions.size() - 1); 
-		
-		ForagingAntsCell curLocation = neighborhood[1][1];
-		ForagingAntsCell nextLocation = selectLocation(type, neighborhood, forwardDirections, otherDirections);
+	private ForagingAntsCell followPheromones(String type, NeighborhoodView neighborhood) {
+		ForagingAntsCell curLocation = (ForagingAntsCell) neighborhood.getCenter();
+		int nextDirection = selectDirection(type, neighborhood);
 		
 		dropPheromones(type, curLocation);
-
-		if (nextLocation != null) {
-			setDirection(findRelativeDirectionWithinNeighborhood(neighborhood, nextLocation)); 
-			moveToNextLocation(curLocation, nextLocation);
+		if (nextDirection == NO_DIRECTION) {
+			setHasMovedThisTurn(true);
+			return curLocation;
 		}
+		ForagingAntsCell nextLocation = neighborAt(neighborhood, nextDirection);
+		setDirection(nextDirection);
+		moveToNextLocation(curLocation, nextLocation);
 		
 		return nextLocation;
 	}
@@ -155,58 +221,69 @@ public class Ant {
 	}
 	
 	/**
-	 * Chooses a cell for the ant to move to based on pheromone type, ant's orientation, and pheromone gradient. 
+	 * Chooses a direction for the ant to move in based on pheromone type, ant's orientation, and pheromone gradient.
+	 * The forward directions are weighed if any of them can be moved to, the rest otherwise. If none of those carry
+	 * pheromones, the ant keeps going the way it faces, turning randomly until it does not face an obstacle or an edge.
 	 * @param type: type of pheromone the ant is following (HOME or FOOD).
 	 * @param neighborhood: cell of interest and its surrounding 8 neighbors.
-	 * @param forwardDirections: forward directions relative to the ant's current orientation.
-	 * @param otherDirections: non-forward directions.
-	 * @return
+	 * @return direction of a neighbor that exists and is not an obstacle, or NO_DIRECTION if there is none.
 	 */
-	private ForagingAntsCell selectLocation(String type, ForagingAntsCell[][] neighborhood, List<Integer[]> forwardDirections, List<Integer[]> otherDirections) {
-		ForagingAntsCell nextLocation = null;
-		if (canMoveForward(neighborhood, forwardDirections)) {
-			Map<ForagingAntsCell, Integer> forwardWeights = assignWeights(type, neighborhood, forwardDirections);
-			nextLocation = pickWeightedRandomCell(forwardWeights);
-		} else {
-			Map<ForagingAntsCell, Integer> otherWeights = assignWeights(type, neighborhood, otherDirections);
-			nextLocation = pickWeightedRandomCell(otherWeights);
-		}
+	private int selectDirection(String type, NeighborhoodView neighborhood) {
+		int[] directions = canMoveForward(neighborhood) ? FORWARD_DIRECTIONS[myDirection] : OTHER_DIRECTIONS[myDirection];
+		int nextDirection = pickWeightedRandomDirection(type, neighborhood, directions);
 		
-		while (nextLocation == null || nextLocation.isObstacle()) {
-			nextLocation = neighborhood[myDirectionRow][myDirectionCol];
-			setRandomDirection();
+		if (nextDirection == NO_DIRECTION) {
+			if (!hasPassableNeighbor(neighborhood)) {
+				return NO_DIRECTION;
+			}
+			nextDirection = myDirection;
+			while (!isPassable(neighborAt(neighborhood, nextDirection))) {
+				nextDirection = generateRandom(NUM_DIRECTIONS);
+			}
 		}
 		
-		return nextLocation;
+		return nextDirection;
 	}
 
 	/**
-	 * Picks the highest-weighted cell and breaks ties randomly.
-	 * @param weights: map of ForagingAntsCells and their corresponding weights based on pheromone level.
-	 * @return highest-weighted cell that can be moved to.
+	 * Picks one of the directions whose neighbor can be moved to, with a chance proportional to the pheromones on
+	 * that neighbor. Walks the directions twice, once to total the weights and once to find the one the random draw
+	 * falls in, so nothing is allocated however many pheromones there are.
+	 * @param type: type of pheromone the ant is following (HOME or FOOD).
+	 * @param neighborhood: cell of interest and its surrounding 8 neighbors.
+	 * @param directions: directions to choose from.
+	 * @return picked direction, or NO_DIRECTION if none of the neighbors that can be moved to carry pheromones.
 	 */
-	private ForagingAntsCell pickWeightedRandomCell(Map<ForagingAntsCell, Integer> weights) {
+	private int pickWeightedRandomDirection(String type, NeighborhoodView neighborhood, int[] directions) {
 		int totalWeights = 0;
-		for (ForagingAntsCell key : weights.keySet()) {
-			totalWeights += weights.get(key);
+		for (int i = 0; i < directions.length; i++) {
+			totalWeights += weightOf(type, neighborAt(neighborhood, directions[i]));
 		}
 
 		if (totalWeights > 0) {
-			ForagingAntsCell[] weightedOptions = new ForagingAntsCell[totalWeights];
-			int counter = 0;
-
-			for (ForagingAntsCell key : weights.keySet()) {
-				for (int i = counter; i < weights.get(key); i++) {
-					weightedOptions[i] = key;
+			int target = generateRandom(totalWeights);
+			int cumulativeWeight = 0;
+			for (int i = 0; i < directions.length; i++) {
+				cumulativeWeight += weightOf(type, neighborAt(neighborhood, directions[i]));
+				if (cumulativeWeight > target) {
+					return directions[i];
 				}
-				counter += weights.get(key);
 			}
+		}
+		return NO_DIRECTION;
+	}
 
-			int randomIndex = generateRandom(totalWeights);
-			return weightedOptions[randomIndex];
-		} else {
-			return null;
+	/**
+	 * Gets the weight of a neighbor when picking where to move.
+	 * @param type: type of pheromone the ant is following (HOME or FOOD).
+	 * @param neighbor: neighbor of interest, possibly null.
+	 * @return the neighbor's pheromones of that type, or 0 if it cannot be moved to.
+	 */
+	private int weightOf(String type, ForagingAntsCell neighbor) {
+		if (neighbor == null || neighbor.isObstacle() || neighbor.isFull()) {
+			return 0;
 		}
+		return neighbor.getNumPheromones(type);
 	}
 
 	/**
@@ -215,54 +292,46 @@ public class Ant {
 	 * @return random number between 0 and max - 1.
 	 */
 	private int generateRandom(int max) {
-		return (int) Math.round(Math.random() * (max-1));
+		return Math.min((int) (myRandom.nextDouble() * max), max - 1);
 	}
 	
 	/**
 	 * Checks an ant's forward directions to see if any are both not at max capacity and not an obstacle.
 	 * @param neighborhood: cell of interest and 8 surrounding neighbors.
-	 * @param forwardDirections: forward directions based on ant's current orientation.
 	 * @return true if ant can move forward; false otherwise.
 	 */
-	private boolean canMoveForward(ForagingAntsCell[][] neighborhood, List<Integer[]> forwardDirections) {
-		int obstacleCount = 0;
-		int fullCount = 0;
-
-		for (int i = 0; i < forwardDirections.size(); i++) {
-			Integer[] dirToCheck = forwardDirections.get(i);
-			ForagingAntsCell neighbor = neighborhood[dirToCheck[0]][dirToCheck[1]];
-			if (neighbor != null) {
-				if (neighbor.isFull()) {
-					fullCount++;
-				}
-				if (neighbor.isObstacle()) {
-					obstacleCount++;
-				}
+	private boolean canMoveForward(NeighborhoodView neighborhood) {
+		int[] forwardDirections = FORWARD_DIRECTIONS[myDirection];
+		for (int i = 0; i < forwardDirections.length; i++) {
+			ForagingAntsCell neighbor = neighborAt(neighborhood, forwardDirections[i]);
+			if (isPassable(neighbor) && !neighbor.isFull()) {
+				return true;
 			}
 		}
-		
-		return (obstacleCount + fullCount) == NUM_FORWARD_NEIGHBORS;
+		return false;
 	}
-	
+
 	/**
-	 * Assigns weights to each neighbor cell based on pheromone level.
-	 * @param pheromoneType: pheromone type of interest (HOME or FOOD).
+	 * Checks whether any neighbor exists and is not an obstacle.
 	 * @param neighborhood: cell of interest and its surrounding 8 neighbors.
-	 * @param directions: directions to check in the order they should be checked.
-	 * @return
+	 * @return true if the ant could step somewhere; false if it is walled in.
 	 */
-	private Map<ForagingAntsCell, Integer> assignWeights(String pheromoneType, ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		Map<ForagingAntsCell, Integer> weights = new HashMap<ForagingAntsCell, Integer>();
-
-		for (int i = 0; i < directions.size(); i++) {
-			Integer[] dirToCheck = directions.get(i);
-			ForagingAntsCell neighbor = neighborhood[dirToCheck[0]][dirToCheck[1]];
-			if (neighbor != null) {
-				weights.put(neighbor, neighbor.getNumPheromones(pheromoneType));
+	private boolean hasPassableNeighbor(NeighborhoodView neighborhood) {
+		for (int direction = 0; direction < NUM_DIRECTIONS; direction++) {
+			if (isPassable(neighborAt(neighborhood, direction))) {
+				return true;
 			}
 		}
-		
-		return weights;
+		return false;
+	}
+
+	/**
+	 * Checks whether a neighbor exists and is not an obstacle.
+	 * @param neighbor: neighbor of interest, possibly null.
+	 * @return true if the ant could step onto it; false otherwise.
+	 */
+	private boolean isPassable(ForagingAntsCell neighbor) {
+		return neighbor != null && !neighbor.isObstacle();
 	}
 
 	/**
@@ -283,10 +352,9 @@ public class Ant {
 	/**
 	 * Follows the home pheromone gradient towards the ant home.
 	 * @param neighborhood: cell of interest and its surrounding 8 neighbors.
-	 * @param directions: directions to check for home pheromones in the order that they should be checked.
 	 */
-	public void followHomePheromones(ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		ForagingAntsCell nextLocation = followPheromones(HOME, neighborhood, directions);
+	public void followHomePheromones(NeighborhoodView neighborhood) {
+		ForagingAntsCell nextLocation = followPheromones(HOME, neighborhood);
 		if (nextLocation.isHome()) {
 			hasFood = false;
 		}
@@ -296,107 +364,71 @@ public class Ant {
 	 * Follow home pheromone gradient to try to move towards home.
 	 * @param cell: cell that ant is currently on.
 	 * @param neighborhood: cell of interest and surrounding 8 neighbors.
-	 * @param directions: directions to check for pheromones in the order that they should be checked.
 	 */
-	public void returnToNest(ForagingAntsCell cell, ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		pivotAtFood(cell, neighborhood, directions);		
-		followHomePheromones(neighborhood, directions);
+	public void returnToNest(ForagingAntsCell cell, NeighborhoodView neighborhood) {
+		pivotAtFood(cell, neighborhood);		
+		followHomePheromones(neighborhood);
 	}
 
 	/**
 	 * Follow food pheromone gradient to try to move towards food source.
 	 * @param cell: cell that ant is currently on.
 	 * @param neighborhood: cell of interest and surrounding 8 neighbors.
-	 * @param directions: directions to check for pheromones in the order that they should be checked.
 	 */
-	public void findFoodSource(ForagingAntsCell cell, ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		pivotAtHome(cell, neighborhood, directions);
-		followFoodPheromones(neighborhood, directions);
+	public void findFoodSource(ForagingAntsCell cell, NeighborhoodView neighborhood) {
+		pivotAtHome(cell, neighborhood);
+		followFoodPheromones(neighborhood);
 	}
 	
 	/**
 	 * If the ant has reached HOME, turns towards a direction in search of food.
 	 * @param cell: cell the ant is on.
 	 * @param neighborhood: cell the ant is on and surrounding 8 cells.
-	 * @param directions: directions to check for pheromones in the order that they should be checked.
 	 */
-	private void pivotAtHome(ForagingAntsCell cell, ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		pivotDirection(HOME, FOOD, cell, neighborhood, directions);
+	private void pivotAtHome(ForagingAntsCell cell, NeighborhoodView neighborhood) {
+		pivotDirection(HOME, FOOD, cell, neighborhood);
 	}
 	
 	/**
 	 * If the ant has reached FOOD, turns towards a direction in search of home.
 	 * @param cell: cell the ant is on.
 	 * @param neighborhood: cell the ant is on and surrounding 8 cells.
-	 * @param directions: directions to check for pheromones in the order that they should be checked.
 	 */
-	private void pivotAtFood(ForagingAntsCell cell, ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		pivotDirection(FOOD, HOME, cell, neighborhood, directions);
+	private void pivotAtFood(ForagingAntsCell cell, NeighborhoodView neighborhood) {
+		pivotDirection(FOOD, HOME, cell, neighborhood);
 	}
 	
 	/**
-	 * If the ant has reached either HOME or FOOD, turns towards a direction in search of the opposite.
+	 * If the ant has reached either HOME or FOOD, turns towards the neighbor with the pheromones of the opposite, 
+	 * weighted randomly over all 8 directions.
 	 * @param sourceType: type of cell the ant is on (either HOME or FOOD)
 	 * @param pheromoneType: type of cell the ant wants to follow (e.g. if at HOME, then FOOD).
 	 * @param cell: cell the ant is on.
 	 * @param neighborhood: cell the ant is on and surrounding 8 cells.
-	 * @param directions: directions to check for pheromones in the order that they should be checked.
 	 */
-	private void pivotDirection(String sourceType, String pheromoneType, ForagingAntsCell cell, ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
+	private void pivotDirection(String sourceType, String pheromoneType, ForagingAntsCell cell, NeighborhoodView neighborhood) {
 		if (cell.at(sourceType)) {
-			ForagingAntsCell nextLocation = findNextLocation(pheromoneType, neighborhood, directions);
-			if (nextLocation != null) {
-				setDirection(findRelativeDirectionWithinNeighborhood(neighborhood, nextLocation));
+			int nextDirection = pickWeightedRandomDirection(pheromoneType, neighborhood, ALL_DIRECTIONS);
+			if (nextDirection != NO_DIRECTION) {
+				setDirection(nextDirection);
 			}
 		}
 	}
 	
 	/**
-	 * Finds the next location that the ant should move to based on pheromone weights.
-	 * @param pheromoneType: type of pheromone the ant is following (FOOD or HOME).
-	 * @param neighborhood: cell of interest and 8 surrounding cells.
-	 * @param directions: list of directions to check in order that they should be checked.
-	 * @return ForagingAntsCell to move to.
-	 */
-	private ForagingAntsCell findNextLocation(String pheromoneType, ForagingAntsCell[][] neighborhood, List<Integer[]> directions) {
-		Map<ForagingAntsCell, Integer> weights = assignWeights(FOOD, neighborhood, directions);
-		ForagingAntsCell nextLocation = pickWeightedRandomCell(weights);
-		if (nextLocation != null) {
-			setDirection(findRelativeDirectionWithinNeighborhood(neighborhood, nextLocation));
-		}
-		return pickWeightedRandomCell(weights);
-	}
-
-	/**
-	 * Finds the direction that the ant is facing given its next location.
-	 * @param neighborhood: neighborhood surrounding the cell the ant is in.
-	 * @param nextLocation: location to move to.
-	 * @return int array holding the row direction at index 0 and column direction at index 1.
-	 */
-	private int[] findRelativeDirectionWithinNeighborhood(ForagingAntsCell[][] neighborhood, ForagingAntsCell nextLocation) {
-		int[] dir = new int[2];
-		for (int row = 0; row < neighborhood.length; row++) {
-			for (int col = 0; col < neighborhood[0].length; col++) {
-				if (neighborhood[row][col] != null) {
-					if (neighborhood[row][col].equals(nextLocation)) {
-						dir[0] = row;
-						dir[1] = col;
-					}
-				}
-			}
-		}
-		return dir;
+	 * Gets the neighbor in a given direction.
+	 * @param neighborhood: view of the cell the ant is in and its neighbors.
+	 * @param direction: direction of the neighbor.
+	 * @return the neighbor, or null if there is none.
+	 */
+	private ForagingAntsCell neighborAt(NeighborhoodView neighborhood, int direction) {
+		return (ForagingAntsCell) neighborhood.get(ROW_OFFSETS[direction], COL_OFFSETS[direction]);
 	}
 	
 	/**
-	 * Sets a random direction for the ant's orientation within a neighbors grid. (Cannot be [1, 1] as that is the current
-	 * cell itself).
+	 * Sets a random direction for the ant's orientation.
 	 */
 	public void setRandomDirection() {
-		myDirectionRow = (int) Math.round(Math.random() * (NUM_NEIGHBORS_PER_SIDE - 1));
-		myDirectionCol = (int) Math.round(Math.random() * (NUM_NEIGHBORS_PER_SIDE - 1));
-		if ((myDirectionRow == 1 && myDirectionCol == 1)) {
-			setRandomDirection();
-		}
+		myDirection = generateRandom(NUM_DIRECTIONS);
 	}
 }
@@ -12,7 +12,13 @@ public class Cell {
 	private int myCurCol;
 	private int myNextRow;
 	private int myNextCol;
+	private StateStore myStore;
+	private int myStoreRow;
+	private int myStoreCol;
+	private CoordinateFrame myFrame;
+	private int myUpdateSlot;
 	private static final int NULL = -1;
+	static final int NO_SLOT = -1;
 	
 	/**
 	 * Constructs a cell with the given initial state and position.
@@ -27,6 +33,7 @@ public class Cell {
 		myNextState = null;
 		myNextRow = NULL;
 		myNextCol = NULL;
+		myUpdateSlot = NO_SLOT;
 	}
 
 	/**
@@ -34,6 +41,9 @@ public class Cell {
 	 * @return current row of Cell.
 	 */
 	public int getCurRow() {
+		if (myFrame != null) {
+			return myCurRow - myFrame.getRowOrigin();
+		}
 		return myCurRow;
 	}
 
@@ -43,6 +53,10 @@ public class Cell {
 	 * @param col: current column of the Cell.
 	 */
 	public void setLocation(int row, int col) {
+		if (myFrame != null) {
+			row += myFrame.getRowOrigin();
+			col += myFrame.getColOrigin();
+		}
 		myCurRow = row;
 		myCurCol = col;
 	}
@@ -52,14 +66,85 @@ public class Cell {
 	 * @return current column of Cell.
 	 */
 	public int getCurCol() {
+		if (myFrame != null) {
+			return myCurCol - myFrame.getColOrigin();
+		}
 		return myCurCol;
 	}
 	
+	/**
+	 * Makes the Cell report its location relative to the origin of a CoordinateFrame, so that it keeps its place when
+	 * the origin moves. The Cell's current location is taken to be relative to the frame's current origin.
+	 * @param frame: frame of the grid that the Cell belongs to.
+	 */
+	public void attachToFrame(CoordinateFrame frame) {
+		myCurRow += frame.getRowOrigin();
+		myCurCol += frame.getColOrigin();
+		myFrame = frame;
+	}
+	
+	/**
+	 * Backs the Cell's current and next state with a grid's StateStore, copying the Cell's current state into it.
+	 * @param store: store of the grid that the Cell belongs to.
+	 */
+	public void attachToStore(StateStore store) {
+		attachToStore(store, getCurRow(), getCurCol());
+	}
+	
+	/**
+	 * Backs the Cell's current and next state with a slot of a StateStore other than the one at its location, such as
+	 * a slot in the store of one chunk of a larger grid.
+	 * @param store: store to keep the Cell's states in.
+	 * @param storeRow: row of the Cell's slot within the store.
+	 * @param storeCol: column of the Cell's slot within the store.
+	 */
+	public void attachToStore(StateStore store, int storeRow, int storeCol) {
+		myStore = store;
+		myStoreRow = storeRow;
+		myStoreCol = storeCol;
+		myStore.setCurrentState(myStoreRow, myStoreCol, myCurState);
+		myCurState = null;
+		myNextState = null;
+	}
+	
+	/**
+	 * Checks whether the Cell's states are held in a StateStore.
+	 * @return true if the Cell is backed by a StateStore; false otherwise.
+	 */
+	public boolean isStoreBacked() {
+		return myStore != null;
+	}
+	
+	/**
+	 * Gets the code of the current state of a store-backed Cell.
+	 * @return current state code, or StateTable.NO_STATE if the Cell is not store-backed.
+	 */
+	public int getCurStateCode() {
+		if (myStore != null) {
+			return myStore.getCurrentCode(myStoreRow, myStoreCol);
+		}
+		return StateTable.NO_STATE;
+	}
+	
+	/**
+	 * Gets the code of the pending state of a store-backed Cell.
+	 * @return pending state code, or StateTable.NO_STATE if there is none or the Cell is not store-backed.
+	 */
+	public int getNextStateCode() {
+		if (myStore != null) {
+			return myStore.getNextCode(myStoreRow, myStoreCol);
+		}
+		return StateTable.NO_STATE;
+	}
+	
 	/**
 	 * Gets the current state of the Cell.
 	 * @return current state of Cell.
 	 */
 	public String getCurState() {
+		if (myStore != null) {
+			return myStore.getCurrentState(myStoreRow, myStoreCol);
+		}
 		return myCurState;
 	}
 	
@@ -67,7 +152,11 @@ public class Cell {
 	 * Sets the current state of the Cell.
 	 */
 	public void setCurState(String state) {
-		myCurState = state;
+		if (myStore != null) {
+			myStore.setCurrentState(myStoreRow, myStoreCol, state);
+		} else {
+			myCurState = state;
+		}
 	}
 	
 	/**
@@ -96,11 +185,22 @@ public class Cell {
 		myNextCol = col;
 	}
 
+	/**
+	 * Clears the Cell's anticipated next row and column, as when a move it was part of is taken back.
+	 */
+	public void clearNextLocation() {
+		myNextRow = NULL;
+		myNextCol = NULL;
+	}
+
 	/**
 	 * Gets the next state of the Cell.
 	 * @return string representing the next state of the Cell.
 	 */
 	public String getNextState() {
+		if (myStore != null) {
+			return myStore.getNextState(myStoreRow, myStoreCol);
+		}
 		return myNextState;
 	}
 	
@@ -109,23 +209,55 @@ public class Cell {
 	 * @param state: next state of the Cell.
 	 */
 	public void setNextState(String state) {
-		myNextState = state;
+		if (myStore != null) {
+			myStore.setNextState(myStoreRow, myStoreCol, state);
+		} else {
+			myNextState = state;
+		}
+	}
+
+	/**
+	 * Checks whether the Cell is indistinguishable from a freshly created default Cell, so that it can be discarded and
+	 * recreated later. Subclasses that carry more than a state must also check that the rest is at its default.
+	 * @param defaultState: default state of the simulation.
+	 * @return true if the Cell is in the default state with nothing pending; false otherwise.
+	 */
+	public boolean isDefault(String defaultState) {
+		return defaultState.equals(getCurState()) && getNextState() == null && myNextRow == NULL && myNextCol == NULL;
+	}
+
+	/**
+	 * Gets the Cell's slot within the DirtyCellSet it was added to.
+	 * @return slot of the Cell, or NO_SLOT if it is not waiting to be updated.
+	 */
+	int getUpdateSlot() {
+		return myUpdateSlot;
+	}
+	
+	/**
+	 * Sets the Cell's slot within a DirtyCellSet.
+	 * @param slot: slot of the Cell, or NO_SLOT if it has been removed.
+	 */
+	void setUpdateSlot(int slot) {
+		myUpdateSlot = slot;
 	}
 
 	/**
 	 * Description of cell.
 	 */
 	public String toString() {
-		return "(" + myCurState + ", " + myNextState + ")";
+		return "(" + getCurState() + ", " + getNextState() + ")";
 	}
 	
 	/**
-	 * Updates the state of the cell based on the nextState.
+	 * Updates the state of the cell based on the nextState. Store-backed Cells are updated together when the grid
+	 * commits its StateStore. Either way the anticipated next location has been reached and is cleared.
 	 */
 	public void updateState(){
-		if (myNextState != null) {
+		if (myStore == null && myNextState != null) {
 			myCurState = myNextState;
 			myNextState = null;
 		}
+		clearNextLocation();
 	}
 }
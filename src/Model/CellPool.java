@@ -0,0 +1,67 @@
+/**
+ * A dense, reusable array of Cells for collecting Cells during a step. Adding and reading take constant time, and
+ * clearing only resets the size, so a pool that is filled and emptied every step stops allocating once it has grown
+ * to the largest step.
+ */
+
+package Model;
+
+public class CellPool {
+	private static final int INITIAL_CAPACITY = 64;
+	private Cell[] myCells;
+	private int mySize;
+
+	public CellPool() {
+		myCells = new Cell[INITIAL_CAPACITY];
+		mySize = 0;
+	}
+
+	/**
+	 * Adds a Cell to the end of the pool.
+	 * @param cell: Cell to add.
+	 */
+	public void add(Cell cell) {
+		if (mySize == myCells.length) {
+			Cell[] grown = new Cell[myCells.length * 2];
+			System.arraycopy(myCells, 0, grown, 0, mySize);
+			myCells = grown;
+		}
+		myCells[mySize] = cell;
+		mySize++;
+	}
+
+	/**
+	 * Gets the Cell at an index of the pool.
+	 * @param index: index between 0 and size() - 1.
+	 * @return Cell at the index.
+	 */
+	public Cell get(int index) {
+		return myCells[index];
+	}
+
+	/**
+	 * Exchanges the Cells at two indices of the pool.
+	 * @param i: first index.
+	 * @param j: second index.
+	 */
+	public void swap(int i, int j) {
+		Cell cell = myCells[i];
+		myCells[i] = myCells[j];
+		myCells[j] = cell;
+	}
+
+	/**
+	 * Gets the number of Cells in the pool.
+	 * @return number of Cells.
+	 */
+	public int size() {
+		return mySize;
+	}
+
+	/**
+	 * Removes every Cell from the pool. The slots are overwritten by later adds rather than cleared.
+	 */
+	public void clear() {
+		mySize = 0;
+	}
+}
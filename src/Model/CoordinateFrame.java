@@ -0,0 +1,42 @@
+/**
+ * The origin that a grid's Cells measure their locations from. Cells that belong to a CoordinateFrame keep fixed
+ * absolute coordinates and report their location relative to the origin, so a grid can grow at its top and left edges
+ * by moving the origin instead of relocating every Cell.
+ */
+
+package Model;
+
+public class CoordinateFrame {
+	private int myRowOrigin;
+	private int myColOrigin;
+
+	public CoordinateFrame() {
+		myRowOrigin = 0;
+		myColOrigin = 0;
+	}
+
+	/**
+	 * Gets the absolute row of the grid's first row.
+	 * @return absolute row of row 0.
+	 */
+	public int getRowOrigin() {
+		return myRowOrigin;
+	}
+
+	/**
+	 * Gets the absolute column of the grid's first column.
+	 * @return absolute column of column 0.
+	 */
+	public int getColOrigin() {
+		return myColOrigin;
+	}
+
+	/**
+	 * Moves the origin up and to the left, so that every location increases by the given amount.
+	 * @param layers: number of rows and columns added before the grid's first row and column.
+	 */
+	public void grow(int layers) {
+		myRowOrigin -= layers;
+		myColOrigin -= layers;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * A counter-based RandomService. Instead of advancing a shared generator, each draw hashes (seed, step, key, draw)
+ * through the SplitMix64 finalizer, so draws need no synchronization and do not depend on how work is scheduled.
+ */
+
+package Model;
+
+public class CounterRandomService implements RandomService {
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+	private static final int UNUSED_BITS = 11;
+	private static final long SEQUENTIAL_KEY = RandomService.cellKey(-1, -1);
+	private long mySeed;
+	private long myStep;
+	private int myNumSequentialDraws;
+
+	/**
+	 * Constructs a service with a seed that differs from run to run.
+	 */
+	public CounterRandomService() {
+		this(mix(System.nanoTime()));
+	}
+
+	/**
+	 * Constructs a service whose draws are reproducible from a seed.
+	 * @param seed: seed that all draws are derived from.
+	 */
+	public CounterRandomService(long seed) {
+		mySeed = seed;
+		myStep = 0;
+		myNumSequentialDraws = 0;
+	}
+
+	@Override
+	public void nextStep() {
+		myStep++;
+		myNumSequentialDraws = 0;
+	}
+
+	@Override
+	public double nextDouble(long key, int draw) {
+		long hash = mix(mySeed + GOLDEN_GAMMA * (myStep + 1));
+		hash = mix(hash ^ (key * GOLDEN_GAMMA));
+		hash = mix(hash + GOLDEN_GAMMA * (draw + 1));
+		return (hash >>> UNUSED_BITS) * DOUBLE_UNIT;
+	}
+
+	@Override
+	public double nextDouble() {
+		return nextDouble(SEQUENTIAL_KEY, myNumSequentialDraws++);
+	}
+
+	@Override
+	public long getSeed() {
+		return mySeed;
+	}
+
+	/**
+	 * Scrambles the bits of a number (the SplitMix64 finalizer).
+	 * @param z: number to scramble.
+	 * @return scrambled number.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * An insertion-ordered set of the Cells that need to be updated this round of the Simulation. Each Cell remembers its
+ * slot in the set, so adding, removing and checking membership take constant time. Removed Cells leave an empty slot
+ * behind so that the remaining Cells keep their order; the slots are reclaimed when the set is cleared.
+ */
+
+package Model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class DirtyCellSet implements Iterable<Cell> {
+	private static final int INITIAL_CAPACITY = 64;
+	private Cell[] myCells;
+	private int myNumSlots;
+	private int mySize;
+
+	public DirtyCellSet() {
+		myCells = new Cell[INITIAL_CAPACITY];
+		myNumSlots = 0;
+		mySize = 0;
+	}
+
+	/**
+	 * Adds a Cell to the end of the set if it is not already in it.
+	 * @param cell: Cell to add.
+	 * @return true if the Cell was added; false if it was already in the set.
+	 */
+	public boolean add(Cell cell) {
+		if (contains(cell)) {
+			return false;
+		}
+		if (myNumSlots == myCells.length) {
+			Cell[] grown = new Cell[myCells.length * 2];
+			System.arraycopy(myCells, 0, grown, 0, myNumSlots);
+			myCells = grown;
+		}
+		cell.setUpdateSlot(myNumSlots);
+		myCells[myNumSlots] = cell;
+		myNumSlots++;
+		mySize++;
+		return true;
+	}
+
+	/**
+	 * Removes a Cell from the set.
+	 * @param cell: Cell to remove.
+	 * @return true if the Cell was in the set; false otherwise.
+	 */
+	public boolean remove(Cell cell) {
+		if (!contains(cell)) {
+			return false;
+		}
+		myCells[cell.getUpdateSlot()] = null;
+		cell.setUpdateSlot(Cell.NO_SLOT);
+		mySize--;
+		return true;
+	}
+
+	/**
+	 * Checks whether a Cell is in the set.
+	 * @param cell: Cell to check.
+	 * @return true if the Cell is in the set; false otherwise.
+	 */
+	public boolean contains(Cell cell) {
+		int slot = cell.getUpdateSlot();
+		return slot >= 0 && slot < myNumSlots && myCells[slot] == cell;
+	}
+
+	/**
+	 * Removes every Cell from the set.
+	 */
+	public void clear() {
+		for (int slot = 0; slot < myNumSlots; slot++) {
+			if (myCells[slot] != null) {
+				myCells[slot].setUpdateSlot(Cell.NO_SLOT);
+				myCells[slot] = null;
+			}
+		}
+		myNumSlots = 0;
+		mySize = 0;
+	}
+
+	/**
+	 * Gets the number of Cells in the set.
+	 * @return number of Cells in the set.
+	 */
+	public int size() {
+		return mySize;
+	}
+
+	/**
+	 * Checks whether the set is empty.
+	 * @return true if no Cells are in the set; false otherwise.
+	 */
+	public boolean isEmpty() {
+		return mySize == 0;
+	}
+
+	/**
+	 * Iterates over the Cells in the order in which they were added.
+	 */
+	@Override
+	public Iterator<Cell> iterator() {
+		return new Iterator<Cell>() {
+			private int mySlot = skipEmptySlots(0);
+
+			@Override
+			public boolean hasNext() {
+				return mySlot < myNumSlots;
+			}
+
+			@Override
+			public Cell next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Cell cell = myCells[mySlot];
+				mySlot = skipEmptySlots(mySlot + 1);
+				return cell;
+			}
+		};
+	}
+
+	/**
+	 * Finds the first occupied slot at or after a given slot.
+	 * @param slot: slot to start from.
+	 * @return the first occupied slot, or the number of slots if there is none.
+	 */
+	private int skipEmptySlots(int slot) {
+		while (slot < myNumSlots && myCells[slot] == null) {
+			slot++;
+		}
+		return slot;
+	}
+}
@@ -9,8 +9,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class ForagingAntsCell extends Cell {
-	private int myFoodPheromones;
-	private int myHomePheromones;
+	private PheromoneField myPheromones;
+	private int myPheromoneSlot;
 	private int myNumAnts;
 	private int myMaxNumAnts;
 	private List<Ant> myAnts;
@@ -21,9 +21,6 @@ public class ForagingAntsCell extends Cell {
 	private static final int MAX_ANT_PER_CELL = 10;
 	private int myFoodAmount;
 	private static final int INIT_FOOD_AMOUNT = 5;
-	private int myFoodPheromoneRecency;
-	private int myHomePheromoneRecency;
-	private static final int RESET_PHEROMONE_INTERVAL = 5;
 	
 	/**
 	 * Constructs a ForagingAntsCell, initializing all ants to start at HOME.
@@ -31,14 +28,16 @@ public class ForagingAntsCell extends Cell {
 	 * @param row
 	 * @param col
 	 * @param numTotalAnts
+	 * @param random: source of the ants' random choices.
+	 * @param pheromones: field to keep this cell's pheromones in.
 	 */
-	public ForagingAntsCell(String initialState, int row, int col, int numTotalAnts) {
+	public ForagingAntsCell(String initialState, int row, int col, int numTotalAnts, RandomService random, PheromoneField pheromones) {
 		super(initialState, row, col);
 		myAnts = new ArrayList<Ant>();
 		if (initialState.equals(HOME)) {
 			myNumAnts = numTotalAnts;
 			for (int i = 0; i < numTotalAnts; i++) {
-				myAnts.add(new Ant(this));
+				myAnts.add(new Ant(this, random));
 			}
 		} else {
 			myNumAnts = 0;
@@ -51,8 +50,8 @@ public class ForagingAntsCell extends Cell {
 		}
 		
 		myMaxNumAnts = MAX_ANT_PER_CELL;
-		myFoodPheromones = 0;
-		myHomePheromones = 0;
+		myPheromones = pheromones;
+		myPheromoneSlot = pheromones.addSlot();
 	}
 
 	/**
@@ -64,23 +63,19 @@ public class ForagingAntsCell extends Cell {
 		return getCurState().equals(sourceType);
 	}
 
+	/**
+	 * Gives this cell's slot in the pheromone field back, once the grid no longer holds the cell.
+	 */
+	public void releasePheromones() {
+		myPheromones.releaseSlot(myPheromoneSlot);
+	}
+
 	public void resetHomePheromoneRecency() {
-		myHomePheromoneRecency = 0;
+		myPheromones.resetHomeRecency(myPheromoneSlot);
 	}
 	
 	public void resetFoodPheromoneRecency() {
-		myFoodPheromoneRecency = 0;
-	}
-	
-	public void incrementPheromoneRecency() {
-		myHomePheromoneRecency++;
-		myFoodPheromoneRecency++;
-		if (myHomePheromoneRecency == RESET_PHEROMONE_INTERVAL) {
-			myHomePheromones = 0;
-		}
-		if (myFoodPheromoneRecency == RESET_PHEROMONE_INTERVAL) {
-			myFoodPheromones = 0;
-		}
+		myPheromones.resetFoodRecency(myPheromoneSlot);
 	}
 	
 	/**
@@ -109,7 +104,7 @@ public class ForagingAntsCell extends Cell {
 	 * Increases the amount of food pheromones on this cell by 1.
 	 */
 	public void increaseFoodPheromones() {
-		myFoodPheromones++;
+		myPheromones.increaseFood(myPheromoneSlot);
 	}
 	
 	/**
@@ -119,9 +114,36 @@ public class ForagingAntsCell extends Cell {
 	 */
 	public int getNumPheromones(String type) {
 		if (type.equals(HOME)) {
-			return myHomePheromones;
+			return myPheromones.getHomeAmount(myPheromoneSlot);
 		} else{
-			return myFoodPheromones;
+			return myPheromones.getFoodAmount(myPheromoneSlot);
+		}
+	}
+	
+	/**
+	 * Gets the number of steps since pheromones of the type specified were last dropped on this cell.
+	 * @param type: type of pheromone of interest (HOME or FOOD).
+	 * @return steps since the pheromones were last dropped.
+	 */
+	public int getPheromoneRecency(String type) {
+		if (type.equals(HOME)) {
+			return myPheromones.getHomeRecency(myPheromoneSlot);
+		} else {
+			return myPheromones.getFoodRecency(myPheromoneSlot);
+		}
+	}
+	
+	/**
+	 * Sets the pheromones of the type specified, as when restoring a cell from a snapshot.
+	 * @param type: type of pheromone of interest (HOME or FOOD).
+	 * @param amount: number of pheromones on this cell.
+	 * @param recency: steps since the pheromones were last dropped.
+	 */
+	public void setPheromones(String type, int amount, int recency) {
+		if (type.equals(HOME)) {
+			myPheromones.setHome(myPheromoneSlot, amount, recency);
+		} else {
+			myPheromones.setFood(myPheromoneSlot, amount, recency);
 		}
 	}
 	
@@ -129,7 +151,7 @@ public class ForagingAntsCell extends Cell {
 	 * Increases the number of home pheromones on this cell by 1.
 	 */
 	public void increaseHomePheromones() {
-		myHomePheromones++;
+		myPheromones.increaseHome(myPheromoneSlot);
 	}
 	
 	/**
@@ -158,6 +180,14 @@ public class ForagingAntsCell extends Cell {
 		myNumAnts--;
 	}
 	
+	/**
+	 * Removes every ant from this cell.
+	 */
+	public void clearAnts() {
+		myAnts.clear();
+		myNumAnts = 0;
+	}
+	
 	/**
 	 * Checks if this cell is at max ant capacity.
 	 * @return true if cell is at max capacity; false otherwise.
@@ -194,6 +224,22 @@ public class ForagingAntsCell extends Cell {
 		}
 	}
 	
+	/**
+	 * Gets the amount of food left on this cell.
+	 * @return amount of food left.
+	 */
+	public int getFoodAmount() {
+		return myFoodAmount;
+	}
+	
+	/**
+	 * Sets the amount of food left on this cell, as when restoring a cell from a snapshot.
+	 * @param amount: amount of food left.
+	 */
+	public void setFoodAmount(int amount) {
+		myFoodAmount = amount;
+	}
+	
 	/**
 	 * Checks if this cell is the home.
 	 * @return true if this cell is the home; false otherwise.
@@ -202,12 +248,21 @@ public class ForagingAntsCell extends Cell {
 		return getCurState().equals(HOME);
 	}
 	
+	/**
+	 * A ForagingAntsCell is only default if it also holds no ants, pheromones or food.
+	 */
+	@Override
+	public boolean isDefault(String defaultState) {
+		return super.isDefault(defaultState) && myAnts.isEmpty() && myNumAnts == 0 && getNumPheromones(FOOD) == 0
+				&& getNumPheromones(HOME) == 0 && myFoodAmount == 0;
+	}
+	
 	/**
 	 * Description of ForagingAntCell.
 	 */
 	public String toString() {
 		return ("Cell row: " + this.getCurRow() + ", col: " + this.getCurCol() + "\n" + 
-				"\t num Ants: " + myNumAnts + "\n\tnum food pheromones: " + myFoodPheromones
-				+ ", num home pheromones: " + myHomePheromones + ", num food left: " + myFoodAmount + "\n");
+				"\t num Ants: " + myNumAnts + "\n\tnum food pheromones: " + getNumPheromones(FOOD)
+				+ ", num home pheromones: " + getNumPheromones(HOME) + ", num food left: " + myFoodAmount + "\n");
 	}
 }
@@ -13,11 +13,16 @@ public abstract class Grid {
 	private ResourceBundle myResource = ResourceBundle.getBundle(DEFAULT_RESOURCE);
 	private int myNeighborGridSideLength = Integer.parseInt(myResource.getString("NeighborGridSideLength"));
 	private int myNumRowsColsToExpand = Integer.parseInt(myResource.getString("NumRowsColsToExpand"));
+	private String myStorageMode = myResource.getString("StateStorage");
+	private static final String PRIMITIVE_STORAGE = "Primitive";
 	private int myRows;
 	private int myCols;
 	private Cell[][] myGrid;
 	private boolean resizedImmediatelyBefore;
 	private boolean resizedThisStep;
+	private StateStore myStateStore;
+	private StateTable myStateTable;
+	private NeighborhoodView myNeighborhood;
 	
 	/**
 	 * Sets the rules, possible states, grid size, and initial states for the current simulation.
@@ -27,9 +32,18 @@ public abstract class Grid {
 	 * each state denoted by an integer. initialStates' size should match that of the Grid.
 	 */
 	public Grid(int rows, int cols, String[][] initialStates) {
+		this(rows, cols);
+		myGrid = new Cell[myRows][myCols];
+	}
+	
+	/**
+	 * Sets the grid size for subclasses that keep their Cells somewhere other than a single Cell[][].
+	 * @param rows: the number of rows for the specific simulation.
+	 * @param cols: the number of columns for the specific simulation.
+	 */
+	protected Grid(int rows, int cols) {
 		myRows = rows;
 		myCols = cols;
-		myGrid = new Cell[myRows][myCols];
 		resizedImmediatelyBefore = false;
 		resizedThisStep = false;
 	}
@@ -74,15 +88,101 @@ public abstract class Grid {
 	 */
 	public void addCellToGrid(int row, int col, Cell cell) {
 		myGrid[row][col] = cell;
+		if (myStateStore != null) {
+			cell.attachToStore(myStateStore);
+		}
+	}
+	
+	/**
+	 * Checks whether the Grid is configured to hold its states in a primitive StateStore.
+	 * @return true if the states should be held in a StateStore; false if each Cell holds its own states.
+	 */
+	public boolean usesStateStore() {
+		return myStorageMode.equals(PRIMITIVE_STORAGE);
+	}
+	
+	/**
+	 * Creates the StateStore that Cells added to the Grid will keep their states in.
+	 * @param table: table of the states of the current simulation.
+	 * @param defaultState: state that cells without an explicit state start in.
+	 */
+	public void initStateStore(StateTable table, String defaultState) {
+		myStateTable = table;
+		myStateStore = new StateStore(myRows, myCols, table, table.getCode(defaultState));
+	}
+	
+	/**
+	 * Gets the StateStore backing the Cells of the Grid.
+	 * @return the StateStore, or null if each Cell holds its own states.
+	 */
+	public StateStore getStateStore() {
+		return myStateStore;
+	}
+	
+	/**
+	 * Makes the pending states of all store-backed Cells current. Cells that hold their own states are updated
+	 * individually through Cell.updateState().
+	 */
+	public void commitStates() {
+		if (myStateStore != null) {
+			myStateStore.swap();
+		}
+	}
+	
+	/**
+	 * Sets the table of the states of the current simulation.
+	 * @param table: table of the states of the current simulation.
+	 */
+	public void setStateTable(StateTable table) {
+		myStateTable = table;
+	}
+	
+	/**
+	 * Gets the table of the states of the current simulation.
+	 * @return the state table.
+	 */
+	public StateTable getStateTable() {
+		return myStateTable;
 	}
 	
 	/**
-	 * Returns all neighbors of a given Cell and the Cell itself in their relative orientation.
+	 * Positions the Grid's shared NeighborhoodView on a given Cell. The view is reused by every call, so it is only
+	 * valid until the next call.
 	 * @param row: the row of the Cell whose neighborhood is of interest.
-	 * @param col: the column o the Cell whose neighborhood is of interest.
+	 * @param col: the column of the Cell whose neighborhood is of interest.
 	 * @param numNeighbors: the number of neighbors of interest for the simulation (4 or 8).
+	 * @return view of the Cell and its neighbors.
 	 */
-	public abstract Cell[][] getNeighborhood(int row, int col, int numNeighbors);
+	public NeighborhoodView getNeighborhood(int row, int col, int numNeighbors) {
+		if (myNeighborhood == null) {
+			myNeighborhood = new NeighborhoodView(this);
+		}
+		myNeighborhood.moveTo(row, col, numNeighbors);
+		return myNeighborhood;
+	}
+	
+	/**
+	 * Makes sure that the whole neighborhood of a Cell can be looked up, growing the Grid if necessary.
+	 * @param row: the row of the Cell whose neighborhood is of interest.
+	 * @param col: the column of the Cell whose neighborhood is of interest.
+	 * @return the amount that the Cell's row and column shifted by; 0 if the Grid did not change.
+	 */
+	protected int prepareNeighborhood(int row, int col) {
+		return 0;
+	}
+	
+	/**
+	 * Gets the neighbor at (row, col), which may lie just outside the Grid.
+	 * @param row: row of the neighbor.
+	 * @param col: column of the neighbor.
+	 * @return the neighbor, or null if there is no Cell at that location.
+	 */
+	protected Cell getNeighbor(int row, int col) {
+		if (inBounds(row, col)) {
+			return getCell(row, col);
+		}
+		return null;
+	}
 	
 	/**
 	 * Gets number of rows in the Grid.
@@ -110,6 +210,16 @@ public abstract class Grid {
 		return myGrid[row][col];
 	}
 	
+	/**
+	 * Gets the current state at a specific location within the Grid without requiring a Cell to exist there.
+	 * @param row: row of interest.
+	 * @param col: column of interest.
+	 * @return current state at [row, col] of the Grid.
+	 */
+	public String getStateAt(int row, int col) {
+		return getCell(row, col).getCurState();
+	}
+	
 	/**
 	 * Returns a representation of the Cells in the Grid.
 	 */
@@ -117,7 +227,7 @@ public abstract class Grid {
 		StringBuilder sb = new StringBuilder();
 		for (int row = 0; row < myRows; row++) {
 			for (int col = 0; col < myCols; col++) {
-				sb.append(myGrid[row][col].toString());
+				sb.append(getCell(row, col).toString());
 				sb.append(" ");
 			}
 			sb.append("\n");
@@ -130,9 +240,21 @@ public abstract class Grid {
 	 * @param newGrid: resized grid.
 	 */
 	protected void setGrid(Cell[][] newGrid) {
+		if (myStateStore != null && (newGrid.length != myStateStore.getNumRows() || newGrid[0].length != myStateStore.getNumCols())) {
+			throw new IllegalStateException("StateStore must be resized before the grid");
+		}
 		myGrid = newGrid;
-		myRows = newGrid.length;
-		myCols = newGrid[0].length;
+		setDimensions(newGrid.length, newGrid[0].length);
+	}
+	
+	/**
+	 * Records a new size for the grid after it has been resized.
+	 * @param rows: new number of rows.
+	 * @param cols: new number of columns.
+	 */
+	protected void setDimensions(int rows, int cols) {
+		myRows = rows;
+		myCols = cols;
 		setResizedImmediatelyBefore(true);
 		setResizedThisStep(true);
 	}
@@ -147,6 +269,22 @@ public abstract class Grid {
 		return (row >= 0 && row < myRows && col >= 0 && col < myCols);
 	}
 
+	/**
+	 * Checks whether the grid can grow while it is being stepped, which moves its Cells.
+	 * @return true if the grid can grow; false if its size is fixed.
+	 */
+	public boolean canResize() {
+		return false;
+	}
+	
+	/**
+	 * Checks whether neighbors past one edge of the grid are found at the opposite edge.
+	 * @return true if the grid wraps around; false otherwise.
+	 */
+	protected boolean wrapsAround() {
+		return false;
+	}
+	
 	/**
 	 * Gets the side length of the neighbor grid.
 	 * @return the side length of the neighbor grid.
@@ -0,0 +1,116 @@
+/**
+ * A fixed-size square tile of an InfiniteGrid. Cells are created the first time they are asked for, so a slot holding
+ * null stands for a default Cell that has not been needed yet. Store-backed chunks keep the states of their Cells in
+ * a StateStore of their own.
+ */
+
+package Model;
+
+import Rules.Rules;
+
+public class GridChunk {
+	private int mySize;
+	private Cell[] myCells;
+	private StateStore myStore;
+	private int myNumIdleCommits;
+	private boolean myAccessed;
+
+	/**
+	 * Constructs a chunk whose Cells are all default.
+	 * @param size: number of rows and columns in the chunk.
+	 * @param table: table of the states of the current simulation, or null if each Cell holds its own states.
+	 * @param defaultCode: code of the default state; ignored if table is null.
+	 */
+	public GridChunk(int size, StateTable table, int defaultCode) {
+		mySize = size;
+		myCells = new Cell[size * size];
+		if (table != null) {
+			myStore = new StateStore(size, size, table, defaultCode);
+		}
+		myNumIdleCommits = 0;
+		myAccessed = true;
+	}
+
+	/**
+	 * Gets the Cell at a location within the chunk.
+	 * @param row: row within the chunk.
+	 * @param col: column within the chunk.
+	 * @return the Cell, or null if it has not been created.
+	 */
+	public Cell getCell(int row, int col) {
+		return myCells[row * mySize + col];
+	}
+
+	/**
+	 * Puts a Cell at a location within the chunk, backing it with the chunk's StateStore if there is one.
+	 * @param row: row within the chunk.
+	 * @param col: column within the chunk.
+	 * @param cell: Cell to put there.
+	 */
+	public void setCell(int row, int col, Cell cell) {
+		myCells[row * mySize + col] = cell;
+		if (myStore != null) {
+			cell.attachToStore(myStore, row, col);
+		}
+	}
+
+	/**
+	 * Gets the StateStore backing the Cells of the chunk.
+	 * @return the StateStore, or null if each Cell holds its own states.
+	 */
+	public StateStore getStateStore() {
+		return myStore;
+	}
+
+	/**
+	 * Records that a Cell of the chunk was handed out, so that the chunk is not released while it is in use.
+	 */
+	public void markAccessed() {
+		myAccessed = true;
+	}
+
+	/**
+	 * Makes the pending states of the chunk's store-backed Cells current, and counts how many commits in a row the
+	 * chunk has gone untouched with only default Cells.
+	 * @param defaultState: default state of the simulation.
+	 * @return number of consecutive commits for which the chunk has been idle.
+	 */
+	public int commit(String defaultState) {
+		if (myStore != null) {
+			myStore.swap();
+		}
+		if (!myAccessed && holdsOnlyDefaults(defaultState)) {
+			myNumIdleCommits++;
+		} else {
+			myNumIdleCommits = 0;
+		}
+		myAccessed = false;
+		return myNumIdleCommits;
+	}
+
+	/**
+	 * Hands every Cell created in the chunk to the rules, as the chunk is being released.
+	 * @param rules: rules of the current simulation.
+	 */
+	public void releaseCells(Rules rules) {
+		for (Cell cell : myCells) {
+			if (cell != null) {
+				rules.cellReleased(cell);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether every Cell of the chunk is default.
+	 * @param defaultState: default state of the simulation.
+	 * @return true if the chunk could be recreated from scratch; false otherwise.
+	 */
+	private boolean holdsOnlyDefaults(String defaultState) {
+		for (Cell cell : myCells) {
+			if (cell != null && !cell.isDefault(defaultState)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * An immutable square block of a two-state universe, stored as a quadtree. A node of level k covers 2^k x 2^k cells;
+ * level 0 nodes are single cells. Nodes are canonicalized by HashLifeUniverse, so two nodes with the same contents are
+ * the same object and children can be compared by identity.
+ */
+
+package Model;
+
+public class HashLifeNode {
+	private final int myLevel;
+	private final HashLifeNode myNW;
+	private final HashLifeNode myNE;
+	private final HashLifeNode mySW;
+	private final HashLifeNode mySE;
+	private final long myPopulation;
+	private final int myHash;
+	private HashLifeNode myResult;
+	private int myResultStep;
+
+	/**
+	 * Constructs a single cell.
+	 * @param alive: true if the cell is alive; false otherwise.
+	 */
+	HashLifeNode(boolean alive) {
+		myLevel = 0;
+		myNW = null;
+		myNE = null;
+		mySW = null;
+		mySE = null;
+		myPopulation = alive ? 1 : 0;
+		myHash = alive ? 1 : 0;
+	}
+
+	/**
+	 * Constructs a block from its four quadrants, which must all be one level lower.
+	 * @param nw: top-left quadrant.
+	 * @param ne: top-right quadrant.
+	 * @param sw: bottom-left quadrant.
+	 * @param se: bottom-right quadrant.
+	 */
+	HashLifeNode(HashLifeNode nw, HashLifeNode ne, HashLifeNode sw, HashLifeNode se) {
+		myLevel = nw.myLevel + 1;
+		myNW = nw;
+		myNE = ne;
+		mySW = sw;
+		mySE = se;
+		myPopulation = nw.myPopulation + ne.myPopulation + sw.myPopulation + se.myPopulation;
+		myHash = hashOf(nw, ne, sw, se);
+	}
+
+	/**
+	 * Computes the hash of a block from the identities of its quadrants.
+	 * @param nw: top-left quadrant.
+	 * @param ne: top-right quadrant.
+	 * @param sw: bottom-left quadrant.
+	 * @param se: bottom-right quadrant.
+	 * @return hash of the block.
+	 */
+	static int hashOf(HashLifeNode nw, HashLifeNode ne, HashLifeNode sw, HashLifeNode se) {
+		int hash = System.identityHashCode(nw);
+		hash = hash * 31 + System.identityHashCode(ne);
+		hash = hash * 31 + System.identityHashCode(sw);
+		hash = hash * 31 + System.identityHashCode(se);
+		return hash;
+	}
+
+	/**
+	 * Gets the level of the node; the node covers 2^level x 2^level cells.
+	 * @return level of the node.
+	 */
+	public int getLevel() {
+		return myLevel;
+	}
+
+	/**
+	 * Gets the number of live cells in the node.
+	 * @return number of live cells.
+	 */
+	public long getPopulation() {
+		return myPopulation;
+	}
+
+	/**
+	 * Checks whether a level 0 node is alive.
+	 * @return true if alive; false otherwise.
+	 */
+	public boolean isAlive() {
+		return myPopulation > 0;
+	}
+
+	/**
+	 * Gets the top-left quadrant.
+	 * @return top-left quadrant, or null for a level 0 node.
+	 */
+	public HashLifeNode getNW() {
+		return myNW;
+	}
+
+	/**
+	 * Gets the top-right quadrant.
+	 * @return top-right quadrant, or null for a level 0 node.
+	 */
+	public HashLifeNode getNE() {
+		return myNE;
+	}
+
+	/**
+	 * Gets the bottom-left quadrant.
+	 * @return bottom-left quadrant, or null for a level 0 node.
+	 */
+	public HashLifeNode getSW() {
+		return mySW;
+	}
+
+	/**
+	 * Gets the bottom-right quadrant.
+	 * @return bottom-right quadrant, or null for a level 0 node.
+	 */
+	public HashLifeNode getSE() {
+		return mySE;
+	}
+
+	/**
+	 * Gets the memoized result of advancing the center of this node.
+	 * @param step: log2 of the number of generations advanced.
+	 * @return the memoized result, or null if it has not been computed for that step.
+	 */
+	HashLifeNode getResult(int step) {
+		if (myResult != null && myResultStep == step) {
+			return myResult;
+		}
+		return null;
+	}
+
+	/**
+	 * Memoizes the result of advancing the center of this node.
+	 * @param step: log2 of the number of generations advanced.
+	 * @param result: the center of this node after that many generations.
+	 */
+	void setResult(int step, HashLifeNode result) {
+		myResult = result;
+		myResultStep = step;
+	}
+
+	/**
+	 * Forgets the memoized result.
+	 */
+	void clearResult() {
+		myResult = null;
+	}
+
+	/**
+	 * Two nodes are equal if they are of the same level and have identical quadrants.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof HashLifeNode)) {
+			return false;
+		}
+		HashLifeNode node = (HashLifeNode) other;
+		if (myLevel == 0 || node.myLevel == 0) {
+			return myLevel == node.myLevel && myPopulation == node.myPopulation;
+		}
+		return myNW == node.myNW && myNE == node.myNE && mySW == node.mySW && mySE == node.mySE;
+	}
+
+	@Override
+	public int hashCode() {
+		return myHash;
+	}
+}
@@ -0,0 +1,432 @@
+/**
+ * An unbounded two-state universe stepped by a binary outer-totalistic rule with the HashLife algorithm. The universe
+ * is a canonical quadtree whose nodes memoize their own futures, so repeated structure in space and time is only ever
+ * computed once and a single call can advance 2^k generations. The table of canonical nodes is bounded: once it holds
+ * more than the given number of nodes, everything that is not part of the current pattern is dropped.
+ */
+
+package Model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class HashLifeUniverse {
+	private static final int INITIAL_LEVEL = 3;
+	private static final int MAX_NEIGHBORS = 8;
+	private int myBirthMask;
+	private int mySurviveMask;
+	private int myMaxNodes;
+	private Map<HashLifeNode, HashLifeNode> myNodes;
+	private List<HashLifeNode> myEmptyNodes;
+	private HashLifeNode myOn;
+	private HashLifeNode myOff;
+	private HashLifeNode myRoot;
+	private long myGeneration;
+
+	/**
+	 * Interface for code that visits each live cell in a region of the universe.
+	 */
+	public interface LiveCellVisitor {
+		/**
+		 * Visits one live cell.
+		 * @param row: row of the cell relative to the top of the region.
+		 * @param col: column of the cell relative to the left of the region.
+		 */
+		void visit(int row, int col);
+	}
+
+	/**
+	 * Constructs an empty universe.
+	 * @param birthMask: bit n is set if a dead cell with n live neighbors becomes alive.
+	 * @param surviveMask: bit n is set if a live cell with n live neighbors stays alive.
+	 * @param maxNodes: number of canonical nodes to keep before unused nodes are dropped.
+	 */
+	public HashLifeUniverse(int birthMask, int surviveMask, int maxNodes) {
+		myBirthMask = birthMask;
+		mySurviveMask = surviveMask;
+		myMaxNodes = maxNodes;
+		myNodes = new HashMap<HashLifeNode, HashLifeNode>();
+		myEmptyNodes = new ArrayList<HashLifeNode>();
+		myOn = new HashLifeNode(true);
+		myOff = new HashLifeNode(false);
+		myEmptyNodes.add(myOff);
+		myRoot = empty(INITIAL_LEVEL);
+		myGeneration = 0;
+	}
+
+	/**
+	 * Gets the canonical node with the given quadrants.
+	 * @param nw: top-left quadrant.
+	 * @param ne: top-right quadrant.
+	 * @param sw: bottom-left quadrant.
+	 * @param se: bottom-right quadrant.
+	 * @return the canonical node.
+	 */
+	private HashLifeNode join(HashLifeNode nw, HashLifeNode ne, HashLifeNode sw, HashLifeNode se) {
+		HashLifeNode node = new HashLifeNode(nw, ne, sw, se);
+		HashLifeNode canonical = myNodes.get(node);
+		if (canonical != null) {
+			return canonical;
+		}
+		myNodes.put(node, node);
+		return node;
+	}
+
+	/**
+	 * Gets the canonical empty node of a level.
+	 * @param level: level of the node.
+	 * @return the empty node.
+	 */
+	private HashLifeNode empty(int level) {
+		while (myEmptyNodes.size() <= level) {
+			HashLifeNode below = myEmptyNodes.get(myEmptyNodes.size() - 1);
+			myEmptyNodes.add(join(below, below, below, below));
+		}
+		return myEmptyNodes.get(level);
+	}
+
+	/**
+	 * Surrounds a node with empty space, doubling its side length and keeping it centered.
+	 * @param node: node to expand.
+	 * @return node one level higher with the given node at its center.
+	 */
+	private HashLifeNode expand(HashLifeNode node) {
+		HashLifeNode border = empty(node.getLevel() - 1);
+		return join(join(border, border, border, node.getNW()), join(border, border, node.getNE(), border),
+				join(border, node.getSW(), border, border), join(node.getSE(), border, border, border));
+	}
+
+	/**
+	 * Gets the center of a node.
+	 * @param node: node of level 2 or more.
+	 * @return node one level lower covering the middle of the given node.
+	 */
+	private HashLifeNode center(HashLifeNode node) {
+		return join(node.getNW().getSE(), node.getNE().getSW(), node.getSW().getNE(), node.getSE().getNW());
+	}
+
+	/**
+	 * Gets the half-size top-middle, middle-left, middle-right or bottom-middle block between two nodes.
+	 * @param left: node on the left (or top).
+	 * @param right: node on the right (or bottom).
+	 * @param horizontal: true if the nodes are side by side; false if one is above the other.
+	 * @return node of the same level straddling the two nodes.
+	 */
+	private HashLifeNode between(HashLifeNode left, HashLifeNode right, boolean horizontal) {
+		if (horizontal) {
+			return join(left.getNE(), right.getNW(), left.getSE(), right.getSW());
+		}
+		return join(left.getSW(), left.getSE(), right.getNW(), right.getNE());
+	}
+
+	/**
+	 * Advances the center of a node. The result is one level lower and is 2^min(step, level - 2) generations ahead.
+	 * @param node: node of level 2 or more.
+	 * @param step: log2 of the number of generations to advance.
+	 * @return the center of the node after the given number of generations.
+	 */
+	private HashLifeNode successor(HashLifeNode node, int step) {
+		int level = node.getLevel();
+		int effectiveStep = Math.min(step, level - 2);
+		if (node.getPopulation() == 0) {
+			return empty(level - 1);
+		}
+		HashLifeNode result = node.getResult(effectiveStep);
+		if (result != null) {
+			return result;
+		}
+		if (level == 2) {
+			result = baseCase(node);
+		} else {
+			HashLifeNode[] nine = new HashLifeNode[]{
+					node.getNW(), between(node.getNW(), node.getNE(), true), node.getNE(),
+					between(node.getNW(), node.getSW(), false), center(node), between(node.getNE(), node.getSE(), false),
+					node.getSW(), between(node.getSW(), node.getSE(), true), node.getSE()};
+			for (int i = 0; i < nine.length; i++) {
+				if (effectiveStep == level - 2) {
+					nine[i] = successor(nine[i], effectiveStep);
+				} else {
+					nine[i] = center(nine[i]);
+				}
+			}
+			result = join(successor(join(nine[0], nine[1], nine[3], nine[4]), effectiveStep),
+					successor(join(nine[1], nine[2], nine[4], nine[5]), effectiveStep),
+					successor(join(nine[3], nine[4], nine[6], nine[7]), effectiveStep),
+					successor(join(nine[4], nine[5], nine[7], nine[8]), effectiveStep));
+		}
+		node.setResult(effectiveStep, result);
+		return result;
+	}
+
+	/**
+	 * Advances the center 2x2 block of a 4x4 node by one generation.
+	 * @param node: level 2 node.
+	 * @return level 1 node holding the next generation of the center block.
+	 */
+	private HashLifeNode baseCase(HashLifeNode node) {
+		boolean[][] cells = new boolean[4][4];
+		for (int row = 0; row < 4; row++) {
+			for (int col = 0; col < 4; col++) {
+				cells[row][col] = leafAt(node, row, col).isAlive();
+			}
+		}
+		HashLifeNode[] next = new HashLifeNode[4];
+		for (int i = 0; i < next.length; i++) {
+			int row = 1 + i / 2;
+			int col = 1 + i % 2;
+			int numLiveNeighbors = 0;
+			for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+				for (int colOffset = -1; colOffset <= 1; colOffset++) {
+					if ((rowOffset != 0 || colOffset != 0) && cells[row + rowOffset][col + colOffset]) {
+						numLiveNeighbors++;
+					}
+				}
+			}
+			int mask = cells[row][col] ? mySurviveMask : myBirthMask;
+			next[i] = ((mask >> numLiveNeighbors) & 1) != 0 ? myOn : myOff;
+		}
+		return join(next[0], next[1], next[2], next[3]);
+	}
+
+	/**
+	 * Gets a single cell of a node.
+	 * @param node: node to look in.
+	 * @param row: row within the node.
+	 * @param col: column within the node.
+	 * @return level 0 node for the cell.
+	 */
+	private HashLifeNode leafAt(HashLifeNode node, long row, long col) {
+		while (node.getLevel() > 0) {
+			long half = 1L << (node.getLevel() - 1);
+			if (row < half) {
+				node = (col < half) ? node.getNW() : node.getNE();
+			} else {
+				node = (col < half) ? node.getSW() : node.getSE();
+				row -= half;
+			}
+			if (col >= half) {
+				col -= half;
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Gets the half side length of the root, i.e. the distance from the origin to its edges.
+	 * @return half the side length of the root.
+	 */
+	private long rootRadius() {
+		return 1L << (myRoot.getLevel() - 1);
+	}
+
+	/**
+	 * Checks whether a cell is alive.
+	 * @param row: row of the cell; the universe is unbounded in both directions.
+	 * @param col: column of the cell.
+	 * @return true if alive; false otherwise.
+	 */
+	public boolean isAlive(long row, long col) {
+		long radius = rootRadius();
+		if (row < -radius || row >= radius || col < -radius || col >= radius) {
+			return false;
+		}
+		return leafAt(myRoot, row + radius, col + radius).isAlive();
+	}
+
+	/**
+	 * Sets whether a cell is alive.
+	 * @param row: row of the cell; the universe is unbounded in both directions.
+	 * @param col: column of the cell.
+	 * @param alive: true to make the cell alive; false to make it dead.
+	 */
+	public void setAlive(long row, long col, boolean alive) {
+		while (row < -rootRadius() || row >= rootRadius() || col < -rootRadius() || col >= rootRadius()) {
+			myRoot = expand(myRoot);
+		}
+		myRoot = setLeaf(myRoot, row + rootRadius(), col + rootRadius(), alive);
+	}
+
+	/**
+	 * Rebuilds the path from a node down to one of its cells with the cell changed.
+	 * @param node: node to change.
+	 * @param row: row within the node.
+	 * @param col: column within the node.
+	 * @param alive: new state of the cell.
+	 * @return the changed node.
+	 */
+	private HashLifeNode setLeaf(HashLifeNode node, long row, long col, boolean alive) {
+		if (node.getLevel() == 0) {
+			return alive ? myOn : myOff;
+		}
+		long half = 1L << (node.getLevel() - 1);
+		HashLifeNode nw = node.getNW();
+		HashLifeNode ne = node.getNE();
+		HashLifeNode sw = node.getSW();
+		HashLifeNode se = node.getSE();
+		if (row < half && col < half) {
+			nw = setLeaf(nw, row, col, alive);
+		} else if (row < half) {
+			ne = setLeaf(ne, row, col - half, alive);
+		} else if (col < half) {
+			sw = setLeaf(sw, row - half, col, alive);
+		} else {
+			se = setLeaf(se, row - half, col - half, alive);
+		}
+		return join(nw, ne, sw, se);
+	}
+
+	/**
+	 * Advances the universe by 2^stepExponent generations.
+	 * @param stepExponent: log2 of the number of generations to advance.
+	 */
+	public void step(int stepExponent) {
+		while (myRoot.getLevel() < stepExponent + 3 || center(center(myRoot)).getPopulation() != myRoot.getPopulation()) {
+			myRoot = expand(myRoot);
+		}
+		myRoot = successor(expand(myRoot), stepExponent);
+		myGeneration += 1L << stepExponent;
+		if (myNodes.size() > myMaxNodes) {
+			collect();
+		}
+	}
+
+	/**
+	 * Drops every canonical node that is not part of the current pattern, along with all memoized results.
+	 */
+	private void collect() {
+		myNodes = new HashMap<HashLifeNode, HashLifeNode>();
+		List<HashLifeNode> empties = myEmptyNodes;
+		myEmptyNodes = new ArrayList<HashLifeNode>();
+		myEmptyNodes.add(myOff);
+		for (int level = 1; level < empties.size() && level <= myRoot.getLevel(); level++) {
+			keep(empties.get(level));
+			myEmptyNodes.add(empties.get(level));
+		}
+		keep(myRoot);
+	}
+
+	/**
+	 * Puts a node and everything below it back into the canonical table, forgetting their memoized results.
+	 * @param node: node to keep.
+	 */
+	private void keep(HashLifeNode node) {
+		if (node.getLevel() == 0 || myNodes.containsKey(node)) {
+			return;
+		}
+		node.clearResult();
+		keep(node.getNW());
+		keep(node.getNE());
+		keep(node.getSW());
+		keep(node.getSE());
+		myNodes.put(node, node);
+	}
+
+	/**
+	 * Gets the smallest box containing every live cell.
+	 * @return {minRow, minCol, maxRow, maxCol}, or null if no cells are alive.
+	 */
+	public long[] getBounds() {
+		if (myRoot.getPopulation() == 0) {
+			return null;
+		}
+		long[] bounds = new long[]{Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+		findBounds(myRoot, -rootRadius(), -rootRadius(), bounds);
+		return bounds;
+	}
+
+	/**
+	 * Widens a box to contain every live cell of a node.
+	 * @param node: node to look in.
+	 * @param top: row of the top of the node.
+	 * @param left: column of the left of the node.
+	 * @param bounds: {minRow, minCol, maxRow, maxCol} to widen.
+	 */
+	private void findBounds(HashLifeNode node, long top, long left, long[] bounds) {
+		if (node.getPopulation() == 0) {
+			return;
+		}
+		long size = 1L << node.getLevel();
+		if (top >= bounds[0] && left >= bounds[1] && top + size - 1 <= bounds[2] && left + size - 1 <= bounds[3]) {
+			return;
+		}
+		if (node.getLevel() == 0) {
+			bounds[0] = Math.min(bounds[0], top);
+			bounds[1] = Math.min(bounds[1], left);
+			bounds[2] = Math.max(bounds[2], top);
+			bounds[3] = Math.max(bounds[3], left);
+			return;
+		}
+		long half = size / 2;
+		findBounds(node.getNW(), top, left, bounds);
+		findBounds(node.getNE(), top, left + half, bounds);
+		findBounds(node.getSW(), top + half, left, bounds);
+		findBounds(node.getSE(), top + half, left + half, bounds);
+	}
+
+	/**
+	 * Visits every live cell in a rectangular region.
+	 * @param top: row of the top of the region.
+	 * @param left: column of the left of the region.
+	 * @param rows: number of rows in the region.
+	 * @param cols: number of columns in the region.
+	 * @param visitor: code to run on each live cell.
+	 */
+	public void forEachLiveCell(long top, long left, int rows, int cols, LiveCellVisitor visitor) {
+		visitLiveCells(myRoot, -rootRadius(), -rootRadius(), top, left, rows, cols, visitor);
+	}
+
+	/**
+	 * Visits the live cells of a node that fall in a rectangular region.
+	 * @param node: node to look in.
+	 * @param nodeTop: row of the top of the node.
+	 * @param nodeLeft: column of the left of the node.
+	 * @param top: row of the top of the region.
+	 * @param left: column of the left of the region.
+	 * @param rows: number of rows in the region.
+	 * @param cols: number of columns in the region.
+	 * @param visitor: code to run on each live cell.
+	 */
+	private void visitLiveCells(HashLifeNode node, long nodeTop, long nodeLeft, long top, long left, int rows, int cols,
+			LiveCellVisitor visitor) {
+		long size = 1L << node.getLevel();
+		if (node.getPopulation() == 0 || nodeTop >= top + rows || nodeLeft >= left + cols || nodeTop + size <= top
+				|| nodeLeft + size <= left) {
+			return;
+		}
+		if (node.getLevel() == 0) {
+			visitor.visit((int) (nodeTop - top), (int) (nodeLeft - left));
+			return;
+		}
+		long half = size / 2;
+		visitLiveCells(node.getNW(), nodeTop, nodeLeft, top, left, rows, cols, visitor);
+		visitLiveCells(node.getNE(), nodeTop, nodeLeft + half, top, left, rows, cols, visitor);
+		visitLiveCells(node.getSW(), nodeTop + half, nodeLeft, top, left, rows, cols, visitor);
+		visitLiveCells(node.getSE(), nodeTop + half, nodeLeft + half, top, left, rows, cols, visitor);
+	}
+
+	/**
+	 * Gets the number of generations the universe has been advanced by.
+	 * @return number of generations.
+	 */
+	public long getGeneration() {
+		return myGeneration;
+	}
+
+	/**
+	 * Gets the number of live cells.
+	 * @return number of live cells.
+	 */
+	public long getPopulation() {
+		return myRoot.getPopulation();
+	}
+
+	/**
+	 * Gets the number of canonical nodes currently kept.
+	 * @return number of nodes.
+	 */
+	public int getNumNodes() {
+		return myNodes.size();
+	}
+}
@@ -1,15 +1,33 @@
 /**
  * @author Amy Zhao
- * Defines the variables and methods for an infinite grid object.
+ * Defines the variables and methods for an infinite grid object. The grid is tiled into fixed-size chunks that are
+ * created when one of their Cells is first needed and released once they have held nothing but default Cells for a
+ * while, so memory follows the activity of the simulation rather than the area it has covered. Cells keep absolute
+ * coordinates in a CoordinateFrame, which lets the grid grow at any edge without moving them.
  */
 
 package Model;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ResourceBundle;
+
 import Rules.Rules;
 
 public class InfiniteGrid extends Grid {
+	private static final long CHUNK_COL_MASK = 0xFFFFFFFFL;
+	private ResourceBundle myResource = ResourceBundle.getBundle(DEFAULT_RESOURCE);
+	private int myChunkShift = Integer.numberOfTrailingZeros(Integer.parseInt(myResource.getString("ChunkSize")));
+	private int myChunkReleaseDelay = Integer.parseInt(myResource.getString("ChunkReleaseDelay"));
+	private int myChunkSize = 1 << myChunkShift;
+	private int myChunkMask = myChunkSize - 1;
 	Rules myRules;
-	
+	private CoordinateFrame myFrame;
+	private Map<Long, GridChunk> myChunks;
+	private StateTable myChunkStateTable;
+	private int myDefaultCode;
+
 	/**
 	 * Constructs an infinite grid specific to a given simulation's rules.
 	 * @param rows: number of rows.
@@ -18,90 +36,178 @@ public class InfiniteGrid extends Grid {
 	 * @param rules: rules specific to a given simulation.
 	 */
 	public InfiniteGrid(int rows, int cols, String[][] initialStates, Rules rules) {
-		super(rows, cols, initialStates);
+		super(rows, cols);
 		myRules = rules;
+		myFrame = new CoordinateFrame();
+		myChunks = new HashMap<Long, GridChunk>();
 	}
-	
+
 	/**
-	 * Get the surrounding neighborhood; resize if getting a neighbor requires going out of bounds by adding an outer
-	 * layer of cells to each side.
-	 * @param row: row of current cell.
-	 * @param col: column of current cell.
-	 * @param numNeighbors: 4 or 8 depending on simulation.
+	 * Records the state table so that each chunk can create a StateStore of its own; the grid as a whole has none.
+	 * @param table: table of the states of the current simulation.
+	 * @param defaultState: state that cells without an explicit state start in.
 	 */
-	public Cell[][] getNeighborhood(int row, int col, int numNeighbors) {
-		Cell[][] neighborhood = new Cell[getNeighborGridSideLength()][getNeighborGridSideLength()];
-		int[] rowDirections = new int[]{-1, 0, 1};
-		int[] colDirections = new int[]{-1, 0, 1};
-		
-		for (int rowOffset = 0; rowOffset < rowDirections.length; rowOffset++) {
-			for (int colOffset = 0; colOffset < colDirections.length; colOffset++) {
-				int rowToCheck = row + rowDirections[rowOffset];
-				int colToCheck = col + colDirections[colOffset];
-				if (inBounds(rowToCheck, colToCheck)) {
-					neighborhood[rowDirections[rowOffset] + 1][colDirections[colOffset] + 1] = this.getCell(rowToCheck, colToCheck);
-				} else {
-					resizeGrid();
-					row = row + 1;
-					col = col + 1;
-					neighborhood[rowDirections[rowOffset] + 1][colDirections[colOffset] + 1] = getCell(rowToCheck + 1, colToCheck + 1);
-				}
-			}
+	@Override
+	public void initStateStore(StateTable table, String defaultState) {
+		setStateTable(table);
+		myChunkStateTable = table;
+		myDefaultCode = table.getCode(defaultState);
+	}
+
+	/**
+	 * Adds a new Cell to the chunk covering (row, col).
+	 * @param row: the row that the Cell belongs in.
+	 * @param col: the column that the Cell belongs in.
+	 * @param cell: the Cell to be added.
+	 */
+	@Override
+	public void addCellToGrid(int row, int col, Cell cell) {
+		int absRow = row + myFrame.getRowOrigin();
+		int absCol = col + myFrame.getColOrigin();
+		cell.attachToFrame(myFrame);
+		getOrCreateChunk(absRow, absCol).setCell(absRow & myChunkMask, absCol & myChunkMask, cell);
+	}
+
+	/**
+	 * Gets the Cell at (row, col), creating it (and its chunk) as a default Cell if it does not exist yet.
+	 * @param row: row of the Cell of interest.
+	 * @param col: column of the Cell of interest.
+	 * @return Cell at [row, col] of the Grid.
+	 */
+	@Override
+	public Cell getCell(int row, int col) {
+		int absRow = row + myFrame.getRowOrigin();
+		int absCol = col + myFrame.getColOrigin();
+		GridChunk chunk = getOrCreateChunk(absRow, absCol);
+		chunk.markAccessed();
+		Cell cell = chunk.getCell(absRow & myChunkMask, absCol & myChunkMask);
+		if (cell == null) {
+			cell = myRules.createDefaultCell(row, col);
+			cell.attachToFrame(myFrame);
+			chunk.setCell(absRow & myChunkMask, absCol & myChunkMask, cell);
+		}
+		return cell;
+	}
+
+	/**
+	 * Gets the current state at (row, col) without creating a Cell there.
+	 * @param row: row of interest.
+	 * @param col: column of interest.
+	 * @return current state at [row, col] of the Grid.
+	 */
+	@Override
+	public String getStateAt(int row, int col) {
+		int absRow = row + myFrame.getRowOrigin();
+		int absCol = col + myFrame.getColOrigin();
+		GridChunk chunk = myChunks.get(chunkKey(absRow, absCol));
+		if (chunk == null) {
+			return myRules.getDefault();
+		}
+		Cell cell = chunk.getCell(absRow & myChunkMask, absCol & myChunkMask);
+		if (cell == null) {
+			return myRules.getDefault();
+		}
+		return cell.getCurState();
+	}
+
+	/**
+	 * Gets the chunk covering an absolute location, creating it if it does not exist yet.
+	 * @param absRow: absolute row.
+	 * @param absCol: absolute column.
+	 * @return the chunk.
+	 */
+	private GridChunk getOrCreateChunk(int absRow, int absCol) {
+		long key = chunkKey(absRow, absCol);
+		GridChunk chunk = myChunks.get(key);
+		if (chunk == null) {
+			chunk = new GridChunk(myChunkSize, myChunkStateTable, myDefaultCode);
+			myChunks.put(key, chunk);
 		}
-		
-		return neighborhood;
+		return chunk;
 	}
-	
+
 	/**
-	 * Resizes the grid by adding cells to the top, bottom, left, and right, and sets the resized grid to the current grid.
+	 * Packs the coordinates of the chunk covering an absolute location into a single key.
+	 * @param absRow: absolute row.
+	 * @param absCol: absolute column.
+	 * @return key of the chunk.
 	 */
-	private void resizeGrid() {
-		int curRows = getNumRows();
-		int curCols = getNumCols();
-		Cell[][] newGrid = new Cell[curRows + getNumRowsColsToExpand()][curCols + getNumRowsColsToExpand()];
-		populateGridWithExistingCells(newGrid, curRows, curCols);
-		addTopOrBotLayer(newGrid, 0);
-		addTopOrBotLayer(newGrid, newGrid.length - 1);
-		addLeftOrRightLayer(newGrid, 0);
-		addLeftOrRightLayer(newGrid, newGrid[0].length - 1);
-		setGrid(newGrid);
+	private long chunkKey(int absRow, int absCol) {
+		return ((long) (absRow >> myChunkShift) << Integer.SIZE) | ((absCol >> myChunkShift) & CHUNK_COL_MASK);
 	}
-	
+
 	/**
-	 * Populates a new grid with the existing cells from the current grid.
-	 * @param newGrid: resized grid.
-	 * @param curRows: number of rows in the current grid.
-	 * @param curCols: number of columns in the current grid.
+	 * Commits the pending states of every chunk, then releases chunks that have held only default Cells and gone
+	 * untouched for ChunkReleaseDelay commits in a row. The rules are told about each Cell of a released chunk.
 	 */
-	private void populateGridWithExistingCells(Cell[][] newGrid, int curRows, int curCols) {
-		for (int row = 0; row < curRows; row ++) {
-			for (int col = 0; col < curCols; col++) {
-				Cell cell = getCell(row, col);
-				cell.setLocation(row + 1, col + 1);
-				newGrid[row + 1][col + 1] = cell;
+	@Override
+	public void commitStates() {
+		Iterator<GridChunk> chunks = myChunks.values().iterator();
+		while (chunks.hasNext()) {
+			GridChunk chunk = chunks.next();
+			if (chunk.commit(myRules.getDefault()) >= myChunkReleaseDelay) {
+				chunk.releaseCells(myRules);
+				chunks.remove();
 			}
 		}
 	}
 
 	/**
-	 * Adds a layer of DEFAULT cells to the top or bottom of the grid.
-	 * @param grid: grid to add to.
-	 * @param relative row: 0 for top, grid.length - 1 for bot
+	 * Gets the number of chunks currently held in memory.
+	 * @return number of chunks.
 	 */
-	private void addTopOrBotLayer(Cell[][] grid, int row) {
-		for (int col = 0; col < grid[0].length; col++) {
-			grid[row][col] = myRules.createDefaultCell(row, col);
+	public int getNumChunks() {
+		return myChunks.size();
+	}
+
+	/**
+	 * An infinite grid grows whenever a neighborhood reaches past its edge.
+	 */
+	@Override
+	public boolean canResize() {
+		return true;
+	}
+
+	/**
+	 * Resizes the grid by adding an outer layer of cells to each side if getting a neighbor of the cell at (row, col)
+	 * would require going out of bounds.
+	 * @param row: row of current cell.
+	 * @param col: column of current cell.
+	 * @return number of layers added, by which every cell shifted down and right; 0 if the grid was not resized.
+	 */
+	@Override
+	protected int prepareNeighborhood(int row, int col) {
+		if (inBounds(row - 1, col - 1) && inBounds(row + 1, col + 1)) {
+			return 0;
 		}
+		int layers = getNumRowsColsToExpand() / 2;
+		expand(layers);
+		return layers;
 	}
 
 	/**
-	 * Adds a layer of DEFAULT cells to the left or right of the grid.
-	 * @param grid: grid to add to.
-	 * @param relative col: 0 for left, grid.length[0] - 1 for right
+	 * Resizes the grid by adding layers of DEFAULT cells to the top, bottom, left, and right. Every existing cell
+	 * shifts down and right by the number of layers. Only the origin moves; the new cells are created as they are
+	 * needed.
+	 * @param layers: number of layers to add to each side.
 	 */
-	private void addLeftOrRightLayer(Cell[][] grid, int col) {
-		for (int row = 0; row < grid.length; row++) {
-			grid[row][col] = myRules.createDefaultCell(row, col);
+	public void expand(int layers) {
+		myFrame.grow(layers);
+		setDimensions(getNumRows() + 2 * layers, getNumCols() + 2 * layers);
+	}
+
+	/**
+	 * Gets this grid as a single array, creating any Cells that do not exist yet.
+	 * @return the Cells of the grid.
+	 */
+	@Override
+	public Cell[][] getGrid() {
+		Cell[][] grid = new Cell[getNumRows()][getNumCols()];
+		for (int row = 0; row < getNumRows(); row++) {
+			for (int col = 0; col < getNumCols(); col++) {
+				grid[row][col] = getCell(row, col);
+			}
 		}
+		return grid;
 	}
 }
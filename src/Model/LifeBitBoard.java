@@ -0,0 +1,274 @@
+/**
+ * A two-state grid packed 64 cells to a long, stepped by a binary outer-totalistic rule (such as the Game of Life).
+ * Neighbor counts are computed for 64 cells at once with bit-sliced adders, so a step costs a few dozen word
+ * operations per 64 cells instead of one neighborhood lookup per cell.
+ */
+
+package Model;
+
+public class LifeBitBoard {
+	private static final int BITS_PER_WORD = 64;
+	private static final int MAX_NEIGHBORS = 8;
+	private int myRows;
+	private int myCols;
+	private int myWordsPerRow;
+	private long myLastWordMask;
+	private boolean myWraps;
+	private long[] myCurrent;
+	private long[] myPrevious;
+	private int[] myBirthCounts;
+	private int[] mySurviveCounts;
+
+	/**
+	 * Constructs an empty board.
+	 * @param rows: number of rows.
+	 * @param cols: number of columns.
+	 * @param wraps: true if the edges wrap around as on a ToroidalGrid; false if cells beyond the edges are dead.
+	 * @param birthMask: bit n is set if a dead cell with n live neighbors becomes alive.
+	 * @param surviveMask: bit n is set if a live cell with n live neighbors stays alive.
+	 */
+	public LifeBitBoard(int rows, int cols, boolean wraps, int birthMask, int surviveMask) {
+		myRows = rows;
+		myCols = cols;
+		myWraps = wraps;
+		myWordsPerRow = (cols + BITS_PER_WORD - 1) / BITS_PER_WORD;
+		int usedBits = cols - (myWordsPerRow - 1) * BITS_PER_WORD;
+		myLastWordMask = (usedBits == BITS_PER_WORD) ? -1L : (1L << usedBits) - 1;
+		myCurrent = new long[rows * myWordsPerRow];
+		myPrevious = new long[rows * myWordsPerRow];
+		myBirthCounts = countsInMask(birthMask);
+		mySurviveCounts = countsInMask(surviveMask);
+	}
+
+	/**
+	 * Lists the neighbor counts whose bits are set in a mask.
+	 * @param mask: bit n is set if count n is included.
+	 * @return the included counts.
+	 */
+	private int[] countsInMask(int mask) {
+		int[] counts = new int[Integer.bitCount(mask & ((1 << (MAX_NEIGHBORS + 1)) - 1))];
+		int i = 0;
+		for (int count = 0; count <= MAX_NEIGHBORS; count++) {
+			if ((mask & (1 << count)) != 0) {
+				counts[i++] = count;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Checks whether the cell at (row, col) is alive.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return true if alive; false otherwise.
+	 */
+	public boolean isAlive(int row, int col) {
+		return (myCurrent[row * myWordsPerRow + col / BITS_PER_WORD] & (1L << col)) != 0;
+	}
+
+	/**
+	 * Sets whether the cell at (row, col) is alive.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @param alive: true to make the cell alive; false to make it dead.
+	 */
+	public void setAlive(int row, int col, boolean alive) {
+		int index = row * myWordsPerRow + col / BITS_PER_WORD;
+		if (alive) {
+			myCurrent[index] |= 1L << col;
+		} else {
+			myCurrent[index] &= ~(1L << col);
+		}
+	}
+
+	/**
+	 * Advances the board by one generation. The previous generation is kept so that the cells that changed can be
+	 * found with getChangedWord.
+	 */
+	public void step() {
+		long[] next = myPrevious;
+		for (int row = 0; row < myRows; row++) {
+			int above = rowAbove(row);
+			int below = rowBelow(row);
+			for (int word = 0; word < myWordsPerRow; word++) {
+				next[row * myWordsPerRow + word] = nextWord(above, row, below, word);
+			}
+		}
+		myPrevious = myCurrent;
+		myCurrent = next;
+	}
+
+	/**
+	 * Gets which cells of one word changed in the last step.
+	 * @param row: row of the word.
+	 * @param word: index of the word within the row; bit i of word w is column w * 64 + i.
+	 * @return a word with a bit set for each cell that changed.
+	 */
+	public long getChangedWord(int row, int word) {
+		int index = row * myWordsPerRow + word;
+		return myCurrent[index] ^ myPrevious[index];
+	}
+
+	/**
+	 * Computes the next generation of one word.
+	 * @param above: row above, or -1 if there is none.
+	 * @param row: row of the word.
+	 * @param below: row below, or -1 if there is none.
+	 * @param word: index of the word within the row.
+	 * @return the next generation of the word.
+	 */
+	private long nextWord(int above, int row, int below, int word) {
+		long n = wordAt(above, word);
+		long s = wordAt(below, word);
+		long w = westOf(row, word);
+		long e = eastOf(row, word);
+		long nw = westOf(above, word);
+		long ne = eastOf(above, word);
+		long sw = westOf(below, word);
+		long se = eastOf(below, word);
+
+		// Bit-sliced sum of the eight neighbor words into count bits c0 (ones) through c3 (eights).
+		long s1 = nw ^ n ^ ne;
+		long k1 = (nw & n) | (ne & (nw ^ n));
+		long s2 = w ^ e ^ sw;
+		long k2 = (w & e) | (sw & (w ^ e));
+		long s3 = s ^ se;
+		long k3 = s & se;
+		long c0 = s1 ^ s2 ^ s3;
+		long k4 = (s1 & s2) | (s3 & (s1 ^ s2));
+		long t = k1 ^ k2 ^ k3;
+		long k5 = (k1 & k2) | (k3 & (k1 ^ k2));
+		long c1 = t ^ k4;
+		long k6 = t & k4;
+		long c2 = k5 ^ k6;
+		long c3 = k5 & k6;
+
+		long alive = wordAt(row, word);
+		long born = matchCounts(myBirthCounts, c0, c1, c2, c3);
+		long survives = matchCounts(mySurviveCounts, c0, c1, c2, c3);
+		long next = (~alive & born) | (alive & survives);
+		if (word == myWordsPerRow - 1) {
+			next &= myLastWordMask;
+		}
+		return next;
+	}
+
+	/**
+	 * Finds the cells whose neighbor count is one of the given counts.
+	 * @param counts: neighbor counts to match.
+	 * @param c0: ones bit of each cell's count.
+	 * @param c1: twos bit of each cell's count.
+	 * @param c2: fours bit of each cell's count.
+	 * @param c3: eights bit of each cell's count.
+	 * @return a word with a bit set for each matching cell.
+	 */
+	private long matchCounts(int[] counts, long c0, long c1, long c2, long c3) {
+		long match = 0;
+		for (int count : counts) {
+			match |= ((count & 1) != 0 ? c0 : ~c0) & ((count & 2) != 0 ? c1 : ~c1)
+					& ((count & 4) != 0 ? c2 : ~c2) & ((count & 8) != 0 ? c3 : ~c3);
+		}
+		return match;
+	}
+
+	/**
+	 * Gets a word of the current generation.
+	 * @param row: row of the word, or -1 for a row beyond the edge.
+	 * @param word: index of the word within the row.
+	 * @return the word, or 0 if the row is beyond the edge.
+	 */
+	private long wordAt(int row, int word) {
+		if (row < 0) {
+			return 0;
+		}
+		return myCurrent[row * myWordsPerRow + word];
+	}
+
+	/**
+	 * Gets the west neighbor of each cell of a word, i.e. the word shifted so that bit i holds column i - 1.
+	 * @param row: row of the word, or -1 for a row beyond the edge.
+	 * @param word: index of the word within the row.
+	 * @return the west neighbors.
+	 */
+	private long westOf(int row, int word) {
+		if (row < 0) {
+			return 0;
+		}
+		long carry;
+		if (word > 0) {
+			carry = wordAt(row, word - 1) >>> (BITS_PER_WORD - 1);
+		} else if (myWraps) {
+			carry = isAlive(row, myCols - 1) ? 1L : 0L;
+		} else {
+			carry = 0;
+		}
+		return (wordAt(row, word) << 1) | carry;
+	}
+
+	/**
+	 * Gets the east neighbor of each cell of a word, i.e. the word shifted so that bit i holds column i + 1.
+	 * @param row: row of the word, or -1 for a row beyond the edge.
+	 * @param word: index of the word within the row.
+	 * @return the east neighbors.
+	 */
+	private long eastOf(int row, int word) {
+		if (row < 0) {
+			return 0;
+		}
+		long shifted = wordAt(row, word) >>> 1;
+		if (word < myWordsPerRow - 1) {
+			shifted |= wordAt(row, word + 1) << (BITS_PER_WORD - 1);
+		} else if (myWraps && isAlive(row, 0)) {
+			shifted |= 1L << (myCols - 1);
+		}
+		return shifted;
+	}
+
+	/**
+	 * Gets the row above a row.
+	 * @param row: row of interest.
+	 * @return the row above, wrapped if the board wraps, or -1 if there is none.
+	 */
+	private int rowAbove(int row) {
+		if (row > 0) {
+			return row - 1;
+		}
+		return myWraps ? myRows - 1 : -1;
+	}
+
+	/**
+	 * Gets the row below a row.
+	 * @param row: row of interest.
+	 * @return the row below, wrapped if the board wraps, or -1 if there is none.
+	 */
+	private int rowBelow(int row) {
+		if (row < myRows - 1) {
+			return row + 1;
+		}
+		return myWraps ? 0 : -1;
+	}
+
+	/**
+	 * Gets number of rows in the board.
+	 * @return number of rows.
+	 */
+	public int getNumRows() {
+		return myRows;
+	}
+
+	/**
+	 * Gets number of columns in the board.
+	 * @return number of columns.
+	 */
+	public int getNumCols() {
+		return myCols;
+	}
+
+	/**
+	 * Gets number of words in each row of the board.
+	 * @return number of words per row.
+	 */
+	public int getWordsPerRow() {
+		return myWordsPerRow;
+	}
+}
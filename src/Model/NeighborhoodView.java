@@ -0,0 +1,173 @@
+/**
+ * A reusable view of a Cell and its neighbors. The view is repositioned onto each Cell in turn instead of allocating a
+ * new neighborhood array per Cell, so a view handed out by a Grid is only valid until the next neighborhood is requested
+ * from that Grid.
+ */
+
+package Model;
+
+public class NeighborhoodView {
+	private static final int[] ROW_OFFSETS_4 = new int[]{-1, 0, 0, 1};
+	private static final int[] COL_OFFSETS_4 = new int[]{0, -1, 1, 0};
+	private static final int[] ROW_OFFSETS_8 = new int[]{-1, -1, -1, 0, 0, 1, 1, 1};
+	private static final int[] COL_OFFSETS_8 = new int[]{-1, 0, 1, -1, 1, -1, 0, 1};
+	private Grid myGrid;
+	private int myRadius;
+	private int mySideLength;
+	private Cell[] myCells;
+	private int myRow;
+	private int myCol;
+	private int[] myRowOffsets;
+	private int[] myColOffsets;
+
+	/**
+	 * Interface for code that visits each neighbor of a Cell.
+	 */
+	public interface NeighborVisitor {
+		/**
+		 * Visits one neighbor.
+		 * @param neighbor: the neighboring Cell.
+		 * @param rowOffset: row of the neighbor relative to the center Cell (-1, 0 or 1).
+		 * @param colOffset: column of the neighbor relative to the center Cell (-1, 0 or 1).
+		 */
+		void visit(Cell neighbor, int rowOffset, int colOffset);
+	}
+
+	/**
+	 * Constructs a view over a Grid. Code that needs more than one neighborhood at a time, or that runs on its own
+	 * thread, should construct its own view instead of using Grid.getNeighborhood.
+	 * @param grid: the Grid to view.
+	 */
+	public NeighborhoodView(Grid grid) {
+		myGrid = grid;
+		mySideLength = grid.getNeighborGridSideLength();
+		myRadius = mySideLength / 2;
+		myCells = new Cell[mySideLength * mySideLength];
+		myRowOffsets = ROW_OFFSETS_8;
+		myColOffsets = COL_OFFSETS_8;
+	}
+
+	/**
+	 * Repositions the view onto the Cell at (row, col). If the Grid has to grow to hold the neighborhood, the center
+	 * coordinates are adjusted to match.
+	 * @param row: row of the Cell whose neighborhood is of interest.
+	 * @param col: column of the Cell whose neighborhood is of interest.
+	 * @param numNeighbors: the number of neighbors of interest for the simulation (4 or 8).
+	 */
+	public void moveTo(int row, int col, int numNeighbors) {
+		int shift = myGrid.prepareNeighborhood(row, col);
+		myRow = row + shift;
+		myCol = col + shift;
+		if (numNeighbors == 4) {
+			myRowOffsets = ROW_OFFSETS_4;
+			myColOffsets = COL_OFFSETS_4;
+		} else {
+			myRowOffsets = ROW_OFFSETS_8;
+			myColOffsets = COL_OFFSETS_8;
+		}
+		for (int i = 0; i < myCells.length; i++) {
+			myCells[i] = null;
+		}
+		myCells[indexOf(0, 0)] = myGrid.getCell(myRow, myCol);
+		for (int i = 0; i < myRowOffsets.length; i++) {
+			myCells[indexOf(myRowOffsets[i], myColOffsets[i])] = myGrid.getNeighbor(myRow + myRowOffsets[i], myCol + myColOffsets[i]);
+		}
+	}
+
+	/**
+	 * Gets the position of a relative offset within the cell array.
+	 * @param rowOffset: row relative to the center Cell.
+	 * @param colOffset: column relative to the center Cell.
+	 * @return index into the cell array.
+	 */
+	private int indexOf(int rowOffset, int colOffset) {
+		return (rowOffset + myRadius) * mySideLength + (colOffset + myRadius);
+	}
+
+	/**
+	 * Gets a Cell relative to the center Cell.
+	 * @param rowOffset: row relative to the center Cell (-1, 0 or 1).
+	 * @param colOffset: column relative to the center Cell (-1, 0 or 1).
+	 * @return the Cell, or null if there is no such neighbor or it is outside the neighbors of interest.
+	 */
+	public Cell get(int rowOffset, int colOffset) {
+		return myCells[indexOf(rowOffset, colOffset)];
+	}
+
+	/**
+	 * Gets the center Cell of the view.
+	 * @return the Cell the view is positioned on.
+	 */
+	public Cell getCenter() {
+		return myCells[indexOf(0, 0)];
+	}
+
+	/**
+	 * Gets the row of the center Cell.
+	 * @return row the view is positioned on.
+	 */
+	public int getRow() {
+		return myRow;
+	}
+
+	/**
+	 * Gets the column of the center Cell.
+	 * @return column the view is positioned on.
+	 */
+	public int getCol() {
+		return myCol;
+	}
+
+	/**
+	 * Gets the state code of a Cell relative to the center Cell.
+	 * @param rowOffset: row relative to the center Cell (-1, 0 or 1).
+	 * @param colOffset: column relative to the center Cell (-1, 0 or 1).
+	 * @return state code of the Cell, or StateTable.NO_STATE if there is no such neighbor.
+	 */
+	public int getState(int rowOffset, int colOffset) {
+		return codeOf(get(rowOffset, colOffset));
+	}
+
+	/**
+	 * Counts the neighbors of interest (excluding the center Cell) in a given state.
+	 * @param code: state code to count.
+	 * @return number of neighbors in that state.
+	 */
+	public int countState(int code) {
+		int count = 0;
+		for (int i = 0; i < myRowOffsets.length; i++) {
+			if (codeOf(myCells[indexOf(myRowOffsets[i], myColOffsets[i])]) == code) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Visits each existing neighbor of interest (excluding the center Cell) in row-major order.
+	 * @param visitor: code to run on each neighbor.
+	 */
+	public void forEachNeighbor(NeighborVisitor visitor) {
+		for (int i = 0; i < myRowOffsets.length; i++) {
+			Cell neighbor = myCells[indexOf(myRowOffsets[i], myColOffsets[i])];
+			if (neighbor != null) {
+				visitor.visit(neighbor, myRowOffsets[i], myColOffsets[i]);
+			}
+		}
+	}
+
+	/**
+	 * Gets the state code of a Cell, translating the state of Cells that hold their own states.
+	 * @param cell: Cell of interest, possibly null.
+	 * @return state code of the Cell, or StateTable.NO_STATE if the Cell is null.
+	 */
+	private int codeOf(Cell cell) {
+		if (cell == null) {
+			return StateTable.NO_STATE;
+		}
+		if (cell.isStoreBacked()) {
+			return cell.getCurStateCode();
+		}
+		return myGrid.getStateTable().getCode(cell.getCurState());
+	}
+}
@@ -0,0 +1,243 @@
+/**
+ * Holds the food and home pheromones of every ForagingAntsCell in a simulation, and the number of steps since each was
+ * last dropped, in four dense layers. Each Cell is given a slot in the layers when it is created, so the layers do not
+ * depend on the shape of the grid, and the end-of-step decay is a pass over flat arrays rather than a walk over Cells.
+ * Slots of Cells the grid lets go of are kept on a free list and handed to the next Cells created.
+ * No slot depends on another, so the pass can also be split across a ForkJoinPool.
+ */
+
+package Model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class PheromoneField {
+	public static final int RESET_PHEROMONE_INTERVAL = 5;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int MIN_SLOTS_PER_TASK = 1 << 15;
+	private int[] myFoodAmounts;
+	private int[] myHomeAmounts;
+	private int[] myFoodRecency;
+	private int[] myHomeRecency;
+	private int mySize;
+	private int[] myFreeSlots;
+	private int myNumFreeSlots;
+
+	public PheromoneField() {
+		myFoodAmounts = new int[INITIAL_CAPACITY];
+		myHomeAmounts = new int[INITIAL_CAPACITY];
+		myFoodRecency = new int[INITIAL_CAPACITY];
+		myHomeRecency = new int[INITIAL_CAPACITY];
+		mySize = 0;
+		myFreeSlots = new int[INITIAL_CAPACITY];
+		myNumFreeSlots = 0;
+	}
+
+	/**
+	 * Adds a slot with no pheromones that were dropped 0 steps ago, as for a newly created Cell, reusing a released
+	 * slot if there is one.
+	 * @return index of the slot.
+	 */
+	public int addSlot() {
+		if (myNumFreeSlots > 0) {
+			myNumFreeSlots--;
+			int slot = myFreeSlots[myNumFreeSlots];
+			setFood(slot, 0, 0);
+			setHome(slot, 0, 0);
+			return slot;
+		}
+		if (mySize == myFoodAmounts.length) {
+			myFoodAmounts = grow(myFoodAmounts);
+			myHomeAmounts = grow(myHomeAmounts);
+			myFoodRecency = grow(myFoodRecency);
+			myHomeRecency = grow(myHomeRecency);
+		}
+		mySize++;
+		return mySize - 1;
+	}
+
+	/**
+	 * Releases the slot of a Cell that is no longer part of the grid, so that addSlot can hand it out again.
+	 * @param slot: slot to release.
+	 */
+	public void releaseSlot(int slot) {
+		if (myNumFreeSlots == myFreeSlots.length) {
+			myFreeSlots = grow(myFreeSlots);
+		}
+		setFood(slot, 0, 0);
+		setHome(slot, 0, 0);
+		myFreeSlots[myNumFreeSlots] = slot;
+		myNumFreeSlots++;
+	}
+
+	/**
+	 * Copies a layer into one twice its length.
+	 * @param layer: layer to copy.
+	 * @return the longer layer.
+	 */
+	private int[] grow(int[] layer) {
+		int[] grown = new int[layer.length * 2];
+		System.arraycopy(layer, 0, grown, 0, layer.length);
+		return grown;
+	}
+
+	/**
+	 * Gets the number of slots in the field, including released slots that have not been handed out again.
+	 * @return number of slots.
+	 */
+	public int size() {
+		return mySize;
+	}
+
+	/**
+	 * Gets the food pheromones in a slot.
+	 * @param slot: slot of interest.
+	 * @return number of food pheromones.
+	 */
+	public int getFoodAmount(int slot) {
+		return myFoodAmounts[slot];
+	}
+
+	/**
+	 * Gets the home pheromones in a slot.
+	 * @param slot: slot of interest.
+	 * @return number of home pheromones.
+	 */
+	public int getHomeAmount(int slot) {
+		return myHomeAmounts[slot];
+	}
+
+	/**
+	 * Gets the number of steps since food pheromones were last dropped in a slot.
+	 * @param slot: slot of interest.
+	 * @return steps since the food pheromones were last dropped.
+	 */
+	public int getFoodRecency(int slot) {
+		return myFoodRecency[slot];
+	}
+
+	/**
+	 * Gets the number of steps since home pheromones were last dropped in a slot.
+	 * @param slot: slot of interest.
+	 * @return steps since the home pheromones were last dropped.
+	 */
+	public int getHomeRecency(int slot) {
+		return myHomeRecency[slot];
+	}
+
+	/**
+	 * Increases the food pheromones in a slot by 1.
+	 * @param slot: slot of interest.
+	 */
+	public void increaseFood(int slot) {
+		myFoodAmounts[slot]++;
+	}
+
+	/**
+	 * Increases the home pheromones in a slot by 1.
+	 * @param slot: slot of interest.
+	 */
+	public void increaseHome(int slot) {
+		myHomeAmounts[slot]++;
+	}
+
+	/**
+	 * Marks the food pheromones in a slot as dropped this step.
+	 * @param slot: slot of interest.
+	 */
+	public void resetFoodRecency(int slot) {
+		myFoodRecency[slot] = 0;
+	}
+
+	/**
+	 * Marks the home pheromones in a slot as dropped this step.
+	 * @param slot: slot of interest.
+	 */
+	public void resetHomeRecency(int slot) {
+		myHomeRecency[slot] = 0;
+	}
+
+	/**
+	 * Sets the food pheromones in a slot, as when restoring a Cell from a snapshot.
+	 * @param slot: slot of interest.
+	 * @param amount: number of food pheromones.
+	 * @param recency: steps since the food pheromones were last dropped.
+	 */
+	public void setFood(int slot, int amount, int recency) {
+		myFoodAmounts[slot] = amount;
+		myFoodRecency[slot] = recency;
+	}
+
+	/**
+	 * Sets the home pheromones in a slot, as when restoring a Cell from a snapshot.
+	 * @param slot: slot of interest.
+	 * @param amount: number of home pheromones.
+	 * @param recency: steps since the home pheromones were last dropped.
+	 */
+	public void setHome(int slot, int amount, int recency) {
+		myHomeAmounts[slot] = amount;
+		myHomeRecency[slot] = recency;
+	}
+
+	/**
+	 * Ends a step: every recency counter goes up by 1, and the pheromones of a slot are cleared on the step its
+	 * counter reaches RESET_PHEROMONE_INTERVAL.
+	 * @param pool: pool to split the pass across, or null to make it on the calling thread.
+	 */
+	public void decay(ForkJoinPool pool) {
+		if (pool == null || mySize < 2 * MIN_SLOTS_PER_TASK) {
+			decay(0, mySize);
+		} else {
+			pool.invoke(new DecayRange(0, mySize));
+		}
+	}
+
+	/**
+	 * Ends a step for a range of slots.
+	 * @param from: first slot of the range.
+	 * @param to: slot just past the end of the range.
+	 */
+	private void decay(int from, int to) {
+		decay(myFoodAmounts, myFoodRecency, from, to);
+		decay(myHomeAmounts, myHomeRecency, from, to);
+	}
+
+	/**
+	 * Ends a step for a range of one layer. The loop has no branches or calls, so the JIT can vectorize it.
+	 * @param amounts: pheromone layer.
+	 * @param recency: recency layer that goes with it.
+	 * @param from: first slot of the range.
+	 * @param to: slot just past the end of the range.
+	 */
+	private static void decay(int[] amounts, int[] recency, int from, int to) {
+		for (int i = from; i < to; i++) {
+			int steps = recency[i] + 1;
+			recency[i] = steps;
+			amounts[i] = (steps == RESET_PHEROMONE_INTERVAL) ? 0 : amounts[i];
+		}
+	}
+
+	/**
+	 * A range of slots to end the step for, halved until it is small enough to do on one thread.
+	 */
+	private class DecayRange extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private int myFrom;
+		private int myTo;
+
+		private DecayRange(int from, int to) {
+			myFrom = from;
+			myTo = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (myTo - myFrom < 2 * MIN_SLOTS_PER_TASK) {
+				decay(myFrom, myTo);
+			} else {
+				int middle = (myFrom + myTo) >>> 1;
+				invokeAll(new DecayRange(myFrom, middle), new DecayRange(middle, myTo));
+			}
+		}
+	}
+}
@@ -62,6 +62,14 @@ public class PredatorPreyCell extends Cell {
 		myEnergy = energy;
 	}
 	
+	/**
+	 * A PredatorPreyCell is only default if it also holds no shark energy.
+	 */
+	@Override
+	public boolean isDefault(String defaultState) {
+		return super.isDefault(defaultState) && myEnergy == 0;
+	}
+	
 	/**
 	 * Description of cell.
 	 */
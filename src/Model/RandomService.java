@@ -0,0 +1,46 @@
+/**
+ * A source of random numbers for the simulations. Draws are identified by the step of the simulation, a key (such as
+ * the location of the cell being evaluated) and the number of the draw for that key, so that the same draw can be
+ * made on any thread and in any order and still come out the same.
+ */
+
+package Model;
+
+public interface RandomService {
+	/**
+	 * Moves on to the next step of the simulation.
+	 */
+	void nextStep();
+
+	/**
+	 * Gets a number uniformly distributed in [0, 1) that depends only on the seed, the step, the key and the draw.
+	 * Safe to call from several threads at once.
+	 * @param key: what the draw is for, e.g. cellKey(row, col).
+	 * @param draw: number of the draw for that key in this step, starting at 0.
+	 * @return a number in [0, 1).
+	 */
+	double nextDouble(long key, int draw);
+
+	/**
+	 * Gets the next number in [0, 1) from a stream that restarts each step. Only for code that always runs on one thread
+	 * in the same order.
+	 * @return a number in [0, 1).
+	 */
+	double nextDouble();
+
+	/**
+	 * Gets the seed that all draws are derived from.
+	 * @return the seed.
+	 */
+	long getSeed();
+
+	/**
+	 * Packs the location of a cell into a key for nextDouble(long, int).
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return key of the cell.
+	 */
+	static long cellKey(int row, int col) {
+		return ((long) row << Integer.SIZE) | (col & 0xFFFFFFFFL);
+	}
+}
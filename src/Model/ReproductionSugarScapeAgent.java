@@ -52,13 +52,14 @@ public class ReproductionSugarScapeAgent extends SugarScapeAgent {
 	/**
 	 * Tries to find a fertile mate amongst the agent's visible neighbors. 
 	 * @param grid: simulation grid
+	 * @param random: source of random numbers used to pick among the neighbors.
 	 * @return a reproduction sugar scape agent to mate with if there is one, else return null.
 	 */
-	public ReproductionSugarScapeAgent findMate(Grid grid) {
+	public ReproductionSugarScapeAgent findMate(Grid grid, RandomService random) {
 		if (this.isFertile()) {
 			List<SugarScapeCell> neighbors = getVisibleNeighbors(grid, false);
 			while (!neighbors.isEmpty()) {
-				int rand = (int) Math.round(Math.random() * (neighbors.size()-1));
+				int rand = (int) Math.round(random.nextDouble() * (neighbors.size()-1));
 				SugarScapeCell neighbor = neighbors.get(rand);
 				if (neighbor.hasAgent()) {
 					ReproductionSugarScapeAgent neighborAgent = (ReproductionSugarScapeAgent) neighbor.getAgent();
@@ -117,10 +118,10 @@ public class ReproductionSugarScapeAgent extends SugarScapeAgent {
 	 * @return adjacent sugar scape cell that has no agent.
 	 */
 	public SugarScapeCell getEmptyNeighbor(Grid grid) {
-		Cell[][] neighborhood = grid.getNeighborhood(getRow(), getCol(), NUM_NEIGHBORS);
-		for (int row = 0; row < neighborhood.length; row++) {
-			for (int col = 0; col < neighborhood.length; col++) {
-				SugarScapeCell neighbor = (SugarScapeCell) neighborhood[row][col];
+		NeighborhoodView neighborhood = grid.getNeighborhood(getRow(), getCol(), NUM_NEIGHBORS);
+		for (int row = -1; row <= 1; row++) {
+			for (int col = -1; col <= 1; col++) {
+				SugarScapeCell neighbor = (SugarScapeCell) neighborhood.get(row, col);
 				if (neighbor != null && !neighbor.hasAgent()) {
 					return neighbor;
 				}
@@ -142,10 +143,42 @@ public class ReproductionSugarScapeAgent extends SugarScapeAgent {
 	 * Gets agent's gender.
 	 * @return agent's gender.
 	 */
-	private int getGender() {
+	public int getGender() {
 		return myGender;
 	}
 	
+	/**
+	 * Gets the sugar the agent was born with, which it needs to have again to be fertile.
+	 * @return agent's initial sugar.
+	 */
+	public int getInitSugar() {
+		return myInitSugar;
+	}
+	
+	/**
+	 * Gets agent's age.
+	 * @return number of steps the agent has lived.
+	 */
+	public int getAge() {
+		return myAge;
+	}
+	
+	/**
+	 * Sets agent's age, as when restoring an agent from a snapshot.
+	 * @param age: number of steps the agent has lived.
+	 */
+	public void setAge(int age) {
+		myAge = age;
+	}
+	
+	/**
+	 * Gets the age past which the agent dies.
+	 * @return agent's maximum age.
+	 */
+	public int getMaxAge() {
+		return myMaxAge;
+	}
+	
 	/**
 	 * Description of agent.
 	 */
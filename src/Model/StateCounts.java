@@ -0,0 +1,105 @@
+/**
+ * Counts the Cells in each state of a simulation in an array indexed by state code, so that counting a change costs
+ * an array update instead of map lookups and boxing. The counts can be read as a Map from state to count; the map is
+ * a view, so it always shows the current counts and cannot be changed through.
+ */
+
+package Model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+public class StateCounts extends AbstractMap<String, Integer> {
+	private StateTable myTable;
+	private long[] myCounts;
+
+	/**
+	 * Constructs counts of zero for every state of a table.
+	 * @param table: states of the simulation.
+	 */
+	public StateCounts(StateTable table) {
+		myTable = table;
+		myCounts = new long[table.size()];
+	}
+
+	/**
+	 * Counts one more Cell in a state.
+	 * @param code: code of the state; NO_STATE is ignored.
+	 */
+	public void increase(int code) {
+		if (code != StateTable.NO_STATE) {
+			myCounts[code]++;
+		}
+	}
+
+	/**
+	 * Counts one less Cell in a state, never going below zero.
+	 * @param code: code of the state; NO_STATE is ignored.
+	 */
+	public void decrease(int code) {
+		if (code != StateTable.NO_STATE && myCounts[code] > 0) {
+			myCounts[code]--;
+		}
+	}
+
+	/**
+	 * Gets the number of Cells in a state.
+	 * @param code: code of the state.
+	 * @return number of Cells.
+	 */
+	public long getCount(int code) {
+		return myCounts[code];
+	}
+
+	@Override
+	public Integer get(Object state) {
+		int code = (state instanceof String) ? myTable.getCode((String) state) : StateTable.NO_STATE;
+		return (code == StateTable.NO_STATE) ? null : (int) myCounts[code];
+	}
+
+	@Override
+	public boolean containsKey(Object state) {
+		return state instanceof String && myTable.contains((String) state);
+	}
+
+	@Override
+	public int size() {
+		return myCounts.length;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Integer>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Integer>>() {
+			@Override
+			public Iterator<Map.Entry<String, Integer>> iterator() {
+				return new Iterator<Map.Entry<String, Integer>>() {
+					private int myNext;
+
+					@Override
+					public boolean hasNext() {
+						return myNext < myCounts.length;
+					}
+
+					@Override
+					public Map.Entry<String, Integer> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						int code = myNext++;
+						return new AbstractMap.SimpleImmutableEntry<String, Integer>(myTable.getState(code),
+								(int) myCounts[code]);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return myCounts.length;
+			}
+		};
+	}
+}
@@ -0,0 +1,259 @@
+/**
+ * Holds the current and next state of every cell in a grid as state codes in two flat buffers. The next buffer mirrors
+ * the current one except where a cell has a pending state, and the two buffers are swapped when the step is committed.
+ */
+
+package Model;
+
+import java.util.Arrays;
+
+public class StateStore {
+	private static final int BITS_PER_WORD = 64;
+	private StateTable myTable;
+	private int myRows;
+	private int myCols;
+	private byte[] myCurrent;
+	private byte[] myNext;
+	private long[] myPending;
+
+	/**
+	 * Constructs a store with every cell in the given state.
+	 * @param rows: number of rows.
+	 * @param cols: number of columns.
+	 * @param table: table used to translate between states and codes.
+	 * @param fillCode: code that every cell starts with.
+	 */
+	public StateStore(int rows, int cols, StateTable table, int fillCode) {
+		myTable = table;
+		allocate(rows, cols);
+		Arrays.fill(myCurrent, (byte) fillCode);
+		Arrays.fill(myNext, (byte) fillCode);
+	}
+
+	/**
+	 * Allocates the buffers for a store of the given size.
+	 * @param rows: number of rows.
+	 * @param cols: number of columns.
+	 */
+	private void allocate(int rows, int cols) {
+		myRows = rows;
+		myCols = cols;
+		myCurrent = new byte[rows * cols];
+		myNext = new byte[rows * cols];
+		myPending = new long[(rows * cols + BITS_PER_WORD - 1) / BITS_PER_WORD];
+	}
+
+	/**
+	 * Gets the table used to translate between states and codes.
+	 * @return the state table.
+	 */
+	public StateTable getStateTable() {
+		return myTable;
+	}
+
+	/**
+	 * Gets the flat index of the cell at (row, col).
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return index of the cell within the buffers.
+	 */
+	public int indexOf(int row, int col) {
+		return row * myCols + col;
+	}
+
+	/**
+	 * Gets the current state code of the cell at (row, col).
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return current state code.
+	 */
+	public int getCurrentCode(int row, int col) {
+		return myCurrent[indexOf(row, col)];
+	}
+
+	/**
+	 * Sets the current state code of the cell at (row, col) directly, discarding any pending state.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @param code: new current state code.
+	 */
+	public void setCurrentCode(int row, int col, int code) {
+		int index = indexOf(row, col);
+		myCurrent[index] = (byte) code;
+		myNext[index] = (byte) code;
+		clearPending(index);
+	}
+
+	/**
+	 * Gets the pending state code of the cell at (row, col).
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return pending state code, or StateTable.NO_STATE if the cell has no pending state.
+	 */
+	public int getNextCode(int row, int col) {
+		int index = indexOf(row, col);
+		if (isPending(index)) {
+			return myNext[index];
+		}
+		return StateTable.NO_STATE;
+	}
+
+	/**
+	 * Sets the pending state code of the cell at (row, col). NO_STATE clears the pending state.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @param code: pending state code.
+	 */
+	public void setNextCode(int row, int col, int code) {
+		int index = indexOf(row, col);
+		if (code == StateTable.NO_STATE) {
+			myNext[index] = myCurrent[index];
+			clearPending(index);
+		} else {
+			myNext[index] = (byte) code;
+			myPending[index / BITS_PER_WORD] |= 1L << index;
+		}
+	}
+
+	/**
+	 * Gets the current state of the cell at (row, col).
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return current state.
+	 */
+	public String getCurrentState(int row, int col) {
+		return myTable.getState(getCurrentCode(row, col));
+	}
+
+	/**
+	 * Gets the pending state of the cell at (row, col).
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @return pending state, or null if the cell has no pending state.
+	 */
+	public String getNextState(int row, int col) {
+		return myTable.getState(getNextCode(row, col));
+	}
+
+	/**
+	 * Sets the current state of the cell at (row, col) directly.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @param state: new current state.
+	 */
+	public void setCurrentState(int row, int col, String state) {
+		setCurrentCode(row, col, encode(state));
+	}
+
+	/**
+	 * Sets the pending state of the cell at (row, col); null clears the pending state.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @param state: pending state.
+	 */
+	public void setNextState(int row, int col, String state) {
+		if (state == null) {
+			setNextCode(row, col, StateTable.NO_STATE);
+		} else {
+			setNextCode(row, col, encode(state));
+		}
+	}
+
+	/**
+	 * Translates a state into its code, rejecting states that do not belong to the simulation.
+	 * @param state: state to translate.
+	 * @return code of the state.
+	 */
+	private int encode(String state) {
+		int code = myTable.getCode(state);
+		if (code == StateTable.NO_STATE) {
+			throw new IllegalArgumentException("Unknown state: " + state);
+		}
+		return code;
+	}
+
+	/**
+	 * Makes every pending state current by swapping the buffers, then re-mirrors the committed cells so that the
+	 * new next buffer matches the new current buffer.
+	 */
+	public void swap() {
+		byte[] temp = myCurrent;
+		myCurrent = myNext;
+		myNext = temp;
+		for (int word = 0; word < myPending.length; word++) {
+			long bits = myPending[word];
+			while (bits != 0) {
+				int index = word * BITS_PER_WORD + Long.numberOfTrailingZeros(bits);
+				myNext[index] = myCurrent[index];
+				bits &= bits - 1;
+			}
+			myPending[word] = 0;
+		}
+	}
+
+	/**
+	 * Resizes the store, placing the existing cells at an offset within the new buffers and filling the remainder.
+	 * Pending states are carried over.
+	 * @param rows: new number of rows.
+	 * @param cols: new number of columns.
+	 * @param rowOffset: row at which the existing cells begin.
+	 * @param colOffset: column at which the existing cells begin.
+	 * @param fillCode: code of the cells that are added.
+	 */
+	public void resize(int rows, int cols, int rowOffset, int colOffset, int fillCode) {
+		byte[] oldCurrent = myCurrent;
+		byte[] oldNext = myNext;
+		long[] oldPending = myPending;
+		int oldRows = myRows;
+		int oldCols = myCols;
+		allocate(rows, cols);
+		Arrays.fill(myCurrent, (byte) fillCode);
+		Arrays.fill(myNext, (byte) fillCode);
+		for (int row = 0; row < oldRows; row++) {
+			int oldStart = row * oldCols;
+			int newStart = indexOf(row + rowOffset, colOffset);
+			System.arraycopy(oldCurrent, oldStart, myCurrent, newStart, oldCols);
+			System.arraycopy(oldNext, oldStart, myNext, newStart, oldCols);
+			for (int col = 0; col < oldCols; col++) {
+				int oldIndex = oldStart + col;
+				if ((oldPending[oldIndex / BITS_PER_WORD] & (1L << oldIndex)) != 0) {
+					int newIndex = newStart + col;
+					myPending[newIndex / BITS_PER_WORD] |= 1L << newIndex;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the cell at a given index has a pending state.
+	 * @param index: flat index of the cell.
+	 * @return true if the cell has a pending state; false otherwise.
+	 */
+	private boolean isPending(int index) {
+		return (myPending[index / BITS_PER_WORD] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Clears the pending flag of the cell at a given index.
+	 * @param index: flat index of the cell.
+	 */
+	private void clearPending(int index) {
+		myPending[index / BITS_PER_WORD] &= ~(1L << index);
+	}
+
+	/**
+	 * Gets number of rows in the store.
+	 * @return number of rows.
+	 */
+	public int getNumRows() {
+		return myRows;
+	}
+
+	/**
+	 * Gets number of columns in the store.
+	 * @return number of columns.
+	 */
+	public int getNumCols() {
+		return myCols;
+	}
+}
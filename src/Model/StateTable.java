@@ -0,0 +1,82 @@
+/**
+ * Maps the states of a simulation to small integer codes so that cells can be stored and compared as primitives.
+ */
+
+package Model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class StateTable {
+	public static final int NO_STATE = -1;
+	public static final int MAX_STATES = Byte.MAX_VALUE;
+	private String[] myStates;
+	private Map<String, Integer> myCodes;
+
+	/**
+	 * Constructs a table assigning each state a code equal to its position in the list.
+	 * @param states: states of the simulation, in the order they are listed in the Rules resource file.
+	 */
+	public StateTable(String[] states) {
+		if (states.length > MAX_STATES) {
+			throw new IllegalArgumentException("Too many states to encode: " + states.length);
+		}
+		myStates = new String[states.length];
+		myCodes = new HashMap<String, Integer>();
+		for (int code = 0; code < states.length; code++) {
+			myStates[code] = states[code].trim().intern();
+			myCodes.put(myStates[code], code);
+		}
+	}
+
+	/**
+	 * Gets the code for a state.
+	 * @param state: state of interest.
+	 * @return code of the state, or NO_STATE if the state does not belong to this simulation.
+	 */
+	public int getCode(String state) {
+		if (state == null) {
+			return NO_STATE;
+		}
+		// states handed around the simulation are the interned strings of this table, so a scan usually finds them
+		for (int code = 0; code < myStates.length; code++) {
+			if (myStates[code] == state) {
+				return code;
+			}
+		}
+		Integer code = myCodes.get(state);
+		if (code == null) {
+			return NO_STATE;
+		}
+		return code;
+	}
+
+	/**
+	 * Gets the state corresponding to a code.
+	 * @param code: code of interest.
+	 * @return the state, or null if the code is NO_STATE.
+	 */
+	public String getState(int code) {
+		if (code == NO_STATE) {
+			return null;
+		}
+		return myStates[code];
+	}
+
+	/**
+	 * Checks whether a state belongs to this simulation.
+	 * @param state: state to check.
+	 * @return true if the state has a code; false otherwise.
+	 */
+	public boolean contains(String state) {
+		return getCode(state) != NO_STATE;
+	}
+
+	/**
+	 * Gets the number of states in the table.
+	 * @return number of states.
+	 */
+	public int size() {
+		return myStates.length;
+	}
+}
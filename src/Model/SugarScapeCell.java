@@ -83,6 +83,22 @@ public class SugarScapeCell extends Cell {
 		return mySugar;
 	}
 	
+	/**
+	 * Sets the amount of sugar this cell has, as when restoring a cell from a snapshot.
+	 * @param sugar: amount of sugar this cell has.
+	 */
+	public void setMySugarAmount(int sugar) {
+		mySugar = sugar;
+	}
+	
+	/**
+	 * A SugarScapeCell is only default if it also has no agent and is full of sugar.
+	 */
+	@Override
+	public boolean isDefault(String defaultState) {
+		return super.isDefault(defaultState) && !hasAgent() && mySugar == myMaxSugarCapacity;
+	}
+	
 	/**
 	 * Description of sugar scape cell.
 	 */
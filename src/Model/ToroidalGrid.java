@@ -41,23 +41,19 @@ public class ToroidalGrid extends Grid{
 	}
 
 	/**
-	 * Gets a toroidal neighborhood.
+	 * Gets a neighbor, wrapping around the edges of the grid.
 	 */
 	@Override
-	public Cell[][] getNeighborhood(int row, int col, int numNeighbors) {
-		
-		Cell[][] myNeighborhood = new Cell[getNeighborGridSideLength()][getNeighborGridSideLength()];
-		myNeighborhood[0][0] = getCell(row - 1, col - 1);
-		myNeighborhood[0][1] = getCell(row - 1, col);
-		myNeighborhood[0][2] = getCell(row - 1, col + 1);
-		myNeighborhood[1][0] = getCell(row, col - 1);
-		myNeighborhood[1][1] = getCell(row, col);
-		myNeighborhood[1][2] = getCell(row, col + 1);
-		myNeighborhood[2][0] = getCell(row + 1, col - 1);
-		myNeighborhood[2][1] = getCell(row + 1, col);
-		myNeighborhood[2][2] = getCell(row + 1, col + 1);
-		
-		return myNeighborhood;
+	protected Cell getNeighbor(int row, int col) {
+		return getCell(row, col);
+	}
+
+	/**
+	 * Neighbors past one edge are found at the opposite edge.
+	 */
+	@Override
+	protected boolean wrapsAround() {
+		return true;
 	}
 
 }
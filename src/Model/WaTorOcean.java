@@ -0,0 +1,676 @@
+/**
+ * A Wa-Tor ocean of fish and sharks kept as lists of agents rather than as a grid of cells. Each list is a set of
+ * parallel primitive arrays (position, breeding timer and, for sharks, energy), so a step only visits the agents and
+ * never the water. Every move is decided from the positions at the start of the step: an agent claims the cell it
+ * moves into, and a claimed cell cannot be taken by anyone else, so no move ever has to be undone. Sharks move
+ * before fish, so a fish that a shark eats never moves.
+ * The ocean is cut into blocks colored in a 2x2 checkerboard, with an even number of blocks across each way so that
+ * the pattern also holds where the edges wrap. An agent only reaches one cell beyond its own, and every block is at
+ * least two cells across, so blocks of the same color never touch the same cell and can be stepped at the same time
+ * without locks. The colors take turns in an order that rotates each step. Each agent's random draws are keyed by
+ * where it starts the step, so the outcome is the same whether the blocks are stepped on one thread or many.
+ */
+
+package Model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class WaTorOcean {
+	public static final byte WATER = 0;
+	public static final byte FISH = 1;
+	public static final byte SHARK = 2;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int NUM_COLORS = 4;
+	private static final int GONE = -1;
+	private static final int[] ROW_OFFSETS = new int[]{-1, 0, 0, 1};
+	private static final int[] COL_OFFSETS = new int[]{0, -1, 1, 0};
+	private int myRows;
+	private int myCols;
+	private boolean myWraps;
+	private int myFishBreedTime;
+	private int mySharkBreedTime;
+	private int myInitialEnergy;
+	private byte[] myOcean;
+	private int[] myAgentAt;
+	private int[] myClaimedIn;
+	private int[] myChangedIn;
+	private int myStep;
+	private int[] myFishPos;
+	private int[] myFishBreed;
+	private int myNumFish;
+	private int[] mySharkPos;
+	private int[] mySharkBreed;
+	private int[] mySharkEnergy;
+	private int myNumSharks;
+	private int[] myChanged;
+	private int myNumChanged;
+	private int[] myBlockOfRow;
+	private int[] myBlockOfCol;
+	private int myNumBlockCols;
+	private Block[] myBlocks;
+	private Block[][] myBlocksOfColor;
+	private int[] myFishOrder;
+	private int[] mySharkOrder;
+
+	/**
+	 * Constructs an ocean of water.
+	 * @param rows: number of rows.
+	 * @param cols: number of columns.
+	 * @param wraps: true if the edges wrap around as on a ToroidalGrid; false if there is nothing beyond the edges.
+	 * @param fishBreedTime: number of steps a fish must live through before it can breed.
+	 * @param sharkBreedTime: number of steps a shark must live through before it can breed.
+	 * @param initialEnergy: energy of a shark born to a parent that ate; one less if the parent moved into water, since
+	 * the newborn spends the step with it.
+	 * @param blockSize: approximate number of rows and columns in a block.
+	 */
+	public WaTorOcean(int rows, int cols, boolean wraps, int fishBreedTime, int sharkBreedTime, int initialEnergy,
+			int blockSize) {
+		myRows = rows;
+		myCols = cols;
+		myWraps = wraps;
+		myFishBreedTime = fishBreedTime;
+		mySharkBreedTime = sharkBreedTime;
+		myInitialEnergy = initialEnergy;
+		myOcean = new byte[rows * cols];
+		myAgentAt = new int[rows * cols];
+		myClaimedIn = new int[rows * cols];
+		myChangedIn = new int[rows * cols];
+		myFishPos = new int[INITIAL_CAPACITY];
+		myFishBreed = new int[INITIAL_CAPACITY];
+		mySharkPos = new int[INITIAL_CAPACITY];
+		mySharkBreed = new int[INITIAL_CAPACITY];
+		mySharkEnergy = new int[INITIAL_CAPACITY];
+		myChanged = new int[INITIAL_CAPACITY];
+		myFishOrder = new int[INITIAL_CAPACITY];
+		mySharkOrder = new int[INITIAL_CAPACITY];
+		buildBlocks(blockSize);
+	}
+
+	/**
+	 * Cuts the ocean into blocks and sorts them by color.
+	 * @param blockSize: approximate number of rows and columns in a block.
+	 */
+	private void buildBlocks(int blockSize) {
+		int numBlockRows = numBlocksAcross(myRows, blockSize);
+		myNumBlockCols = numBlocksAcross(myCols, blockSize);
+		myBlockOfRow = blockOfEach(myRows, numBlockRows);
+		myBlockOfCol = blockOfEach(myCols, myNumBlockCols);
+		myBlocks = new Block[numBlockRows * myNumBlockCols];
+		int[] numOfColor = new int[NUM_COLORS];
+		for (int b = 0; b < myBlocks.length; b++) {
+			myBlocks[b] = new Block();
+			numOfColor[colorOf(b)]++;
+		}
+		myBlocksOfColor = new Block[NUM_COLORS][];
+		for (int color = 0; color < NUM_COLORS; color++) {
+			myBlocksOfColor[color] = new Block[numOfColor[color]];
+			numOfColor[color] = 0;
+		}
+		for (int b = 0; b < myBlocks.length; b++) {
+			myBlocksOfColor[colorOf(b)][numOfColor[colorOf(b)]++] = myBlocks[b];
+		}
+	}
+
+	/**
+	 * Decides how many blocks to cut a side of the ocean into: an even number, so that the checkerboard holds across
+	 * a wrapping edge, with at least two cells in each. A side too short for two such blocks is left whole.
+	 * @param length: number of cells along the side.
+	 * @param blockSize: approximate number of cells in a block.
+	 * @return number of blocks.
+	 */
+	private int numBlocksAcross(int length, int blockSize) {
+		if (length < 4) {
+			return 1;
+		}
+		int numBlocks = Math.max(2, (length / Math.max(2, blockSize)) & ~1);
+		return Math.min(numBlocks, (length / 2) & ~1);
+	}
+
+	/**
+	 * Finds which block each row (or column) of a side falls in, cutting the side as evenly as possible.
+	 * @param length: number of cells along the side.
+	 * @param numBlocks: number of blocks to cut it into.
+	 * @return block of each cell along the side.
+	 */
+	private int[] blockOfEach(int length, int numBlocks) {
+		int[] blockOf = new int[length];
+		for (int b = 0; b < numBlocks; b++) {
+			for (int i = (int) ((long) b * length / numBlocks); i < (long) (b + 1) * length / numBlocks; i++) {
+				blockOf[i] = b;
+			}
+		}
+		return blockOf;
+	}
+
+	/**
+	 * Gets the checkerboard color of a block.
+	 * @param block: index of the block.
+	 * @return color between 0 and NUM_COLORS - 1.
+	 */
+	private int colorOf(int block) {
+		return ((block / myNumBlockCols) % 2) * 2 + (block % myNumBlockCols) % 2;
+	}
+
+	/**
+	 * Gets the block that a cell falls in.
+	 * @param pos: position of the cell.
+	 * @return index of the block.
+	 */
+	private int blockOf(int pos) {
+		return myBlockOfRow[pos / myCols] * myNumBlockCols + myBlockOfCol[pos % myCols];
+	}
+
+	/**
+	 * Puts a cell's contents in place of whatever is there, as when loading the ocean or when a cell is edited.
+	 * @param row: row of the cell.
+	 * @param col: column of the cell.
+	 * @param code: WATER, FISH or SHARK.
+	 * @param energy: energy of the shark; ignored for fish and water.
+	 */
+	public void set(int row, int col, byte code, int energy) {
+		int pos = row * myCols + col;
+		if (myOcean[pos] == FISH) {
+			removeFish(myAgentAt[pos]);
+		} else if (myOcean[pos] == SHARK) {
+			removeShark(myAgentAt[pos]);
+		}
+		myOcean[pos] = WATER;
+		if (code == FISH) {
+			addFish(pos, 0);
+		} else if (code == SHARK) {
+			addShark(pos, 0, energy);
+		}
+	}
+
+	/**
+	 * Advances the ocean one step: each shark eats a neighboring fish if it can, otherwise dies if it has no energy
+	 * left or moves into neighboring water and loses energy; then each fish that was not eaten moves into
+	 * neighboring water. An agent that moves after living through its breeding time leaves a newborn behind.
+	 * @param random: source of random numbers; each agent's draws are keyed by where it starts the step.
+	 * @param pool: pool to step blocks of the same color on at the same time, or null to step them one by one.
+	 */
+	public void step(RandomService random, ForkJoinPool pool) {
+		myStep++;
+		sortAgentsByBlock();
+		for (Block block : myBlocks) {
+			block.myRandom = random;
+			block.myNumChangedCells = 0;
+			block.myNumBornFish = 0;
+			block.myNumBornSharks = 0;
+		}
+		stepColors(pool, true);
+		stepColors(pool, false);
+		myNumChanged = 0;
+		for (Block block : myBlocks) {
+			myChanged = grow(myChanged, myNumChanged + block.myNumChangedCells);
+			System.arraycopy(block.myChangedCells, 0, myChanged, myNumChanged, block.myNumChangedCells);
+			myNumChanged += block.myNumChangedCells;
+		}
+		for (int i = 0; i < myNumChanged; i++) {
+			myOcean[myChanged[i]] = WATER;
+		}
+		compactFish();
+		compactSharks();
+	}
+
+	/**
+	 * Steps the sharks or the fish of every block, one color after another, starting with a different color each step.
+	 * @param pool: pool to step blocks of the same color on at the same time, or null to step them one by one.
+	 * @param sharks: true to step the sharks; false to step the fish.
+	 */
+	private void stepColors(ForkJoinPool pool, boolean sharks) {
+		for (int i = 0; i < NUM_COLORS; i++) {
+			Block[] blocks = myBlocksOfColor[(myStep + i) % NUM_COLORS];
+			for (Block block : blocks) {
+				block.mySharks = sharks;
+			}
+			if (pool == null || blocks.length < 2) {
+				for (Block block : blocks) {
+					block.stepAgents();
+				}
+			} else {
+				for (Block block : blocks) {
+					block.reinitialize();
+				}
+				pool.invoke(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute() {
+						invokeAll(blocks);
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * Lists the agents of each block together, keeping their order within the block.
+	 */
+	private void sortAgentsByBlock() {
+		for (Block block : myBlocks) {
+			block.myFishEnd = 0;
+			block.mySharkEnd = 0;
+		}
+		for (int i = 0; i < myNumFish; i++) {
+			myBlocks[blockOf(myFishPos[i])].myFishEnd++;
+		}
+		for (int i = 0; i < myNumSharks; i++) {
+			myBlocks[blockOf(mySharkPos[i])].mySharkEnd++;
+		}
+		int fishStart = 0;
+		int sharkStart = 0;
+		for (Block block : myBlocks) {
+			fishStart += block.myFishEnd;
+			sharkStart += block.mySharkEnd;
+			block.myFishStart = fishStart;
+			block.mySharkStart = sharkStart;
+			block.myFishEnd = fishStart;
+			block.mySharkEnd = sharkStart;
+		}
+		myFishOrder = grow(myFishOrder, myNumFish);
+		mySharkOrder = grow(mySharkOrder, myNumSharks);
+		for (int i = myNumFish - 1; i >= 0; i--) {
+			myFishOrder[--myBlocks[blockOf(myFishPos[i])].myFishStart] = i;
+		}
+		for (int i = myNumSharks - 1; i >= 0; i--) {
+			mySharkOrder[--myBlocks[blockOf(mySharkPos[i])].mySharkStart] = i;
+		}
+	}
+
+	/**
+	 * A block of the ocean, with the agents that start the step in it and what they did this step. Everything an
+	 * agent writes goes either to cells within one cell of the block or to the block itself.
+	 */
+	private class Block extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private RandomService myRandom;
+		private boolean mySharks;
+		private int myFishStart;
+		private int myFishEnd;
+		private int mySharkStart;
+		private int mySharkEnd;
+		private int[] myChangedCells = new int[INITIAL_CAPACITY];
+		private int myNumChangedCells;
+		private int[] myBornFish = new int[INITIAL_CAPACITY];
+		private int myNumBornFish;
+		private int[] myBornSharks = new int[INITIAL_CAPACITY];
+		private int[] myBornSharkEnergy = new int[INITIAL_CAPACITY];
+		private int myNumBornSharks;
+		private int[] myOptions = new int[ROW_OFFSETS.length];
+
+		@Override
+		protected void compute() {
+			stepAgents();
+		}
+
+		/**
+		 * Steps the block's sharks or fish, in list order.
+		 */
+		void stepAgents() {
+			if (mySharks) {
+				for (int i = mySharkStart; i < mySharkEnd; i++) {
+					stepShark(mySharkOrder[i]);
+				}
+			} else {
+				for (int i = myFishStart; i < myFishEnd; i++) {
+					if (myFishPos[myFishOrder[i]] != GONE) {
+						stepFish(myFishOrder[i]);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Moves a shark for this step.
+		 * @param i: index of the shark.
+		 */
+		private void stepShark(int i) {
+			int from = mySharkPos[i];
+			markChanged(from);
+			mySharkBreed[i]++;
+			int to = claimNeighbor(from, FISH, 0);
+			int bornEnergy = myInitialEnergy;
+			if (to != GONE) {
+				myFishPos[myAgentAt[to]] = GONE;
+				mySharkEnergy[i]++;
+			} else if (mySharkEnergy[i] == 0) {
+				mySharkPos[i] = GONE;
+				return;
+			} else {
+				mySharkEnergy[i]--;
+				bornEnergy--;
+				to = claimNeighbor(from, WATER, 1);
+				if (to == GONE) {
+					return;
+				}
+			}
+			mySharkPos[i] = to;
+			markChanged(to);
+			if (mySharkBreed[i] >= mySharkBreedTime) {
+				mySharkBreed[i] = 0;
+				myBornSharks = grow(myBornSharks, myNumBornSharks + 1);
+				myBornSharkEnergy = grow(myBornSharkEnergy, myNumBornSharks + 1);
+				myBornSharks[myNumBornSharks] = from;
+				myBornSharkEnergy[myNumBornSharks] = bornEnergy;
+				myNumBornSharks++;
+			}
+		}
+
+		/**
+		 * Moves a fish for this step.
+		 * @param i: index of the fish.
+		 */
+		private void stepFish(int i) {
+			int from = myFishPos[i];
+			myFishBreed[i]++;
+			int to = claimNeighbor(from, WATER, 0);
+			if (to == GONE) {
+				return;
+			}
+			myFishPos[i] = to;
+			markChanged(from);
+			markChanged(to);
+			if (myFishBreed[i] >= myFishBreedTime) {
+				myFishBreed[i] = 0;
+				myBornFish = grow(myBornFish, myNumBornFish + 1);
+				myBornFish[myNumBornFish++] = from;
+			}
+		}
+
+		/**
+		 * Picks one of the neighbors of a cell that held the given contents at the start of the step and that nobody
+		 * has claimed yet, and claims it.
+		 * @param pos: position of the cell.
+		 * @param code: contents the neighbor must have held.
+		 * @param draw: number of the draw for this cell.
+		 * @return position of the claimed neighbor, or GONE if there is none.
+		 */
+		private int claimNeighbor(int pos, byte code, int draw) {
+			int row = pos / myCols;
+			int col = pos % myCols;
+			int numOptions = 0;
+			for (int i = 0; i < ROW_OFFSETS.length; i++) {
+				int neighbor = neighborOf(row + ROW_OFFSETS[i], col + COL_OFFSETS[i]);
+				if (neighbor != GONE && myOcean[neighbor] == code && myClaimedIn[neighbor] != myStep) {
+					myOptions[numOptions++] = neighbor;
+				}
+			}
+			if (numOptions == 0) {
+				return GONE;
+			}
+			int choice = myOptions[(int) (myRandom.nextDouble(RandomService.cellKey(row, col), draw) * numOptions)];
+			myClaimedIn[choice] = myStep;
+			return choice;
+		}
+
+		/**
+		 * Remembers that a cell's contents may have changed this step.
+		 * @param pos: position of the cell.
+		 */
+		private void markChanged(int pos) {
+			if (myChangedIn[pos] != myStep) {
+				myChangedIn[pos] = myStep;
+				myChangedCells = grow(myChangedCells, myNumChangedCells + 1);
+				myChangedCells[myNumChangedCells++] = pos;
+			}
+		}
+	}
+
+	/**
+	 * Gets the position of a cell, wrapping around the edges if the ocean wraps.
+	 * @param row: row of the cell, possibly one past an edge.
+	 * @param col: column of the cell, possibly one past an edge.
+	 * @return position of the cell, or GONE if it lies beyond an edge that does not wrap.
+	 */
+	private int neighborOf(int row, int col) {
+		if (myWraps) {
+			row = (row + myRows) % myRows;
+			col = (col + myCols) % myCols;
+		} else if (row < 0 || row >= myRows || col < 0 || col >= myCols) {
+			return GONE;
+		}
+		return row * myCols + col;
+	}
+
+	/**
+	 * Drops the eaten fish from the list, adds the newborn fish, and writes every fish into the ocean.
+	 */
+	private void compactFish() {
+		int kept = 0;
+		for (int i = 0; i < myNumFish; i++) {
+			if (myFishPos[i] != GONE) {
+				myFishPos[kept] = myFishPos[i];
+				myFishBreed[kept] = myFishBreed[i];
+				kept++;
+			}
+		}
+		myNumFish = kept;
+		for (int i = 0; i < myNumFish; i++) {
+			myOcean[myFishPos[i]] = FISH;
+			myAgentAt[myFishPos[i]] = i;
+		}
+		for (Block block : myBlocks) {
+			for (int i = 0; i < block.myNumBornFish; i++) {
+				addFish(block.myBornFish[i], 0);
+			}
+		}
+	}
+
+	/**
+	 * Drops the dead sharks from the list, adds the newborn sharks, and writes every shark into the ocean.
+	 */
+	private void compactSharks() {
+		int kept = 0;
+		for (int i = 0; i < myNumSharks; i++) {
+			if (mySharkPos[i] != GONE) {
+				mySharkPos[kept] = mySharkPos[i];
+				mySharkBreed[kept] = mySharkBreed[i];
+				mySharkEnergy[kept] = mySharkEnergy[i];
+				kept++;
+			}
+		}
+		myNumSharks = kept;
+		for (int i = 0; i < myNumSharks; i++) {
+			myOcean[mySharkPos[i]] = SHARK;
+			myAgentAt[mySharkPos[i]] = i;
+		}
+		for (Block block : myBlocks) {
+			for (int i = 0; i < block.myNumBornSharks; i++) {
+				addShark(block.myBornSharks[i], 0, block.myBornSharkEnergy[i]);
+			}
+		}
+	}
+
+	/**
+	 * Adds a fish to the end of the list.
+	 * @param pos: position of the fish.
+	 * @param breed: steps the fish has lived through since it last bred.
+	 */
+	private void addFish(int pos, int breed) {
+		myFishPos = grow(myFishPos, myNumFish + 1);
+		myFishBreed = grow(myFishBreed, myNumFish + 1);
+		myFishPos[myNumFish] = pos;
+		myFishBreed[myNumFish] = breed;
+		myOcean[pos] = FISH;
+		myAgentAt[pos] = myNumFish;
+		myNumFish++;
+	}
+
+	/**
+	 * Adds a shark to the end of the list.
+	 * @param pos: position of the shark.
+	 * @param breed: steps the shark has lived through since it last bred.
+	 * @param energy: energy of the shark.
+	 */
+	private void addShark(int pos, int breed, int energy) {
+		mySharkPos = grow(mySharkPos, myNumSharks + 1);
+		mySharkBreed = grow(mySharkBreed, myNumSharks + 1);
+		mySharkEnergy = grow(mySharkEnergy, myNumSharks + 1);
+		mySharkPos[myNumSharks] = pos;
+		mySharkBreed[myNumSharks] = breed;
+		mySharkEnergy[myNumSharks] = energy;
+		myOcean[pos] = SHARK;
+		myAgentAt[pos] = myNumSharks;
+		myNumSharks++;
+	}
+
+	/**
+	 * Removes a fish by moving the last fish into its place.
+	 * @param i: index of the fish.
+	 */
+	private void removeFish(int i) {
+		myNumFish--;
+		myFishPos[i] = myFishPos[myNumFish];
+		myFishBreed[i] = myFishBreed[myNumFish];
+		myAgentAt[myFishPos[i]] = i;
+	}
+
+	/**
+	 * Removes a shark by moving the last shark into its place.
+	 * @param i: index of the shark.
+	 */
+	private void removeShark(int i) {
+		myNumSharks--;
+		mySharkPos[i] = mySharkPos[myNumSharks];
+		mySharkBreed[i] = mySharkBreed[myNumSharks];
+		mySharkEnergy[i] = mySharkEnergy[myNumSharks];
+		myAgentAt[mySharkPos[i]] = i;
+	}
+
+	/**
+	 * Makes sure an array can hold a number of elements, doubling it if it cannot.
+	 * @param array: array to check.
+	 * @param size: number of elements it must hold.
+	 * @return the array, or a larger copy of it.
+	 */
+	private static int[] grow(int[] array, int size) {
+		if (size <= array.length) {
+			return array;
+		}
+		return Arrays.copyOf(array, Math.max(size, array.length * 2));
+	}
+
+	/**
+	 * Gets the number of cells whose contents may have changed in the last step, including every shark, whose energy
+	 * changes each step.
+	 * @return number of cells.
+	 */
+	public int getNumChanged() {
+		return myNumChanged;
+	}
+
+	/**
+	 * Gets the position of a cell whose contents may have changed in the last step.
+	 * @param i: index between 0 and getNumChanged() - 1.
+	 * @return position of the cell, row * number of columns + column.
+	 */
+	public int getChanged(int i) {
+		return myChanged[i];
+	}
+
+	/**
+	 * Gets the contents of a cell.
+	 * @param pos: position of the cell.
+	 * @return WATER, FISH or SHARK.
+	 */
+	public byte getCode(int pos) {
+		return myOcean[pos];
+	}
+
+	/**
+	 * Gets the energy of the shark in a cell.
+	 * @param pos: position of the cell.
+	 * @return energy of the shark, or 0 if there is no shark.
+	 */
+	public int getEnergy(int pos) {
+		return (myOcean[pos] == SHARK) ? mySharkEnergy[myAgentAt[pos]] : 0;
+	}
+
+	/**
+	 * Puts a fish or shark at the end of its list with a given breeding timer, as when restoring the ocean from a
+	 * snapshot. Agents are stepped in list order within a block, so restoring the lists in the order they were saved
+	 * in resumes the run exactly.
+	 * @param pos: position of an empty cell.
+	 * @param code: FISH or SHARK.
+	 * @param breed: steps the agent has lived through since it last bred.
+	 * @param energy: energy of the shark; ignored for fish.
+	 */
+	public void restore(int pos, byte code, int breed, int energy) {
+		if (code == FISH) {
+			addFish(pos, breed);
+		} else if (code == SHARK) {
+			addShark(pos, breed, energy);
+		}
+	}
+
+	/**
+	 * Gets the number of steps the ocean has taken, which decides the order the colors take turns in.
+	 * @return number of steps.
+	 */
+	public int getStep() {
+		return myStep;
+	}
+
+	/**
+	 * Sets the number of steps the ocean has taken, as when restoring it from a snapshot.
+	 * @param step: number of steps.
+	 */
+	public void setStep(int step) {
+		myStep = step;
+	}
+
+	public int getNumFish() {
+		return myNumFish;
+	}
+
+	public int getNumSharks() {
+		return myNumSharks;
+	}
+
+	/**
+	 * Gets the position of a fish.
+	 * @param i: index of the fish in its list.
+	 * @return position of the fish, row * number of columns + column.
+	 */
+	public int getFishPos(int i) {
+		return myFishPos[i];
+	}
+
+	/**
+	 * Gets the number of steps a fish has lived through since it last bred.
+	 * @param i: index of the fish in its list.
+	 * @return steps since the fish last bred.
+	 */
+	public int getFishBreed(int i) {
+		return myFishBreed[i];
+	}
+
+	/**
+	 * Gets the position of a shark.
+	 * @param i: index of the shark in its list.
+	 * @return position of the shark, row * number of columns + column.
+	 */
+	public int getSharkPos(int i) {
+		return mySharkPos[i];
+	}
+
+	/**
+	 * Gets the number of steps a shark has lived through since it last bred.
+	 * @param i: index of the shark in its list.
+	 * @return steps since the shark last bred.
+	 */
+	public int getSharkBreed(int i) {
+		return mySharkBreed[i];
+	}
+
+	public int getNumRows() {
+		return myRows;
+	}
+
+	public int getNumCols() {
+		return myCols;
+	}
+}
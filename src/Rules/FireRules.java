@@ -10,8 +10,10 @@ import java.util.List;
 import java.util.ResourceBundle;
 import Model.Cell;
 import Model.Grid;
+import Model.NeighborhoodView;
+import Model.RandomService;
 
-public class FireRules extends Rules {
+public class FireRules extends Rules implements ParallelRules {
 	public static final String DEFAULT_RESOURCE = "Rules/FireRules";
 	private ResourceBundle myResource = ResourceBundle.getBundle(DEFAULT_RESOURCE);
 	private int NUM_NEIGHBORS = Integer.parseInt(myResource.getString("NumNeighbors"));
@@ -35,10 +37,32 @@ public class FireRules extends Rules {
 		if (curState.equals(TREE)) {
 			handleTreeCell(cell, grid);
 		} else if (curState.equals(BURNING)) {
-			handleBurningCell(cell);
+			applyEvaluation(cell, EMPTY);
 		}
 	}
 
+	/**
+	 * Decides the next state of a Cell based on its state: burning Cells burn
+	 * out, and trees may catch fire from a burning neighbor.
+	 * 
+	 * @param cell:
+	 *            Cell of interest.
+	 * @param neighborhood:
+	 *            view of the Cell of interest and its neighbors.
+	 * @return next state of the Cell, or null if it stays the same.
+	 */
+	@Override
+	public String evaluateCell(Cell cell, NeighborhoodView neighborhood) {
+		String curState = cell.getCurState();
+
+		if (curState.equals(TREE)) {
+			return evaluateTreeCell(neighborhood);
+		} else if (curState.equals(BURNING)) {
+			return EMPTY;
+		}
+		return null;
+	}
+
 	/**
 	 * Determine whether or not a tree Cell catches fire based on neighbors and
 	 * its probability of catching fire.
@@ -49,53 +73,47 @@ public class FireRules extends Rules {
 	 *            Simulation grid.
 	 */
 	private void handleTreeCell(Cell cell, Grid grid) {
-		Cell[][] neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
-
-		if (neighborIsBurning(cell, neighborhood, grid)) {
-			double x = Math.random();
-			if (x < myProbCatch) {
-				cell.setNextState(BURNING);
-				addCellToBeUpdated(cell);
-			}
-		}
+		NeighborhoodView neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
+		applyEvaluation(cell, evaluateTreeCell(neighborhood));
 	}
 
 	/**
-	 * Burning Cell should become empty next round.
+	 * Decides whether a tree Cell catches fire.
 	 * 
-	 * @param cell:
-	 *            burning Cell of interest.
+	 * @param neighborhood:
+	 *            view of the tree Cell and its neighbors.
+	 * @return BURNING if the tree catches fire; null otherwise.
 	 */
-	private void handleBurningCell(Cell cell) {
-		cell.setNextState(EMPTY);
-		addCellToBeUpdated(cell);
+	private String evaluateTreeCell(NeighborhoodView neighborhood) {
+		if (neighborIsBurning(neighborhood)) {
+			double x = getRandomService().nextDouble(RandomService.cellKey(neighborhood.getRow(), neighborhood.getCol()), 0);
+			if (x < myProbCatch) {
+				return BURNING;
+			}
+		}
+		return null;
 	}
 
 	/**
 	 * Checks if an adjacent neighbor Cell is burning.
 	 * 
-	 * @param cell:
-	 *            Cell of interest.
 	 * @param neighborhood:
-	 *            3x3 array of Cells with the Cell of interest in the center and
-	 *            its neighbors surrounding it.
-	 * @param grid:
-	 *            Simulation grid.
+	 *            view of the Cell of interest and its neighbors.
 	 * @return true if an adjacent neighbor is burning; false if none are
 	 *         burning.
 	 */
-	private boolean neighborIsBurning(Cell cell, Cell[][] neighborhood, Grid grid) {
+	private boolean neighborIsBurning(NeighborhoodView neighborhood) {
 
-		if (cellIsBurning(neighborhood[1][0])) {
+		if (cellIsBurning(neighborhood.get(0, -1))) {
 			return true;
 		}
-		if (cellIsBurning(neighborhood[0][1])) {
+		if (cellIsBurning(neighborhood.get(-1, 0))) {
 			return true;
 		}
-		if (cellIsBurning(neighborhood[1][2])) {
+		if (cellIsBurning(neighborhood.get(0, 1))) {
 			return true;
 		}
-		if (cellIsBurning(neighborhood[2][1])) {
+		if (cellIsBurning(neighborhood.get(1, 0))) {
 			return true;
 		}
 
@@ -117,6 +135,23 @@ public class FireRules extends Rules {
 		}
 	}
 
+	/**
+	 * A tree only catches fire from a burning neighbor, and a burning cell always burns out the next step, so cells
+	 * away from the fire never change.
+	 */
+	@Override
+	protected boolean requiresFullSweep() {
+		return false;
+	}
+
+	/**
+	 * Trees only catch fire from the four adjacent cells.
+	 */
+	@Override
+	protected int getNumNeighbors() {
+		return NUM_NEIGHBORS;
+	}
+
 	/**
 	 * Description of the simulation.
 	 */
@@ -5,6 +5,9 @@
 
 package Rules;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
@@ -12,6 +15,8 @@ import java.util.ResourceBundle;
 import Model.Cell;
 import Model.ForagingAntsCell;
 import Model.Grid;
+import Model.NeighborhoodView;
+import Model.PheromoneField;
 import Model.Ant;
 
 public class ForagingAntsRules extends Rules {
@@ -20,43 +25,42 @@ public class ForagingAntsRules extends Rules {
 	private ResourceBundle myResource = ResourceBundle.getBundle(DEFAULT_RESOURCE);
 	private String DEFAULT_STATE = myResource.getString("DefaultState");
 	private int NUM_NEIGHBORS = Integer.parseInt(myResource.getString("NumNeighbors"));
-	private static final Integer[] NORTH = new Integer[]{0, 1};
-	private static final Integer[] SOUTH = new Integer[]{2, 1};
-	private static final Integer[] WEST = new Integer[]{1, 0};
-	private static final Integer[] EAST = new Integer[]{1, 2};
-	private static final Integer[] NW = new Integer[]{0, 0};
-	private static final Integer[] NE = new Integer[]{0, 2};
-	private static final Integer[] SW = new Integer[]{2, 0};
-	private static final Integer[] SE = new Integer[]{2, 2};
-	private List<Integer[]> myDirections;
+	private static final String HOME = "HOME";
+	private static final String FOOD = "FOOD";
+	private PheromoneField myPheromones;
+	private List<Ant> myMovedAnts;
 	
 	
 	public ForagingAntsRules(int numAnts) {
 		numTotalAnts = numAnts;
-		initDirections();
+		myPheromones = new PheromoneField();
+		myMovedAnts = new ArrayList<Ant>();
 	}
 	
 	/**
-	 * Initializes an array of the possible directions an ant can face.
+	 * Starts a new pheromone field for the Cells of the grid, so that the field only holds Cells of this grid.
 	 */
-	private void initDirections() {
-		myDirections = new ArrayList<Integer[]>();
-		myDirections.add(NORTH);
-		myDirections.add(SOUTH);
-		myDirections.add(WEST);
-		myDirections.add(EAST);
-		myDirections.add(NE);
-		myDirections.add(NW);
-		myDirections.add(SE);
-		myDirections.add(SW);
+	@Override
+	public void initGrid(Grid grid, String[][] initialStates) {
+		myPheromones = new PheromoneField();
+		myMovedAnts.clear();
+		super.initGrid(grid, initialStates);
 	}
-
+	
 	/**
 	 * Creates a ForagingAntsCell for use by this simulation.
 	 */
 	@Override
 	protected Cell createCell(String initialState, int row, int col) {
-		return new ForagingAntsCell(initialState, row, col, numTotalAnts);
+		return new ForagingAntsCell(initialState, row, col, numTotalAnts, getRandomService(), myPheromones);
+	}
+
+	/**
+	 * Frees the pheromone slot of a cell the grid has let go of.
+	 */
+	@Override
+	public void cellReleased(Cell cell) {
+		((ForagingAntsCell) cell).releasePheromones();
 	}
 
 	/**
@@ -76,29 +80,20 @@ public class ForagingAntsRules extends Rules {
 				}
 			}
 		}
-		
-		if (isLastCellInGrid(cell, grid)) {
-			resetAllAntHasMovedFlagsAndIncrementPheromoneRecency(grid);
-		}
 	}
 	
 	/**
-	 * Resets hasMoved flags for all ants at the end of each step and increments the recency counter for pheromones of all cells.
+	 * At the end of each step, resets the hasMoved flags of the ants that moved and ages the pheromones of all cells,
+	 * split across the parallel pool when the grid is large enough for it.
 	 * @param grid: simulation grid.
 	 */
-	private void resetAllAntHasMovedFlagsAndIncrementPheromoneRecency(Grid grid) {
-		for (int row = 0; row < grid.getNumRows(); row++) {
-			for (int col = 0; col < grid.getNumCols(); col++) {
-				ForagingAntsCell cell = (ForagingAntsCell) grid.getCell(row, col);
-				cell.incrementPheromoneRecency();
-				if (cell.getNumAnts() > 0) {
-					List<Ant> ants = cell.getAnts();
-					for (int i = 0; i < ants.size(); i++) {
-						ants.get(i).setHasMovedThisTurn(false);
-					}
-				}
-			}
+	@Override
+	protected void sweepFinished(Grid grid) {
+		for (int i = 0; i < myMovedAnts.size(); i++) {
+			myMovedAnts.get(i).setHasMovedThisTurn(false);
 		}
+		myMovedAnts.clear();
+		myPheromones.decay(getParallelPool(grid));
 	}
 	
 	/**
@@ -108,92 +103,20 @@ public class ForagingAntsRules extends Rules {
 	 * @param grid: simulation grid.
 	 */
 	private void handleAnt(Ant ant, ForagingAntsCell cell, Grid grid) {
-		Cell[][] neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
-		ForagingAntsCell[][] foragingAntsNeighborhood = convertToForagingAntsCellNeighborhood(neighborhood);
-		List<Integer[]> directions = getDirectionsToCheck(ant);
+		NeighborhoodView neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
 		if (ant.hasFood()) {
-			ant.returnToNest(cell, foragingAntsNeighborhood, directions);
+			ant.returnToNest(cell, neighborhood);
 		} else {
-			ant.findFoodSource(cell, foragingAntsNeighborhood, directions);
+			ant.findFoodSource(cell, neighborhood);
 			if (ant.arrivedAtFood()) {
 				ant.getCurCell().loseFood();
 				addCellToBeUpdated(ant.getCurCell());
 				ant.setArrivedAtFood(false);
 			}
 		}
+		myMovedAnts.add(ant);
 	}
 
-	/**
-	 * Converts a generic Cell[][] to a ForagingAntsCell[][].
-	 * @param neighborhood: Cell[][] to convert.
-	 * @return ForagingAntsCell[][] version of neighborhood.
-	 */
-	private ForagingAntsCell[][] convertToForagingAntsCellNeighborhood(Cell[][] neighborhood) {
-		ForagingAntsCell[][] foragingAntsNeighborhood = new ForagingAntsCell[neighborhood.length][neighborhood[0].length];
-		for (int row = 0; row < neighborhood.length; row++) {
-			for (int col = 0; col < neighborhood[0].length; col++) {
-				foragingAntsNeighborhood[row][col] = (ForagingAntsCell) neighborhood[row][col];
-			}
-		}
-		return foragingAntsNeighborhood;
-	}
-	
-	/**
-	 * Gets the directions that the ant should check with the forward directions at the front end of the list.
-	 * @param ant: ant being handled currently.
-	 * @return directions that ant should check in the order it should check them.
-	 */
-	private List<Integer[]> getDirectionsToCheck(Ant ant) {
-		List<Integer[]> directions = new ArrayList<Integer[]>();
-		directions.addAll(getForwardDirections(ant.getDirection()));
-
-		for (int i = 0; i < myDirections.size(); i++) {
-			if (!directions.contains(myDirections.get(i))) {
-				directions.add(myDirections.get(i));
-			}
-		}
-		return directions;
-	}
-	
-	/**
-	 * Gets the forward directions based on the ant's current direction.
-	 * @param curDirection: ant's current direction.
-	 * @return list of forward directions.
-	 */
-	private List<Integer[]> getForwardDirections(Integer[] curDirection) {
-		int curRow = curDirection[0];
-		int curCol = curDirection[1];
-
-		List<Integer[]> forwardDirections = new ArrayList<Integer[]>();
-		forwardDirections.add(curDirection);
-		if (curRow == 0 && (curCol == 0 || curCol == 2)) {
-			forwardDirections.add(NORTH);
-		}
-		if ((curRow == 0 || curRow == 2) && curCol == 0) {
-			forwardDirections.add(WEST);
-		}
-		if ((curRow == 0 || curRow == 2) && curCol == 2) {
-			forwardDirections.add(EAST);
-		}
-		if (curRow == 2 && (curCol == 0 || curCol == 2)) {
-			forwardDirections.add(SOUTH);
-		}
-		if ((curRow == 0 && curCol == 1) || (curRow == 1 && curCol == 0)) {
-			forwardDirections.add(NW);
-		}
-		if ((curRow == 0 && curCol == 1) || (curRow == 1 && curCol == 2)) {
-			forwardDirections.add(NE);
-		}
-		if ((curRow == 1 && curCol == 0) || (curRow == 2 && curCol == 1)) {
-			forwardDirections.add(SW);
-		}
-		if ((curRow == 1 && curCol == 2) || (curRow == 2 && curCol == 1)) {
-			forwardDirections.add(SE);
-		}
-		
-		return forwardDirections;
-	}
-	
 	/**
 	 * Applies rules of this specific simulation to cells.
 	 */
@@ -227,4 +150,68 @@ public class ForagingAntsRules extends Rules {
 	public String getDefault() {
 		return DEFAULT_STATE;
 	}
+
+	/**
+	 * The view shows the number of ants in the Cell.
+	 */
+	@Override
+	public boolean hasCellValues() {
+		return true;
+	}
+
+	/**
+	 * Gets the number of ants in the Cell.
+	 * @param cell: Cell of interest.
+	 * @return the number of ants in the Cell.
+	 */
+	@Override
+	public int getCellValue(Cell cell) {
+		return ((ForagingAntsCell) cell).getNumAnts();
+	}
+
+	/**
+	 * Writes the pheromones, food and ants on each Cell, in row-major order.
+	 */
+	@Override
+	public void writeCellData(Grid grid, DataOutput out) throws IOException {
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				ForagingAntsCell cell = (ForagingAntsCell) grid.getCell(row, col);
+				out.writeInt(cell.getNumPheromones(FOOD));
+				out.writeInt(cell.getPheromoneRecency(FOOD));
+				out.writeInt(cell.getNumPheromones(HOME));
+				out.writeInt(cell.getPheromoneRecency(HOME));
+				out.writeInt(cell.getFoodAmount());
+				out.writeInt(cell.getAnts().size());
+				for (Ant ant : cell.getAnts()) {
+					out.writeByte(Ant.getRowInNeighborhood(ant.getDirection()));
+					out.writeByte(Ant.getColInNeighborhood(ant.getDirection()));
+					out.writeBoolean(ant.hasFood());
+					out.writeBoolean(ant.arrivedAtFood());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts back the pheromones, food and ants the Cells had when the snapshot was written, replacing the ants created
+	 * at HOME.
+	 */
+	@Override
+	public void readCellData(Grid grid, ByteBuffer in) {
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				ForagingAntsCell cell = (ForagingAntsCell) grid.getCell(row, col);
+				cell.setPheromones(FOOD, in.getInt(), in.getInt());
+				cell.setPheromones(HOME, in.getInt(), in.getInt());
+				cell.setFoodAmount(in.getInt());
+				cell.clearAnts();
+				int numAnts = in.getInt();
+				for (int i = 0; i < numAnts; i++) {
+					int direction = Ant.getDirectionInNeighborhood(in.get(), in.get());
+					cell.addAnt(new Ant(cell, getRandomService(), direction, in.get() != 0, in.get() != 0));
+				}
+			}
+		}
+	}
 }
@@ -7,13 +7,21 @@
 package Rules;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
 
 import Model.Cell;
 import Model.Grid;
+import Model.HashLifeUniverse;
+import Model.HashLifeUniverse.LiveCellVisitor;
+import Model.InfiniteGrid;
+import Model.LifeBitBoard;
+import Model.NeighborhoodView;
+import Model.StandardGrid;
+import Model.ToroidalGrid;
 
-public class GameOfLifeRules extends Rules {
+public class GameOfLifeRules extends Rules implements ParallelRules {
 	public static final String DEFAULT_RESOURCE = "Rules/GameOfLifeRules";
 	private ResourceBundle myResource = ResourceBundle.getBundle(DEFAULT_RESOURCE);
 	private int NUM_NEIGHBORS = Integer.parseInt(myResource.getString("NumNeighbors"));
@@ -22,12 +30,325 @@ public class GameOfLifeRules extends Rules {
 	private String DEFAULT_STATE = myResource.getString("DefaultState");
 	private List<Integer> NUM_ALLOWABLE_LIVE_NEIGHBORS = new ArrayList<Integer>();
 	private int NUM_NEIGHBORS_NEEDED_TO_REPRODUCE = Integer.parseInt(myResource.getString("NumNeighborsNeededToReproduce"));
+	private String CELL_ENGINE = myResource.getString("CellEngine");
+	private String BIT_PACKED_ENGINE = myResource.getString("BitPackedEngine");
+	private String HASH_LIFE_ENGINE = myResource.getString("HashLifeEngine");
+	private int HASH_LIFE_MAX_NODES = Integer.parseInt(myResource.getString("HashLifeMaxNodes"));
+	private int HASH_LIFE_MAX_GRID_SIDE = Integer.parseInt(myResource.getString("HashLifeMaxGridSide"));
+	private static final int INITIAL_LIVE_CELL_CAPACITY = 64;
+	private String myEngine;
+	private int myStepExponent = Integer.parseInt(myResource.getString("HashLifeStepExponent"));
+	private LifeBitBoard myBitBoard;
+	private Grid myBitBoardGrid;
+	private HashLifeUniverse myUniverse;
+	private Grid myUniverseGrid;
+	private long myUniverseRowOfGridTop;
+	private long myUniverseColOfGridLeft;
+	private long[] myShownLiveCells = new long[INITIAL_LIVE_CELL_CAPACITY];
+	private int myNumShownLiveCells;
+	private long[] myNextLiveCells = new long[INITIAL_LIVE_CELL_CAPACITY];
+	private int myNumNextLiveCells;
+	private LiveCellVisitor myLiveCellCollector = (row, col) -> {
+		myNextLiveCells = appendCell(myNextLiveCells, myNumNextLiveCells, row, col);
+		myNumNextLiveCells++;
+	};
 	
 	public GameOfLifeRules() {
 		String[] allowableNeighbors = myResource.getString("NumAllowableLiveNeighbors").split(",");
 		for (int i = 0; i < allowableNeighbors.length; i++) {
 			NUM_ALLOWABLE_LIVE_NEIGHBORS.add(Integer.parseInt(allowableNeighbors[i]));
 		}	
+		myEngine = CELL_ENGINE;
+	}
+	
+	/**
+	 * Constructs the Game of Life rules with a specific engine.
+	 * @param engine: "Cell" to apply the rules cell by cell, "BitPacked" to step Standard and Toroidal grids on a
+	 * LifeBitBoard, or "HashLife" to step Infinite grids on a HashLifeUniverse.
+	 */
+	public GameOfLifeRules(String engine) {
+		this();
+		myEngine = engine;
+	}
+	
+	/**
+	 * Constructs the Game of Life rules with a specific engine and number of generations per step.
+	 * @param engine: name of the engine, as for GameOfLifeRules(String).
+	 * @param stepExponent: each step of the HashLife engine advances 2^stepExponent generations.
+	 */
+	public GameOfLifeRules(String engine, int stepExponent) {
+		this(engine);
+		myStepExponent = stepExponent;
+	}
+	
+	/**
+	 * Initializes the grid and discards any bit board built for a previous grid.
+	 */
+	@Override
+	public void initGrid(Grid grid, String[][] initialStates) {
+		super.initGrid(grid, initialStates);
+		myBitBoard = null;
+		myBitBoardGrid = null;
+		myUniverse = null;
+		myUniverseGrid = null;
+	}
+	
+	/**
+	 * Applies the rules to the whole grid, on a LifeBitBoard if the bit-packed engine was chosen and the grid has
+	 * fixed bounds, on a HashLifeUniverse if the HashLife engine was chosen and the grid is infinite; otherwise cell
+	 * by cell.
+	 */
+	@Override
+	public void applyRulesToGrid(Grid grid) {
+		if (canUseHashLife(grid)) {
+			stepHashLife((InfiniteGrid) grid);
+			return;
+		}
+		if (!canUseBitBoard(grid)) {
+			super.applyRulesToGrid(grid);
+			return;
+		}
+		if (myBitBoard == null || myBitBoardGrid != grid) {
+			loadBitBoard(grid);
+		}
+		myBitBoard.step();
+		queueChangedCells(grid);
+	}
+	
+	/**
+	 * Keeps the bit board in step with cells edited outside the simulation.
+	 */
+	@Override
+	public void cellEdited(Cell cell) {
+		super.cellEdited(cell);
+		if (myBitBoard != null) {
+			myBitBoard.setAlive(cell.getCurRow(), cell.getCurCol(), ALIVE.equals(cell.getCurState()));
+		}
+		if (myUniverse != null) {
+			myUniverse.setAlive(myUniverseRowOfGridTop + cell.getCurRow(), myUniverseColOfGridLeft + cell.getCurCol(),
+					ALIVE.equals(cell.getCurState()));
+			myShownLiveCells = appendCell(myShownLiveCells, myNumShownLiveCells, cell.getCurRow(), cell.getCurCol());
+			myNumShownLiveCells++;
+		}
+	}
+	
+	/**
+	 * Checks whether the grid can be stepped on a HashLifeUniverse.
+	 * @param grid: Simulation grid.
+	 * @return true if the HashLife engine was chosen and the grid is an Infinite grid.
+	 */
+	private boolean canUseHashLife(Grid grid) {
+		return myEngine.equals(HASH_LIFE_ENGINE) && NUM_NEIGHBORS == 8 && getStateTable().size() == 2
+				&& grid instanceof InfiniteGrid;
+	}
+	
+	/**
+	 * Advances the universe by 2^stepExponent generations, fits the grid around the live cells, and queues the cells
+	 * that changed. Only the cells shown alive before the step and the cells alive after it are looked at, so a step
+	 * costs time in proportion to the population rather than to the size of the grid.
+	 * @param grid: Simulation grid.
+	 */
+	private void stepHashLife(InfiniteGrid grid) {
+		if (myUniverse == null || myUniverseGrid != grid) {
+			loadUniverse(grid);
+		}
+		myUniverse.step(myStepExponent);
+		long[] bounds = myUniverse.getBounds();
+		if (bounds != null) {
+			int layers = fitGridAroundPattern(grid, bounds);
+			for (int i = 0; i < myNumShownLiveCells; i++) {
+				myShownLiveCells[i] += packCell(layers, layers);
+			}
+		}
+		myNumNextLiveCells = 0;
+		myUniverse.forEachLiveCell(myUniverseRowOfGridTop, myUniverseColOfGridLeft, grid.getNumRows(), grid.getNumCols(),
+				myLiveCellCollector);
+		Arrays.sort(myNextLiveCells, 0, myNumNextLiveCells);
+		for (int i = 0; i < myNumShownLiveCells; i++) {
+			if (Arrays.binarySearch(myNextLiveCells, 0, myNumNextLiveCells, myShownLiveCells[i]) < 0) {
+				queueHashLifeState(grid, myShownLiveCells[i], false);
+			}
+		}
+		for (int i = 0; i < myNumNextLiveCells; i++) {
+			queueHashLifeState(grid, myNextLiveCells[i], true);
+		}
+		long[] shown = myShownLiveCells;
+		myShownLiveCells = myNextLiveCells;
+		myNumShownLiveCells = myNumNextLiveCells;
+		myNextLiveCells = shown;
+		grid.setResizedImmediatelyBefore(false);
+		grid.setResizedThisStep(false);
+	}
+	
+	/**
+	 * Queues a cell to be alive or dead after the step, if it is not already.
+	 * @param grid: Simulation grid.
+	 * @param position: position of the cell, as packed by packCell.
+	 * @param alive: true if the cell is alive after the step.
+	 */
+	private void queueHashLifeState(Grid grid, long position, boolean alive) {
+		int row = (int) (position >>> 32);
+		int col = (int) position;
+		if (alive != ALIVE.equals(grid.getStateAt(row, col))) {
+			Cell cell = grid.getCell(row, col);
+			cell.setNextState(alive ? ALIVE : DEAD);
+			addCellToBeUpdated(cell);
+		}
+	}
+	
+	/**
+	 * Packs a position into a long that sorts in row-major order.
+	 * @param row: row of the position.
+	 * @param col: column of the position.
+	 * @return packed position.
+	 */
+	private static long packCell(int row, int col) {
+		return ((long) row << 32) | col;
+	}
+	
+	/**
+	 * Adds a position to the end of a list of positions, growing the list if it is full.
+	 * @param cells: list of packed positions.
+	 * @param numCells: number of positions in the list.
+	 * @param row: row of the position to add.
+	 * @param col: column of the position to add.
+	 * @return the list, or a longer copy of it if it was full.
+	 */
+	private static long[] appendCell(long[] cells, int numCells, int row, int col) {
+		if (numCells == cells.length) {
+			cells = Arrays.copyOf(cells, cells.length * 2);
+		}
+		cells[numCells] = packCell(row, col);
+		return cells;
+	}
+	
+	/**
+	 * Makes the grid show every live cell with a layer of dead cells around them. The grid only grows when the pattern
+	 * no longer fits; otherwise the part of the universe it shows slides along with the pattern, so that patterns that
+	 * travel far (e.g. gliders fast-forwarded by millions of generations) do not make the grid grow without bound. A
+	 * pattern too large for a grid of HashLifeMaxGridSide is shown through a window centered on it, in which case the
+	 * state counts only cover the cells in the window.
+	 * @param grid: Simulation grid.
+	 * @param bounds: {minRow, minCol, maxRow, maxCol} of the live cells in the universe.
+	 * @return number of layers of cells the grid grew by on each side.
+	 */
+	private int fitGridAroundPattern(InfiniteGrid grid, long[] bounds) {
+		long height = Math.min(bounds[2] - bounds[0] + 3, HASH_LIFE_MAX_GRID_SIDE);
+		long width = Math.min(bounds[3] - bounds[1] + 3, HASH_LIFE_MAX_GRID_SIDE);
+		long layers = Math.max(0, Math.max(height - grid.getNumRows() + 1, width - grid.getNumCols() + 1) / 2);
+		if (layers > 0) {
+			grid.expand((int) layers);
+			myUniverseRowOfGridTop -= layers;
+			myUniverseColOfGridLeft -= layers;
+		}
+		myUniverseRowOfGridTop = slideWindow(myUniverseRowOfGridTop, grid.getNumRows(), bounds[0], bounds[2]);
+		myUniverseColOfGridLeft = slideWindow(myUniverseColOfGridLeft, grid.getNumCols(), bounds[1], bounds[3]);
+		return (int) layers;
+	}
+	
+	/**
+	 * Moves a window along one axis by as little as possible so that it holds a range with a margin of one cell, or
+	 * centers the window on the range if the range is too long.
+	 * @param start: current start of the window.
+	 * @param length: length of the window.
+	 * @param min: start of the range.
+	 * @param max: end of the range (inclusive).
+	 * @return new start of the window.
+	 */
+	private long slideWindow(long start, int length, long min, long max) {
+		long lowest = max - (length - 2);
+		long highest = min - 1;
+		if (lowest > highest) {
+			return (min + max) / 2 - length / 2;
+		}
+		return Math.max(lowest, Math.min(start, highest));
+	}
+	
+	/**
+	 * Builds a HashLifeUniverse holding the current states of the grid, with the top-left cell of the grid at the
+	 * origin of the universe.
+	 * @param grid: Simulation grid.
+	 */
+	private void loadUniverse(Grid grid) {
+		myUniverse = new HashLifeUniverse(getBirthMask(), getSurviveMask(), HASH_LIFE_MAX_NODES);
+		myUniverseRowOfGridTop = 0;
+		myUniverseColOfGridLeft = 0;
+		myNumShownLiveCells = 0;
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				if (ALIVE.equals(grid.getStateAt(row, col))) {
+					myUniverse.setAlive(row, col, true);
+					myShownLiveCells = appendCell(myShownLiveCells, myNumShownLiveCells, row, col);
+					myNumShownLiveCells++;
+				}
+			}
+		}
+		myUniverseGrid = grid;
+	}
+	
+	/**
+	 * Gets the neighbor counts at which a live cell survives.
+	 * @return mask with bit n set if a live cell with n live neighbors stays alive.
+	 */
+	private int getSurviveMask() {
+		int surviveMask = 0;
+		for (int numLiveNeighbors : NUM_ALLOWABLE_LIVE_NEIGHBORS) {
+			surviveMask |= 1 << numLiveNeighbors;
+		}
+		return surviveMask;
+	}
+	
+	/**
+	 * Gets the neighbor counts at which a dead cell becomes alive.
+	 * @return mask with bit n set if a dead cell with n live neighbors becomes alive.
+	 */
+	private int getBirthMask() {
+		return 1 << NUM_NEIGHBORS_NEEDED_TO_REPRODUCE;
+	}
+	
+	/**
+	 * Checks whether the grid can be stepped on a LifeBitBoard.
+	 * @param grid: Simulation grid.
+	 * @return true if the bit-packed engine was chosen and the grid is a Standard or Toroidal grid.
+	 */
+	private boolean canUseBitBoard(Grid grid) {
+		return myEngine.equals(BIT_PACKED_ENGINE) && NUM_NEIGHBORS == 8 && getStateTable().size() == 2
+				&& (grid instanceof StandardGrid || grid instanceof ToroidalGrid);
+	}
+	
+	/**
+	 * Builds a LifeBitBoard holding the current states of the grid.
+	 * @param grid: Simulation grid.
+	 */
+	private void loadBitBoard(Grid grid) {
+		myBitBoard = new LifeBitBoard(grid.getNumRows(), grid.getNumCols(), grid instanceof ToroidalGrid, getBirthMask(), getSurviveMask());
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				if (ALIVE.equals(grid.getStateAt(row, col))) {
+					myBitBoard.setAlive(row, col, true);
+				}
+			}
+		}
+		myBitBoardGrid = grid;
+	}
+	
+	/**
+	 * Gives each cell that changed in the last bit board step its next state and queues it to be updated.
+	 * @param grid: Simulation grid.
+	 */
+	private void queueChangedCells(Grid grid) {
+		for (int row = 0; row < myBitBoard.getNumRows(); row++) {
+			for (int word = 0; word < myBitBoard.getWordsPerRow(); word++) {
+				long changed = myBitBoard.getChangedWord(row, word);
+				while (changed != 0) {
+					int col = word * Long.SIZE + Long.numberOfTrailingZeros(changed);
+					Cell cell = grid.getCell(row, col);
+					cell.setNextState(myBitBoard.isAlive(row, col) ? ALIVE : DEAD);
+					addCellToBeUpdated(cell);
+					changed &= changed - 1;
+				}
+			}
+		}
 	}
 	
 	/**
@@ -35,48 +356,72 @@ public class GameOfLifeRules extends Rules {
 	 */
 	@Override
 	public void applyRulesToCell(Cell cell, Grid grid) {
-		String curState = cell.getCurState();
-		Cell[][] neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
+		NeighborhoodView neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
+		applyEvaluation(cell, evaluateCell(cell, neighborhood));
+	}
+
+	/**
+	 * Decides the next state of a Cell from its state and the number of live neighbors it has.
+	 * @param cell: Cell of interest.
+	 * @param neighborhood: view of the Cell and its neighbors.
+	 * @return next state of the Cell, or null if it stays the same.
+	 */
+	@Override
+	public String evaluateCell(Cell cell, NeighborhoodView neighborhood) {
 		int numLiveNeighbors = countNumLiveNeighbors(neighborhood);
-		
-		if (curState.equals(DEAD)) {
-			handleDeadCells(cell, numLiveNeighbors);
-		} else {
-			handleAliveCells(cell, numLiveNeighbors);
+		if (cell.getCurState().equals(DEAD)) {
+			return evaluateDeadCell(numLiveNeighbors);
 		}
+		return evaluateAliveCell(numLiveNeighbors);
 	}
 
 	/**
 	 * Counts the number of live neighbors a Cell has.
-	 * @param neighborhood: 3x3 array of Cells with the Cell of interest in the center and its neighbors surrounding it.
+	 * @param neighborhood: view of the Cell of interest and its neighbors.
 	 * @return number of live neighbors.
 	 */
-	private int countNumLiveNeighbors(Cell[][] neighborhood) {
+	private int countNumLiveNeighbors(NeighborhoodView neighborhood) {
 		return countSurroundingNeighborsOfType(neighborhood, ALIVE);
 	}
 
 	/**
 	 * If a live Cell has < 2 neighbors, it dies of underpopulation; if it has > 3 neighbors, it dies of overpopulation.
-	 * @param cell: alive Cell of interest.
 	 * @param numLiveNeighbors: number of live neighbors the cell has.
+	 * @return DEAD if the Cell dies; null otherwise.
 	 */
-	private void handleAliveCells(Cell cell, int numLiveNeighbors) {
+	private String evaluateAliveCell(int numLiveNeighbors) {
 		if (!NUM_ALLOWABLE_LIVE_NEIGHBORS.contains(numLiveNeighbors)) {
-			cell.setNextState(DEAD);
-			addCellToBeUpdated(cell);
+			return DEAD;
 		}
+		return null;
 	}
 
 	/**
 	 * If a dead Cell has exactly 3 live neighbors, it becomes alive as though through reproduction.
-	 * @param cell: dead Cell of interest.
 	 * @param numLiveNeighbors: number of live neighbors the cell has.
+	 * @return ALIVE if the Cell comes to life; null otherwise.
 	 */
-	private void handleDeadCells(Cell cell, int numLiveNeighbors) {
+	private String evaluateDeadCell(int numLiveNeighbors) {
 		if (numLiveNeighbors == NUM_NEIGHBORS_NEEDED_TO_REPRODUCE) {
-			cell.setNextState(ALIVE);
-			addCellToBeUpdated(cell);
+			return ALIVE;
 		}
+		return null;
+	}
+
+	/**
+	 * Live cells are counted among all eight surrounding cells.
+	 */
+	@Override
+	protected int getNumNeighbors() {
+		return NUM_NEIGHBORS;
+	}
+
+	/**
+	 * A cell's next state only depends on its own state and the number of live cells around it.
+	 */
+	@Override
+	protected boolean requiresFullSweep() {
+		return false;
 	}
 
 	/**
@@ -92,6 +437,12 @@ public class GameOfLifeRules extends Rules {
 	@Override
 	public List<String> getParameters() {
 		List<String> parameters = new ArrayList<String>();
+		if (!myEngine.equals(CELL_ENGINE)) {
+			parameters.add("Engine:" + myEngine);
+		}
+		if (myEngine.equals(HASH_LIFE_ENGINE)) {
+			parameters.add("StepExponent:" + myStepExponent);
+		}
 		return parameters;
 	}
 	
@@ -0,0 +1,212 @@
+/**
+ * Keeps, for every Cell of a fixed-size grid of two kinds of agents, how many of its neighbors are of each kind, and
+ * from those counts which Cells are empty and which agents are dissatisfied. When a Cell changes, only the counts of
+ * its neighbors are adjusted, so a step in which few Cells change costs little no matter how large the grid is. The
+ * empty and dissatisfied Cells are kept as bit sets, so they can be listed in row-major order, the same order a sweep
+ * of the grid finds them in.
+ */
+
+package Rules;
+
+import java.util.BitSet;
+
+import Model.Cell;
+import Model.CellPool;
+import Model.Grid;
+import Model.NeighborhoodView;
+import Model.StateTable;
+
+public class NeighborCountTable {
+	private Grid myGrid;
+	private int myRows;
+	private int myCols;
+	private int myNumNeighbors;
+	private NeighborhoodView myView;
+	private int myEmptyCode;
+	private int myFirstCode;
+	private int mySecondCode;
+	private double myThreshold;
+	private byte[] myCodes;
+	private byte[] myFirstCounts;
+	private byte[] mySecondCounts;
+	private BitSet myEmpty;
+	private BitSet myDissatisfied;
+	private int myNumEmpty;
+
+	/**
+	 * Builds the counts from the current states of a grid.
+	 * @param grid: Simulation grid; must not be able to resize.
+	 * @param numNeighbors: the number of neighbors of interest (4 or 8).
+	 * @param table: states of the simulation.
+	 * @param empty: state of an empty Cell.
+	 * @param first: state of one kind of agent.
+	 * @param second: state of the other kind of agent.
+	 * @param threshold: percentage of like neighbors below which an agent is dissatisfied.
+	 */
+	public NeighborCountTable(Grid grid, int numNeighbors, StateTable table, String empty, String first, String second,
+			double threshold) {
+		myGrid = grid;
+		myRows = grid.getNumRows();
+		myCols = grid.getNumCols();
+		myNumNeighbors = numNeighbors;
+		myView = new NeighborhoodView(grid);
+		myEmptyCode = table.getCode(empty);
+		myFirstCode = table.getCode(first);
+		mySecondCode = table.getCode(second);
+		myThreshold = threshold;
+		myCodes = new byte[myRows * myCols];
+		myFirstCounts = new byte[myRows * myCols];
+		mySecondCounts = new byte[myRows * myCols];
+		myEmpty = new BitSet(myRows * myCols);
+		myDissatisfied = new BitSet(myRows * myCols);
+		for (int r = 0; r < myRows; r++) {
+			for (int c = 0; c < myCols; c++) {
+				myCodes[r * myCols + c] = (byte) codeOf(grid.getCell(r, c), table);
+			}
+		}
+		for (int r = 0; r < myRows; r++) {
+			for (int c = 0; c < myCols; c++) {
+				NeighborhoodView neighborhood = grid.getNeighborhood(r, c, numNeighbors);
+				myFirstCounts[r * myCols + c] = (byte) neighborhood.countState(myFirstCode);
+				mySecondCounts[r * myCols + c] = (byte) neighborhood.countState(mySecondCode);
+				classify(r * myCols + c);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the table was built for a grid of the given size.
+	 * @param grid: Simulation grid.
+	 * @return true if the table can be used for the grid; false if it has to be rebuilt.
+	 */
+	public boolean fits(Grid grid) {
+		return grid == myGrid && grid.getNumRows() == myRows && grid.getNumCols() == myCols;
+	}
+
+	/**
+	 * Brings the counts up to date after a Cell's state changed.
+	 * @param cell: Cell whose state changed.
+	 * @param code: new state code of the Cell.
+	 */
+	public void cellChanged(Cell cell, int code) {
+		int index = cell.getCurRow() * myCols + cell.getCurCol();
+		int oldCode = myCodes[index];
+		if (oldCode == code) {
+			return;
+		}
+		myCodes[index] = (byte) code;
+		myView.moveTo(cell.getCurRow(), cell.getCurCol(), myNumNeighbors);
+		for (int dr = -1; dr <= 1; dr++) {
+			for (int dc = -1; dc <= 1; dc++) {
+				Cell neighbor = myView.get(dr, dc);
+				if ((dr == 0 && dc == 0) || neighbor == null) {
+					continue;
+				}
+				int neighborIndex = neighbor.getCurRow() * myCols + neighbor.getCurCol();
+				adjustCount(neighborIndex, oldCode, -1);
+				adjustCount(neighborIndex, code, 1);
+				classify(neighborIndex);
+			}
+		}
+		classify(index);
+	}
+
+	/**
+	 * Adds to a Cell's count of neighbors of a kind of agent.
+	 * @param index: index of the Cell.
+	 * @param code: state code of the neighbor; codes other than the two agents are not counted.
+	 * @param delta: amount to add.
+	 */
+	private void adjustCount(int index, int code, int delta) {
+		if (code == myFirstCode) {
+			myFirstCounts[index] += delta;
+		} else if (code == mySecondCode) {
+			mySecondCounts[index] += delta;
+		}
+	}
+
+	/**
+	 * Records whether a Cell is empty, a dissatisfied agent, or neither.
+	 * @param index: index of the Cell.
+	 */
+	private void classify(int index) {
+		int code = myCodes[index];
+		boolean empty = code == myEmptyCode;
+		if (empty != myEmpty.get(index)) {
+			myEmpty.set(index, empty);
+			myNumEmpty += empty ? 1 : -1;
+		}
+		int numSame = 0;
+		if (code == myFirstCode) {
+			numSame = myFirstCounts[index];
+		} else if (code == mySecondCode) {
+			numSame = mySecondCounts[index];
+		}
+		myDissatisfied.set(index, !empty && isDissatisfied(numSame, myFirstCounts[index] + mySecondCounts[index], myThreshold));
+	}
+
+	/**
+	 * Adds every dissatisfied agent to a pool, in row-major order.
+	 * @param pool: pool to add to.
+	 */
+	public void collectDissatisfied(CellPool pool) {
+		for (int i = myDissatisfied.nextSetBit(0); i >= 0; i = myDissatisfied.nextSetBit(i + 1)) {
+			pool.add(myGrid.getCell(i / myCols, i % myCols));
+		}
+	}
+
+	/**
+	 * Adds empty Cells to a pool, in row-major order.
+	 * @param pool: pool to add to.
+	 * @param max: largest number of Cells to add.
+	 */
+	public void collectEmpty(CellPool pool, int max) {
+		int added = 0;
+		for (int i = myEmpty.nextSetBit(0); i >= 0 && added < max; i = myEmpty.nextSetBit(i + 1)) {
+			pool.add(myGrid.getCell(i / myCols, i % myCols));
+			added++;
+		}
+	}
+
+	/**
+	 * Gets the number of dissatisfied agents.
+	 * @return number of dissatisfied agents.
+	 */
+	public int getNumDissatisfied() {
+		return myDissatisfied.cardinality();
+	}
+
+	/**
+	 * Gets the number of empty Cells.
+	 * @return number of empty Cells.
+	 */
+	public int getNumEmpty() {
+		return myNumEmpty;
+	}
+
+	/**
+	 * Checks whether an agent is dissatisfied with its neighbors. An agent with no like neighbors or no agent
+	 * neighbors at all is left where it is.
+	 * @param numSame: number of neighbors of the agent's own kind.
+	 * @param numNeighbors: number of neighbors of either kind.
+	 * @param threshold: percentage of like neighbors below which an agent is dissatisfied.
+	 * @return true if the agent is dissatisfied; false otherwise.
+	 */
+	public static boolean isDissatisfied(int numSame, int numNeighbors, double threshold) {
+		double percentageSame = ((double) numSame) / ((double) numNeighbors) * 100;
+		return percentageSame < threshold && percentageSame != 0.0;
+	}
+
+	/**
+	 * Gets the state code of a Cell.
+	 * @param cell: Cell of interest.
+	 * @param table: states of the simulation.
+	 * @return state code, or StateTable.NO_STATE if there is no Cell.
+	 */
+	private int codeOf(Cell cell, StateTable table) {
+		if (cell == null) {
+			return StateTable.NO_STATE;
+		}
+		return table.getCode(cell.getCurState());
+	}
+}
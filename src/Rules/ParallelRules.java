@@ -0,0 +1,21 @@
+/**
+ * Rules whose cells can be evaluated in parallel by a StripedStepper. Each decision is made from the current states
+ * alone, before anything is changed; the decisions are then carried out one by one with Rules.applyEvaluation. Rules
+ * that do not implement this interface are always stepped serially.
+ */
+
+package Rules;
+
+import Model.Cell;
+import Model.NeighborhoodView;
+
+public interface ParallelRules {
+	/**
+	 * Decides what happens to a Cell from the current states of it and its neighbors, without changing anything. May be
+	 * called from several threads at once.
+	 * @param cell: Cell to evaluate.
+	 * @param neighborhood: view of the Cell and its neighbors.
+	 * @return what happens to the Cell (for most rules, its next state), or null if nothing happens.
+	 */
+	String evaluateCell(Cell cell, NeighborhoodView neighborhood);
+}
@@ -6,13 +6,20 @@
 
 package Rules;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 
 import Model.Cell;
 import Model.Grid;
+import Model.NeighborhoodView;
 import Model.PredatorPreyCell;
+import Model.StandardGrid;
+import Model.ToroidalGrid;
+import Model.WaTorOcean;
 
 public class PredatorPreyRules extends Rules {
 	public static final String DEFAULT_RESOURCE = "Rules/PredatorPreyRules";
@@ -22,11 +29,18 @@ public class PredatorPreyRules extends Rules {
 	private String SHARK = myResource.getString("Shark");
 	private String WATER = myResource.getString("Water");
 	private String DEFAULT_STATE = myResource.getString("DefaultState");
+	private String CELL_ENGINE = myResource.getString("CellEngine");
+	private String AGENT_LIST_ENGINE = myResource.getString("AgentListEngine");
+	private int AGENT_LIST_BLOCK_SIZE = Integer.parseInt(myResource.getString("AgentListBlockSize"));
+	private String myEngine;
+	private WaTorOcean myOcean;
+	private Grid myOceanGrid;
 	private int myInitialSharkEnergy;
 	private int mySharkReproductionTime;
 	private int myFishReproductionTime;
 	private int myInitSharkReproductionTime;
 	private int myInitFishReproductionTime;
+	private PredatorPreyCell[] myMoveOptions = new PredatorPreyCell[4];
 
 	
 	public PredatorPreyRules(int initialSharkEnergy, int sharkReproductionTime, int fishReproductionTime) {
@@ -35,6 +49,136 @@ public class PredatorPreyRules extends Rules {
 		myInitSharkReproductionTime = sharkReproductionTime;
 		myInitFishReproductionTime = fishReproductionTime;
 		myInitialSharkEnergy = initialSharkEnergy;
+		myEngine = CELL_ENGINE;
+	}
+	
+	/**
+	 * Constructs the Predator Prey rules with a specific engine.
+	 * @param initialSharkEnergy: energy of a newborn shark.
+	 * @param sharkReproductionTime: number of rounds between shark births.
+	 * @param fishReproductionTime: number of rounds between fish births.
+	 * @param engine: "Cell" to apply the rules cell by cell, or "AgentList" to step Standard and Toroidal grids on a
+	 * WaTorOcean, where every fish and shark keeps its own breeding timer and large grids are stepped in parallel.
+	 */
+	public PredatorPreyRules(int initialSharkEnergy, int sharkReproductionTime, int fishReproductionTime, String engine) {
+		this(initialSharkEnergy, sharkReproductionTime, fishReproductionTime);
+		myEngine = engine;
+	}
+	
+	/**
+	 * Steps Standard and Toroidal grids on a WaTorOcean if the agent list engine was chosen; otherwise applies the
+	 * rules cell by cell.
+	 * @param grid: Simulation grid.
+	 */
+	@Override
+	public void applyRulesToGrid(Grid grid) {
+		if (!canUseAgentList(grid)) {
+			super.applyRulesToGrid(grid);
+			return;
+		}
+		if (myOcean == null || myOceanGrid != grid) {
+			loadOcean(grid);
+		}
+		getRandomService().nextStep();
+		myOcean.step(getRandomService(), getParallelPool(grid));
+		queueChangedCells(grid);
+	}
+	
+	/**
+	 * Keeps the ocean in step with cells edited outside the simulation.
+	 */
+	@Override
+	public void cellEdited(Cell cell) {
+		super.cellEdited(cell);
+		if (myOcean != null) {
+			myOcean.set(cell.getCurRow(), cell.getCurCol(), codeOf(cell.getCurState()),
+					((PredatorPreyCell) cell).getSharkEnergy());
+		}
+	}
+	
+	/**
+	 * Checks whether the grid can be stepped on a WaTorOcean.
+	 * @param grid: Simulation grid.
+	 * @return true if the agent list engine was chosen and the grid is a Standard or Toroidal grid.
+	 */
+	private boolean canUseAgentList(Grid grid) {
+		return myEngine.equals(AGENT_LIST_ENGINE) && (grid instanceof StandardGrid || grid instanceof ToroidalGrid);
+	}
+	
+	/**
+	 * Creates an empty WaTorOcean the size of the grid.
+	 * @param grid: Simulation grid.
+	 * @return the ocean.
+	 */
+	private WaTorOcean createOcean(Grid grid) {
+		// the cell engine counts down from the reproduction time to 0 and breeds at 1, so births are one round further apart
+		return new WaTorOcean(grid.getNumRows(), grid.getNumCols(), grid instanceof ToroidalGrid,
+				myInitFishReproductionTime + 1, myInitSharkReproductionTime + 1, myInitialSharkEnergy, AGENT_LIST_BLOCK_SIZE);
+	}
+	
+	/**
+	 * Builds a WaTorOcean holding the fish and sharks of the grid.
+	 * @param grid: Simulation grid.
+	 */
+	private void loadOcean(Grid grid) {
+		myOcean = createOcean(grid);
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				PredatorPreyCell cell = (PredatorPreyCell) grid.getCell(row, col);
+				byte code = codeOf(cell.getCurState());
+				if (code != WaTorOcean.WATER) {
+					myOcean.set(row, col, code, cell.getSharkEnergy());
+				}
+			}
+		}
+		myOceanGrid = grid;
+	}
+	
+	/**
+	 * Gives each cell that changed in the last ocean step its next state and its shark's energy, and queues the cells
+	 * whose state changed to be updated.
+	 * @param grid: Simulation grid.
+	 */
+	private void queueChangedCells(Grid grid) {
+		int cols = myOcean.getNumCols();
+		for (int i = 0; i < myOcean.getNumChanged(); i++) {
+			int pos = myOcean.getChanged(i);
+			PredatorPreyCell cell = (PredatorPreyCell) grid.getCell(pos / cols, pos % cols);
+			String state = stateOf(myOcean.getCode(pos));
+			if (!state.equals(cell.getCurState())) {
+				cell.setNextState(state);
+				addCellToBeUpdated(cell);
+			}
+			cell.setSharkEnergy(myOcean.getEnergy(pos));
+		}
+	}
+	
+	/**
+	 * Gets the ocean's code for a state.
+	 * @param state: state of a cell.
+	 * @return WaTorOcean.FISH, WaTorOcean.SHARK, or WaTorOcean.WATER for any other state.
+	 */
+	private byte codeOf(String state) {
+		if (FISH.equals(state)) {
+			return WaTorOcean.FISH;
+		} else if (SHARK.equals(state)) {
+			return WaTorOcean.SHARK;
+		}
+		return WaTorOcean.WATER;
+	}
+	
+	/**
+	 * Gets the state for one of the ocean's codes.
+	 * @param code: WaTorOcean.WATER, FISH or SHARK.
+	 * @return state of a cell.
+	 */
+	private String stateOf(byte code) {
+		if (code == WaTorOcean.FISH) {
+			return FISH;
+		} else if (code == WaTorOcean.SHARK) {
+			return SHARK;
+		}
+		return WATER;
 	}
 	
 	/**
@@ -42,13 +186,12 @@ public class PredatorPreyRules extends Rules {
 	 */
 	public void applyRulesToCell(PredatorPreyCell cell, Grid grid) {
 		String curState = cell.getCurState();
-		Cell[][] neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
-		PredatorPreyCell[][] predatorPreyNeighborhood = convertToPredatorPreyCellNeighborhood(neighborhood);
+		NeighborhoodView neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
 		
 		if (curState.equals(FISH)) {
-			handleFishCell(cell, grid, predatorPreyNeighborhood);
+			handleFishCell(cell, grid, neighborhood);
 		} else if (curState.equals(SHARK)) {
-			handleSharkCell(cell, grid, predatorPreyNeighborhood);
+			handleSharkCell(cell, grid, neighborhood);
 		}
 
 		if (cell.getCurRow() == grid.getNumRows() - 1 && cell.getCurCol() == grid.getNumCols() - 1) {
@@ -78,36 +221,29 @@ public class PredatorPreyRules extends Rules {
 	 * @param cell: fish Cell of interest.
 	 * @param grid: Simulation grid.
 	 */
-	private void handleFishCell(PredatorPreyCell cell, Grid grid, PredatorPreyCell[][] neighborhood) {
+	private void handleFishCell(PredatorPreyCell cell, Grid grid, NeighborhoodView neighborhood) {
 		if (!fishHasAlreadyBeenEaten(cell)) {
-			Cell nextLocation = cellToMoveTo(neighborhood, WATER);
+			PredatorPreyCell nextLocation = cellToMoveTo(neighborhood, WATER);
 
 			if (nextLocation != null) {
 				switchCells(cell, nextLocation);
+				// a shark that meant to move into the water is lost there, so neither cell is left holding its energy
+				cell.setSharkEnergy(0);
+				nextLocation.setSharkEnergy(0);
 				checkForReproduction(cell);
 			}
 		}
 	}
 	
-	private PredatorPreyCell[][] convertToPredatorPreyCellNeighborhood(Cell[][] neighborhood) {
-		PredatorPreyCell[][] predatorPreyNeighborhood = new PredatorPreyCell[neighborhood.length][neighborhood[0].length];
-		for (int row = 0; row < neighborhood.length; row++) {
-			for (int col = 0; col < neighborhood[0].length; col++) {
-				predatorPreyNeighborhood[row][col] = (PredatorPreyCell) neighborhood[row][col];
-			}
-		}
-		return predatorPreyNeighborhood;
-	}
-
 	private boolean fishHasAlreadyBeenEaten(Cell fish) {
-		return (fish.getNextState() == SHARK);
+		return SHARK.equals(fish.getNextState());
 	}
 	/**
 	 * Try to eat a fish, otherwise try to move the shark.
 	 * @param cell: shark Cell of interest.
 	 * @param grid: Simulation grid.
 	 */
-	private void handleSharkCell(PredatorPreyCell cell, Grid grid, PredatorPreyCell[][] neighborhood) {		
+	private void handleSharkCell(PredatorPreyCell cell, Grid grid, NeighborhoodView neighborhood) {		
 		PredatorPreyCell fishToEat = cellToMoveTo(neighborhood, FISH);
 		if (fishToEat != null) {
 			eatFish(fishToEat, cell, grid);
@@ -177,6 +313,7 @@ public class PredatorPreyRules extends Rules {
 	private void undoFishMove(Cell fishToEat, Grid grid) {
 		Cell fishNextLocation = grid.getCell(fishToEat.getNextRow(), fishToEat.getNextCol());
 		fishNextLocation.setNextState(null);
+		fishNextLocation.clearNextLocation();
 		removeCellToBeUpdated(fishNextLocation);
 	}
 
@@ -231,35 +368,38 @@ public class PredatorPreyRules extends Rules {
 	
 	/**
 	 * Gets the Cell that the current Cell will move to.
-	 * @param neighborhood: 3x3 array of Cells with the Cell of interest in the center and its neighbors surrounding it.
+	 * @param neighborhood: view of the Cell of interest and its neighbors.
 	 * @param stateToMoveTo: state of the Cells that can be taken over.
 	 * @return Cell that current Cell wants to move to.
 	 */
-	private PredatorPreyCell cellToMoveTo(PredatorPreyCell[][] neighborhood, String stateToMoveTo) {
-		List<PredatorPreyCell> optionList = new ArrayList<PredatorPreyCell>();
+	private PredatorPreyCell cellToMoveTo(NeighborhoodView neighborhood, String stateToMoveTo) {
+		int numOptions = 0;
 
-		checkIfCanMoveTo(neighborhood[0][1], stateToMoveTo, optionList);
-		checkIfCanMoveTo(neighborhood[1][0], stateToMoveTo, optionList);
-		checkIfCanMoveTo(neighborhood[1][2], stateToMoveTo, optionList);
-		checkIfCanMoveTo(neighborhood[2][1], stateToMoveTo, optionList);
+		numOptions = checkIfCanMoveTo(neighborhood.get(-1, 0), stateToMoveTo, numOptions);
+		numOptions = checkIfCanMoveTo(neighborhood.get(0, -1), stateToMoveTo, numOptions);
+		numOptions = checkIfCanMoveTo(neighborhood.get(0, 1), stateToMoveTo, numOptions);
+		numOptions = checkIfCanMoveTo(neighborhood.get(1, 0), stateToMoveTo, numOptions);
 		
-		if (optionList.size() > 0) {
-			return optionList.get(generateRandom(optionList.size()));
+		if (numOptions > 0) {
+			return myMoveOptions[generateRandom(numOptions)];
 		} else {
 			return null;
 		}
 	}	
 
 	/**
-	 * Adds a Cell to a list of options for the current Cell to move to if it is in fact a candidate for its next location.
+	 * Adds a Cell to the options for the current Cell to move to if it is in fact a candidate for its next location.
 	 * @param cellToCheck: Cell that you want to move to.
 	 * @param stateToMoveTo: state that can be moved to.
-	 * @param optionList: list of options for Cells that you can move to.
+	 * @param numOptions: number of options found so far.
+	 * @return number of options after checking this Cell.
 	 */
-	private void checkIfCanMoveTo(PredatorPreyCell cellToCheck, String stateToMoveTo, List<PredatorPreyCell> optionList) {
+	private int checkIfCanMoveTo(Cell cellToCheck, String stateToMoveTo, int numOptions) {
 		if (canMoveTo(cellToCheck, stateToMoveTo)) {
-			optionList.add(cellToCheck);
+			myMoveOptions[numOptions] = (PredatorPreyCell) cellToCheck;
+			return numOptions + 1;
 		}
+		return numOptions;
 	}
 	
 	/**
@@ -269,7 +409,7 @@ public class PredatorPreyRules extends Rules {
 	 * @return true if that Cell can be taken over; false otherwise.
 	 */
 	private boolean canMoveTo(Cell cellToCheck, String stateToMoveTo) {
-		if (cellToCheck == null || cellToCheck.getNextState() == FISH) {
+		if (cellToCheck == null || FISH.equals(cellToCheck.getNextState())) {
 			return false;
 		} else {
 			return cellToCheck.getCurState().equals(stateToMoveTo);
@@ -300,17 +440,108 @@ public class PredatorPreyRules extends Rules {
 	}
 
 	/**
-	 * Returns the parameters for the Predator Prey simulation.
+	 * Returns the parameters for the Predator Prey simulation: the configured reproduction times, not how many rounds
+	 * are left until the next births.
 	 */
 	@Override
 	public List<String> getParameters() {
 		List<String> parameters = new ArrayList<String>();
 		parameters.add("InitialSharkEnergy:" + myInitialSharkEnergy);
-		parameters.add("SharkReproductionTime:" + mySharkReproductionTime);
-		parameters.add("FishReproductionTime:" + myFishReproductionTime);
+		parameters.add("SharkReproductionTime:" + myInitSharkReproductionTime);
+		parameters.add("FishReproductionTime:" + myInitFishReproductionTime);
+		if (!myEngine.equals(CELL_ENGINE)) {
+			parameters.add("Engine:" + myEngine);
+		}
 		return parameters;
 	}
 	
+	/**
+	 * Writes the energy of each shark, in row-major order, then the rounds left until sharks and until fish next
+	 * breed. When the grid is stepped on a WaTorOcean, the ocean follows: its step count, then each fish and each
+	 * shark in list order, with its position and breeding timer.
+	 */
+	@Override
+	public void writeCellData(Grid grid, DataOutput out) throws IOException {
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				PredatorPreyCell cell = (PredatorPreyCell) grid.getCell(row, col);
+				if (cell.getCurState().equals(SHARK)) {
+					out.writeInt(cell.getSharkEnergy());
+				}
+			}
+		}
+		out.writeInt(mySharkReproductionTime);
+		out.writeInt(myFishReproductionTime);
+		if (canUseAgentList(grid)) {
+			writeOcean(grid, out);
+		}
+	}
+
+	/**
+	 * Writes the state of the ocean that only it holds, loading it first if no step has been taken yet.
+	 * @param grid: Simulation grid.
+	 * @param out: where to write.
+	 */
+	private void writeOcean(Grid grid, DataOutput out) throws IOException {
+		if (myOcean == null || myOceanGrid != grid) {
+			loadOcean(grid);
+		}
+		out.writeInt(myOcean.getStep());
+		out.writeInt(myOcean.getNumFish());
+		for (int i = 0; i < myOcean.getNumFish(); i++) {
+			out.writeInt(myOcean.getFishPos(i));
+			out.writeInt(myOcean.getFishBreed(i));
+		}
+		out.writeInt(myOcean.getNumSharks());
+		for (int i = 0; i < myOcean.getNumSharks(); i++) {
+			out.writeInt(myOcean.getSharkPos(i));
+			out.writeInt(myOcean.getSharkBreed(i));
+		}
+	}
+
+	/**
+	 * Gives each shark the energy it had when the snapshot was written, puts back the rounds left until the next
+	 * births, and puts back the ocean if the grid is stepped on one.
+	 */
+	@Override
+	public void readCellData(Grid grid, ByteBuffer in) {
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				PredatorPreyCell cell = (PredatorPreyCell) grid.getCell(row, col);
+				if (cell.getCurState().equals(SHARK)) {
+					cell.setSharkEnergy(in.getInt());
+				}
+			}
+		}
+		mySharkReproductionTime = in.getInt();
+		myFishReproductionTime = in.getInt();
+		if (canUseAgentList(grid)) {
+			readOcean(grid, in);
+		}
+	}
+
+	/**
+	 * Rebuilds the ocean with its step count and its fish and sharks in the order they were written, so that every
+	 * breeding timer is kept and the run resumes as it would have gone on.
+	 * @param grid: Simulation grid, whose cells already hold the restored states and energies.
+	 * @param in: snapshot, positioned after the reproduction times.
+	 */
+	private void readOcean(Grid grid, ByteBuffer in) {
+		myOcean = createOcean(grid);
+		myOceanGrid = grid;
+		myOcean.setStep(in.getInt());
+		int numFish = in.getInt();
+		for (int i = 0; i < numFish; i++) {
+			myOcean.restore(in.getInt(), WaTorOcean.FISH, in.getInt(), 0);
+		}
+		int numSharks = in.getInt();
+		for (int i = 0; i < numSharks; i++) {
+			int pos = in.getInt();
+			PredatorPreyCell cell = (PredatorPreyCell) grid.getCell(pos / grid.getNumCols(), pos % grid.getNumCols());
+			myOcean.restore(pos, WaTorOcean.SHARK, in.getInt(), cell.getSharkEnergy());
+		}
+	}
+
 	/**
 	 * Gets the default state for the Predator Prey simulation.
 	 */
@@ -5,37 +5,215 @@
 
 package Rules;
 
-import java.util.ArrayList;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
 
+import Model.ActivityTracker;
 import Model.Cell;
+import Model.CounterRandomService;
+import Model.DirtyCellSet;
 import Model.Grid;
+import Model.NeighborhoodView;
+import Model.RandomService;
 import Model.StandardCell;
-import javafx.scene.paint.Color;
+import Model.StateCounts;
+import Model.StateTable;
 
 public abstract class Rules {
 
-	private List<Cell> toBeUpdated = new ArrayList<Cell>();
-	protected Map<String, Integer> myStatesCount;
-	protected Map<String, Color> myStatesColors;
+	private DirtyCellSet toBeUpdated = new DirtyCellSet();
+	private ActivityTracker myActivity = new ActivityTracker();
+	private StripedStepper myStepper = new StripedStepper(this);
+	private RandomService myRandom = new CounterRandomService();
+	protected StateCounts myStatesCount;
+	protected Map<String, String> myStatesColors;
+	private StateTable myStateTable;
 
 	public static final String DEFAULT_RULES_RESOURCE = "Rules/Rules";
 	private ResourceBundle myRulesResources;
-	private int MY_CELL_ROW;
-	private int MY_CELL_COL;
 	
 	/**
-	 * Helper method that applies the specified rules to each method in the grid
+	 * Applies the rules to each cell in the grid that may change (accommodates for resizing in the case of an infinite
+	 * grid). Rules that need every cell to be visited each step evaluate the whole grid; others only evaluate the
+	 * tiles around the cells that changed last step. Rules that keep their own record of the cells that need attention
+	 * may skip the sweep altogether.
+	 * @param grid: Simulation grid.
 	 */
 	public void applyRulesToGrid(Grid grid){
-		for(int r = 0; r < grid.getNumRows(); r++){
-			for(int c = 0; c < grid.getNumCols(); c++){
+		myRandom.nextStep();
+		if (!skipSweep(grid)) {
+			sweepGrid(grid);
+		}
+		sweepFinished(grid);
+		grid.setResizedThisStep(false);
+	}
+	
+	/**
+	 * Evaluates the cells of the grid that may change, in parallel if the rules and the grid allow it.
+	 * @param grid: Simulation grid.
+	 */
+	private void sweepGrid(Grid grid){
+		ActivityTracker activity = null;
+		if (!requiresFullSweep()) {
+			myActivity.beginStep(grid);
+			activity = myActivity;
+		}
+		if (this instanceof ParallelRules && myStepper.canStep(grid)) {
+			myStepper.step((ParallelRules) this, grid, activity);
+		} else if (activity == null) {
+			applyRulesToWholeGrid(grid);
+		} else {
+			applyRulesToActiveTiles(grid);
+		}
+	}
+	
+	/**
+	 * Applies the rules to each cell in the grid.
+	 * @param grid: Simulation grid.
+	 */
+	private void applyRulesToWholeGrid(Grid grid){
+		int rows = grid.getNumRows();
+		int cols = grid.getNumCols();
+		int r0 = 0;
+		int c0 = 0;
+				
+		for(int r = 0; r < rows; r++){
+			if (r == 0) {
+				r = r0;
+			}
+			for(int c = 0; c < cols; c++){
+				if (c == 0) {
+					c = c0;
+				}
 				applyRulesToCell(grid.getCell(r,c), grid);
+				if (grid.hasBeenResizedImmediatelyBefore()) {
+					r++;
+					c++;
+					r0++;
+					c0++;
+					rows++;
+					cols++;
+					grid.setResizedImmediatelyBefore(false);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Applies the rules, in row-major order, to the cells in the tiles that the ActivityTracker marked as active. If
+	 * the grid grows, the cells still to be visited are shifted to match, and the tiles along the new edges are
+	 * evaluated next step.
+	 * @param grid: Simulation grid.
+	 */
+	private void applyRulesToActiveTiles(Grid grid){
+		int rows = grid.getNumRows();
+		int cols = grid.getNumCols();
+		int tileSize = myActivity.getTileSize();
+		int shift = 0;
+		for (int r = 0; r < rows; r++) {
+			for (int tileCol = 0; tileCol < myActivity.getNumTileCols(); tileCol++) {
+				if (!myActivity.isTileActive(r / tileSize, tileCol)) {
+					continue;
+				}
+				int lastCol = Math.min(cols, (tileCol + 1) * tileSize);
+				for (int c = tileCol * tileSize; c < lastCol; c++) {
+					applyRulesToCell(grid.getCell(r + shift, c + shift), grid);
+					if (grid.hasBeenResizedImmediatelyBefore()) {
+						shift = (grid.getNumRows() - rows) / 2;
+						grid.setResizedImmediatelyBefore(false);
+					}
+				}
 			}
 		}
+		if (grid.hasBeenResizedThisStep()) {
+			myActivity.requestBorderSweep();
+		}
+	}
+	
+	/**
+	 * Checks whether every cell must be evaluated each step. Rules whose cells only change in response to their own
+	 * state and their neighbors' states can return false, so that quiescent parts of the grid are skipped.
+	 * @return true if the whole grid must be evaluated each step; false otherwise.
+	 */
+	protected boolean requiresFullSweep() {
+		return true;
+	}
+	
+	/**
+	 * Checks whether this step's sweep can be skipped, for rules that keep track of which cells need attention as the
+	 * cells change (see cellChanged) and do their work in sweepFinished instead.
+	 * @param grid: Simulation grid.
+	 * @return true if the grid does not need to be swept this step; false otherwise.
+	 */
+	protected boolean skipSweep(Grid grid) {
+		return false;
+	}
+	
+	/**
+	 * Gets the pool that rules with their own parallel engine can step a grid on.
+	 * @param grid: Simulation grid.
+	 * @return the pool shared with the parallel stepper if the grid is worth stepping in parallel; null otherwise.
+	 */
+	protected ForkJoinPool getParallelPool(Grid grid) {
+		return myStepper.getPoolFor(grid);
+	}
+	
+	/**
+	 * Carries out the result of ParallelRules.evaluateCell. By default the result is the Cell's next state.
+	 * @param cell: Cell that was evaluated.
+	 * @param evaluation: result of evaluateCell, or null if nothing happens.
+	 */
+	protected void applyEvaluation(Cell cell, String evaluation) {
+		if (evaluation != null) {
+			cell.setNextState(evaluation);
+			addCellToBeUpdated(cell);
+		}
+	}
+	
+	/**
+	 * Gets the number of neighbors of interest for the simulation.
+	 * @return 4 or 8.
+	 */
+	protected int getNumNeighbors() {
+		return 8;
+	}
+	
+	/**
+	 * Called once every cell that needed it has been evaluated in a step, for rules that act on the grid as a whole.
+	 * @param grid: Simulation grid.
+	 */
+	protected void sweepFinished(Grid grid) {
+	}
+	
+	/**
+	 * Notifies the rules that a cell's state was changed from outside the simulation (e.g. by the user), so that any
+	 * state the rules keep about the grid can be brought up to date.
+	 * @param cell: cell whose state was changed.
+	 */
+	public void cellEdited(Cell cell) {
+		cellChanged(cell);
+	}
+	
+	/**
+	 * Called for each cell whose state was changed, once the change has been made, whether by a step or by an edit.
+	 * @param cell: cell whose state was changed.
+	 */
+	protected void cellChanged(Cell cell) {
+		myActivity.recordChange(cell);
+	}
+	
+	/**
+	 * Called for each cell the grid lets go of (e.g. when an Infinite grid releases an idle chunk), so that any state
+	 * the rules keep for the cell can be freed.
+	 * @param cell: cell that was released.
+	 */
+	public void cellReleased(Cell cell) {
 	}
 	
 	/**
@@ -44,6 +222,11 @@ public abstract class Rules {
 	 * @param initialStates: String 2D array with the initial states of each cell.
 	 */
 	public void initGrid(Grid grid, String[][] initialStates) {
+		myActivity.requestFullSweep();
+		grid.setStateTable(myStateTable);
+		if (grid.usesStateStore()) {
+			grid.initStateStore(myStateTable, getDefault());
+		}
 		for (int row = 0; row < grid.getNumRows(); row++) {
 			for (int col = 0; col < grid.getNumCols(); col++) {
 				Cell cell = createCell(initialStates[row][col], row, col);
@@ -57,19 +240,16 @@ public abstract class Rules {
 	 * Populates the state and colors information into two maps
 	 */
 	public void populateStatesInfo(){
-		myStatesCount = new HashMap<String, Integer>();
-		myStatesColors = new HashMap<String, Color>();
+		myStatesColors = new HashMap<String, String>();
 		myRulesResources = ResourceBundle.getBundle(DEFAULT_RULES_RESOURCE);
 		String ruleName = toString().replace(" ", "");
 		String[] states = myRulesResources.getString(ruleName + "States").split(",");
 		String[] colors = myRulesResources.getString(ruleName + "Colors").split(",");
+		myStateTable = new StateTable(states);
+		myStatesCount = new StateCounts(myStateTable);
 		for(int i = 0; i < states.length; i++){
-			myStatesCount.put(states[i], 0);
-			Color color = Color.web(colors[i]);
-			myStatesColors.put(states[i], color);
+			myStatesColors.put(states[i], colors[i]);
 		}
-		MY_CELL_ROW = Integer.parseInt(myRulesResources.getString("MyCellRow"));
-		MY_CELL_COL = Integer.parseInt(myRulesResources.getString("MyCellCol"));
 	}
 	
 	/**
@@ -85,24 +265,21 @@ public abstract class Rules {
 	
 	/**
 	 * Counts the number of neighbors of a certain state.
-	 * @param neighborhood: Cell[][] containing neighboring cells to check.
+	 * @param neighborhood: view of the neighboring cells to check.
 	 * @param state: state of cells to count.
 	 * @return number of neighbors of a certain state.
 	 */
-	protected int countSurroundingNeighborsOfType(Cell[][] neighborhood, String state) {
-		int ret = 0;
-		for (int row = 0; row < neighborhood.length; row++) {
-			for (int col = 0; col < neighborhood[row].length; col++) {
-				if (neighborhood[row][col] != null) {
-					if (row != MY_CELL_ROW || col != MY_CELL_COL) {
-						if (neighborhood[row][col].getCurState().equals(state)) {
-							ret++;
-						}
-					}
-				}
-			}
-		}
-		return ret;
+	protected int countSurroundingNeighborsOfType(NeighborhoodView neighborhood, String state) {
+		return neighborhood.countState(myStateTable.getCode(state));
+	}
+	
+	/**
+	 * Gets the code of one of this simulation's states.
+	 * @param state: state of interest.
+	 * @return code of the state.
+	 */
+	protected int getStateCode(String state) {
+		return myStateTable.getCode(state);
 	}
 	
 	/**
@@ -149,10 +326,10 @@ public abstract class Rules {
 	}
 	
 	/**
-	 * Gets the list of Cells that need to be updated this round of the Simulation.
-	 * @return list of Cells to be updated.
+	 * Gets the set of Cells that need to be updated this round of the Simulation, in the order they were added.
+	 * @return set of Cells to be updated.
 	 */
-	public List<Cell> getToBeUpdatedList() {
+	public DirtyCellSet getToBeUpdatedList() {
 		return toBeUpdated;
 	}
 	
@@ -161,9 +338,7 @@ public abstract class Rules {
 	 * @param cell: Cell to be updated.
 	 */
 	public void addCellToBeUpdated(Cell cell) {
-		if (!toBeUpdated.contains(cell)) {
-			toBeUpdated.add(cell);
-		}
+		toBeUpdated.add(cell);
 	}
 	
 	/**
@@ -175,14 +350,17 @@ public abstract class Rules {
 	}
 	
 	/**
-	 * Clears the "toBeUpdated" list.
+	 * Clears the "toBeUpdated" list, remembering its Cells as the ones that changed this step.
 	 */
 	public void clearToBeUpdatedList(){
+		for (Cell cell : toBeUpdated) {
+			cellChanged(cell);
+		}
 		toBeUpdated.clear();
 	}
 	
 	/**
-	 * Gets a map containing the number cells in each state.
+	 * Gets a map containing the number cells in each state. The map is a read-only view of the counts.
 	 * @return map mapping state to number of cells in that state.
 	 */
 	public Map<String, Integer> getMyStatesCount() {
@@ -190,10 +368,56 @@ public abstract class Rules {
 	}
 
 	/**
-	 * Gets a map containing the color for each
+	 * Checks whether the view shows a number for each Cell besides its state, so that frames handed to the view need
+	 * to carry one.
+	 * @return true if getCellValue is meaningful for this simulation; false otherwise.
+	 */
+	public boolean hasCellValues() {
+		return false;
+	}
+
+	/**
+	 * Gets the number the view shows for a Cell besides its state.
+	 * @param cell: Cell of interest.
+	 * @return the Cell's value; 0 unless the simulation has cell values.
+	 */
+	public int getCellValue(Cell cell) {
+		return 0;
+	}
+
+	/**
+	 * Writes whatever a Cell holds besides its state (agents, energy, pheromones) for a binary snapshot. Simulations
+	 * whose Cells hold nothing but a state write nothing.
+	 * @param grid: Simulation grid, written in row-major order.
+	 * @param out: destination of the data.
+	 */
+	public void writeCellData(Grid grid, DataOutput out) throws IOException {
+		// Nothing besides the states.
+	}
+
+	/**
+	 * Restores the data written by writeCellData onto a grid that was just initialized from the same snapshot.
+	 * @param grid: Simulation grid, read in row-major order.
+	 * @param in: data written by writeCellData.
+	 */
+	public void readCellData(Grid grid, ByteBuffer in) {
+		// Nothing besides the states.
+	}
+
+	/**
+	 * Gets the table mapping this simulation's states to state codes.
+	 * @return the state table.
+	 */
+	public StateTable getStateTable() {
+		return myStateTable;
+	}
+
+	/**
+	 * Gets a map containing the color for each state, written as web color strings so that the rules do not depend
+	 * on a UI toolkit.
 	 * @return map mapping state to color for that state.
 	 */
-	public Map<String, Color> getMyStatesColors() {
+	public Map<String, String> getMyStatesColors() {
 		return myStatesColors;
 	}
 	
@@ -202,11 +426,7 @@ public abstract class Rules {
 	 * @param state: state whose count to increase.
 	 */
 	public void increaseStateCount(String state) {
-		if (!myStatesCount.containsKey(state)) {
-			myStatesCount.put(state, 1);
-		} else {
-			myStatesCount.put(state, myStatesCount.get(state) + 1);
-		}
+		myStatesCount.increase(myStateTable.getCode(state));
 	}
 	
 	/**
@@ -214,12 +434,7 @@ public abstract class Rules {
 	 * @param state: state whose count to decrease.
 	 */
 	public void decreaseStateCount(String state) {
-		if (myStatesCount.containsKey(state)) {
-			int num = myStatesCount.get(state);
-			if (num > 0) {
-				myStatesCount.put(state, num - 1);
-			}
-		}
+		myStatesCount.decrease(myStateTable.getCode(state));
 	}
 
 	/**
@@ -227,7 +442,13 @@ public abstract class Rules {
 	 * @param cell: cell that is switching states.
 	 */
 	public void updateStateCount(Cell cell) {
-		if (cell.getNextState() != null) {
+		if (cell.isStoreBacked()) {
+			int next = cell.getNextStateCode();
+			if (next != StateTable.NO_STATE) {
+				myStatesCount.decrease(cell.getCurStateCode());
+				myStatesCount.increase(next);
+			}
+		} else if (cell.getNextState() != null) {
 			decreaseStateCount(cell.getCurState());
 			increaseStateCount(cell.getNextState());
 		}
@@ -253,7 +474,43 @@ public abstract class Rules {
 	 * @return an integer for the random index.
 	 */
 	protected int generateRandom(int max) {
-		return (int) Math.round(Math.random() * (max-1));
+		return (int) Math.round(myRandom.nextDouble() * (max-1));
+	}
+	
+	/**
+	 * Generates a uniformly random index into a list.
+	 * @param size: size of list you're indexing into.
+	 * @return an integer between 0 and (size-1).
+	 */
+	protected int randomIndex(int size) {
+		return (int) (myRandom.nextDouble() * size);
+	}
+	
+	/**
+	 * Puts a list in a random order.
+	 * @param list: list to shuffle.
+	 */
+	protected <T> void shuffle(List<T> list) {
+		for (int i = list.size() - 1; i > 0; i--) {
+			int j = randomIndex(i + 1);
+			list.set(i, list.set(j, list.get(i)));
+		}
+	}
+	
+	/**
+	 * Sets where the simulation's random numbers come from, e.g. a service seeded from the XML file.
+	 * @param random: source of random numbers.
+	 */
+	public void setRandomService(RandomService random) {
+		myRandom = random;
+	}
+	
+	/**
+	 * Gets where the simulation's random numbers come from.
+	 * @return source of random numbers.
+	 */
+	public RandomService getRandomService() {
+		return myRandom;
 	}
 	
 	/**
@@ -261,6 +518,14 @@ public abstract class Rules {
 	 */
 	public abstract String toString();
 	
+	/**
+	 * Gets the name of the Simulation as written in the Name entry of an XML file.
+	 * @return name of the rules type.
+	 */
+	public String getRulesName() {
+		return toString().replace(" ", "");
+	}
+	
 	/**
 	 * Retrieves a list of all the rule parameters
 	 * @return
@@ -7,38 +7,37 @@
 package Rules;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.ResourceBundle;
 
 import Model.Cell;
+import Model.CellPool;
 import Model.Grid;
+import Model.NeighborhoodView;
 
-public class SegregationRules extends Rules {
+public class SegregationRules extends Rules implements ParallelRules {
 	public static final String DEFAULT_RESOURCE = "Rules/SegregationRules";
 	private ResourceBundle myResource = ResourceBundle.getBundle(DEFAULT_RESOURCE);
 	private int NUM_NEIGHBORS = Integer.parseInt(myResource.getString("NumNeighbors"));
 	private String EMPTY = myResource.getString("Empty");
 	private String RED = myResource.getString("Red");
 	private String BLUE = myResource.getString("Blue");
-	private int MY_CELL_ROW = Integer.parseInt(myResource.getString("MyCellRow"));
-	private int MY_CELL_COL = Integer.parseInt(myResource.getString("MyCellCol"));
 	private String DEFAULT_STATE = myResource.getString("DefaultState");
-	private ArrayList<Cell> toBeMoved;
-	private Queue<Cell> emptyCellList;
+	private boolean USE_COUNT_TABLE = myResource.getString("NeighborCountTable").equals("On");
+	private CellPool toBeMoved;
+	private CellPool emptyCellList;
+	private NeighborCountTable myCountTable;
+	private boolean myStepSkippedSweep;
 	private double myThreshold;
 	
 	public SegregationRules(double thresh) {
 		myThreshold = thresh;
-		toBeMoved = new ArrayList<Cell>();
-		emptyCellList = new LinkedList<Cell>();
+		toBeMoved = new CellPool();
+		emptyCellList = new CellPool();
 	}
 	
 	/**
-	 * Apply the rules of the Segregation simulation to a Cell based on its state. If the cell is the last Cell in the grid,
-	 * handle the dissatisfied Cells that could not be moved this simulation.
+	 * Apply the rules of the Segregation simulation to a Cell based on its state.
 	 * @param cell: Cell to apply rules to.
 	 * @param grid: Simulation grid. 
 	 */
@@ -46,35 +45,110 @@ public class SegregationRules extends Rules {
 	public void applyRulesToCell(Cell cell, Grid grid) {
 		String curState = cell.getCurState();
 		if (curState.equals(EMPTY)) {
+			applyEvaluation(cell, EMPTY);
+		} else {
+			NeighborhoodView neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
+			applyEvaluation(cell, evaluateAgentCell(neighborhood));
+		}
+	}
+	
+	/**
+	 * Decides whether a Cell is empty, a dissatisfied agent, or neither.
+	 * @param cell: Cell of interest.
+	 * @param neighborhood: view of the Cell and its neighbors.
+	 * @return EMPTY for an empty Cell, the agent's state for a dissatisfied agent, or null for a satisfied agent.
+	 */
+	@Override
+	public String evaluateCell(Cell cell, NeighborhoodView neighborhood) {
+		String curState = cell.getCurState();
+		if (curState.equals(EMPTY)) {
+			return EMPTY;
+		}
+		return evaluateAgentCell(neighborhood);
+	}
+	
+	/**
+	 * Adds empty Cells to the list of empty Cells and dissatisfied agents to the list of agents to be moved.
+	 * @param cell: Cell that was evaluated.
+	 * @param evaluation: result of evaluateCell.
+	 */
+	@Override
+	protected void applyEvaluation(Cell cell, String evaluation) {
+		if (evaluation == null) {
+			return;
+		}
+		if (evaluation.equals(EMPTY)) {
 			handleEmptyCell(cell);
 		} else {
-			handleAgentCell(cell, grid);
+			toBeMoved.add(cell);
 		}
-		
-		if (isLastCellInGrid(cell, grid)) {
-			handleUnmovedCells();
+	}
+	
+	/**
+	 * Once every Cell has been evaluated, handle the dissatisfied Cells.
+	 * @param grid: Simulation grid.
+	 */
+	@Override
+	protected void sweepFinished(Grid grid) {
+		if (myStepSkippedSweep) {
+			myCountTable.collectDissatisfied(toBeMoved);
+			myCountTable.collectEmpty(emptyCellList, toBeMoved.size());
 		}
+		handleUnmovedCells();
 	}
 	
 	/**
-	 * Move dissatisfied Cells to empty Cells if any are available, otherwise do not move them for this round. 
+	 * On grids that cannot resize, the dissatisfied agents and empty Cells are read from a NeighborCountTable kept up
+	 * to date as Cells change, so the grid is not swept.
+	 * @param grid: Simulation grid.
 	 */
-	private void handleUnmovedCells() {
-		Collections.shuffle(toBeMoved);
-		while (toBeMoved.size() > 0 && !emptyCellList.isEmpty()) {
-			Cell agentCell = toBeMoved.get(0);
-			toBeMoved.remove(0);
-			Cell emptyCell = emptyCellList.poll();
-			switchCells(agentCell, emptyCell);
+	@Override
+	protected boolean skipSweep(Grid grid) {
+		myStepSkippedSweep = false;
+		if (!USE_COUNT_TABLE || grid.canResize()) {
+			myCountTable = null;
+			return false;
+		}
+		if (myCountTable == null || !myCountTable.fits(grid)) {
+			myCountTable = new NeighborCountTable(grid, NUM_NEIGHBORS, getStateTable(), EMPTY, RED, BLUE, myThreshold);
 		}
-		
-		while (!toBeMoved.isEmpty()) {
-			toBeMoved.remove(0);
+		myStepSkippedSweep = true;
+		return true;
+	}
+	
+	/**
+	 * Keeps the neighbor counts up to date.
+	 * @param cell: Cell whose state was changed.
+	 */
+	@Override
+	protected void cellChanged(Cell cell) {
+		super.cellChanged(cell);
+		if (myCountTable != null) {
+			myCountTable.cellChanged(cell, getStateTable().getCode(cell.getCurState()));
 		}
-		
-		while (!emptyCellList.isEmpty()){
-			emptyCellList.poll();
+	}
+	
+	/**
+	 * Satisfaction is judged among all eight surrounding cells.
+	 */
+	@Override
+	protected int getNumNeighbors() {
+		return NUM_NEIGHBORS;
+	}
+	
+	/**
+	 * Move dissatisfied Cells to empty Cells if any are available, otherwise do not move them for this round. Only as
+	 * many agents as there are empty Cells are drawn, in random order, and each goes to the next empty Cell in the
+	 * order they were found, so a step costs time in proportion to the number of agents and empty Cells.
+	 */
+	private void handleUnmovedCells() {
+		int numMoves = Math.min(toBeMoved.size(), emptyCellList.size());
+		for (int i = 0; i < numMoves; i++) {
+			toBeMoved.swap(i, i + randomIndex(toBeMoved.size() - i));
+			switchCells(toBeMoved.get(i), emptyCellList.get(i));
 		}
+		toBeMoved.clear();
+		emptyCellList.clear();
 	}
 
 	/**
@@ -86,29 +160,24 @@ public class SegregationRules extends Rules {
 	}
 	
 	/**
-	 * Move dissatisfied agent Cells.
-	 * @param cell: agent Cell that's being handled.
-	 * @param grid: Simulation grid.
+	 * Checks whether an agent Cell is dissatisfied and should be moved.
+	 * @param neighborhood: view of the agent Cell and its neighbors.
+	 * @return the agent's state if it is dissatisfied; null otherwise.
 	 */
-	private void handleAgentCell(Cell cell, Grid grid) {
-		Cell[][] neighborhood = grid.getNeighborhood(cell.getCurRow(), cell.getCurCol(), NUM_NEIGHBORS);
-		double percentageSame = percentageSameNeighbors(neighborhood);
-		if (percentageSame < myThreshold && percentageSame != 0.0) {
-			toBeMoved.add(cell);
+	private String evaluateAgentCell(NeighborhoodView neighborhood) {
+		String myCellState = neighborhood.getCenter().getCurState();
+		int numRed = countSurroundingNeighborsOfType(neighborhood, RED);
+		int numBlue = countSurroundingNeighborsOfType(neighborhood, BLUE);
+		int numSame = 0;
+		if (myCellState.equals(RED)) {
+			numSame = numRed;
+		} else if (myCellState.equals(BLUE)) {
+			numSame = numBlue;
 		}
-	}
-
-	/**
-	 * Checks if a cell is satisfied with its neighborhood.
-	 * @param neighborhood: 3x3 array of Cells with the Cell of interest in the center and its neighbors surrounding it.
-	 * @return true if satisfied; false if dissatisfied.
-	 */
-	private double percentageSameNeighbors(Cell[][] neighborhood) {
-		String myCellState = neighborhood[MY_CELL_ROW][MY_CELL_COL].getCurState();
-		int numNeighbors = countSurroundingNeighborsOfType(neighborhood, RED) + countSurroundingNeighborsOfType(neighborhood, BLUE);
-		int numSameNeighbors = countSurroundingNeighborsOfType(neighborhood, myCellState);
-		
-		return ((double) numSameNeighbors)/((double) numNeighbors)*100;
+		if (NeighborCountTable.isDissatisfied(numSame, numRed + numBlue, myThreshold)) {
+			return myCellState;
+		}
+		return null;
 	}
 	
 	/**
@@ -0,0 +1,203 @@
+/**
+ * Evaluates a grid in parallel by splitting it into stripes of rows on a ForkJoinPool. Each stripe reads the current
+ * states through a NeighborhoodView of its own and writes what it decides into a change list of its own; nothing
+ * shared is modified until the stripes have finished, when their change lists are applied in row-major order. The
+ * result is therefore the same as evaluating the grid serially.
+ */
+
+package Rules;
+
+import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import Model.ActivityTracker;
+import Model.Cell;
+import Model.Grid;
+import Model.NeighborhoodView;
+
+public class StripedStepper {
+	private static final String ON = "On";
+	private static ForkJoinPool ourPool;
+	private ResourceBundle myResource = ResourceBundle.getBundle(Rules.DEFAULT_RULES_RESOURCE);
+	private boolean myEnabled = myResource.getString("ParallelStepping").equals(ON);
+	private int myNumThreads = Integer.parseInt(myResource.getString("ParallelThreads"));
+	private int myMinCells = Integer.parseInt(myResource.getString("ParallelMinCells"));
+	private int myStripesPerThread = Integer.parseInt(myResource.getString("StripesPerThread"));
+	private Rules myRules;
+	private ParallelRules myEvaluator;
+	private Stripe[] myStripes;
+	private Grid myStripesGrid;
+
+	/**
+	 * Constructs a stepper for a set of rules.
+	 * @param rules: rules whose applyEvaluation carries out the decisions, and whose pool is handed out.
+	 */
+	public StripedStepper(Rules rules) {
+		myRules = rules;
+		myStripes = new Stripe[0];
+	}
+
+	/**
+	 * Checks whether a grid is worth stepping in parallel. Grids that can grow are never stepped in parallel, since
+	 * growing moves every Cell.
+	 * @param grid: Simulation grid.
+	 * @return true if parallel stepping is turned on, there is more than one thread, and the grid is large enough.
+	 */
+	public boolean canStep(Grid grid) {
+		return myEnabled && getPool().getParallelism() > 1 && !grid.canResize()
+				&& (long) grid.getNumRows() * grid.getNumCols() >= myMinCells;
+	}
+
+	/**
+	 * Gets the shared pool for rules that step a grid in parallel in their own way.
+	 * @param grid: Simulation grid.
+	 * @return the pool if the grid is worth stepping in parallel (see canStep); null otherwise.
+	 */
+	public ForkJoinPool getPoolFor(Grid grid) {
+		return canStep(grid) ? getPool() : null;
+	}
+
+	/**
+	 * Evaluates the grid's cells in parallel and applies the evaluations in row-major order.
+	 * @param evaluator: the rules, which decide what happens to each cell.
+	 * @param grid: Simulation grid.
+	 * @param activity: tracker of the tiles to evaluate, or null to evaluate every cell.
+	 */
+	public void step(ParallelRules evaluator, Grid grid, ActivityTracker activity) {
+		myEvaluator = evaluator;
+		prepareStripes(grid);
+		for (Stripe stripe : myStripes) {
+			stripe.reinitialize();
+			stripe.myActivity = activity;
+		}
+		getPool().invoke(new RecursiveAction() {
+			@Override
+			protected void compute() {
+				invokeAll(myStripes);
+			}
+		});
+		for (Stripe stripe : myStripes) {
+			stripe.applyChanges();
+		}
+	}
+
+	/**
+	 * Splits the grid into stripes, reusing the existing stripes if the grid has not changed.
+	 * @param grid: Simulation grid.
+	 */
+	private void prepareStripes(Grid grid) {
+		int numStripes = Math.min(grid.getNumRows(), getPool().getParallelism() * myStripesPerThread);
+		if (myStripesGrid == grid && myStripes.length == numStripes) {
+			return;
+		}
+		myStripes = new Stripe[numStripes];
+		for (int i = 0; i < numStripes; i++) {
+			int firstRow = (int) ((long) grid.getNumRows() * i / numStripes);
+			int lastRow = (int) ((long) grid.getNumRows() * (i + 1) / numStripes);
+			myStripes[i] = new Stripe(grid, firstRow, lastRow);
+		}
+		myStripesGrid = grid;
+	}
+
+	/**
+	 * Gets the pool shared by all steppers, creating it the first time.
+	 * @return the pool.
+	 */
+	private ForkJoinPool getPool() {
+		synchronized (StripedStepper.class) {
+			if (ourPool == null) {
+				int threads = myNumThreads > 0 ? myNumThreads : Runtime.getRuntime().availableProcessors();
+				ourPool = new ForkJoinPool(threads);
+			}
+			return ourPool;
+		}
+	}
+
+	/**
+	 * A range of rows together with the view used to read them and the changes decided for them.
+	 */
+	private class Stripe extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private Grid myGrid;
+		private int myFirstRow;
+		private int myLastRow;
+		private NeighborhoodView myNeighborhood;
+		private ActivityTracker myActivity;
+		private Cell[] myChangedCells;
+		private String[] myEvaluations;
+		private int myNumChanges;
+
+		/**
+		 * Constructs a stripe.
+		 * @param grid: Simulation grid.
+		 * @param firstRow: first row of the stripe.
+		 * @param lastRow: row after the last row of the stripe.
+		 */
+		Stripe(Grid grid, int firstRow, int lastRow) {
+			myGrid = grid;
+			myFirstRow = firstRow;
+			myLastRow = lastRow;
+			myNeighborhood = new NeighborhoodView(grid);
+			myChangedCells = new Cell[grid.getNumCols()];
+			myEvaluations = new String[grid.getNumCols()];
+		}
+
+		/**
+		 * Evaluates the cells of the stripe, recording every evaluation that calls for a change.
+		 */
+		@Override
+		protected void compute() {
+			myNumChanges = 0;
+			int cols = myGrid.getNumCols();
+			int numNeighbors = myRules.getNumNeighbors();
+			int tileSize = (myActivity == null) ? cols : myActivity.getTileSize();
+			for (int r = myFirstRow; r < myLastRow; r++) {
+				for (int firstCol = 0; firstCol < cols; firstCol += tileSize) {
+					if (myActivity != null && !myActivity.isTileActive(r / tileSize, firstCol / tileSize)) {
+						continue;
+					}
+					int lastCol = Math.min(cols, firstCol + tileSize);
+					for (int c = firstCol; c < lastCol; c++) {
+						myNeighborhood.moveTo(r, c, numNeighbors);
+						String evaluation = myEvaluator.evaluateCell(myNeighborhood.getCenter(), myNeighborhood);
+						if (evaluation != null) {
+							record(myNeighborhood.getCenter(), evaluation);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Adds a change to the stripe's change list.
+		 * @param cell: Cell that changes.
+		 * @param evaluation: what happens to the Cell.
+		 */
+		private void record(Cell cell, String evaluation) {
+			if (myNumChanges == myChangedCells.length) {
+				Cell[] cells = new Cell[myChangedCells.length * 2];
+				String[] evaluations = new String[myEvaluations.length * 2];
+				System.arraycopy(myChangedCells, 0, cells, 0, myNumChanges);
+				System.arraycopy(myEvaluations, 0, evaluations, 0, myNumChanges);
+				myChangedCells = cells;
+				myEvaluations = evaluations;
+			}
+			myChangedCells[myNumChanges] = cell;
+			myEvaluations[myNumChanges] = evaluation;
+			myNumChanges++;
+		}
+
+		/**
+		 * Applies the recorded changes in order and forgets them.
+		 */
+		void applyChanges() {
+			for (int i = 0; i < myNumChanges; i++) {
+				myRules.applyEvaluation(myChangedCells[i], myEvaluations[i]);
+				myChangedCells[i] = null;
+				myEvaluations[i] = null;
+			}
+			myNumChanges = 0;
+		}
+	}
+}
@@ -5,6 +5,7 @@
 
 package Rules;
 
+import java.nio.ByteBuffer;
 import java.util.ResourceBundle;
 
 import Model.Cell;
@@ -42,4 +43,23 @@ public class SugarScapeMigrationPreset extends SugarScapeRules {
 		return new StandardSugarScapeAgent(generateRandom(getMyAgentSugarLimit()) + 1, generateRandom(getMyAgentMetabolismLimit()) + 1, generateRandom(getMyAgentVisionLimit()) + 1, row, col);
 	}
 
+	/**
+	 * Both presets are described as Sugarscape, but each has a name of its own in XML files.
+	 */
+	@Override
+	public String getRulesName() {
+		return "SugarScapeMigration";
+	}
+
+	/**
+	 * Recreates an agent of the Migration preset from a snapshot.
+	 */
+	@Override
+	protected SugarScapeAgent readAgent(ByteBuffer in, int row, int col) {
+		int sugar = in.getInt();
+		SugarScapeAgent agent = new StandardSugarScapeAgent(sugar, in.getInt(), in.getInt(), row, col);
+		agent.setSugar(sugar);
+		return agent;
+	}
+
 }
@@ -5,6 +5,9 @@
 
 package Rules;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ResourceBundle;
 
 import Model.Cell;
@@ -35,7 +38,7 @@ public class SugarScapeReproductionPreset extends SugarScapeRules{
 		SugarScapeCell curCell = (SugarScapeCell) cell;
 		if (curCell.hasAgent()) {
 			ReproductionSugarScapeAgent agent = (ReproductionSugarScapeAgent) curCell.getAgent();
-			ReproductionSugarScapeAgent mate = agent.findMate(grid);
+			ReproductionSugarScapeAgent mate = agent.findMate(grid, getRandomService());
 			if (mate != null) {
 				reproduce(agent, mate, grid);
 			}
@@ -82,4 +85,43 @@ public class SugarScapeReproductionPreset extends SugarScapeRules{
 	
 	}
 
+	/**
+	 * Also writes the agent's initial sugar, gender, age and maximum age.
+	 */
+	@Override
+	protected void writeAgent(SugarScapeAgent agent, DataOutput out) throws IOException {
+		super.writeAgent(agent, out);
+		ReproductionSugarScapeAgent reproductionAgent = (ReproductionSugarScapeAgent) agent;
+		out.writeInt(reproductionAgent.getInitSugar());
+		out.writeInt(reproductionAgent.getGender());
+		out.writeInt(reproductionAgent.getAge());
+		out.writeInt(reproductionAgent.getMaxAge());
+	}
+
+	/**
+	 * Both presets are described as Sugarscape, but each has a name of its own in XML files.
+	 */
+	@Override
+	public String getRulesName() {
+		return "SugarScapeReproduction";
+	}
+
+	/**
+	 * Recreates an agent of the reproduction preset from a snapshot.
+	 */
+	@Override
+	protected SugarScapeAgent readAgent(ByteBuffer in, int row, int col) {
+		int sugar = in.getInt();
+		int metabolism = in.getInt();
+		int vision = in.getInt();
+		int initSugar = in.getInt();
+		int gender = in.getInt();
+		int age = in.getInt();
+		ReproductionSugarScapeAgent agent = new ReproductionSugarScapeAgent(initSugar, metabolism, vision, row, col, gender,
+				in.getInt(), FERTILITY_MIN, FERTILITY_MAX);
+		agent.setSugar(sugar);
+		agent.setAge(age);
+		return agent;
+	}
+
 }
@@ -5,6 +5,9 @@
 
 package Rules;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
@@ -27,7 +30,6 @@ public abstract class SugarScapeRules extends Rules {
 	private String DEFAULT_STATE = myResource.getString("DefaultState");
 	
 	public SugarScapeRules(int sugarGrowBackRate, int sugarGrowBackInterval, int maxSugarCapacity, int sugarLimit, int visionLimit, int metabolismLimit) {
-		System.out.println("Sugar grow back interval: " + sugarGrowBackInterval);
 		mySugarGrowBackRate = sugarGrowBackRate;
 		mySugarGrowBackInterval = sugarGrowBackInterval;
 		mySugarGrowBackCountdown = sugarGrowBackInterval;
@@ -51,6 +53,26 @@ public abstract class SugarScapeRules extends Rules {
 	
 	protected abstract SugarScapeAgent createPresetAgent(int row, int col);
 	
+	/**
+	 * Writes the attributes of an agent for a snapshot. Presets with more attributes write them after these.
+	 * @param agent: agent to write.
+	 * @param out: destination of the data.
+	 */
+	protected void writeAgent(SugarScapeAgent agent, DataOutput out) throws IOException {
+		out.writeInt(agent.getMySugarAmount());
+		out.writeInt(agent.getMetabolism());
+		out.writeInt(agent.getVision());
+	}
+	
+	/**
+	 * Recreates an agent written by writeAgent.
+	 * @param in: data written by writeAgent.
+	 * @param row: row of the agent's cell.
+	 * @param col: column of the agent's cell.
+	 * @return the agent.
+	 */
+	protected abstract SugarScapeAgent readAgent(ByteBuffer in, int row, int col);
+	
 	/**
 	 * Sets the interval for sugar to grow back for this simulation.
 	 * @param interval: number of steps before sugar grows back.
@@ -109,7 +131,6 @@ public abstract class SugarScapeRules extends Rules {
 	 * @param grid: simulation grid.
 	 */
 	private void growBackSugarInCells(Grid grid) {
-		System.out.println("tryna grow back sugar");
 		for (int row = 0; row < grid.getNumRows(); row++) {
 			for (int col = 0; col < grid.getNumCols(); col++) {
 				SugarScapeCell cell = (SugarScapeCell) grid.getCell(row, col);
@@ -157,12 +178,12 @@ public abstract class SugarScapeRules extends Rules {
 	@Override
 	public List<String> getParameters() {
 		List<String> parameters = new ArrayList<String>();
+		parameters.add("SugarGrowBackRate:" + mySugarGrowBackRate);
 		parameters.add("SugarGrowBackInterval:" + mySugarGrowBackInterval);
-		parameters.add("SugarGrowBackCountdown:" + mySugarGrowBackCountdown);
-		parameters.add("MaxCellSugarCapacity:" + myMaxCellSugarCapacity);
-		parameters.add("AgentSugarLimit:" + myAgentSugarLimit);
-		parameters.add("AgentVisionLimit:" + myAgentVisionLimit);
-		parameters.add("AgentMetabolismLimit:" + myAgentMetabolismLimit);
+		parameters.add("MaxSugarCapacity:" + myMaxCellSugarCapacity);
+		parameters.add("SugarLimit:" + myAgentSugarLimit);
+		parameters.add("VisionLimit:" + myAgentVisionLimit);
+		parameters.add("MetabolismLimit:" + myAgentMetabolismLimit);
 		return parameters;
 	}
 	
@@ -244,4 +265,61 @@ public abstract class SugarScapeRules extends Rules {
 	public String getDefault() {
 		return DEFAULT_STATE;
 	}
+
+	/**
+	 * The view shows the amount of sugar on the Cell.
+	 */
+	@Override
+	public boolean hasCellValues() {
+		return true;
+	}
+
+	/**
+	 * Gets the amount of sugar on the Cell.
+	 * @param cell: Cell of interest.
+	 * @return the amount of sugar on the Cell.
+	 */
+	@Override
+	public int getCellValue(Cell cell) {
+		return ((SugarScapeCell) cell).getMySugarAmount();
+	}
+
+	/**
+	 * Writes the steps left until sugar grows back, then the sugar on each Cell and the agent on it, if any, in
+	 * row-major order.
+	 */
+	@Override
+	public void writeCellData(Grid grid, DataOutput out) throws IOException {
+		out.writeInt(mySugarGrowBackCountdown);
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				SugarScapeCell cell = (SugarScapeCell) grid.getCell(row, col);
+				out.writeInt(cell.getMySugarAmount());
+				out.writeBoolean(cell.hasAgent());
+				if (cell.hasAgent()) {
+					writeAgent(cell.getAgent(), out);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts back the sugar and agents the Cells had when the snapshot was written, replacing the agents created from
+	 * their states.
+	 */
+	@Override
+	public void readCellData(Grid grid, ByteBuffer in) {
+		mySugarGrowBackCountdown = in.getInt();
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				SugarScapeCell cell = (SugarScapeCell) grid.getCell(row, col);
+				cell.setMySugarAmount(in.getInt());
+				if (in.get() != 0) {
+					cell.setAgent(readAgent(in, row, col));
+				} else {
+					cell.removeAgent();
+				}
+			}
+		}
+	}
 }
@@ -1,7 +1,11 @@
 package View;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.ResourceBundle;
 
+import Controller.FrameExchange;
+import Controller.GridFrame;
 import Controller.Simulation;
 import javafx.scene.Group;
 import javafx.scene.shape.Rectangle;
@@ -50,16 +54,17 @@ public abstract class BoardBuilder {
 	/**
 	 * builds board by adding rectangles, with the size and quantity based on xml input
 	 * If board shape changes, rebuilds board, otherwise just redisplays
+	 * @param frame latest frame published by the simulation
 	 */
-	protected void displayBoard(Group myBoardGroup){
-		int currentGridWidth = mySimulation.getGrid().getNumCols();
-		int currentGridHeight = mySimulation.getGrid().getNumRows();
+	protected void displayBoard(Group myBoardGroup, GridFrame frame){
+		int currentGridWidth = frame.getNumCols();
+		int currentGridHeight = frame.getNumRows();
 		if(currentGridWidth != myGridWidth || currentGridHeight != myGridHeight){
 			myGridWidth = currentGridWidth;
 			myGridHeight = currentGridHeight;
 			buildBoard(myBoardGroup);
 		}
-		displayGridToBoard();
+		displayGridToBoard(frame);
 	}
 
 	protected int getBorderPixelSize() {
@@ -70,9 +75,46 @@ public abstract class BoardBuilder {
 		this.borderPixelSize = borderPixelSize;
 	}
 
+	/**
+	 * Redraws after the board's scroll pane was scrolled or resized; boards that draw every cell have nothing to do
+	 */
+	protected void viewportChanged() {
+	}
+
+	/**
+	 * @return returns a description of each zoom level the board can be shown at; empty if it cannot be zoomed
+	 */
+	protected List<String> getZoomLevels() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Gets the state of a cell of the latest frame, for the user to edit
+	 * @param frame latest frame published by the simulation
+	 * @return returns the state of the cell
+	 */
+	protected String getState(GridFrame frame, int row, int col) {
+		return frame.getState(row, col);
+	}
+
+	/**
+	 * @return returns the window of cells whose states and values frames should hold; boards that draw every cell
+	 *         ask for the whole grid
+	 */
+	protected int[] getFrameWindow() {
+		return FrameExchange.WHOLE_GRID;
+	}
+
+	protected int getZoom() {
+		return 0;
+	}
+
+	protected void setZoom(int zoom) {
+	}
+
 	protected abstract void buildBoard(Group myBoardGroup);
 	
-	protected abstract void displayGridToBoard();
+	protected abstract void displayGridToBoard(GridFrame frame);
 	
 
 }
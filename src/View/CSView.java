@@ -9,9 +9,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
+import Controller.GridFrame;
 import Controller.Simulation;
 import Rules.ForagingAntsRules;
 import Rules.SugarScapeRules;
+import XML.RecordingReader;
+import XML.RecordingWriter;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.event.EventHandler;
@@ -27,6 +30,7 @@ import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.ColorPicker;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.ScrollPane.ScrollBarPolicy;
+import javafx.scene.control.Slider;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
@@ -44,8 +48,11 @@ public class CSView {
 	private Group myBoardGroup;
 	private Text myTitleDisplay;
 	private Text mySpeedDisplay;
+	private Slider myReplaySlider;
+	private ScrollPane myBoardScrollPane;
 	private LineChart<Number,Number> lineChart;
 	private Map<String, XYChart.Series<Number, Number>> seriesMap;
+	private TimeSeriesStore myHistory;
 	private Map<String, Button> buttonMap;
 	private Map<String, Color> stateColorMap;
 	private Color borderColor;
@@ -59,6 +66,7 @@ public class CSView {
 	private ResourceBundle myViewResources;
 
 	private Simulation mySimulation;
+	private GridFrame myFrame;
 	private BoardBuilder myBB;
 	/**
 	 * Constructor, creates a new CSView object
@@ -118,11 +126,21 @@ public class CSView {
 		sp.setContent(myBoardGroup);
 		sp.setHbarPolicy(ScrollBarPolicy.ALWAYS);
 		sp.setVbarPolicy(ScrollBarPolicy.ALWAYS);
+		sp.hvalueProperty().addListener((observable, oldValue, newValue) -> viewportChanged());
+		sp.vvalueProperty().addListener((observable, oldValue, newValue) -> viewportChanged());
+		sp.viewportBoundsProperty().addListener((observable, oldValue, newValue) -> viewportChanged());
+		myBoardScrollPane = sp;
 		
 		spHBox.getChildren().add(sp);
 		spHBox.setAlignment(Pos.CENTER);
 		spHBox.setMaxSize(uiWidth, uiWidth);
 		
+		//add replay slider, shown only while a recording is replayed
+		myReplaySlider = new Slider();
+		myReplaySlider.setMaxWidth(uiWidth);
+		myReplaySlider.setBlockIncrement(1);
+		myReplaySlider.valueProperty().addListener((observable, oldValue, newValue) -> mySimulation.showRecordedStep(newValue.intValue()));
+		
 		VBox buttonsVBox = new VBox(5);
 		buttonsVBox.setMaxWidth(uiWidth);
 		attachButtonsToVBox(buttonsVBox);
@@ -132,7 +150,7 @@ public class CSView {
 		fieldsVBox.setMaxWidth(uiWidth);
 		attachFieldsToVBox(fieldsVBox);
 		
-		vbox.getChildren().addAll(chartVBox, spHBox, buttonsVBox, fieldsVBox);
+		vbox.getChildren().addAll(chartVBox, spHBox, myReplaySlider, buttonsVBox, fieldsVBox);
 		group.getChildren().add(vbox);
 		return group;
 	}
@@ -225,7 +243,8 @@ public class CSView {
 	 * Sets up the board and the chart
 	 */
 	private void setupUI(){
-		myBB.displayBoard(myBoardGroup);
+		myFrame = mySimulation.getLatestFrame();
+		myBB.displayBoard(myBoardGroup, myFrame);
 		setupChart();
 	}
 	
@@ -238,15 +257,48 @@ public class CSView {
 	private void setupChart(){
 		lineChart.getData().clear();
 	    seriesMap = new HashMap<String, XYChart.Series<Number, Number>>();
-	    Map<String, Integer> statesCount = mySimulation.getRules().getMyStatesCount();
+	    Map<String, Integer> statesCount = myFrame.getMyStatesCount();
 	    //define series for each type of cell
 	    for(String key : statesCount.keySet()){
 	    	XYChart.Series<Number, Number> series = new XYChart.Series<Number, Number>();
 	 	    series.setName(key);
 	 	    seriesMap.put(key, series);
 	 	    lineChart.getData().add(series);
-	 	    series.getData().add(new XYChart.Data<Number, Number>(0, statesCount.get(key)));
 	    }
+	    if(myHistory != null){
+	    	myHistory.close();
+	    }
+	    String spillFile = myViewResources.getString("ChartHistoryFile");
+	    myHistory = new TimeSeriesStore(new ArrayList<String>(statesCount.keySet()), Integer.parseInt(myViewResources.getString("ChartBuckets")),
+	    		spillFile.isEmpty() ? null : new File(spillFile), mySimulation.getThreadReporter());
+	    myHistory.add(0, statesCount);
+	    redrawChart();
+	}
+	
+	/**
+	 * Replaces every point of the chart with those of the history
+	 */
+	private void redrawChart(){
+		List<String> states = myHistory.getStates();
+		for(int s = 0; s < states.size(); s++){
+			List<XYChart.Data<Number, Number>> points = new ArrayList<XYChart.Data<Number, Number>>();
+			for(int b = 0; b < myHistory.getNumBuckets(); b++){
+				addPoints(points, s, b);
+			}
+			seriesMap.get(states.get(s)).getData().setAll(points);
+		}
+	}
+	
+	/**
+	 * Adds the points a bucket of the history is drawn with
+	 * @param points list to add to
+	 * @param state position of the state in the history
+	 * @param bucket bucket to draw
+	 */
+	private void addPoints(List<XYChart.Data<Number, Number>> points, int state, int bucket){
+		for(int p = 0; p < myHistory.getNumPoints(bucket); p++){
+			points.add(new XYChart.Data<Number, Number>(myHistory.getPointTime(bucket, p), myHistory.getPointCount(state, bucket, p)));
+		}
 	}
 	
 	/**
@@ -256,7 +308,7 @@ public class CSView {
 		switch(button) {
 		case "Start": mySimulation.setRunning(true); break;
 		case "Stop": mySimulation.setRunning(false); break;
-		case "Step": mySimulation.step(true); break;
+		case "Step": mySimulation.step(); break;
 		case "Speed Up":
 			mySpeedDisplay.setText("Current Speed: " + mySimulation.changeSpeed(1)); break;
 		case "Slow Down":
@@ -266,6 +318,8 @@ public class CSView {
 		case "Reset": resetPressed(); break;
 		case "Save": mySimulation.saveXML(); break;
 		case "Config": createConfigPanel();break;
+		case "Record":
+		case "Stop Recording": mySimulation.toggleRecording(); break;
 		}
 		enableButtons();
 	}
@@ -282,7 +336,15 @@ public class CSView {
 		buttonMap.get("Generate XML").setDisable(false);
 		buttonMap.get("Reset").setDisable(mySimulation.getXML() == null);
 		buttonMap.get("Load XML").setDisable(false);
+		buttonMap.get("Record").setText(mySimulation.isRecording() ? "Stop Recording" : "Record");
 		
+		//a recording can only be scrubbed through, not stepped, edited or saved
+		boolean replaying = mySimulation.getReplay() != null;
+		for(String k: Arrays.asList("Start", "Stop", "Step", "Save", "Record")){
+			buttonMap.get(k).setDisable(buttonMap.get(k).isDisabled() || replaying);
+		}
+		myReplaySlider.setVisible(replaying);
+		myReplaySlider.setManaged(replaying);
 	}
 	
 	/**
@@ -293,24 +355,69 @@ public class CSView {
 		FileChooser fileChooser = new FileChooser();
 		fileChooser.setTitle("Load XML File");
 		File file = fileChooser.showOpenDialog(myStage);
-		if(file != null){
-			if(mySimulation.useParser(file)){
-				stateColorMap = new HashMap<String, Color>(mySimulation.getRules().getMyStatesColors());
-				myTitleDisplay.setText("Current Simulation: " + mySimulation.getRules().toString());
-				myBB = selectBoardBuilder();
-				setupUI();
-			}
+		if(file != null && RecordingWriter.isRecording(file)){
+			loadRecording(file);
+		} else if(file != null){
+			loadFile(file);
+		}
+	}
+	
+	/**
+	 * Loads a simulation file and shows it
+	 * @param file xml file to load
+	 * @return returns whether or not the file was loaded
+	 */
+	protected boolean loadFile(File file){
+		if(!mySimulation.useParser(file)){
+			return false;
 		}
+		showLoadedRules("Current Simulation: ");
+		return true;
 	}
 	
-	private BoardBuilder selectBoardBuilder(){
+	/**
+	 * Opens a recording and shows its first step, with a slider to move through its steps
+	 * @param file recording to replay
+	 * @return returns whether or not the recording was opened
+	 */
+	protected boolean loadRecording(File file){
+		if(!mySimulation.useRecording(file)){
+			return false;
+		}
+		RecordingReader replay = mySimulation.getReplay();
+		myReplaySlider.setMin(replay.getFirstStep());
+		myReplaySlider.setMax(replay.getLastStep());
+		myReplaySlider.setValue(replay.getFirstStep());
+		showLoadedRules("Replaying: ");
+		return true;
+	}
+	
+	/**
+	 * Sets up colors, title, board and chart for the rules that were just loaded
+	 * @param title text shown before the name of the rules
+	 */
+	private void showLoadedRules(String title){
+		stateColorMap = new HashMap<String, Color>();
+		for (Map.Entry<String, String> entry : mySimulation.getRules().getMyStatesColors().entrySet()) {
+			stateColorMap.put(entry.getKey(), Color.web(entry.getValue()));
+		}
+		myTitleDisplay.setText(title + mySimulation.getRules().toString());
+		myBB = selectBoardBuilder();
+		mySimulation.setFrameWindow(myBB.getFrameWindow());
+		setupUI();
+	}
+	
+	/**
+	 * @return returns a new board builder suited to the loaded simulation
+	 */
+	protected BoardBuilder selectBoardBuilder(){
 		BoardBuilder bb;
 		if(mySimulation.getRules() instanceof ForagingAntsRules){
 			bb = new ForagingAntsBoardBuilder(this, mySimulation);
 		} else if (mySimulation.getRules() instanceof SugarScapeRules) {
 			bb = new SugarScapeBoardBuilder(this, mySimulation);
 		} else {
-			bb = new StandardBoardBuilder(this, mySimulation);
+			bb = new PixelBoardBuilder(this, mySimulation);
 		}
 		return bb;
 	}
@@ -322,7 +429,19 @@ public class CSView {
 	public File promptForFileName(){
 		FileChooser myFileChooser = new FileChooser();
 		FileChooser.ExtensionFilter myFilter = new FileChooser.ExtensionFilter("XML Files (.xml)", "*.xml");
-		myFileChooser.getExtensionFilters().add(myFilter);
+		FileChooser.ExtensionFilter mySnapshotFilter = new FileChooser.ExtensionFilter("Snapshot Files (.snap)", "*.snap");
+		myFileChooser.getExtensionFilters().addAll(myFilter, mySnapshotFilter);
+		File fileName = myFileChooser.showSaveDialog(myStage);
+		return fileName;
+	}
+	
+	/**
+	 * Creates a file picker to get the name of a recording
+	 * @return returns the file 
+	 */
+	public File promptForRecordingName(){
+		FileChooser myFileChooser = new FileChooser();
+		myFileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Recordings (.rec)", "*.rec"));
 		File fileName = myFileChooser.showSaveDialog(myStage);
 		return fileName;
 	}
@@ -339,8 +458,15 @@ public class CSView {
 	 */
 	private void resetPressed(){
 		mySimulation.setRunning(false);
-		mySimulation.loadFromXML();
-		setupUI();
+		boolean replaying = mySimulation.getReplay() != null;
+		if(!mySimulation.loadFromXML()){
+			return;
+		}
+		if(replaying){
+			showLoadedRules("Current Simulation: ");
+		} else {
+			setupUI();
+		}
 	}
 	
 	/**
@@ -348,9 +474,8 @@ public class CSView {
 	 */
 	protected void respondToMouse(int r, int c){
 		mySimulation.setRunning(false);
-		String current = mySimulation.getGrid().getCell(r, c).getCurState();
+		String current = myBB.getState(myFrame, r, c);
 		createStateChanger(current, r, c);
-		updateUI();
 	}
 	
 	/**
@@ -367,12 +492,26 @@ public class CSView {
 		dialog.setContentText("Choose a state:");
 		Optional<String> result = dialog.showAndWait();
 		if (result.isPresent()){
-			mySimulation.getRules().decreaseStateCount(mySimulation.getGrid().getCell(r, c).getCurState());
-		    mySimulation.getGrid().getCell(r, c).setCurState(result.get());
-		    mySimulation.getRules().increaseStateCount(result.get());
+			mySimulation.editCell(r, c, result.get());
+		}
+	}
+	
+	/**
+	 * Lets the board builder redraw what the scroll pane now shows
+	 */
+	private void viewportChanged(){
+		if(myBB != null){
+			myBB.viewportChanged();
 		}
 	}
 	
+	/**
+	 * @return returns the scroll pane the board is shown in
+	 */
+	protected ScrollPane getBoardScrollPane(){
+		return myBoardScrollPane;
+	}
+	
 	/**
 	 * Crates a config dialog box to select border size, state colors, etc.
 	 */
@@ -394,6 +533,9 @@ public class CSView {
 	 */
 	private void handleConfigOpen(String config){
 		switch(config){
+		case "Zoom":
+			openZoomConfig();
+			break;
 		case "State Color":
 			openStateColorConfig();
 			break;
@@ -434,6 +576,25 @@ public class CSView {
 		return stateColorMap;
 	}
 	
+	/**
+	 * Opens a dialog to pick how far the board is zoomed out, redisplay board
+	 */
+	private void openZoomConfig(){
+		List<String> zoomLevels = myBB.getZoomLevels();
+		if(zoomLevels.isEmpty()){
+			return;
+		}
+		ChoiceDialog<String> dialog = new ChoiceDialog<String>(zoomLevels.get(myBB.getZoom()), zoomLevels);
+		dialog.setTitle("Zoom Picker");
+		dialog.setHeaderText("Zoom Picker");
+		dialog.setContentText("Show:");
+		Optional<String> result = dialog.showAndWait();
+		if (result.isPresent()){
+			myBB.setZoom(zoomLevels.indexOf(result.get()));
+			myBB.displayBoard(myBoardGroup, myFrame);
+		}
+	}
+	
 	/**
 	 * Opens border thickness config dialog 
 	 */
@@ -448,7 +609,7 @@ public class CSView {
 		dialog.setContentText("Border thickness (pixels):");
 		Optional<Integer> result = dialog.showAndWait();
 		result.ifPresent(name -> myBB.setBorderPixelSize(result.get()));
-		myBB.displayBoard(myBoardGroup);
+		myBB.displayBoard(myBoardGroup, myFrame);
 	}
 	
 	/**
@@ -461,7 +622,7 @@ public class CSView {
             public void handle(ActionEvent t) { 
                 borderColor = colorPicker.getValue();
                 myBoardGroup.getChildren().remove(colorPicker);
-        		myBB.displayBoard(myBoardGroup);
+        		myBB.displayBoard(myBoardGroup, myFrame);
             }
         });
 	}
@@ -474,22 +635,38 @@ public class CSView {
 	}
 	
 	/**
-	 * Updates the board and the chart 
+	 * Updates the board and the chart from the latest frame
 	 */
 	public void updateUI(){
-		myBB.displayBoard(myBoardGroup);
-		updateChart();
+		myFrame = mySimulation.getLatestFrame();
+		myBB.displayBoard(myBoardGroup, myFrame);
+		if(mySimulation.getReplay() == null){
+			updateChart();
+		}
 	}
 	
 	
 	/**
-	 * updates the chart in time increments of 100 ms
+	 * updates the chart in time increments of 100 ms. The chart holds at most two points per bucket of the history,
+	 * so only the points of the last bucket change, unless the history merged its buckets
 	 */
 	private void updateChart(){
-		Map<String, Integer> statesCount = mySimulation.getRules().getMyStatesCount();
-		for(String key : statesCount.keySet()){
-	 	    seriesMap.get(key).getData().add(new XYChart.Data<Number, Number>(mySimulation.getTime()/100, statesCount.get(key)));
-	    }
+		int compactions = myHistory.getCompactions();
+		int buckets = myHistory.getNumBuckets();
+		int lastPoints = myHistory.getNumPoints(buckets - 1);
+		myHistory.add(myFrame.getTime()/100, myFrame.getMyStatesCount());
+		if(myHistory.getCompactions() != compactions){
+			redrawChart();
+			return;
+		}
+		List<String> states = myHistory.getStates();
+		for(int s = 0; s < states.size(); s++){
+			List<XYChart.Data<Number, Number>> data = seriesMap.get(states.get(s)).getData();
+			if(myHistory.getNumBuckets() == buckets){
+				data.subList(data.size() - lastPoints, data.size()).clear();
+			}
+			addPoints(data, s, myHistory.getNumBuckets() - 1);
+		}
 	}
 }
 
@@ -1,8 +1,7 @@
 package View;
 
+import Controller.GridFrame;
 import Controller.Simulation;
-import Model.ForagingAntsCell;
-import Model.Grid;
 import javafx.scene.Group;
 import javafx.scene.control.Label;
 import javafx.scene.paint.Color;
@@ -26,9 +25,8 @@ public class ForagingAntsBoardBuilder extends BoardBuilder{
 		myBoardGroup.getChildren().clear();
 		myBoard = new Rectangle[myGridHeight][myGridWidth];
 		antcounts = new Label[myGridWidth][myGridHeight];
-		Grid grid = mySimulation.getGrid();
-		for (int r = 0; r < grid.getNumRows(); r++) {
-			for (int c = 0; c < grid.getNumCols(); c++) {
+		for (int r = 0; r < myGridHeight; r++) {
+			for (int c = 0; c < myGridWidth; c++) {
 				Rectangle bg = new Rectangle();
 				bg.setLayoutY(r * (cellPixelSize + (2 * borderPixelSize)));
 				bg.setLayoutX(c * (cellPixelSize + (2 * borderPixelSize)));
@@ -64,14 +62,12 @@ public class ForagingAntsBoardBuilder extends BoardBuilder{
 	/**
 	 * Displays the grid to the board based on the state of each of its cells
 	 */
-	protected void displayGridToBoard(){
-		Grid grid = mySimulation.getGrid();
-		for(int r = 0; r < grid.getNumRows(); r++){
-			for(int c = 0; c < grid.getNumCols(); c++){
-				Color cellcolor = myView.getStateColorMap().get(grid.getCell(r,c).getCurState());
+	protected void displayGridToBoard(GridFrame frame){
+		for(int r = 0; r < frame.getNumRows(); r++){
+			for(int c = 0; c < frame.getNumCols(); c++){
+				Color cellcolor = myView.getStateColorMap().get(frame.getState(r,c));
 				myBoard[r][c].setFill(cellcolor);
-				ForagingAntsCell ant = (ForagingAntsCell) mySimulation.getGrid().getCell(r, c);
-				antcounts[r][c].setText(Integer.toString(ant.getNumAnts()));
+				antcounts[r][c].setText(Integer.toString(frame.getValue(r, c)));
 				antcounts[r][c].setTextFill(cellcolor.invert());
 			}
 		}
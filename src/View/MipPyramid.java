@@ -0,0 +1,112 @@
+package View;
+
+import java.util.Arrays;
+
+public class MipPyramid {
+	/*
+	 * Holds the state code of every cell (level 0) and, for each level above it,
+	 * one code per 2x2 block of the level below: the code most of the block's
+	 * (up to four) parts have, ties going to the top-left-most. Zoomed-out
+	 * views draw one of these codes per screen block instead of reading every
+	 * cell. Changing a cell only revisits the blocks above it, and stops as
+	 * soon as a block keeps its code.
+	 */
+
+	public static final int NO_CODE = -1;
+
+	private byte[][] myLevels;
+	private int[] myRows;
+	private int[] myCols;
+
+	/**
+	 * Creates a pyramid with every code unset
+	 * @param rows number of rows of cells
+	 * @param cols number of columns of cells
+	 * @param numLevels number of levels, counting the cells themselves
+	 */
+	public MipPyramid(int rows, int cols, int numLevels){
+		myLevels = new byte[numLevels][];
+		myRows = new int[numLevels];
+		myCols = new int[numLevels];
+		for(int level = 0; level < numLevels; level++){
+			myRows[level] = rows;
+			myCols[level] = cols;
+			myLevels[level] = new byte[rows * cols];
+			Arrays.fill(myLevels[level], (byte) NO_CODE);
+			rows = (rows + 1) / 2;
+			cols = (cols + 1) / 2;
+		}
+	}
+
+	/**
+	 * Sets the code of a cell and updates the blocks above it
+	 * @param row row of the cell
+	 * @param col column of the cell
+	 * @param code new code of the cell
+	 */
+	public void set(int row, int col, int code){
+		if(myLevels[0][row * myCols[0] + col] == code){
+			return;
+		}
+		myLevels[0][row * myCols[0] + col] = (byte) code;
+		for(int level = 1; level < myLevels.length; level++){
+			row /= 2;
+			col /= 2;
+			int majority = vote(level - 1, 2 * row, 2 * col);
+			if(myLevels[level][row * myCols[level] + col] == majority){
+				return;
+			}
+			myLevels[level][row * myCols[level] + col] = (byte) majority;
+		}
+	}
+
+	/**
+	 * @return returns the most common code among the parts of a 2x2 block that lie inside the level
+	 */
+	private int vote(int level, int row, int col){
+		byte[] codes = myLevels[level];
+		int cols = myCols[level];
+		int best = codes[row * cols + col];
+		int bestCount = 0;
+		for(int i = 0; i < 4; i++){
+			int r = row + i / 2;
+			int c = col + i % 2;
+			if(r >= myRows[level] || c >= cols){
+				continue;
+			}
+			int code = codes[r * cols + c];
+			int count = 0;
+			for(int j = 0; j < 4; j++){
+				int r2 = row + j / 2;
+				int c2 = col + j % 2;
+				if(r2 < myRows[level] && c2 < cols && codes[r2 * cols + c2] == code){
+					count++;
+				}
+			}
+			if(count > bestCount){
+				best = code;
+				bestCount = count;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return returns the code of a cell, or of a block at levels above 0
+	 */
+	public int get(int level, int row, int col){
+		return myLevels[level][row * myCols[level] + col];
+	}
+
+	public int getNumLevels(){
+		return myLevels.length;
+	}
+
+	public int getNumRows(int level){
+		return myRows[level];
+	}
+
+	public int getNumCols(int level){
+		return myCols[level];
+	}
+}
@@ -0,0 +1,356 @@
+package View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Controller.FrameExchange;
+import Controller.GridFrame;
+import Controller.Simulation;
+import Model.StateTable;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+public class PixelBoardBuilder extends BoardBuilder{
+	/*
+	 * Draws only the part of the board that is visible in the scroll pane, into
+	 * one image slightly larger than the viewport, so neither the scene graph
+	 * nor the image grows with the grid. An empty rectangle the size of the
+	 * whole board gives the scroll pane its extent, and the image is moved to
+	 * wherever the scroll pane shows.
+	 * The states are kept in a MipPyramid: zooming out first shrinks cells
+	 * down to a pixel, then shows one pyramid block per pixel, so the cost of
+	 * a redraw depends on the viewport and not on the grid.
+	 * The pyramid is filled from a full frame once, then kept up to date from
+	 * the changes each frame holds, so it asks the simulation for no states.
+	 * After a step, only the blocks holding a changed cell are looked at, and
+	 * only those whose code differs from what was last painted are redrawn;
+	 * the whole viewport is repainted only when it moved or was rebuilt.
+	 */
+
+	private static final int NOT_PAINTED = Integer.MIN_VALUE;
+	private static final int OUTSIDE = -2;
+
+	private MipPyramid myPyramid;
+	private StateTable myStates;
+	private List<int[]> myZoomLevels;
+	private int myZoom;
+	private int myDefaultPitch;
+	private Rectangle myExtent;
+	private ImageView myImageView;
+	private WritableImage myImage;
+	private int myImageRows;
+	private int myImageCols;
+	private int myFirstRow;
+	private int myFirstCol;
+	private int[] myPainted;
+	private Map<String, Color> myPalette;
+	private int[][] myBlocks;
+	private Color myBuiltBorderColor;
+	private int myBuiltBorderPixelSize;
+
+	public PixelBoardBuilder(CSView view, Simulation sim){
+		super(view, sim);
+	}
+
+	/**
+	 * Rebuilds the board if its shape or border changed, then paints the visible blocks that changed
+	 * @param frame latest frame published by the simulation
+	 */
+	@Override
+	protected void displayBoard(Group myBoardGroup, GridFrame frame){
+		if(myView.getBorderColor() != myBuiltBorderColor || borderPixelSize != myBuiltBorderPixelSize){
+			myGridWidth = 0;
+			myGridHeight = 0;
+		}
+		super.displayBoard(myBoardGroup, frame);
+	}
+
+	/**
+	 * Sets up the pyramid and the zoom levels for the grid's size, and the nodes the board is drawn with
+	 */
+	protected void buildBoard(Group myBoardGroup){
+		cellPixelSize = (boardPixelSize / Math.min(maxCellsDisplayed, Math.max(myGridWidth, myGridHeight))) - 2 * borderPixelSize;
+		myDefaultPitch = cellPixelSize + 2 * borderPixelSize;
+		myBuiltBorderColor = myView.getBorderColor();
+		myBuiltBorderPixelSize = borderPixelSize;
+		myStates = mySimulation.getRules().getStateTable();
+		// a rebuild for a new border keeps the states the pyramid already holds
+		if(myPyramid == null || myPyramid.getNumRows(0) != myGridHeight || myPyramid.getNumCols(0) != myGridWidth){
+			int numLevels = 1;
+			for(int size = Math.max(myGridHeight, myGridWidth); size > 1; size = (size + 1) / 2){
+				numLevels++;
+			}
+			myPyramid = new MipPyramid(myGridHeight, myGridWidth, numLevels);
+		}
+		buildZoomLevels();
+		myZoom = Math.min(myZoom, myZoomLevels.size() - 1);
+
+		myExtent = new Rectangle();
+		myExtent.setFill(Color.TRANSPARENT);
+		myImageView = new ImageView();
+		myImageView.setOnMouseClicked(e -> {
+			int level = myZoomLevels.get(myZoom)[0];
+			int pitch = myZoomLevels.get(myZoom)[1];
+			int r = (int) ((myFirstRow * pitch + e.getY()) / pitch) << level;
+			int c = (int) ((myFirstCol * pitch + e.getX()) / pitch) << level;
+			if(r < myGridHeight && c < myGridWidth){
+				myView.respondToMouse(r, c);
+			}
+		});
+		myImage = null;
+		myBoardGroup.getChildren().clear();
+		myBoardGroup.getChildren().addAll(myExtent, myImageView);
+	}
+
+	/**
+	 * Zoom levels go from the default cell size down to a pixel per cell, then up the pyramid a level at a time,
+	 * stopping at the first one that shows the whole board
+	 */
+	private void buildZoomLevels(){
+		myZoomLevels = new ArrayList<int[]>();
+		for(int pitch = myDefaultPitch; ; pitch /= 2){
+			myZoomLevels.add(new int[] { 0, pitch });
+			if(fitsViewport(0, pitch)){
+				return;
+			}
+			if(pitch <= 1){
+				break;
+			}
+		}
+		for(int level = 1; level < myPyramid.getNumLevels(); level++){
+			myZoomLevels.add(new int[] { level, 1 });
+			if(fitsViewport(level, 1)){
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return returns whether the whole board fits the viewport at a level of the pyramid with blocks of a given size
+	 */
+	private boolean fitsViewport(int level, int pitch){
+		Bounds viewport = getViewport();
+		int rows = ((myGridHeight - 1) >> level) + 1;
+		int cols = ((myGridWidth - 1) >> level) + 1;
+		return rows * pitch <= viewport.getHeight() && cols * pitch <= viewport.getWidth();
+	}
+
+	/**
+	 * Updates the pyramid with every cell of a full frame, or else with the cells the frame says changed, then paints
+	 * the visible blocks that changed
+	 */
+	protected void displayGridToBoard(GridFrame frame){
+		if(frame.isFull()){
+			for(int r = 0; r < myGridHeight; r++){
+				for(int c = 0; c < myGridWidth; c++){
+					myPyramid.set(r, c, frame.getCode(r, c));
+				}
+			}
+			paintViewport();
+			return;
+		}
+		for(int i = 0; i < frame.getNumChanges(); i++){
+			myPyramid.set(frame.getChangedRow(i), frame.getChangedCol(i), frame.getChangedCode(i));
+		}
+		if(!layoutViewport()){
+			paintVisibleBlocks();
+			return;
+		}
+		int level = myZoomLevels.get(myZoom)[0];
+		for(int i = 0; i < frame.getNumChanges(); i++){
+			paintBlock(frame.getChangedRow(i) >> level, frame.getChangedCol(i) >> level);
+		}
+	}
+
+	/**
+	 * Reads the state of a cell from the pyramid, which holds every cell even though frames do not
+	 */
+	@Override
+	protected String getState(GridFrame frame, int row, int col){
+		return myStates.getState(myPyramid.get(0, row, col));
+	}
+
+	/**
+	 * @return returns no cells, since the board is drawn from the pyramid
+	 */
+	@Override
+	protected int[] getFrameWindow(){
+		return FrameExchange.NO_CELLS;
+	}
+
+	/**
+	 * Paints what the scroll pane shows after it was scrolled or resized, without reading the frame again
+	 */
+	@Override
+	protected void viewportChanged(){
+		if(myPyramid != null){
+			paintViewport();
+		}
+	}
+
+	/**
+	 * Paints the blocks of the current zoom level that the scroll pane shows
+	 */
+	private void paintViewport(){
+		layoutViewport();
+		paintVisibleBlocks();
+	}
+
+	/**
+	 * Sizes the board and places the image where the scroll pane shows, rebuilding the image or its blocks if the
+	 * viewport, zoom or colors changed
+	 * @return returns true if what was painted before is still in place; false if every block must be painted
+	 */
+	private boolean layoutViewport(){
+		int level = myZoomLevels.get(myZoom)[0];
+		int pitch = myZoomLevels.get(myZoom)[1];
+		int rows = myPyramid.getNumRows(level);
+		int cols = myPyramid.getNumCols(level);
+		myExtent.setWidth(cols * pitch);
+		myExtent.setHeight(rows * pitch);
+
+		Bounds viewport = getViewport();
+		ScrollPane scrollPane = myView.getBoardScrollPane();
+		double x = scrollPane.getHvalue() * Math.max(0, cols * pitch - viewport.getWidth());
+		double y = scrollPane.getVvalue() * Math.max(0, rows * pitch - viewport.getHeight());
+		int firstRow = Math.min((int) (y / pitch), rows - 1);
+		int firstCol = Math.min((int) (x / pitch), cols - 1);
+		int imageRows = (int) (viewport.getHeight() / pitch) + 2;
+		int imageCols = (int) (viewport.getWidth() / pitch) + 2;
+		if(myImage == null || imageRows != myImageRows || imageCols != myImageCols){
+			myImageRows = imageRows;
+			myImageCols = imageCols;
+			myImage = new WritableImage(imageCols * pitch, imageRows * pitch);
+			myImageView.setImage(myImage);
+			myPainted = new int[imageRows * imageCols];
+			myBlocks = null;
+			myFirstRow = -1;
+		}
+		if(myBlocks == null || !myView.getStateColorMap().equals(myPalette)){
+			buildBlocks(level == 0 && pitch == myDefaultPitch ? borderPixelSize : 0, pitch);
+			myFirstRow = -1;
+		}
+		if(firstRow != myFirstRow || firstCol != myFirstCol){
+			myFirstRow = firstRow;
+			myFirstCol = firstCol;
+			myImageView.setLayoutX(firstCol * pitch);
+			myImageView.setLayoutY(firstRow * pitch);
+			Arrays.fill(myPainted, NOT_PAINTED);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Paints every block the image covers
+	 */
+	private void paintVisibleBlocks(){
+		for(int i = 0; i < myImageRows; i++){
+			for(int j = 0; j < myImageCols; j++){
+				paintBlock(myFirstRow + i, myFirstCol + j);
+			}
+		}
+	}
+
+	/**
+	 * Paints a block of the current zoom level if the image covers it and its code differs from what was painted
+	 * @param row row of the block at the current level
+	 * @param col column of the block at the current level
+	 */
+	private void paintBlock(int row, int col){
+		int i = row - myFirstRow;
+		int j = col - myFirstCol;
+		if(i < 0 || i >= myImageRows || j < 0 || j >= myImageCols){
+			return;
+		}
+		int level = myZoomLevels.get(myZoom)[0];
+		int pitch = myZoomLevels.get(myZoom)[1];
+		boolean inside = row < myPyramid.getNumRows(level) && col < myPyramid.getNumCols(level);
+		int code = inside ? myPyramid.get(level, row, col) : OUTSIDE;
+		if(myPainted[i * myImageCols + j] != code){
+			myImage.getPixelWriter().setPixels(j * pitch, i * pitch, pitch, pitch, PixelFormat.getIntArgbInstance(), myBlocks[code - OUTSIDE], 0, pitch);
+			myPainted[i * myImageCols + j] = code;
+		}
+	}
+
+	/**
+	 * Builds the pixels of one block for each state code, and transparent ones for blocks outside the board or not
+	 * yet set
+	 * @param border border pixels on each side of a block
+	 * @param pitch pixels across a block, border included
+	 */
+	private void buildBlocks(int border, int pitch){
+		myPalette = new HashMap<String, Color>(myView.getStateColorMap());
+		myBlocks = new int[myStates.size() - OUTSIDE][];
+		for(int code = OUTSIDE; code < myStates.size(); code++){
+			int fill = (code < 0) ? 0 : toArgb(myPalette.get(myStates.getState(code)));
+			int edge = (code < 0) ? 0 : toArgb(myBuiltBorderColor);
+			int[] block = new int[pitch * pitch];
+			for(int y = 0; y < pitch; y++){
+				for(int x = 0; x < pitch; x++){
+					boolean inside = x >= border && x < pitch - border && y >= border && y < pitch - border;
+					block[y * pitch + x] = inside ? fill : edge;
+				}
+			}
+			myBlocks[code - OUTSIDE] = block;
+		}
+	}
+
+	/**
+	 * @return returns a color as a packed ARGB pixel, transparent if there is no color
+	 */
+	private int toArgb(Color color){
+		if(color == null){
+			return 0;
+		}
+		return ((int) Math.round(color.getOpacity() * 255) << 24) | ((int) Math.round(color.getRed() * 255) << 16)
+				| ((int) Math.round(color.getGreen() * 255) << 8) | (int) Math.round(color.getBlue() * 255);
+	}
+
+	/**
+	 * @return returns the part of the board the scroll pane shows, or a board-sized square before it is laid out
+	 */
+	private Bounds getViewport(){
+		Bounds viewport = myView.getBoardScrollPane().getViewportBounds();
+		if(viewport.getWidth() <= 0 || viewport.getHeight() <= 0){
+			return new BoundingBox(0, 0, boardPixelSize, boardPixelSize);
+		}
+		return viewport;
+	}
+
+	/**
+	 * @return returns a description of each zoom level, by how many cells it shows across and down
+	 */
+	@Override
+	protected List<String> getZoomLevels(){
+		List<String> levels = new ArrayList<String>();
+		Bounds viewport = getViewport();
+		for(int[] zoom : myZoomLevels){
+			int across = Math.min(myGridWidth, (int) (viewport.getWidth() / zoom[1]) << zoom[0]);
+			int down = Math.min(myGridHeight, (int) (viewport.getHeight() / zoom[1]) << zoom[0]);
+			levels.add(across + " x " + down + " cells");
+		}
+		return levels;
+	}
+
+	@Override
+	protected int getZoom(){
+		return myZoom;
+	}
+
+	@Override
+	protected void setZoom(int zoom){
+		myZoom = zoom;
+		myImage = null;
+	}
+}
@@ -2,9 +2,8 @@ package View;
 
 import com.sun.org.apache.xerces.internal.util.SynchronizedSymbolTable;
 
+import Controller.GridFrame;
 import Controller.Simulation;
-import Model.Grid;
-import Model.SugarScapeCell;
 import Rules.SugarScapeRules;
 import javafx.scene.Group;
 import javafx.scene.paint.Color;
@@ -28,9 +27,8 @@ public class SugarScapeBoardBuilder extends BoardBuilder {
 		myBoardGroup.getChildren().clear();
 		myBoard = new Rectangle[myGridHeight][myGridWidth];
 		myCircles = new Circle[myGridHeight][myGridWidth];
-		Grid grid = mySimulation.getGrid();
-		for (int r = 0; r < grid.getNumRows(); r++) {
-			for (int c = 0; c < grid.getNumCols(); c++) {
+		for (int r = 0; r < myGridHeight; r++) {
+			for (int c = 0; c < myGridWidth; c++) {
 				Rectangle bg = new Rectangle();
 				bg.setLayoutY(r * (cellPixelSize + (2 * borderPixelSize)));
 				bg.setLayoutX(c * (cellPixelSize + (2 * borderPixelSize)));
@@ -62,14 +60,13 @@ public class SugarScapeBoardBuilder extends BoardBuilder {
 	/**
 	 * Displays the grid to the board based on the state of each of its cells
 	 */
-	protected void displayGridToBoard(){
-		Grid grid = mySimulation.getGrid();
-		for(int r = 0; r < grid.getNumRows(); r++){
-			for(int c = 0; c < grid.getNumCols(); c++){
-				Color sugaramountcolor = sugarColor((SugarScapeCell) grid.getCell(r, c), myView.getStateColorMap().get("OCCUPIED"));
+	protected void displayGridToBoard(GridFrame frame){
+		for(int r = 0; r < frame.getNumRows(); r++){
+			for(int c = 0; c < frame.getNumCols(); c++){
+				Color sugaramountcolor = sugarColor(frame.getValue(r, c), myView.getStateColorMap().get("OCCUPIED"));
 				myBoard[r][c].setFill(sugaramountcolor);
-				Color cellcolor = myView.getStateColorMap().get(grid.getCell(r,c).getCurState());
-				if(grid.getCell(r, c).getCurState().equals(mySimulation.getRules().getDefault())){
+				Color cellcolor = myView.getStateColorMap().get(frame.getState(r,c));
+				if(frame.getState(r, c).equals(mySimulation.getRules().getDefault())){
 					myCircles[r][c].setFill(sugaramountcolor);
 				} else {
 					myCircles[r][c].setFill(cellcolor);
@@ -82,8 +79,8 @@ public class SugarScapeBoardBuilder extends BoardBuilder {
 	 * Generates a correct color for a given amount of sugar
 	 * @return
 	 */
-	private Color sugarColor(SugarScapeCell cell, Color cellcolor){
-		double mysugar = cell.getMySugarAmount();
+	private Color sugarColor(int sugar, Color cellcolor){
+		double mysugar = sugar;
 		double maxsugar = ((SugarScapeRules) mySimulation.getRules()).getMyMaxCellSugarCapacity();
 		double ratio = mysugar/maxsugar;
 		Color color = cellcolor.deriveColor(0, 0.9 * ratio, 1, 1);
@@ -0,0 +1,224 @@
+package View;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import XML.ErrorReporter;
+
+public class TimeSeriesStore {
+	/*
+	 * Keeps the number of cells in each state over a whole run in a fixed number
+	 * of buckets. Each bucket covers a run of consecutive samples and keeps, per
+	 * state, the lowest and highest count and which of the two came first, so a
+	 * chart drawn from two points per bucket still shows every spike. When the
+	 * buckets run out, neighbouring pairs are merged, halving the resolution of
+	 * the whole history and doubling the samples each new bucket takes.
+	 * Optionally every sample is also written to a CSV file at full resolution;
+	 * if the file cannot be written, the error is reported and spilling stops.
+	 */
+
+	private static final String SPILL_ERROR = "ChartHistory";
+
+	private String[] myStates;
+	private int myCapacity;
+	private int myNumBuckets;
+	private int mySamplesPerBucket;
+	private int myNumSamples;
+	private int myCompactions;
+	private double[] myStartTimes;
+	private double[] myEndTimes;
+	private int[] mySamples;
+	private int[][] myMins;
+	private int[][] myMaxes;
+	private int[][] myMinAt;
+	private int[][] myMaxAt;
+	private BufferedWriter mySpill;
+	private ErrorReporter myReporter;
+
+	/**
+	 * Creates an empty store
+	 * @param states states to keep counts of
+	 * @param capacity number of buckets; rounded up to an even number
+	 * @param spillFile file to also write every sample to, or null
+	 * @param reporter where to report that the spill file could not be written
+	 */
+	public TimeSeriesStore(List<String> states, int capacity, File spillFile, ErrorReporter reporter){
+		myStates = states.toArray(new String[states.size()]);
+		myCapacity = Math.max(2, capacity + capacity % 2);
+		mySamplesPerBucket = 1;
+		myStartTimes = new double[myCapacity];
+		myEndTimes = new double[myCapacity];
+		mySamples = new int[myCapacity];
+		myMins = new int[myStates.length][myCapacity];
+		myMaxes = new int[myStates.length][myCapacity];
+		myMinAt = new int[myStates.length][myCapacity];
+		myMaxAt = new int[myStates.length][myCapacity];
+		myReporter = reporter;
+		if(spillFile != null){
+			openSpill(spillFile);
+		}
+	}
+
+	/**
+	 * Adds the counts at one point in time
+	 * @param time x value of the sample
+	 * @param counts number of cells in each state; missing states count as 0
+	 */
+	public void add(double time, Map<String, Integer> counts){
+		if(myNumBuckets == 0 || mySamples[myNumBuckets - 1] == mySamplesPerBucket){
+			if(myNumBuckets == myCapacity){
+				compact();
+			}
+			myStartTimes[myNumBuckets] = time;
+			mySamples[myNumBuckets] = 0;
+			myNumBuckets++;
+		}
+		int b = myNumBuckets - 1;
+		myEndTimes[b] = time;
+		for(int s = 0; s < myStates.length; s++){
+			Integer count = counts.get(myStates[s]);
+			int value = (count == null) ? 0 : count;
+			if(mySamples[b] == 0 || value < myMins[s][b]){
+				myMins[s][b] = value;
+				myMinAt[s][b] = myNumSamples;
+			}
+			if(mySamples[b] == 0 || value > myMaxes[s][b]){
+				myMaxes[s][b] = value;
+				myMaxAt[s][b] = myNumSamples;
+			}
+		}
+		mySamples[b]++;
+		myNumSamples++;
+		spill(time, counts);
+	}
+
+	/**
+	 * Merges each pair of neighbouring buckets into one
+	 */
+	private void compact(){
+		for(int b = 0; b < myNumBuckets / 2; b++){
+			int first = 2 * b;
+			int second = first + 1;
+			myStartTimes[b] = myStartTimes[first];
+			myEndTimes[b] = myEndTimes[second];
+			mySamples[b] = mySamples[first] + mySamples[second];
+			for(int s = 0; s < myStates.length; s++){
+				boolean secondMin = myMins[s][second] < myMins[s][first];
+				myMinAt[s][b] = secondMin ? myMinAt[s][second] : myMinAt[s][first];
+				myMins[s][b] = secondMin ? myMins[s][second] : myMins[s][first];
+				boolean secondMax = myMaxes[s][second] > myMaxes[s][first];
+				myMaxAt[s][b] = secondMax ? myMaxAt[s][second] : myMaxAt[s][first];
+				myMaxes[s][b] = secondMax ? myMaxes[s][second] : myMaxes[s][first];
+			}
+		}
+		myNumBuckets /= 2;
+		mySamplesPerBucket *= 2;
+		myCompactions++;
+	}
+
+	public int getNumBuckets(){
+		return myNumBuckets;
+	}
+
+	/**
+	 * @return returns how many times the buckets have been merged; the whole history must be redrawn when this changes
+	 */
+	public int getCompactions(){
+		return myCompactions;
+	}
+
+	public List<String> getStates(){
+		return Arrays.asList(myStates);
+	}
+
+	/**
+	 * @return returns the number of points a bucket is drawn with: one if it holds a single sample, two otherwise
+	 */
+	public int getNumPoints(int bucket){
+		return mySamples[bucket] == 1 ? 1 : 2;
+	}
+
+	/**
+	 * @return returns the time of a point of a bucket: its first sample for point 0, its last for point 1
+	 */
+	public double getPointTime(int bucket, int point){
+		return point == 0 ? myStartTimes[bucket] : myEndTimes[bucket];
+	}
+
+	/**
+	 * @return returns the count of a point of a bucket: whichever of the lowest and highest count came first for
+	 *         point 0, the other for point 1
+	 */
+	public int getPointCount(int state, int bucket, int point){
+		boolean minFirst = myMinAt[state][bucket] <= myMaxAt[state][bucket];
+		return (point == 0) == minFirst ? myMins[state][bucket] : myMaxes[state][bucket];
+	}
+
+	/**
+	 * Opens the spill file and writes its header
+	 */
+	private void openSpill(File spillFile){
+		try{
+			mySpill = new BufferedWriter(new FileWriter(spillFile));
+			mySpill.write("time," + String.join(",", myStates));
+			mySpill.newLine();
+		} catch(IOException e){
+			stopSpilling();
+		}
+	}
+
+	/**
+	 * Writes a sample to the spill file, if there is one
+	 */
+	private void spill(double time, Map<String, Integer> counts){
+		if(mySpill == null){
+			return;
+		}
+		StringBuilder line = new StringBuilder().append(time);
+		for(String state : myStates){
+			Integer count = counts.get(state);
+			line.append(',').append(count == null ? 0 : count);
+		}
+		try{
+			mySpill.write(line.toString());
+			mySpill.newLine();
+		} catch(IOException e){
+			stopSpilling();
+		}
+	}
+
+	/**
+	 * Reports that the spill file could not be written and writes nothing more to it
+	 */
+	private void stopSpilling(){
+		myReporter.displayAlert(SPILL_ERROR);
+		if(mySpill != null){
+			try{
+				mySpill.close();
+			} catch(IOException e){
+				// already reported
+			}
+		}
+		mySpill = null;
+	}
+
+	/**
+	 * Closes the spill file, if there is one; reports it if the samples still buffered cannot be written
+	 */
+	public void close(){
+		if(mySpill == null){
+			return;
+		}
+		try{
+			mySpill.close();
+			mySpill = null;
+		} catch(IOException e){
+			stopSpilling();
+		}
+	}
+}
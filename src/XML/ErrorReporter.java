@@ -0,0 +1,13 @@
+/**
+ * Something that can tell the user about a problem with a simulation file, whether through a dialog or a log.
+ */
+
+package XML;
+
+public interface ErrorReporter {
+	/**
+	 * Reports an error.
+	 * @param message: key of the error in Controller/ErrorMessages.
+	 */
+	void displayAlert(String message);
+}
@@ -0,0 +1,379 @@
+/**
+ * Replays a recording written by RecordingWriter. Any recorded step can be shown by decoding the keyframe before it
+ * and the deltas up to it, which are read from the file in a single read; moving forward within the same keyframe
+ * interval only decodes the deltas in between. Nothing is stepped again, so scrubbing costs at most one keyframe
+ * interval of records whatever the rules are.
+ */
+
+package XML;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Rules.Rules;
+
+public class RecordingReader {
+	private static final String RECORDING_FORMAT = "RecordingFormat";
+	private ErrorReporter myReporter;
+	private FileChannel myChannel;
+	private Rules myRules;
+	private String myGridType;
+	private String[] myStates;
+	private int myNumEntries;
+	private byte[] myEntryTypes;
+	private int[] myEntrySteps;
+	private long[] myEntryOffsets;
+	private long myEndOfRecords;
+	private ByteBuffer myReadBuffer;
+	private int myEntry;
+	private int myRows;
+	private int myCols;
+	private byte[] myCodes;
+	private int[] myCounts;
+
+	public RecordingReader(ErrorReporter reporter) {
+		myReporter = reporter;
+		myEntry = -1;
+		myCodes = new byte[0];
+		myReadBuffer = ByteBuffer.allocate(0);
+	}
+
+	/**
+	 * Opens a recording and reads its header and index, or rebuilds the index if the recording was cut short.
+	 * @param file: recording to open.
+	 * @return true if the recording can be replayed; false otherwise.
+	 */
+	public boolean parse(File file) {
+		try {
+			myChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			ByteBuffer header = read(0, (int) Math.min(myChannel.size(), Short.MAX_VALUE));
+			if (header.getInt() != RecordingWriter.MAGIC || header.getShort() != RecordingWriter.VERSION
+					|| !readHeader(header)) {
+				return fail();
+			}
+			long firstRecord = header.position();
+			if (!readIndex() && !scanRecords(firstRecord)) {
+				return fail();
+			}
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+			return fail();
+		}
+		return myNumEntries > 0 && myEntryTypes[0] == RecordingWriter.KEYFRAME && seek(myEntrySteps[0]) || fail();
+	}
+
+	/**
+	 * Reports that the recording cannot be replayed and closes it.
+	 * @return false.
+	 */
+	private boolean fail() {
+		myReporter.displayAlert(RECORDING_FORMAT);
+		close();
+		return false;
+	}
+
+	/**
+	 * Reads the rules, grid type and states. The rules are set up the same way as for an XML file.
+	 * @param header: start of the recording, positioned after the version.
+	 * @return true if the rules could be set up; false otherwise.
+	 */
+	private boolean readHeader(ByteBuffer header) {
+		List<String> game = new ArrayList<String>();
+		game.add("Name:" + readString(header));
+		int numParameters = header.getShort();
+		for (int i = 0; i < numParameters; i++) {
+			game.add(readString(header));
+		}
+		XMLParser parser = new XMLParser(myReporter);
+		if (!parser.initializeGame(game)) {
+			return false;
+		}
+		myRules = parser.getRules();
+		myRules.populateStatesInfo();
+		myGridType = readString(header);
+		header.getInt();
+		myStates = new String[header.getShort()];
+		for (int code = 0; code < myStates.length; code++) {
+			myStates[code] = readString(header);
+		}
+		myCounts = new int[myStates.length];
+		return true;
+	}
+
+	/**
+	 * Reads the index written when the recording was closed.
+	 * @return true if the recording has an index; false if it was cut short.
+	 */
+	private boolean readIndex() throws IOException {
+		long size = myChannel.size();
+		if (size < RecordingWriter.FOOTER_BYTES) {
+			return false;
+		}
+		ByteBuffer footer = read(size - RecordingWriter.FOOTER_BYTES, RecordingWriter.FOOTER_BYTES);
+		long indexOffset = footer.getLong();
+		if (footer.getInt() != RecordingWriter.END_MAGIC || indexOffset < 0 || indexOffset >= size) {
+			return false;
+		}
+		ByteBuffer index = read(indexOffset, (int) (size - RecordingWriter.FOOTER_BYTES - indexOffset));
+		int numEntries = index.getInt();
+		allocateEntries(numEntries);
+		for (int i = 0; i < numEntries; i++) {
+			addEntry(index.get(), index.getInt(), index.getLong());
+		}
+		myEndOfRecords = indexOffset;
+		return true;
+	}
+
+	/**
+	 * Rebuilds the index by walking the records one after another, up to the last complete one.
+	 * @param firstRecord: offset of the first record.
+	 * @return true if at least one record was found; false otherwise.
+	 */
+	private boolean scanRecords(long firstRecord) throws IOException {
+		long size = myChannel.size();
+		long offset = firstRecord;
+		allocateEntries(16);
+		while (offset + RecordingWriter.RECORD_HEADER_BYTES <= size) {
+			ByteBuffer header = read(offset, RecordingWriter.RECORD_HEADER_BYTES);
+			byte type = header.get();
+			int step = header.getInt();
+			long end = offset + RecordingWriter.RECORD_HEADER_BYTES + header.getInt();
+			if ((type != RecordingWriter.KEYFRAME && type != RecordingWriter.DELTA) || end > size) {
+				break;
+			}
+			addEntry(type, step, offset);
+			offset = end;
+		}
+		myEndOfRecords = offset;
+		return myNumEntries > 0;
+	}
+
+	private void allocateEntries(int capacity) {
+		myNumEntries = 0;
+		myEntryTypes = new byte[Math.max(capacity, 1)];
+		myEntrySteps = new int[Math.max(capacity, 1)];
+		myEntryOffsets = new long[Math.max(capacity, 1)];
+	}
+
+	private void addEntry(byte type, int step, long offset) {
+		if (myNumEntries == myEntrySteps.length) {
+			myEntryTypes = Arrays.copyOf(myEntryTypes, myNumEntries * 2);
+			myEntrySteps = Arrays.copyOf(myEntrySteps, myNumEntries * 2);
+			myEntryOffsets = Arrays.copyOf(myEntryOffsets, myNumEntries * 2);
+		}
+		myEntryTypes[myNumEntries] = type;
+		myEntrySteps[myNumEntries] = step;
+		myEntryOffsets[myNumEntries] = offset;
+		myNumEntries++;
+	}
+
+	/**
+	 * Shows a recorded step. After an edit the same step is recorded twice; the later record, which shows the edit,
+	 * is the one shown.
+	 * @param step: step to show.
+	 * @return true if the step was recorded; false otherwise.
+	 */
+	public boolean seek(int step) {
+		int target = findEntry(step);
+		if (target < 0) {
+			return false;
+		}
+		int keyframe = target;
+		while (myEntryTypes[keyframe] != RecordingWriter.KEYFRAME) {
+			keyframe--;
+		}
+		int first = (myEntry >= keyframe && myEntry < target) ? myEntry + 1 : keyframe;
+		if (myEntry == target) {
+			return true;
+		}
+		long start = myEntryOffsets[first];
+		long end = (target + 1 < myNumEntries) ? myEntryOffsets[target + 1] : myEndOfRecords;
+		try {
+			ByteBuffer records = read(start, (int) (end - start));
+			for (int entry = first; entry <= target; entry++) {
+				applyRecord(records);
+			}
+		} catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+			myEntry = -1;
+			myReporter.displayAlert(RECORDING_FORMAT);
+			return false;
+		}
+		myEntry = target;
+		return true;
+	}
+
+	/**
+	 * Finds the last record of a step.
+	 * @param step: step of interest.
+	 * @return position of the record in the index, or -1 if the step was not recorded.
+	 */
+	private int findEntry(int step) {
+		int low = 0;
+		int high = myNumEntries - 1;
+		int found = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (myEntrySteps[middle] <= step) {
+				if (myEntrySteps[middle] == step) {
+					found = middle;
+				}
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Applies the next record to the states being shown.
+	 * @param records: records being decoded, positioned at the start of a record.
+	 */
+	private void applyRecord(ByteBuffer records) {
+		byte type = records.get();
+		records.getInt();
+		int length = records.getInt();
+		int end = records.position() + length;
+		if (type == RecordingWriter.KEYFRAME) {
+			myRows = records.getInt();
+			myCols = records.getInt();
+			if (myCodes.length < myRows * myCols) {
+				myCodes = new byte[myRows * myCols];
+			}
+			Arrays.fill(myCounts, 0);
+			int filled = 0;
+			while (records.position() < end) {
+				int code = RecordingWriter.getVarInt(records);
+				int runLength = RecordingWriter.getVarInt(records);
+				Arrays.fill(myCodes, filled, filled + runLength, (byte) code);
+				myCounts[code] += runLength;
+				filled += runLength;
+			}
+		} else {
+			int numChanged = RecordingWriter.getVarInt(records);
+			int index = 0;
+			for (int i = 0; i < numChanged; i++) {
+				int distance = RecordingWriter.getVarInt(records);
+				index += (distance >>> 1) ^ -(distance & 1);
+				int code = RecordingWriter.getVarInt(records);
+				myCounts[myCodes[index]]--;
+				myCounts[code]++;
+				myCodes[index] = (byte) code;
+			}
+		}
+		records.position(end);
+	}
+
+	/**
+	 * Reads part of the recording into a buffer reused from read to read.
+	 * @param offset: offset of the first byte.
+	 * @param length: number of bytes.
+	 * @return buffer holding the bytes.
+	 */
+	private ByteBuffer read(long offset, int length) throws IOException {
+		if (myReadBuffer.capacity() < length) {
+			myReadBuffer = ByteBuffer.allocate(length);
+		}
+		myReadBuffer.clear().limit(length);
+		while (myReadBuffer.hasRemaining()) {
+			if (myChannel.read(myReadBuffer, offset + myReadBuffer.position()) < 0) {
+				throw new IOException("Unexpected end of recording");
+			}
+		}
+		myReadBuffer.flip();
+		return myReadBuffer;
+	}
+
+	private String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Closes the recording file.
+	 */
+	public void close() {
+		try {
+			if (myChannel != null) {
+				myChannel.close();
+			}
+		} catch (IOException e) {
+			// Nothing left to read.
+		}
+	}
+
+	/**
+	 * @return the first recorded step
+	 */
+	public int getFirstStep() {
+		return myEntrySteps[0];
+	}
+
+	/**
+	 * @return the last recorded step
+	 */
+	public int getLastStep() {
+		return myEntrySteps[myNumEntries - 1];
+	}
+
+	/**
+	 * @return the step being shown
+	 */
+	public int getStep() {
+		return myEntrySteps[myEntry];
+	}
+
+	public int getNumRows() {
+		return myRows;
+	}
+
+	public int getNumCols() {
+		return myCols;
+	}
+
+	/**
+	 * Gets the state of a Cell at the step being shown.
+	 * @param row: row of the Cell.
+	 * @param col: column of the Cell.
+	 * @return state of the Cell.
+	 */
+	public String getState(int row, int col) {
+		return myStates[myCodes[row * myCols + col]];
+	}
+
+	/**
+	 * Gets the number of Cells in each state at the step being shown.
+	 * @return map from each state to its number of Cells.
+	 */
+	public Map<String, Integer> getMyStatesCount() {
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+		for (int code = 0; code < myStates.length; code++) {
+			counts.put(myStates[code], myCounts[code]);
+		}
+		return counts;
+	}
+
+	/**
+	 * @return the rules of the recorded simulation, set up with its parameters
+	 */
+	public Rules getRules() {
+		return myRules;
+	}
+
+	/**
+	 * @return the type of the recorded grid, as named in the XML file
+	 */
+	public String getGridType() {
+		return myGridType;
+	}
+}
@@ -0,0 +1,414 @@
+/**
+ * Records a run to disk as it happens, so that it can be replayed and scrubbed through with RecordingReader without
+ * stepping the simulation again. A recording holds, in order:
+ * - a header: the magic number and version, the rules name and parameters, the grid type, the keyframe interval, and
+ *   the states in the order of their codes;
+ * - one record per step, each starting with its type, its step and the length of what follows. A keyframe holds the
+ *   number of rows and columns and the states of every Cell as runs of (state code, run length); a delta holds the
+ *   Cells updated in that step as (distance from the previous Cell in row-major order, new state code);
+ * - an index of the type, step and file offset of every record, followed by the offset of the index and an end
+ *   marker. A recording cut short, e.g. by a crash, has no index, and RecordingReader rebuilds it from the records.
+ * A keyframe is written every keyframe interval steps, whenever the grid changes size, and after the user edits a
+ * Cell. Records are encoded on the simulation thread, which only costs the Cells that changed, and handed to a writer
+ * thread that writes them to the file in batches with a single gathering write.
+ * Numbers in the records are variable-length integers of 7 bits per byte; the rest is big-endian.
+ */
+
+package XML;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import Model.Grid;
+import Model.StateTable;
+import Rules.Rules;
+
+public class RecordingWriter implements Runnable {
+	static final int MAGIC = 0x43535243;
+	static final int END_MAGIC = 0x43534558;
+	static final int VERSION = 1;
+	static final byte KEYFRAME = 1;
+	static final byte DELTA = 2;
+	static final int RECORD_HEADER_BYTES = 9;
+	static final int FOOTER_BYTES = 12;
+	static final String EXTENSION = ".rec";
+	private static final String THREAD_NAME = "Recorder";
+	private static final int MAX_VARINT_BYTES = 5;
+	private static final int QUEUE_CAPACITY = 256;
+	private static final int MAX_BATCH = 64;
+	private static final long WAIT_MILLIS = 100;
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+	private FileChannel myChannel;
+	private StateTable myStates;
+	private int myKeyframeInterval;
+	private BlockingQueue<ByteBuffer> myRecords;
+	private Queue<ByteBuffer> myFreeBuffers;
+	private CountDownLatch myClosed;
+	private volatile IOException myError;
+	private int[] myChangedRows;
+	private int[] myChangedCols;
+	private int[] myChangedCodes;
+	private int myNumChanged;
+	private int myRows;
+	private int myCols;
+
+	// written only by the writer thread
+	private int myNumEntries;
+	private byte[] myEntryTypes;
+	private int[] myEntrySteps;
+	private long[] myEntryOffsets;
+
+	/**
+	 * Creates the recording file, writes its header, and starts the writer thread.
+	 * @param file: file to record to.
+	 * @param rulesName: name of the rules, as written in the Name entry of an XML file.
+	 * @param rules: rules of the simulation.
+	 * @param gridType: type of the grid, as named in the XML file.
+	 * @param keyframeInterval: number of steps between keyframes.
+	 */
+	public RecordingWriter(File file, String rulesName, Rules rules, String gridType, int keyframeInterval)
+			throws IOException {
+		myChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		myStates = rules.getStateTable();
+		myKeyframeInterval = Math.max(1, keyframeInterval);
+		myRecords = new ArrayBlockingQueue<ByteBuffer>(QUEUE_CAPACITY);
+		myFreeBuffers = new ConcurrentLinkedQueue<ByteBuffer>();
+		myClosed = new CountDownLatch(1);
+		myChangedRows = new int[16];
+		myChangedCols = new int[16];
+		myChangedCodes = new int[16];
+		myEntryTypes = new byte[16];
+		myEntrySteps = new int[16];
+		myEntryOffsets = new long[16];
+		writeHeader(rulesName, rules.getParameters(), gridType);
+		Thread thread = new Thread(this, THREAD_NAME);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Writes everything needed to replay the recording besides the records.
+	 */
+	private void writeHeader(String rulesName, List<String> parameters, String gridType) throws IOException {
+		List<byte[]> strings = new ArrayList<byte[]>();
+		strings.add(rulesName.getBytes(StandardCharsets.UTF_8));
+		for (String parameter : parameters) {
+			strings.add(parameter.getBytes(StandardCharsets.UTF_8));
+		}
+		strings.add(gridType.getBytes(StandardCharsets.UTF_8));
+		for (int code = 0; code < myStates.size(); code++) {
+			strings.add(myStates.getState(code).getBytes(StandardCharsets.UTF_8));
+		}
+		int size = 4 + 2 + 2 + 4 + 2;
+		for (byte[] string : strings) {
+			size += 2 + string.length;
+		}
+		ByteBuffer header = ByteBuffer.allocate(size);
+		header.putInt(MAGIC).putShort((short) VERSION);
+		putString(header, strings.get(0));
+		header.putShort((short) parameters.size());
+		for (int i = 1; i <= parameters.size(); i++) {
+			putString(header, strings.get(i));
+		}
+		putString(header, strings.get(parameters.size() + 1));
+		header.putInt(myKeyframeInterval);
+		header.putShort((short) myStates.size());
+		for (int i = parameters.size() + 2; i < strings.size(); i++) {
+			putString(header, strings.get(i));
+		}
+		header.flip();
+		while (header.hasRemaining()) {
+			myChannel.write(header);
+		}
+	}
+
+	private void putString(ByteBuffer buffer, byte[] string) {
+		buffer.putShort((short) string.length);
+		buffer.put(string);
+	}
+
+	/**
+	 * Notes a Cell whose state was updated in the step being taken. Only the simulation thread calls this.
+	 * @param row: row of the Cell.
+	 * @param col: column of the Cell.
+	 * @param code: code of the Cell's new state.
+	 */
+	public void cellChanged(int row, int col, int code) {
+		if (myNumChanged == myChangedRows.length) {
+			myChangedRows = Arrays.copyOf(myChangedRows, myNumChanged * 2);
+			myChangedCols = Arrays.copyOf(myChangedCols, myNumChanged * 2);
+			myChangedCodes = Arrays.copyOf(myChangedCodes, myNumChanged * 2);
+		}
+		myChangedRows[myNumChanged] = row;
+		myChangedCols[myNumChanged] = col;
+		myChangedCodes[myNumChanged] = code;
+		myNumChanged++;
+	}
+
+	/**
+	 * Records a step once its Cells have been updated: as a keyframe every keyframe interval steps or if the grid
+	 * changed size, and otherwise as the Cells noted by cellChanged. Only the simulation thread calls this.
+	 * @param step: number of the step just taken.
+	 * @param grid: grid after the step.
+	 */
+	public void endStep(int step, Grid grid) {
+		if (step % myKeyframeInterval == 0 || grid.getNumRows() != myRows || grid.getNumCols() != myCols) {
+			keyframe(step, grid);
+			return;
+		}
+		ByteBuffer record = obtainBuffer(RECORD_HEADER_BYTES + MAX_VARINT_BYTES * (1 + 2 * myNumChanged));
+		record.position(RECORD_HEADER_BYTES);
+		putVarInt(record, myNumChanged);
+		int previous = 0;
+		for (int i = 0; i < myNumChanged; i++) {
+			int index = myChangedRows[i] * myCols + myChangedCols[i];
+			int distance = index - previous;
+			putVarInt(record, (distance << 1) ^ (distance >> 31));
+			putVarInt(record, myChangedCodes[i]);
+			previous = index;
+		}
+		myNumChanged = 0;
+		enqueue(record, DELTA, step);
+	}
+
+	/**
+	 * Records the state of every Cell, as at the start of a recording or after the user edits a Cell. Only the
+	 * simulation thread calls this.
+	 * @param step: number of steps taken so far.
+	 * @param grid: grid of the simulation.
+	 */
+	public void keyframe(int step, Grid grid) {
+		myRows = grid.getNumRows();
+		myCols = grid.getNumCols();
+		ByteBuffer record = obtainBuffer(RECORD_HEADER_BYTES + 8);
+		record.position(RECORD_HEADER_BYTES);
+		record.putInt(myRows).putInt(myCols);
+		int runCode = StateTable.NO_STATE;
+		int runLength = 0;
+		for (int row = 0; row < myRows; row++) {
+			for (int col = 0; col < myCols; col++) {
+				int code = myStates.getCode(grid.getStateAt(row, col));
+				if (code != runCode && runLength > 0) {
+					record = putRun(record, runCode, runLength);
+					runLength = 0;
+				}
+				runCode = code;
+				runLength++;
+			}
+		}
+		if (runLength > 0) {
+			record = putRun(record, runCode, runLength);
+		}
+		myNumChanged = 0;
+		enqueue(record, KEYFRAME, step);
+	}
+
+	/**
+	 * Appends one run of equal states, growing the record if it is full.
+	 * @return the record, which may be a new buffer.
+	 */
+	private ByteBuffer putRun(ByteBuffer record, int code, int length) {
+		if (record.remaining() < 2 * MAX_VARINT_BYTES) {
+			ByteBuffer larger = obtainBuffer(record.capacity() * 2);
+			record.flip();
+			larger.put(record);
+			record.clear();
+			myFreeBuffers.offer(record);
+			record = larger;
+		}
+		putVarInt(record, code);
+		putVarInt(record, length);
+		return record;
+	}
+
+	/**
+	 * Fills in the header of a record and hands it to the writer thread, waiting if the writer has fallen far
+	 * behind.
+	 */
+	private void enqueue(ByteBuffer record, byte type, int step) {
+		record.put(0, type);
+		record.putInt(1, step);
+		record.putInt(5, record.position() - RECORD_HEADER_BYTES);
+		record.flip();
+		put(record);
+	}
+
+	/**
+	 * Queues a record for the writer thread, unless the writer thread has stopped because writing failed.
+	 * @return true if the record was queued; false otherwise.
+	 */
+	private boolean put(ByteBuffer record) {
+		try {
+			while (!myRecords.offer(record, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (myClosed.getCount() == 0) {
+					return false;
+				}
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Gets an empty buffer of at least a given capacity, reusing one the writer thread is done with if it is large
+	 * enough.
+	 */
+	private ByteBuffer obtainBuffer(int capacity) {
+		ByteBuffer buffer = myFreeBuffers.poll();
+		if (buffer == null || buffer.capacity() < capacity) {
+			return ByteBuffer.allocate(Math.max(capacity, 256));
+		}
+		return buffer;
+	}
+
+	/**
+	 * Writes records as they arrive, as many at a time as are waiting, until the recording is closed.
+	 */
+	@Override
+	public void run() {
+		List<ByteBuffer> batch = new ArrayList<ByteBuffer>();
+		try {
+			long position = myChannel.position();
+			boolean closing = false;
+			while (!closing) {
+				batch.add(myRecords.take());
+				myRecords.drainTo(batch, MAX_BATCH - 1);
+				if (batch.get(batch.size() - 1) == END) {
+					batch.remove(batch.size() - 1);
+					closing = true;
+				}
+				for (ByteBuffer record : batch) {
+					addEntry(record.get(0), record.getInt(1), position);
+					position += record.remaining();
+				}
+				writeFully(batch.toArray(new ByteBuffer[batch.size()]));
+				for (ByteBuffer record : batch) {
+					record.clear();
+					myFreeBuffers.offer(record);
+				}
+				batch.clear();
+			}
+			writeIndex(position);
+		} catch (IOException e) {
+			myError = e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				myChannel.close();
+			} catch (IOException e) {
+				if (myError == null) {
+					myError = e;
+				}
+			}
+			myClosed.countDown();
+		}
+	}
+
+	/**
+	 * Notes where a record was written, for the index.
+	 */
+	private void addEntry(byte type, int step, long offset) {
+		if (myNumEntries == myEntrySteps.length) {
+			myEntryTypes = Arrays.copyOf(myEntryTypes, myNumEntries * 2);
+			myEntrySteps = Arrays.copyOf(myEntrySteps, myNumEntries * 2);
+			myEntryOffsets = Arrays.copyOf(myEntryOffsets, myNumEntries * 2);
+		}
+		myEntryTypes[myNumEntries] = type;
+		myEntrySteps[myNumEntries] = step;
+		myEntryOffsets[myNumEntries] = offset;
+		myNumEntries++;
+	}
+
+	/**
+	 * Writes the index of every record, then the footer pointing at it.
+	 * @param indexOffset: offset at which the index starts.
+	 */
+	private void writeIndex(long indexOffset) throws IOException {
+		ByteBuffer index = ByteBuffer.allocate(4 + myNumEntries * 13 + FOOTER_BYTES);
+		index.putInt(myNumEntries);
+		for (int i = 0; i < myNumEntries; i++) {
+			index.put(myEntryTypes[i]).putInt(myEntrySteps[i]).putLong(myEntryOffsets[i]);
+		}
+		index.putLong(indexOffset).putInt(END_MAGIC);
+		index.flip();
+		writeFully(new ByteBuffer[] { index });
+	}
+
+	private void writeFully(ByteBuffer[] buffers) throws IOException {
+		long remaining = 0;
+		for (ByteBuffer buffer : buffers) {
+			remaining += buffer.remaining();
+		}
+		while (remaining > 0) {
+			remaining -= myChannel.write(buffers);
+		}
+	}
+
+	/**
+	 * Writes the records still waiting and the index, and closes the file. Only the simulation thread calls this.
+	 * @return true if the whole recording was written; false if writing failed.
+	 */
+	public boolean close() {
+		try {
+			if (put(END)) {
+				myClosed.await();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return myError == null && myClosed.getCount() == 0;
+	}
+
+	/**
+	 * Writes a non-negative number 7 bits per byte, lowest bits first.
+	 */
+	static void putVarInt(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads a number written by putVarInt.
+	 */
+	static int getVarInt(ByteBuffer buffer) {
+		int value = 0;
+		int shift = 0;
+		byte next;
+		do {
+			next = buffer.get();
+			value |= (next & 0x7F) << shift;
+			shift += 7;
+		} while (next < 0 && shift < Integer.SIZE);
+		return value;
+	}
+
+	/**
+	 * Checks whether a file is a recording, by its extension.
+	 * @param file: file of interest.
+	 * @return true if the file is a recording; false otherwise.
+	 */
+	public static boolean isRecording(File file) {
+		return file.getName().toLowerCase().endsWith(EXTENSION);
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * A simulation file that has been read and can set up a simulation: either an XML file or a binary snapshot.
+ */
+
+package XML;
+
+import java.io.File;
+
+import Model.Grid;
+import Rules.Rules;
+
+public interface SimulationSource {
+	/**
+	 * Reads a simulation file, reporting any problem with it.
+	 * @param file: file to read.
+	 * @return true if the file was read; false otherwise.
+	 */
+	boolean parse(File file);
+
+	/**
+	 * Gets the initial state of each Cell.
+	 * @return grid of states.
+	 */
+	String[][] getGrid();
+
+	/**
+	 * Gets the rules of the simulation, set up with its parameters.
+	 * @return the rules.
+	 */
+	Rules getRules();
+
+	/**
+	 * Gets the type of the grid.
+	 * @return type of the grid, as named in the XML file.
+	 */
+	String getGridType();
+
+	/**
+	 * Gets the seed for the simulation's random numbers.
+	 * @return the seed, or null if none was provided.
+	 */
+	Long getSeed();
+
+	/**
+	 * Gets the number of steps the simulation had taken when the file was written.
+	 * @return number of steps; 0 for a simulation that has not started.
+	 */
+	int getStepCount();
+
+	/**
+	 * Gives the Cells of a grid initialized from getGrid whatever else the file holds for them, such as agents.
+	 * @param grid: grid initialized from this file.
+	 * @return true if the data was restored; false if it could not be read, which has been reported.
+	 */
+	boolean restoreCellData(Grid grid);
+
+	/**
+	 * Creates the source that reads a file, chosen by the file's extension.
+	 * @param file: file to read.
+	 * @param reporter: where problems with the file are reported.
+	 * @return a snapshot reader for snapshot files; an XML parser otherwise.
+	 */
+	static SimulationSource forFile(File file, ErrorReporter reporter) {
+		if (SnapshotReader.isSnapshot(file)) {
+			return new SnapshotReader(reporter);
+		}
+		return new XMLParser(reporter);
+	}
+}
@@ -0,0 +1,216 @@
+/**
+ * Reads a binary snapshot written by SnapshotWriter. The file is memory-mapped rather than read through a stream, so
+ * the runs of states are decoded straight from the page cache and the cell data section is handed to the rules
+ * without being copied.
+ */
+
+package XML;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import Model.Grid;
+import Model.StateTable;
+import Rules.Rules;
+
+public class SnapshotReader implements SimulationSource {
+	private static final String SNAPSHOT_FORMAT = "SnapshotFormat";
+	private ErrorReporter myReporter;
+	private String[][] myGrid;
+	private Rules myRules;
+	private String myGridType;
+	private Long mySeed;
+	private int myStepCount;
+	private ByteBuffer myCellData;
+
+	public SnapshotReader(ErrorReporter reporter) {
+		myReporter = reporter;
+	}
+
+	/**
+	 * Checks whether a file is a snapshot rather than an XML file, by its extension.
+	 * @param file: file of interest.
+	 * @return true if the file is a snapshot; false otherwise.
+	 */
+	public static boolean isSnapshot(File file) {
+		return file.getName().toLowerCase().endsWith(SnapshotWriter.EXTENSION);
+	}
+
+	/**
+	 * Maps a snapshot file into memory and reads its header and states.
+	 * @param file: snapshot file.
+	 * @return true if the file was read; false otherwise.
+	 */
+	@Override
+	public boolean parse(File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != SnapshotWriter.MAGIC || buffer.getShort() != SnapshotWriter.VERSION) {
+				myReporter.displayAlert(SNAPSHOT_FORMAT);
+				return false;
+			}
+			if (!readHeader(buffer)) {
+				return false;
+			}
+			String[] states = readStateTable(buffer);
+			if (states == null || !readStates(buffer, states)) {
+				myReporter.displayAlert(SNAPSHOT_FORMAT);
+				return false;
+			}
+			int cellDataLength = buffer.getInt();
+			myCellData = buffer.slice();
+			myCellData.limit(cellDataLength);
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+			myReporter.displayAlert(SNAPSHOT_FORMAT);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the rules, grid type, dimensions, seed and number of steps. The rules, grid type and dimensions are
+	 * handed to an XMLParser as the entries of an XML file's Game and Config sections would be, so they are checked the
+	 * same way. The seed is any long, not only one that fits the XML file's Seed entry.
+	 * @param buffer: snapshot, positioned after the version.
+	 * @return true if the simulation could be set up; false otherwise.
+	 */
+	private boolean readHeader(ByteBuffer buffer) {
+		List<String> game = new ArrayList<String>();
+		game.add("Name:" + readString(buffer));
+		int numParameters = buffer.getShort();
+		for (int i = 0; i < numParameters; i++) {
+			game.add(readString(buffer));
+		}
+		List<String> config = new ArrayList<String>();
+		config.add("GridType:" + readString(buffer));
+		config.add(0, "Rows:" + buffer.getInt());
+		config.add(1, "Cols:" + buffer.getInt());
+		mySeed = buffer.getLong();
+		myStepCount = buffer.getInt();
+		XMLParser parser = new XMLParser(myReporter);
+		if (!parser.initializeGame(game) || !parser.parseConfig(config)) {
+			return false;
+		}
+		myRules = parser.getRules();
+		myGridType = parser.getGridType();
+		myGrid = parser.getGrid();
+		return true;
+	}
+
+	/**
+	 * Reads the states used by the body, in the order of their codes. Each state is checked against the states of
+	 * the rules and stored as the rules' shared instance of that state.
+	 * @param buffer: snapshot, positioned at the table of states.
+	 * @return the state for each code, or null if a state does not belong to the rules.
+	 */
+	private String[] readStateTable(ByteBuffer buffer) {
+		myRules.populateStatesInfo();
+		StateTable table = myRules.getStateTable();
+		String[] states = new String[buffer.getShort()];
+		for (int i = 0; i < states.length; i++) {
+			int code = table.getCode(readString(buffer));
+			if (code == StateTable.NO_STATE) {
+				return null;
+			}
+			states[i] = table.getState(code);
+		}
+		return states;
+	}
+
+	/**
+	 * Fills the grid of states from the runs of the body.
+	 * @param buffer: snapshot, positioned at the body.
+	 * @param states: state for each code.
+	 * @return true if the runs exactly cover the grid with known states; false otherwise.
+	 */
+	private boolean readStates(ByteBuffer buffer, String[] states) {
+		int cols = myGrid.length == 0 ? 0 : myGrid[0].length;
+		long numCells = (long) myGrid.length * cols;
+		long filled = 0;
+		while (filled < numCells) {
+			int code = buffer.getShort();
+			int length = readRunLength(buffer);
+			if (code < 0 || code >= states.length || length <= 0 || filled + length > numCells) {
+				return false;
+			}
+			for (int i = 0; i < length; i++, filled++) {
+				myGrid[(int) (filled / cols)][(int) (filled % cols)] = states[code];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads a run length written 7 bits per byte, lowest bits first.
+	 */
+	private int readRunLength(ByteBuffer buffer) {
+		int length = 0;
+		int shift = 0;
+		byte next;
+		do {
+			next = buffer.get();
+			length |= (next & 0x7F) << shift;
+			shift += 7;
+		} while (next < 0 && shift < Integer.SIZE);
+		return length;
+	}
+
+	/**
+	 * Reads a string written as its length followed by its UTF-8 bytes.
+	 */
+	private String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String[][] getGrid() {
+		return myGrid;
+	}
+
+	@Override
+	public Rules getRules() {
+		return myRules;
+	}
+
+	@Override
+	public String getGridType() {
+		return myGridType;
+	}
+
+	@Override
+	public Long getSeed() {
+		return mySeed;
+	}
+
+	@Override
+	public int getStepCount() {
+		return myStepCount;
+	}
+
+	/**
+	 * Hands the cell data section to the rules, which put back the agents and other data the Cells held. A section
+	 * that ends before the rules have read all they expect is reported as a bad snapshot.
+	 */
+	@Override
+	public boolean restoreCellData(Grid grid) {
+		if (myCellData.hasRemaining()) {
+			try {
+				myRules.readCellData(grid, myCellData.duplicate());
+			} catch (BufferUnderflowException e) {
+				myReporter.displayAlert(SNAPSHOT_FORMAT);
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ * Writes a simulation as a binary snapshot, a compact alternative to the XML file written by XMLGenerator.save. A
+ * snapshot holds, in order:
+ * - a header: the magic number and version, the rules name and parameters, the grid type, the number of rows and
+ *   columns, the seed and the number of steps taken, and the table of states used by the body;
+ * - the body: the state of every Cell in row-major order, as runs of (state code, run length);
+ * - the cell data section: whatever the rules keep on a Cell besides its state (agents, shark energy, ants and
+ *   pheromones), prefixed by its length, which is 0 for simulations that keep nothing else.
+ * Strings are written as a 2-byte length followed by UTF-8 bytes, run lengths as variable-length integers of 7 bits
+ * per byte, and everything else big-endian. SnapshotReader reads the file back. Random draws depend only on the seed
+ * and the step, so a simulation loaded from a snapshot goes on exactly as the one it was written from as long as its
+ * rules write every count they carry between steps into the cell data section; PredatorPreySnapshotTest checks this
+ * for both Predator Prey engines.
+ */
+
+package XML;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import Model.Grid;
+import Rules.Rules;
+
+public class SnapshotWriter {
+	static final int MAGIC = 0x43534E50;
+	static final int VERSION = 2;
+	static final String EXTENSION = ".snap";
+	private static final String OUTPUT_FILE = "OutputFile";
+	private ErrorReporter myReporter;
+
+	public SnapshotWriter(ErrorReporter reporter) {
+		myReporter = reporter;
+	}
+
+	/**
+	 * Writes a simulation to a snapshot file.
+	 * @param rulesName: name of the rules, as written in the Name entry of an XML file.
+	 * @param rules: rules of the simulation.
+	 * @param grid: grid of the simulation.
+	 * @param gridType: type of the grid, as named in the XML file.
+	 * @param stepCount: number of steps taken since the simulation was loaded.
+	 * @param file: file to write.
+	 * @return true if the file was written; false otherwise.
+	 */
+	public boolean save(String rulesName, Rules rules, Grid grid, String gridType, int stepCount, File file) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			Map<String, Integer> codes = collectStates(grid);
+			writeHeader(out, rulesName, rules, gridType, grid, stepCount, codes);
+			writeStates(out, grid, codes);
+			ByteArrayOutputStream cellData = new ByteArrayOutputStream();
+			rules.writeCellData(grid, new DataOutputStream(cellData));
+			out.writeInt(cellData.size());
+			cellData.writeTo(out);
+		} catch (IOException e) {
+			myReporter.displayAlert(OUTPUT_FILE);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gives each state found in the grid a code, in the order the states are first found.
+	 * @param grid: grid of the simulation.
+	 * @return map from each state to its code.
+	 */
+	private Map<String, Integer> collectStates(Grid grid) {
+		Map<String, Integer> codes = new LinkedHashMap<String, Integer>();
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				String state = grid.getCell(row, col).getCurState();
+				if (!codes.containsKey(state)) {
+					codes.put(state, codes.size());
+				}
+			}
+		}
+		return codes;
+	}
+
+	/**
+	 * Writes everything needed to set up the simulation besides the states of the Cells.
+	 */
+	private void writeHeader(DataOutput out, String rulesName, Rules rules, String gridType, Grid grid, int stepCount,
+			Map<String, Integer> codes) throws IOException {
+		List<String> parameters = rules.getParameters();
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		writeString(out, rulesName);
+		out.writeShort(parameters.size());
+		for (String parameter : parameters) {
+			writeString(out, parameter);
+		}
+		writeString(out, gridType);
+		out.writeInt(grid.getNumRows());
+		out.writeInt(grid.getNumCols());
+		out.writeLong(rules.getRandomService().getSeed());
+		out.writeInt(stepCount);
+		out.writeShort(codes.size());
+		for (String state : codes.keySet()) {
+			writeString(out, state);
+		}
+	}
+
+	/**
+	 * Writes the state of every Cell in row-major order as runs of equal states.
+	 */
+	private void writeStates(DataOutput out, Grid grid, Map<String, Integer> codes) throws IOException {
+		int runCode = -1;
+		int runLength = 0;
+		for (int row = 0; row < grid.getNumRows(); row++) {
+			for (int col = 0; col < grid.getNumCols(); col++) {
+				int code = codes.get(grid.getCell(row, col).getCurState());
+				if (code != runCode && runLength > 0) {
+					writeRun(out, runCode, runLength);
+					runLength = 0;
+				}
+				runCode = code;
+				runLength++;
+			}
+		}
+		if (runLength > 0) {
+			writeRun(out, runCode, runLength);
+		}
+	}
+
+	/**
+	 * Writes one run of equal states.
+	 * @param code: code of the state.
+	 * @param length: number of Cells in the run.
+	 */
+	private void writeRun(DataOutput out, int code, int length) throws IOException {
+		out.writeShort(code);
+		while ((length & ~0x7F) != 0) {
+			out.writeByte((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		out.writeByte(length);
+	}
+
+	/**
+	 * Writes a string as its length followed by its UTF-8 bytes.
+	 */
+	private void writeString(DataOutput out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+}
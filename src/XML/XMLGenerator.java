@@ -24,9 +24,7 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import org.w3c.dom.*;
 
-import Controller.Simulation;
 import Model.Cell;
-import javafx.stage.FileChooser;
 
 public class XMLGenerator {
 
@@ -46,7 +44,7 @@ public class XMLGenerator {
 	private Map<String, Double> stateWeights;
 	private boolean weighted;
 	private Stack<String> myStack;
-	private Simulation mySimulation;
+	private ErrorReporter myReporter;
 	private ResourceBundle XMLResources;
 
 	public XMLGenerator() {
@@ -68,9 +66,9 @@ public class XMLGenerator {
 		weighted = true;
 	}
 
-	public XMLGenerator(Map<String, Double> myWeights, Simulation simulation) {
+	public XMLGenerator(Map<String, Double> myWeights, ErrorReporter reporter) {
 		this(myWeights);
-		mySimulation = simulation;
+		myReporter = reporter;
 	}
 
 	/**
@@ -148,7 +146,7 @@ public class XMLGenerator {
 				myElement.appendChild(newElement);
 			}
 		} catch (Exception e) {
-			mySimulation.displayAlert(OUT_OF_BOUNDS);
+			myReporter.displayAlert(OUT_OF_BOUNDS);
 		}
 		return myElement;
 	}
@@ -349,8 +347,9 @@ public class XMLGenerator {
 	 *            An ArrayList of the current simulation parameters
 	 * @param myFile
 	 *            The file to be saved to
+	 * @return true if the file was written; false otherwise
 	 */
-	public void save(String rulesType, int rows, int cols, Cell[][] gameGrid, List<String> params, File myFile,
+	public boolean save(String rulesType, int rows, int cols, Cell[][] gameGrid, List<String> params, File myFile,
 			String gridType) {
 		myDocument = myBuilder.newDocument();
 		Element saveConfig = getConfig(rows, cols, gridType);
@@ -367,7 +366,7 @@ public class XMLGenerator {
 		myRoot.appendChild(saveConfig);
 		myRoot.appendChild(saveRules);
 		myRoot.appendChild(saveCells);
-		createFile(myFile);
+		return createFile(myFile);
 	}
 
 	/**
@@ -376,8 +375,9 @@ public class XMLGenerator {
 	 * 
 	 * @param myFile
 	 *            The file to be written to
+	 * @return true if the file was written; false otherwise
 	 */
-	public void createFile(File myFile) {
+	public boolean createFile(File myFile) {
 		TransformerFactory myTransformerFactory = TransformerFactory.newInstance();
 		Transformer myTransformer;
 		try {
@@ -390,7 +390,9 @@ public class XMLGenerator {
 			myTransformer.transform(mySource, myResult);
 		} catch (Exception e) {
 			e.printStackTrace();
+			return false;
 		}
+		return true;
 	}
 
 	/**
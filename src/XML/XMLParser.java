@@ -1,14 +1,13 @@
 /**
  * @author Blake Kaplan
- * Parses simulation XML files that define the initial simulation setup
+ * Parses simulation XML files that define the initial simulation setup. The
+ * file is streamed in a single pass rather than read into a DOM, so each cell
+ * costs only the slot it fills in the state grid.
  */
 
 package XML;
 
-import org.w3c.dom.*;
-import org.xml.sax.SAXException;
-
-import Controller.Simulation;
+import Model.Grid;
 import Rules.FireRules;
 import Rules.ForagingAntsRules;
 import Rules.GameOfLifeRules;
@@ -17,13 +16,19 @@ import Rules.Rules;
 import Rules.SegregationRules;
 import Rules.SugarScapeMigrationPreset;
 import Rules.SugarScapeReproductionPreset;
-import javax.xml.parsers.*;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class XMLParser {
+public class XMLParser implements SimulationSource {
 
 	private static final String NONE = "NONE";
 	private static final String PARAMETERS = "Parameters";
@@ -35,20 +40,30 @@ public class XMLParser {
 	private static final String INVALID_GRID_TYPE = "InvalidGridType";
 	private static final String FILE_TYPE = "FileType";
 	private static final String OUT_OF_BOUNDS = "OutOfBounds";
+	private static final String ENGINE = "Engine";
+	private static final String ENGINES = "Engines";
+	private static final String STEP_EXPONENT = "StepExponent";
+	private static final String INVALID_ENGINE = "InvalidEngine";
+	private static final String SEED = "Seed";
+	private static final String INVALID_SEED = "InvalidSeed";
 	private static final String RULES_PROPERTIES = "Rules/Rules";
-	private DocumentBuilderFactory myFactory;
-	private DocumentBuilder myBuilder;
+	private static final int CELL_ENTRIES = 3;
+	private static final Map<String, Map<String, String>> ourCategories = new ConcurrentHashMap<String, Map<String, String>>();
+	private XMLInputFactory myFactory;
 	private String[][] cellGrid;
 	private int rows;
 	private int cols;
 	private String gridType;
+	private Long mySeed;
 	private Rules myRule;
 	private ResourceBundle myRules;
-	private Simulation mySimulation;
+	private ErrorReporter myReporter;
 
-	public XMLParser(Simulation sim) {
-		mySimulation = sim;
+	public XMLParser(ErrorReporter reporter) {
+		myReporter = reporter;
 		myRules = ResourceBundle.getBundle(RULES_PROPERTIES);
+		myFactory = XMLInputFactory.newInstance();
+		myFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
 	}
 
 	/**
@@ -57,36 +72,36 @@ public class XMLParser {
 	 * @param myFile
 	 *            A provided XML file containing the simulation data
 	 */
+	@Override
 	public boolean parse(File myFile) {
-		try {
-			myFactory = DocumentBuilderFactory.newInstance();
-			myBuilder = myFactory.newDocumentBuilder();
-			Document myDocument = myBuilder.parse(myFile);
-			myDocument.getDocumentElement().normalize();
-			NodeList categories = myDocument.getDocumentElement().getChildNodes();
-			for (int i = 0; i < categories.getLength(); i++) {
-				Node entry = categories.item(i);
-				if (entry instanceof Element) {
-					Element entryElement = (Element) entry;
-					switch (entryElement.getNodeName()) {
+		try (InputStream input = new BufferedInputStream(new FileInputStream(myFile))) {
+			XMLStreamReader reader = myFactory.createXMLStreamReader(input);
+			try {
+				reader.nextTag();
+				while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+					switch (reader.getLocalName()) {
 					case "Config":
-						if (!parseConfig(entryElement))
+						if (!parseConfig(extract(reader)))
 							return false;
 						break;
 					case "Cells":
-						if (!extractCells(entryElement))
+						if (!extractCells(reader))
 							return false;
 						break;
 					case "Game":
-						List<String> data = extract(entryElement);
+						List<String> data = extract(reader);
 						if (!initializeGame(data))
 							return false;
 						break;
+					default:
+						skipElement(reader);
 					}
 				}
+			} finally {
+				reader.close();
 			}
-		} catch (IOException | ParserConfigurationException | SAXException e) {
-			mySimulation.displayAlert(FILE_TYPE);
+		} catch (IOException | XMLStreamException e) {
+			myReporter.displayAlert(FILE_TYPE);
 			return false;
 		}
 		return true;
@@ -95,18 +110,23 @@ public class XMLParser {
 	/**
 	 * A boolean function that parses the information related to the simulation configuration
 	 * 
-	 * @param entryElement
-	 * An element from the XML file that contains information about the simulation's configuration
+	 * @param myConfig
+	 * The entries of the XML file's Config section
 	 * @return
 	 * A boolean that says whether or not the parsing was successful
 	 */
-	public boolean parseConfig(Element entryElement) {
-		List<String> myConfig = extract(entryElement);
+	public boolean parseConfig(List<String> myConfig) {
+		String seed = extractOptionalEntry(myConfig, SEED);
+		if (seed != null && !seed.matches("-?\\d{1,18}")) {
+			myReporter.displayAlert(INVALID_SEED);
+			return false;
+		}
+		mySeed = (seed == null) ? null : Long.parseLong(seed);
 		rows = Integer.parseInt(splitEntry(myConfig.get(0))[1]);
 		cols = Integer.parseInt(splitEntry(myConfig.get(1))[1]);
 		gridType = splitEntry(myConfig.get(2))[1];
 		if (!exists(gridType, GRID_TYPES)) {
-			mySimulation.displayAlert(INVALID_GRID_TYPE);
+			myReporter.displayAlert(INVALID_GRID_TYPE);
 			return false;
 		}
 		cellGrid = new String[rows][cols];
@@ -125,42 +145,67 @@ public class XMLParser {
 	 * @return A boolean indicating if the category contains the items
 	 */
 	private boolean exists(String item, String category) {
-		ArrayList<String> types = new ArrayList<String>();
-		String[] items = myRules.getString(category.replaceAll(" ", "")).split(",");
-		for (String myItem : items) {
-			types.add(myItem);
+		return getCategory(category).containsKey(item);
+	}
+
+	/**
+	 * Provides the items of a category in the Rules resource file, reading the
+	 * resource file only the first time the category is asked for
+	 * 
+	 * @param category
+	 *            The Rules resource file keyword to be referenced
+	 * @return A map from each item of the category to itself
+	 */
+	private Map<String, String> getCategory(String category) {
+		String key = category.replaceAll(" ", "");
+		Map<String, String> items = ourCategories.get(key);
+		if (items == null) {
+			items = new HashMap<String, String>();
+			for (String myItem : myRules.getString(key).split(",")) {
+				items.put(myItem, myItem);
+			}
+			ourCategories.put(key, items);
 		}
-		if (types.contains(item))
-			return true;
-		return false;
+		return items;
 	}
 
 	/**
-	 * Extract data related to the game details
+	 * Extract data related to the game details. Reads from the start of a
+	 * section up to and including its end.
 	 * 
 	 * @param data
-	 *            A Java element containing game data
+	 *            A reader positioned at the start of a section
 	 */
-	public List<String> extract(Element data) {
+	public List<String> extract(XMLStreamReader data) throws XMLStreamException {
 		ArrayList<String> myGame = new ArrayList<String>();
-		NodeList dataList = data.getChildNodes();
-		for (int i = 0; i < dataList.getLength(); i++) {
-			Node dataNode = dataList.item(i);
-			if (dataNode instanceof Element) {
-				Element dataElement = (Element) dataNode;
-				if (dataElement.getNodeName() == PARAMETERS) {
-					List<String> extractedData = extract(dataElement);
-					for (String entry : extractedData) {
-						myGame.add(entry);
-					}
-				} else {
-					myGame.add(dataElement.getNodeName() + ":" + dataElement.getTextContent());
-				}
+		while (data.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			if (data.getLocalName().equals(PARAMETERS)) {
+				myGame.addAll(extract(data));
+			} else {
+				myGame.add(data.getLocalName() + ":" + data.getElementText());
 			}
 		}
 		return myGame;
 	}
 
+	/**
+	 * Skips a section of the XML file that is not used
+	 * 
+	 * @param data
+	 *            A reader positioned at the start of the section
+	 */
+	private void skipElement(XMLStreamReader data) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = data.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
 	/**
 	 * Creates a Rules object specific to the game type with the proper
 	 * parameters
@@ -171,11 +216,21 @@ public class XMLParser {
 	public boolean initializeGame(List<String> data) {
 		String game = splitEntry(data.get(0))[1];
 		if (!exists(game, RULE_TYPES)) {
-			mySimulation.displayAlert("RuleType");
+			myReporter.displayAlert("RuleType");
+			return false;
+		}
+		String engine = extractOptionalEntry(data, ENGINE);
+		if (engine != null && !(myRules.containsKey(game + ENGINES) && exists(engine, game + ENGINES))) {
+			myReporter.displayAlert(INVALID_ENGINE);
+			return false;
+		}
+		String stepExponent = extractOptionalEntry(data, STEP_EXPONENT);
+		if (stepExponent != null && !stepExponent.matches("\\d+")) {
+			myReporter.displayAlert(INVALID_PARAMETERS);
 			return false;
 		}
 		if (!checkNumParams(data, game)) {
-			mySimulation.displayAlert(INVALID_PARAMETERS);
+			myReporter.displayAlert(INVALID_PARAMETERS);
 			return false;
 		}
 		ArrayList<Number> myData = (ArrayList<Number>) getData(data, game);
@@ -185,10 +240,20 @@ public class XMLParser {
 			myRule = new SegregationRules((double) myData.get(0));
 			break;
 		case "PredatorPrey":
-			myRule = new PredatorPreyRules((int) myData.get(0), (int) myData.get(1), (int) myData.get(2));
+			if (engine == null) {
+				myRule = new PredatorPreyRules((int) myData.get(0), (int) myData.get(1), (int) myData.get(2));
+			} else {
+				myRule = new PredatorPreyRules((int) myData.get(0), (int) myData.get(1), (int) myData.get(2), engine);
+			}
 			break;
 		case "GameOfLife":
-			myRule = new GameOfLifeRules();
+			if (engine == null) {
+				myRule = new GameOfLifeRules();
+			} else if (stepExponent == null) {
+				myRule = new GameOfLifeRules(engine);
+			} else {
+				myRule = new GameOfLifeRules(engine, Integer.parseInt(stepExponent));
+			}
 			break;
 		case "Fire":
 			myRule = new FireRules((double) myData.get(0));
@@ -210,6 +275,26 @@ public class XMLParser {
 		return true;
 	}
 
+	/**
+	 * Removes an optional entry (such as the engine) from the game data so that only the rule parameters remain
+	 * 
+	 * @param data
+	 *            A string arraylist containing the game data
+	 * @param name
+	 *            The name of the entry
+	 * @return The value of the entry, or null if none was provided
+	 */
+	private String extractOptionalEntry(List<String> data, String name) {
+		for (int i = 1; i < data.size(); i++) {
+			String[] entry = splitEntry(data.get(i));
+			if (entry[0].equals(name)) {
+				data.remove(i);
+				return entry.length > 1 ? entry[1].trim() : "";
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Formats information contained in a list of strings to become a list of
 	 * integers
@@ -256,35 +341,43 @@ public class XMLParser {
 
 	/**
 	 * Extracts the information about the cells from the XML file and configures
-	 * the cell grid accordingly
+	 * the cell grid accordingly. Each cell's state is checked against the
+	 * states of the rules and stored as the shared instance of that state.
 	 * 
 	 * @param data
-	 *            A Java element containing the data about the cells from the
-	 *            XML
+	 *            A reader positioned at the start of the XML file's Cells
+	 *            section
 	 */
-	public boolean extractCells(Element data) {
-		NodeList dataList = data.getChildNodes();
-		try {
-			for (int i = 0; i < dataList.getLength(); i++) {
-				Node dataNode = dataList.item(i);
-				if (dataNode instanceof Element) {
-					Element dataElement = (Element) dataNode;
-					List<String> extractedData = extract(dataElement);
-					int x = Integer.parseInt(splitEntry(extractedData.get(0))[1]);
-					int y = Integer.parseInt(splitEntry(extractedData.get(1))[1]);
-					String state = splitEntry(extractedData.get(2))[1];
-					if (!exists(state, myRule.toString() + STATES)) {
-						mySimulation.displayAlert(STATE_TYPE);
-						return false;
-					}
-					cellGrid[x][y] = state;
+	public boolean extractCells(XMLStreamReader data) throws XMLStreamException {
+		Map<String, String> states = (myRule == null) ? null : getCategory(myRule.toString() + STATES);
+		String[] entries = new String[CELL_ENTRIES];
+		while (data.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			int numEntries = 0;
+			while (data.nextTag() == XMLStreamConstants.START_ELEMENT) {
+				String text = data.getElementText();
+				if (numEntries < CELL_ENTRIES) {
+					entries[numEntries] = text;
 				}
+				numEntries++;
+			}
+			try {
+				if (numEntries < CELL_ENTRIES) {
+					throw new IndexOutOfBoundsException();
+				}
+				int x = Integer.parseInt(entries[0]);
+				int y = Integer.parseInt(entries[1]);
+				String state = states.get(entries[2]);
+				if (state == null) {
+					myReporter.displayAlert(STATE_TYPE);
+					return false;
+				}
+				cellGrid[x][y] = state;
 			}
-		}
 
-		catch (Exception e) {
-			mySimulation.displayAlert(OUT_OF_BOUNDS);
-			return false;
+			catch (RuntimeException e) {
+				myReporter.displayAlert(OUT_OF_BOUNDS);
+				return false;
+			}
 		}
 		return true;
 	}
@@ -341,4 +434,37 @@ public class XMLParser {
 	public String getGridType() {
 		return gridType;
 	}
+
+	/**
+	 * Provides the seed for the simulation's random numbers specified in the
+	 * XML
+	 * 
+	 * @return The seed, or null if none was provided
+	 */
+	public Long getSeed() {
+		return mySeed;
+	}
+
+	/**
+	 * An XML file always describes a simulation that has not started
+	 * 
+	 * @return 0
+	 */
+	@Override
+	public int getStepCount() {
+		return 0;
+	}
+
+	/**
+	 * An XML file holds nothing for a cell besides its state
+	 * 
+	 * @param grid
+	 *            The grid initialized from this file
+	 * @return Always true
+	 */
+	@Override
+	public boolean restoreCellData(Grid grid) {
+		// Nothing besides the states.
+		return true;
+	}
 }